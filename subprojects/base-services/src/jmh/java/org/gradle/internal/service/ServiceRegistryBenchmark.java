@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the creation of a registry shaped like the project scope registry, with a parent registry and factory methods that depend on parent services,
+ * and the lookup of services that have already been created.
+ */
+@State(Scope.Benchmark)
+public class ServiceRegistryBenchmark {
+
+    private DefaultServiceRegistry buildScope;
+    private ProjectScopeRegistry projectScope;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        buildScope = new DefaultServiceRegistry("build services");
+        buildScope.addProvider(new BuildScopeProvider());
+        projectScope = new ProjectScopeRegistry(buildScope);
+        projectScope.get(ProjectService4.class);
+    }
+
+    @Benchmark
+    public void createProjectScopeRegistry(Blackhole blackhole) {
+        ProjectScopeRegistry registry = new ProjectScopeRegistry(buildScope);
+        blackhole.consume(registry.get(ProjectService1.class));
+        blackhole.consume(registry.get(ProjectService2.class));
+        blackhole.consume(registry.get(ProjectService3.class));
+        blackhole.consume(registry.get(ProjectService4.class));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void locateCreatedService(Blackhole blackhole) {
+        blackhole.consume(projectScope.get(ProjectService4.class));
+        blackhole.consume(projectScope.get(BuildService1.class));
+    }
+
+    public static class BuildService1 {
+    }
+
+    public static class BuildService2 {
+    }
+
+    public static class BuildService3 {
+    }
+
+    public static class ProjectService1 {
+    }
+
+    public static class ProjectService2 {
+    }
+
+    public static class ProjectService3 {
+    }
+
+    public static class ProjectService4 {
+    }
+
+    private static class BuildScopeProvider {
+        BuildService1 createBuildService1() {
+            return new BuildService1();
+        }
+
+        BuildService2 createBuildService2(BuildService1 service1) {
+            return new BuildService2();
+        }
+
+        BuildService3 createBuildService3(BuildService1 service1, BuildService2 service2) {
+            return new BuildService3();
+        }
+
+        List<String> createList() {
+            return new ArrayList<String>();
+        }
+    }
+
+    private static class ProjectScopeRegistry extends DefaultServiceRegistry {
+        ProjectScopeRegistry(ServiceRegistry parent) {
+            super(parent);
+        }
+
+        protected ProjectService1 createProjectService1(BuildService1 service1) {
+            return new ProjectService1();
+        }
+
+        protected ProjectService2 createProjectService2(ProjectService1 service1, BuildService2 service2) {
+            return new ProjectService2();
+        }
+
+        protected ProjectService3 createProjectService3(ProjectService2 service2, BuildService3 service3, List<String> list) {
+            return new ProjectService3();
+        }
+
+        protected ProjectService4 createProjectService4(ProjectService1 service1, ProjectService2 service2, ProjectService3 service3) {
+            return new ProjectService4();
+        }
+
+        protected BuildService2 decorateBuildService2(BuildService2 service2) {
+            return service2;
+        }
+    }
+}
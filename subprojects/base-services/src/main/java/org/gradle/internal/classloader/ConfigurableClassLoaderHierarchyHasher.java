@@ -17,21 +17,32 @@
 package org.gradle.internal.classloader;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.MapMaker;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import org.gradle.api.Nullable;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 
+/**
+ * Hashes a classloader hierarchy from the ids of known classloaders and the hashes of the classloaders created by Gradle.
+ *
+ * <p>Hashes are memoized per classloader. As a {@link MultiParentClassLoader} can have parents added after it was hashed, a memoized hash is only reused
+ * while the {@link MultiParentClassLoader}s of the hierarchy have the same number of parents as when the hash was calculated.</p>
+ */
 public class ConfigurableClassLoaderHierarchyHasher implements ClassLoaderHierarchyHasher {
     private final Map<ClassLoader, byte[]> knownClassLoaders;
+    private final Map<ClassLoader, MemoizedHash> hashes = new MapMaker().weakKeys().makeMap();
     private final ClassLoaderHasher classLoaderHasher;
 
     public ConfigurableClassLoaderHierarchyHasher(Map<ClassLoader, String> knownClassLoaders, ClassLoaderHasher classLoaderHasher) {
         this.classLoaderHasher = classLoaderHasher;
-        Map<ClassLoader, byte[]> hashes = new WeakHashMap<ClassLoader, byte[]>();
+        // Hashes are requested concurrently, so use a thread-safe map rather than a WeakHashMap, which modifies itself on reads
+        Map<ClassLoader, byte[]> hashes = new MapMaker().weakKeys().makeMap();
         for (Map.Entry<ClassLoader, String> entry : knownClassLoaders.entrySet()) {
             hashes.put(entry.getKey(), entry.getValue().getBytes(Charsets.UTF_8));
         }
@@ -41,13 +52,23 @@ public class ConfigurableClassLoaderHierarchyHasher implements ClassLoaderHierar
     @Nullable
     @Override
     public HashCode getClassLoaderHash(ClassLoader classLoader) {
+        MemoizedHash memoized = hashes.get(classLoader);
+        if (memoized != null && memoized.isUpToDate()) {
+            return memoized.hash;
+        }
         Visitor visitor = new Visitor();
         visitor.visit(classLoader);
-        return visitor.getHash();
+        HashCode hash = visitor.getHash();
+        if (hash != null) {
+            hashes.put(classLoader, new MemoizedHash(hash, visitor.multiParentClassLoaders, visitor.parentCounts));
+        }
+        return hash;
     }
 
     private class Visitor extends ClassLoaderVisitor {
         private final Hasher hasher = Hashing.md5().newHasher();
+        private final List<MultiParentClassLoader> multiParentClassLoaders = new ArrayList<MultiParentClassLoader>();
+        private final List<Integer> parentCounts = new ArrayList<Integer>();
         private boolean foundUnknown;
 
         @Override
@@ -67,7 +88,13 @@ public class ConfigurableClassLoaderHierarchyHasher implements ClassLoaderHierar
                 hasher.putBytes(knownId);
                 return false;
             }
-            if (cl instanceof CachingClassLoader || cl instanceof MultiParentClassLoader) {
+            if (cl instanceof MultiParentClassLoader) {
+                // Count the parents before visiting them, so that a parent added concurrently invalidates the memoized hash
+                multiParentClassLoaders.add((MultiParentClassLoader) cl);
+                parentCounts.add(((MultiParentClassLoader) cl).getParents().size());
+                return true;
+            }
+            if (cl instanceof CachingClassLoader) {
                 return true;
             }
             HashCode hash = classLoaderHasher.getHash(cl);
@@ -79,4 +106,31 @@ public class ConfigurableClassLoaderHierarchyHasher implements ClassLoaderHierar
             return false;
         }
     }
+
+    private static class MemoizedHash {
+        private final HashCode hash;
+        // Weakly referenced, as the classloader used as key may be one of these
+        private final List<WeakReference<MultiParentClassLoader>> multiParentClassLoaders;
+        private final int[] parentCounts;
+
+        MemoizedHash(HashCode hash, List<MultiParentClassLoader> multiParentClassLoaders, List<Integer> parentCounts) {
+            this.hash = hash;
+            this.multiParentClassLoaders = new ArrayList<WeakReference<MultiParentClassLoader>>(multiParentClassLoaders.size());
+            this.parentCounts = new int[parentCounts.size()];
+            for (int i = 0; i < this.parentCounts.length; i++) {
+                this.multiParentClassLoaders.add(new WeakReference<MultiParentClassLoader>(multiParentClassLoaders.get(i)));
+                this.parentCounts[i] = parentCounts.get(i);
+            }
+        }
+
+        boolean isUpToDate() {
+            for (int i = 0; i < parentCounts.length; i++) {
+                MultiParentClassLoader classLoader = multiParentClassLoaders.get(i).get();
+                if (classLoader == null || classLoader.getParents().size() != parentCounts[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
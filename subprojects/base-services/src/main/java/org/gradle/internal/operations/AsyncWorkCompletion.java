@@ -1,5 +1,5 @@
 /*
- * Copyright 2009 the original author or authors.
+ * Copyright 2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,8 +14,15 @@
  * limitations under the License.
  */
 
-package org.gradle.api.internal.tasks.testing.detection;
 
-public interface JarFilePackageListener {
-    void receivePackage(String packageName);
+package org.gradle.internal.operations;
+
+/**
+ * Asynchronous work that has been started by a build operation.
+ */
+public interface AsyncWorkCompletion {
+    /**
+     * Blocks until the work has completed. Fails when the work failed.
+     */
+    void waitForCompletion();
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.operations;
+
+/**
+ * Tracks the asynchronous work started by build operations, so that the work can be waited for when a build operation completes.
+ */
+public interface AsyncWorkTracker {
+    /**
+     * Registers asynchronous work started on behalf of the given build operation.
+     */
+    void registerWork(BuildOperationWorkerRegistry.Operation operation, AsyncWorkCompletion workCompletion);
+
+    /**
+     * Blocks until all asynchronous work registered on behalf of the build operation associated with the current thread has completed.
+     * Fails with the failure of the work when some of it failed.
+     */
+    void waitForCompletion();
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.operations;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import org.gradle.internal.UncheckedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DefaultAsyncWorkTracker implements AsyncWorkTracker {
+    private final BuildOperationWorkerRegistry buildOperationWorkerRegistry;
+    private final Object lock = new Object();
+    private final ListMultimap<BuildOperationWorkerRegistry.Operation, AsyncWorkCompletion> items = ArrayListMultimap.create();
+
+    public DefaultAsyncWorkTracker(BuildOperationWorkerRegistry buildOperationWorkerRegistry) {
+        this.buildOperationWorkerRegistry = buildOperationWorkerRegistry;
+    }
+
+    @Override
+    public void registerWork(BuildOperationWorkerRegistry.Operation operation, AsyncWorkCompletion workCompletion) {
+        synchronized (lock) {
+            items.put(operation, workCompletion);
+        }
+    }
+
+    @Override
+    public void waitForCompletion() {
+        List<AsyncWorkCompletion> workItems;
+        synchronized (lock) {
+            if (items.isEmpty()) {
+                // No asynchronous work at all, so there is no need for the current thread to be associated with a build operation
+                return;
+            }
+            workItems = items.removeAll(buildOperationWorkerRegistry.getCurrent());
+        }
+
+        List<Throwable> failures = new ArrayList<Throwable>();
+        for (AsyncWorkCompletion workItem : workItems) {
+            try {
+                workItem.waitForCompletion();
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        }
+
+        if (failures.size() == 1) {
+            throw UncheckedException.throwAsUncheckedException(failures.get(0));
+        }
+        if (failures.size() > 1) {
+            throw new MultipleBuildOperationFailures("Multiple failures were encountered while waiting for asynchronous work to complete.", failures, null);
+        }
+    }
+}
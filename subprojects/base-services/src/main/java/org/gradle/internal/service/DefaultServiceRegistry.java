@@ -25,6 +25,7 @@ import org.gradle.api.specs.Spec;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.reflect.JavaMethod;
 import org.gradle.internal.reflect.JavaReflectionUtil;
 import org.gradle.internal.util.BiFunction;
 
@@ -86,13 +87,15 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private static final ConcurrentMap<Class<?>, RelevantMethods> METHODS_CACHE = new ConcurrentHashMap<Class<?>, RelevantMethods>();
     private static final ConcurrentMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>> SERVICE_TYPE_PROVIDER_CACHE = new ConcurrentHashMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>>();
     private final Map<Type, ServiceProvider> providerCache = new HashMap<Type, ServiceProvider>();
+    // Services that have already been located, which can be returned without acquiring the lock
+    private final ConcurrentMap<Type, Object> locatedServices = new ConcurrentHashMap<Type, Object>();
 
     private final Object lock = new Object();
     private final OwnServices ownServices;
     private final Provider allServices;
     private final Provider parentServices;
     private final String displayName;
-    private boolean closed;
+    private volatile boolean closed;
     private boolean mutable = true; // access under lock
 
     public DefaultServiceRegistry() {
@@ -156,18 +159,42 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         return getDisplayName();
     }
 
+    /**
+     * The decorator, factory and configure methods of a provider type. Calculated once per type, so that creating a registry does not need to inspect the type again.
+     */
     static class RelevantMethods {
-        final List<Method> decorators;
-        final List<Method> factories;
-        final List<Method> configurers;
+        final List<ServiceMethod> decorators;
+        final List<ServiceMethod> factories;
+        final List<ServiceMethod> configurers;
 
-        public RelevantMethods(List<Method> decorators, List<Method> factories, List<Method> configurers) {
+        public RelevantMethods(List<ServiceMethod> decorators, List<ServiceMethod> factories, List<ServiceMethod> configurers) {
             this.decorators = decorators;
             this.factories = factories;
             this.configurers = configurers;
         }
     }
 
+    /**
+     * A method of a provider type, with the generic types of the method resolved and the method made accessible up front.
+     */
+    static class ServiceMethod {
+        final Method method;
+        final Type serviceType;
+        final Type[] parameterTypes;
+        private final JavaMethod<Object, Object> javaMethod;
+
+        ServiceMethod(Method method) {
+            this.method = method;
+            this.serviceType = method.getGenericReturnType();
+            this.parameterTypes = method.getGenericParameterTypes();
+            this.javaMethod = JavaReflectionUtil.method(Object.class, method);
+        }
+
+        Object invoke(Object target, Object... args) {
+            return javaMethod.invoke(target, args);
+        }
+    }
+
     static class RelevantMethodsBuilder {
         final List<Method> remainingMethods;
         final Class<?> type;
@@ -193,7 +220,15 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         }
 
         RelevantMethods build() {
-            return new RelevantMethods(decorators, factories, configurers);
+            return new RelevantMethods(toServiceMethods(decorators), toServiceMethods(factories), toServiceMethods(configurers));
+        }
+
+        private static List<ServiceMethod> toServiceMethods(List<Method> methods) {
+            List<ServiceMethod> serviceMethods = new ArrayList<ServiceMethod>(methods.size());
+            for (Method method : methods) {
+                serviceMethods.add(new ServiceMethod(method));
+            }
+            return serviceMethods;
         }
     }
 
@@ -201,16 +236,16 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private void findProviderMethods(Object target) {
         Class<?> type = target.getClass();
         RelevantMethods methods = getMethods(type);
-        for (Method method : methods.decorators) {
+        for (ServiceMethod method : methods.decorators) {
             if (parentServices == null) {
-                throw new ServiceLookupException(String.format("Cannot use decorator method %s.%s() when no parent registry is provided.", type.getSimpleName(), method.getName()));
+                throw new ServiceLookupException(String.format("Cannot use decorator method %s.%s() when no parent registry is provided.", type.getSimpleName(), method.method.getName()));
             }
             ownServices.add(new DecoratorMethodService(target, method));
         }
-        for (Method method : methods.factories) {
+        for (ServiceMethod method : methods.factories) {
             ownServices.add(new FactoryMethodService(target, method));
         }
-        for (Method method : methods.configurers) {
+        for (ServiceMethod method : methods.configurers) {
             applyConfigureMethod(method, target);
         }
     }
@@ -235,11 +270,12 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         return relevantMethods;
     }
 
-    private void applyConfigureMethod(Method method, Object target) {
-        Object[] params = new Object[method.getGenericParameterTypes().length];
+    private void applyConfigureMethod(ServiceMethod serviceMethod, Object target) {
+        Method method = serviceMethod.method;
+        Object[] params = new Object[serviceMethod.parameterTypes.length];
         DefaultLookupContext context = new DefaultLookupContext();
-        for (int i = 0; i < method.getGenericParameterTypes().length; i++) {
-            Type paramType = method.getGenericParameterTypes()[i];
+        for (int i = 0; i < serviceMethod.parameterTypes.length; i++) {
+            Type paramType = serviceMethod.parameterTypes[i];
             if (paramType.equals(ServiceRegistration.class)) {
                 params[i] = newRegistration();
             } else {
@@ -254,7 +290,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             }
         }
         try {
-            invoke(method, target, params);
+            serviceMethod.invoke(target, params);
         } catch (Exception e) {
             throw new ServiceLookupException(String.format("Could not configure services using %s.%s().",
                 method.getDeclaringClass().getSimpleName(),
@@ -362,6 +398,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 CompositeStoppable.stoppable(allServices).stop();
             } finally {
                 closed = true;
+                locatedServices.clear();
             }
         }
     }
@@ -416,6 +453,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
 
     private Object doGet(Type serviceType) throws IllegalArgumentException {
+        Object service = locatedServices.get(serviceType);
+        if (service != null && !closed) {
+            return service;
+        }
         synchronized (lock) {
             mutable = false;
             if (closed) {
@@ -426,7 +467,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 provider = getServiceProvider(serviceType);
                 providerCache.put(serviceType, provider);
             }
-            return provider.get();
+            // A provider always returns the same instance until this registry is closed
+            service = provider.get();
+            locatedServices.put(serviceType, service);
+            return service;
         }
     }
 
@@ -458,10 +502,6 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         return getFactory(type).create();
     }
 
-    private static Object invoke(Method method, Object target, Object... args) {
-        return JavaReflectionUtil.method(Object.class, method).invoke(target, args);
-    }
-
     interface ServiceProvider {
         String getDisplayName();
 
@@ -768,21 +808,23 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private class FactoryMethodService extends FactoryService {
+        private final ServiceMethod serviceMethod;
         private final Method method;
         private Object target;
 
-        public FactoryMethodService(Object target, Method method) {
-            super(method.getGenericReturnType());
+        public FactoryMethodService(Object target, ServiceMethod serviceMethod) {
+            super(serviceMethod.serviceType);
             this.target = target;
-            this.method = method;
+            this.serviceMethod = serviceMethod;
+            this.method = serviceMethod.method;
         }
 
         public String getDisplayName() {
-            return "Service " + format(method.getGenericReturnType()) + " at " + method.getDeclaringClass().getSimpleName() + "." +  method.getName() + "()";
+            return "Service " + format(serviceType) + " at " + method.getDeclaringClass().getSimpleName() + "." +  method.getName() + "()";
         }
 
         protected Type[] getParameterTypes() {
-            return method.getGenericParameterTypes();
+            return serviceMethod.parameterTypes;
         }
 
         @Override
@@ -793,7 +835,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         protected Object invokeMethod(Object[] params) {
             Object result;
             try {
-                result = invoke(method, target, params);
+                result = serviceMethod.invoke(target, params);
             } catch (Exception e) {
                 throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s().",
                     format(serviceType),
@@ -886,28 +928,30 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private class DecoratorMethodService extends SingletonService {
+        private final ServiceMethod serviceMethod;
         private final Method method;
         private Object target;
         private ServiceProvider paramProvider;
 
-        public DecoratorMethodService(Object target, Method method) {
-            super(method.getGenericReturnType());
+        public DecoratorMethodService(Object target, ServiceMethod serviceMethod) {
+            super(serviceMethod.serviceType);
             this.target = target;
-            this.method = method;
+            this.serviceMethod = serviceMethod;
+            this.method = serviceMethod.method;
         }
 
         public String getDisplayName() {
-            return "Service " + format(method.getGenericReturnType()) + " at " + method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()";
+            return "Service " + format(serviceType) + " at " + method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()";
         }
 
         @Override
         protected void bind(LookupContext context) {
-            Type paramType = method.getGenericParameterTypes()[0];
+            Type paramType = serviceMethod.parameterTypes[0];
             DefaultLookupContext parentLookupContext = new DefaultLookupContext();
             paramProvider = parentLookupContext.find(paramType, parentServices);
             if (paramProvider == null) {
                 throw new ServiceCreationException(String.format("Cannot create service of type %s using %s.%s() as required service of type %s is not available in parent registries.",
-                    format(method.getGenericReturnType()),
+                    format(serviceType),
                     method.getDeclaringClass().getSimpleName(),
                     method.getName(),
                     format(paramType)));
@@ -919,10 +963,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             Object param = paramProvider.get();
             Object result;
             try {
-                result = invoke(method, target, param);
+                result = serviceMethod.invoke(target, param);
             } catch (Exception e) {
                 throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s().",
-                    format(method.getGenericReturnType()),
+                    format(serviceType),
                     method.getDeclaringClass().getSimpleName(),
                     method.getName()),
                     e);
@@ -930,7 +974,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             try {
                 if (result == null) {
                     throw new ServiceCreationException(String.format("Could not create service of type %s using %s.%s() as this method returned null.",
-                        format(method.getGenericReturnType()),
+                        format(serviceType),
                         method.getDeclaringClass().getSimpleName(),
                         method.getName()));
                 }
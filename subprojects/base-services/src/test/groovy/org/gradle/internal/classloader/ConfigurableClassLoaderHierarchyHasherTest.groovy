@@ -64,6 +64,51 @@ class ConfigurableClassLoaderHierarchyHasherTest extends Specification {
         hasher.getClassLoaderHash(classLoader) == null
     }
 
+    def "memoizes hash of classloader"() {
+        def hashedLoader = new DelegatingLoader(runtimeLoader)
+        def hashedLoaderHash = HashCode.fromLong(123456)
+
+        when:
+        def first = hasher.getClassLoaderHash(hashedLoader)
+        def second = hasher.getClassLoaderHash(hashedLoader)
+
+        then:
+        1 * classLoaderHasher.getHash(hashedLoader) >> hashedLoaderHash
+        first == hashFor(hashedLoaderHash, "system")
+        second == first
+    }
+
+    def "does not memoize hash of unknown classloader"() {
+        def unknownLoader = new DelegatingLoader(runtimeLoader)
+
+        when:
+        def first = hasher.getClassLoaderHash(unknownLoader)
+        def second = hasher.getClassLoaderHash(unknownLoader)
+
+        then:
+        2 * classLoaderHasher.getHash(unknownLoader) >> null
+        first == null
+        second == null
+    }
+
+    def "recalculates hash when parent is added to multi-parent classloader"() {
+        def multiParentLoader = new MultiParentClassLoader(runtimeLoader)
+        def classLoader = new CachingClassLoader(multiParentLoader)
+        def hasher = hasher([
+            (runtimeLoader): "system",
+            (ClassLoader.systemClassLoader.parent): "ext"
+        ])
+
+        expect:
+        hasher.getClassLoaderHash(classLoader) == hashFor("system")
+
+        when:
+        multiParentLoader.addParent(ClassLoader.systemClassLoader.parent)
+
+        then:
+        hasher.getClassLoaderHash(classLoader) == hashFor("system", "ext")
+    }
+
     private ConfigurableClassLoaderHierarchyHasher hasher(Map<ClassLoader, String> classLoaders) {
         classLoaders = new HashMap<>(classLoaders)
         classLoaders.put(ClassLoader.getSystemClassLoader(), "system")
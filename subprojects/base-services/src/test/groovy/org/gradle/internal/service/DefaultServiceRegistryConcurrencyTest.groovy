@@ -107,6 +107,38 @@ class DefaultServiceRegistryConcurrencyTest extends ConcurrentSpec {
         }
     }
 
+    def "threads can locate services that have been created while another thread is creating a service"() {
+        def registry = new DefaultServiceRegistry()
+        registry.addProvider(new Object() {
+            Integer createInteger() {
+                return 12
+            }
+
+            String createString() {
+                DefaultServiceRegistryConcurrencyTest.this.instant.constructing
+                DefaultServiceRegistryConcurrencyTest.this.thread.blockUntil.located
+                "hi"
+            }
+        })
+        registry.get(Integer)
+
+        when:
+        async {
+            start {
+                assert registry.get(String) == "hi"
+                instant.constructed
+            }
+            start {
+                thread.blockUntil.constructing
+                assert registry.get(Integer) == 12
+                instant.located
+            }
+        }
+
+        then:
+        instant.located < instant.constructed
+    }
+
     def "close blocks while other threads are locating services"() {
         def registry = new DefaultServiceRegistry()
         registry.addProvider(new Object() {
@@ -16,6 +16,7 @@
 
 package org.gradle.api.tasks.bundling
 
+import org.gradle.api.internal.file.archive.ZipCopyAction
 import org.gradle.integtests.fixtures.AbstractIntegrationSpec
 import org.gradle.test.fixtures.archive.ZipTestFixture
 import spock.lang.Issue
@@ -234,6 +235,33 @@ class ZipIntegrationTest extends AbstractIntegrationSpec {
         output.contains "Value of input property 'rootSpec\$1\$1\$1.destPath' has changed for task ':zip'"
     }
 
+    def "incremental archive is identical to a rebuilt archive when compression is not parallel"() {
+        given:
+        createTestFiles()
+        buildFile << '''
+            task zip(type: Zip) {
+                from 'dir1'
+                from 'dir2'
+                destinationDir = buildDir
+                archiveName = 'test.zip'
+            }
+            '''
+        def incremental = "-D${ZipCopyAction.INCREMENTAL_ARCHIVING_TOGGLE}=true"
+        run 'zip', incremental
+
+        when:
+        file('dir2/file2.txt').text = "changed"
+        run 'zip', incremental
+        def incrementalBytes = file('build/test.zip').bytes
+
+        and:
+        file('build/test.zip').delete()
+        run 'zip', incremental
+
+        then:
+        file('build/test.zip').bytes == incrementalBytes
+    }
+
     private def createTestFiles() {
         createDir('dir1', {
             file('file1.txt').text = "dir1/file1.txt"
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+import static org.gradle.configuration.BuildScriptPrecompilingProjectConfigurer.PRECOMPILE_BUILD_SCRIPTS_TOGGLE
+
+class BuildScriptPrecompilationIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        settingsFile << "include 'a', 'b', 'c'"
+        buildFile << """
+            allprojects {
+                task foo
+            }
+        """
+    }
+
+    def "configures projects with precompiled build scripts"() {
+        given:
+        ['a', 'b', 'c'].each {
+            file("$it/build.gradle") << """
+                def greeting() { 'configured ' + path }
+                foo.doLast { println greeting() }
+            """
+        }
+
+        when:
+        args("-D${PRECOMPILE_BUILD_SCRIPTS_TOGGLE}=true")
+        succeeds("foo")
+
+        then:
+        output.contains("configured :a")
+        output.contains("configured :b")
+        output.contains("configured :c")
+    }
+
+    def "uses build script classpath when root project adds to it"() {
+        given:
+        file("lib/greeting.txt") << "hello"
+        buildFile << """
+            buildscript {
+                dependencies { classpath files('lib') }
+            }
+        """
+        file("a/build.gradle") << "foo.doLast { println 'configured ' + path }"
+
+        when:
+        args("-D${PRECOMPILE_BUILD_SCRIPTS_TOGGLE}=true")
+        succeeds("foo")
+
+        then:
+        output.contains("configured :a")
+    }
+
+    def "reports compilation failure of build script when project is configured"() {
+        given:
+        file("a/build.gradle") << "foo.doLast {"
+        file("b/build.gradle") << "foo.doLast { println 'configured ' + path }"
+
+        when:
+        args("-D${PRECOMPILE_BUILD_SCRIPTS_TOGGLE}=true")
+        fails("foo")
+
+        then:
+        failure.assertHasDescription("Could not compile build file '${file("a/build.gradle")}'.")
+    }
+}
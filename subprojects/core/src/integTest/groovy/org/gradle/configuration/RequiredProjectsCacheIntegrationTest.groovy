@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.executer.ProjectLifecycleFixture
+import org.junit.Rule
+
+class RequiredProjectsCacheIntegrationTest extends AbstractIntegrationSpec {
+
+    @Rule ProjectLifecycleFixture fixture = new ProjectLifecycleFixture(executer, temporaryFolder)
+
+    def setup() {
+        settingsFile << "include 'a', 'b', 'c'"
+        buildFile << "allprojects { task foo }"
+        file("a/build.gradle") << "foo.dependsOn ':b:foo'"
+        file("b/build.gradle") << "apply from: 'other.gradle'"
+        file("b/other.gradle") << "foo.doLast { println 'b' }"
+        file("c/build.gradle") << "foo.doLast { println 'c' }"
+    }
+
+    def "configures only the projects used by the task graph when the configuration inputs have not changed"() {
+        when:
+        runWithRequiredProjectsCache(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+
+        when:
+        runWithRequiredProjectsCache(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b")
+        executedAndNotSkipped(":a:foo", ":b:foo")
+    }
+
+    def "configures projects that are the target of a project dependency"() {
+        given:
+        file("a/build.gradle") << """
+            configurations { conf }
+            dependencies { conf project(path: ':c', configuration: 'conf') }
+            println "files: \${configurations.conf.files*.name}"
+        """
+        file("c/build.gradle") << """
+            configurations { conf }
+            dependencies { conf files('c.txt') }
+        """
+
+        when:
+        runWithRequiredProjectsCache(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+
+        when:
+        runWithRequiredProjectsCache(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+        outputContains("files: [c.txt]")
+    }
+
+    def "configures projects that access projects outside of their hierarchy"() {
+        given:
+        file("a/build.gradle") << "\nfoo.dependsOn ':foo'"
+        file("c/build.gradle") << "\nrootProject.foo.doLast { println 'configured by c' }"
+
+        when:
+        runWithRequiredProjectsCache(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+
+        when:
+        runWithRequiredProjectsCache(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+        outputContains("configured by c")
+    }
+
+    def "fails when a project accesses a project that is not configured"() {
+        given:
+        file("a/build.gradle") << "\nif (file('access-c').exists()) { println project(':c').path }"
+        runWithRequiredProjectsCache(":a:foo")
+
+        when:
+        file("a/access-c").createFile()
+        fails("-D${RequiredProjectsCache.TOGGLE}=true", ":a:foo")
+
+        then:
+        failure.assertHasCause("project ':a' accesses project ':c', which is not configured as it was not required by a previous build. Run the build with -D${RequiredProjectsCache.TOGGLE}=false to configure all projects.")
+    }
+
+    def "configures all projects when a build script changes"() {
+        given:
+        runWithRequiredProjectsCache(":a:foo")
+
+        when:
+        file("c/build.gradle") << "\nfoo.doLast { println 'changed' }"
+        runWithRequiredProjectsCache(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+    }
+
+    def "configures all projects when an applied script changes"() {
+        given:
+        runWithRequiredProjectsCache(":a:foo")
+
+        when:
+        file("b/other.gradle") << "\nfoo.doLast { println 'changed' }"
+        runWithRequiredProjectsCache(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+    }
+
+    def "configures all projects when other tasks are requested"() {
+        given:
+        runWithRequiredProjectsCache(":a:foo")
+
+        when:
+        runWithRequiredProjectsCache(":c:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+
+        when:
+        runWithRequiredProjectsCache(":c:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":c")
+    }
+
+    def "configures all projects when the required projects cache is not enabled"() {
+        given:
+        runWithRequiredProjectsCache(":a:foo")
+
+        when:
+        run(":a:foo")
+
+        then:
+        fixture.assertProjectsConfigured(":", ":a", ":b", ":c")
+    }
+
+    private void runWithRequiredProjectsCache(String task) {
+        run("-D${RequiredProjectsCache.TOGGLE}=true", task)
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.execution
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class ParallelProjectConfigurationIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        settingsFile << "include 'a', 'b', 'c', 'a:d'"
+        buildFile << """
+            allprojects {
+                task foo
+            }
+        """
+    }
+
+    def "configures decoupled projects in parallel"() {
+        given:
+        ['a', 'b', 'c', 'a/d'].each {
+            file("$it/build.gradle") << "foo.doLast { println 'configured ' + path }"
+        }
+
+        when:
+        runInParallel("foo")
+
+        then:
+        executedAndNotSkipped(":a:foo", ":b:foo", ":c:foo", ":a:d:foo")
+    }
+
+    def "project can depend on the evaluation of a sibling project"() {
+        given:
+        file("a/build.gradle") << """
+            evaluationDependsOn(':b')
+            assert project(':b').ext.value == 'b'
+        """
+        file("b/build.gradle") << """
+            ext.value = 'b'
+        """
+        file("c/build.gradle") << """
+            evaluationDependsOn(':b')
+            assert project(':b').ext.value == 'b'
+        """
+
+        expect:
+        runInParallel("foo")
+    }
+
+    def "project can configure its subprojects"() {
+        given:
+        file("a/build.gradle") << """
+            subprojects {
+                ext.value = 'from a'
+            }
+        """
+        file("a/d/build.gradle") << """
+            assert value == 'from a'
+        """
+
+        expect:
+        runInParallel("foo")
+    }
+
+    def "reports circular evaluation dependencies between projects"() {
+        given:
+        file("a/build.gradle") << "evaluationDependsOn(':b')"
+        file("b/build.gradle") << "evaluationDependsOn(':a')"
+
+        when:
+        fails("-D${ParallelProjectConfigurer.PARALLEL_CONFIGURATION_TOGGLE}=true", "foo")
+
+        then:
+        failure.assertHasCause("Circular referencing during evaluation for project ':")
+    }
+
+    def "configures projects serially once a build script accesses another project"() {
+        given:
+        file("a/build.gradle") << """
+            rootProject.ext.value = 'from a'
+            def other = project(':b')
+            other.ext.value = 'from a'
+        """
+        file("c/build.gradle") << """
+            assert tasks.getByPath(':b:foo') != null
+            assert parent.path == ':'
+        """
+
+        when:
+        run("-i", "-D${ParallelProjectConfigurer.PARALLEL_CONFIGURATION_TOGGLE}=true", "foo")
+
+        then:
+        output.contains("Configuring project ':a' serially, as it accesses root project '")
+        output.contains("Configuring project ':c' serially, as it accesses project ':b'.")
+    }
+
+    def "fails when a project configures a sibling project with configure"() {
+        given:
+        file("a/build.gradle") << """
+            configure(project(':b')) {
+                ext.value = 'from a'
+            }
+        """
+
+        when:
+        fails("-D${ParallelProjectConfigurer.PARALLEL_CONFIGURATION_TOGGLE}=true", "foo")
+
+        then:
+        failure.assertHasCause("project ':a' cannot configure project ':b' as projects are configured in parallel. Projects configured in parallel can only configure themselves and their subprojects.")
+    }
+
+    def "fails when a project configures a sibling project through code that is not in a build script"() {
+        given:
+        file("buildSrc/src/main/groovy/ConfigureSibling.groovy") << """
+            import org.gradle.api.Project
+
+            class ConfigureSibling {
+                static void configure(Project project, String path) {
+                    project.project(path) {
+                        ext.value = 'from ' + project.path
+                    }
+                }
+            }
+        """
+        file("a/build.gradle") << """
+            ConfigureSibling.configure(project, ':b')
+        """
+
+        when:
+        fails("-D${ParallelProjectConfigurer.PARALLEL_CONFIGURATION_TOGGLE}=true", "foo")
+
+        then:
+        failure.assertHasCause("project ':a' cannot configure project ':b' as projects are configured in parallel. Projects configured in parallel can only configure themselves and their subprojects.")
+    }
+
+    def "project can configure a sibling project when projects are configured serially"() {
+        given:
+        file("a/build.gradle") << """
+            project(':b') {
+                ext.value = 'from a'
+            }
+        """
+
+        expect:
+        succeeds("foo")
+    }
+
+    private void runInParallel(String task) {
+        run("-D${ParallelProjectConfigurer.PARALLEL_CONFIGURATION_TOGGLE}=true", task)
+    }
+}
@@ -16,26 +16,41 @@
 
 package org.gradle.api.internal;
 
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
-import org.apache.commons.collections.map.AbstractReferenceMap;
-import org.apache.commons.collections.map.ReferenceMap;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.NonExtensible;
 import org.gradle.api.Nullable;
 import org.gradle.api.plugins.ExtensionAware;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.*;
+import org.gradle.util.GradleVersion;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Generates a subclass of the target class to mix-in some DSL behaviour.
@@ -50,37 +65,68 @@ import java.util.concurrent.locks.ReentrantLock;
  * </ul>
  */
 public abstract class AbstractClassGenerator implements ClassGenerator {
-    private static final Map<Class<?>, Map<Class<?>, Class<?>>> GENERATED_CLASSES = new HashMap<Class<?>, Map<Class<?>, Class<?>>>();
-    private static final Lock CACHE_LOCK = new ReentrantLock();
+    private static final ConcurrentMap<Class<?>, Cache<Class<?>, Class<?>>> GENERATED_CLASSES = new ConcurrentHashMap<Class<?>, Cache<Class<?>, Class<?>>>();
     private static final Collection<String> SKIP_PROPERTIES = Arrays.asList("class", "metaClass", "conventionMapping", "convention", "asDynamicObject", "extensions");
 
+    private final org.gradle.api.internal.cache.Cache<HashCode, byte[]> bytecodeCache;
+
+    protected AbstractClassGenerator() {
+        this(null);
+    }
+
+    /**
+     * @param bytecodeCache Cache for the bytecode of generated classes, keyed by a hash of the source class and its hierarchy. May be shared with other processes.
+     */
+    protected AbstractClassGenerator(@Nullable org.gradle.api.internal.cache.Cache<HashCode, byte[]> bytecodeCache) {
+        this.bytecodeCache = bytecodeCache;
+    }
+
     public <T> T newInstance(Class<T> type, Object... parameters) {
         return DirectInstantiator.instantiate(generate(type), parameters);
     }
 
-    public <T> Class<? extends T> generate(Class<T> type) {
+    public <T> Class<? extends T> generate(final Class<T> type) {
+        Cache<Class<?>, Class<?>> cache = getGeneratedClasses();
+        Class<?> generatedClass = cache.getIfPresent(type);
+        if (generatedClass != null) {
+            return generatedClass.asSubclass(type);
+        }
+
+        // Generate each type once, without blocking the generation of other types
         try {
-            CACHE_LOCK.lock();
-            return generateUnderLock(type);
-        } finally {
-            CACHE_LOCK.unlock();
+            generatedClass = cache.get(type, new Callable<Class<?>>() {
+                @Override
+                public Class<?> call() {
+                    return generateClass(type);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (ExecutionError e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
+        cache.put(generatedClass, generatedClass);
+        return generatedClass.asSubclass(type);
     }
 
-    private <T> Class<? extends T> generateUnderLock(Class<T> type) {
-        Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
+    private Cache<Class<?>, Class<?>> getGeneratedClasses() {
+        Cache<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
         if (cache == null) {
-            // WeakHashMap won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
+            // A weak keyed map won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
             // However, the generated class has a strong reference to the source class (by extending it), so the keys will always be
             // strongly reachable while this Class is strongly reachable. Use weak references for both key and value of the mapping instead.
-            cache = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.WEAK);
-            GENERATED_CLASSES.put(getClass(), cache);
-        }
-        Class<?> generatedClass = cache.get(type);
-        if (generatedClass != null) {
-            return generatedClass.asSubclass(type);
+            Cache<Class<?>, Class<?>> newCache = CacheBuilder.newBuilder().weakKeys().weakValues().build();
+            cache = GENERATED_CLASSES.putIfAbsent(getClass(), newCache);
+            if (cache == null) {
+                cache = newCache;
+            }
         }
+        return cache;
+    }
 
+    private <T> Class<? extends T> generateClass(final Class<T> type) {
         if (Modifier.isPrivate(type.getModifiers())) {
             throw new GradleException(String.format("Cannot create a proxy class for private class '%s'.",
                     type.getSimpleName()));
@@ -90,7 +136,133 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                     type.getSimpleName()));
         }
 
-        Class<? extends T> subclass;
+        try {
+            HashCode key = bytecodeCache == null ? null : hashTypeHierarchy(type);
+            byte[] bytecode;
+            if (key == null) {
+                bytecode = generateBytecode(type);
+            } else {
+                bytecode = bytecodeCache.get(key, new Factory<byte[]>() {
+                    @Override
+                    public byte[] create() {
+                        return generateBytecode(type);
+                    }
+                });
+            }
+            return defineClass(type, bytecode);
+        } catch (Throwable e) {
+            throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
+        }
+    }
+
+    /**
+     * Calculates a hash of the given type, its super types and this generator. Also includes the hierarchy of the types used by the members of these types,
+     * such as property types and annotation types, as the generated class depends on them as well. Returns null when the bytecode of one of the types is not available.
+     */
+    @Nullable
+    private HashCode hashTypeHierarchy(Class<?> type) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(getClass().getName(), Charsets.UTF_8);
+        hasher.putString(GradleVersion.current().getVersion(), Charsets.UTF_8);
+        hasher.putString(GradleVersion.current().getBuildTime(), Charsets.UTF_8);
+        Set<Class<?>> hierarchy = new LinkedHashSet<Class<?>>();
+        addTypeHierarchy(type, hierarchy);
+        // The members of the referenced types are not used, so only their hierarchy is included
+        Set<Class<?>> referencedTypes = new HashSet<Class<?>>();
+        for (Class<?> current : hierarchy) {
+            if (current.getClassLoader() != null) {
+                addReferencedTypes(current, referencedTypes);
+            }
+        }
+        // Members are returned in no particular order, so sort the referenced types to get a stable hash
+        List<Class<?>> sortedReferencedTypes = new ArrayList<Class<?>>(referencedTypes);
+        sortedReferencedTypes.removeAll(hierarchy);
+        Collections.sort(sortedReferencedTypes, new Comparator<Class<?>>() {
+            @Override
+            public int compare(Class<?> o1, Class<?> o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        for (Class<?> current : hierarchy) {
+            if (!hashType(current, hasher)) {
+                return null;
+            }
+        }
+        for (Class<?> current : sortedReferencedTypes) {
+            if (!hashType(current, hasher)) {
+                return null;
+            }
+        }
+        return hasher.hash();
+    }
+
+    private static void addReferencedTypes(Class<?> type, Set<Class<?>> referencedTypes) {
+        addAnnotationTypes(type.getDeclaredAnnotations(), referencedTypes);
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            addAnnotationTypes(constructor.getDeclaredAnnotations(), referencedTypes);
+            for (Class<?> parameterType : constructor.getParameterTypes()) {
+                addTypeHierarchy(parameterType, referencedTypes);
+            }
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            addAnnotationTypes(method.getDeclaredAnnotations(), referencedTypes);
+            addTypeHierarchy(method.getReturnType(), referencedTypes);
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                addTypeHierarchy(parameterType, referencedTypes);
+            }
+        }
+    }
+
+    private static void addAnnotationTypes(Annotation[] annotations, Set<Class<?>> referencedTypes) {
+        for (Annotation annotation : annotations) {
+            // The bytecode of the annotation type includes its meta-annotations, such as @Inherited and @Retention
+            addTypeHierarchy(annotation.annotationType(), referencedTypes);
+        }
+    }
+
+    private static void addTypeHierarchy(Class<?> type, Set<Class<?>> types) {
+        Deque<Class<?>> queue = new ArrayDeque<Class<?>>();
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            Class<?> current = queue.removeFirst();
+            while (current.isArray()) {
+                current = current.getComponentType();
+            }
+            if (current.isPrimitive() || !types.add(current)) {
+                continue;
+            }
+            if (current.getSuperclass() != null) {
+                queue.add(current.getSuperclass());
+            }
+            queue.addAll(Arrays.asList(current.getInterfaces()));
+        }
+    }
+
+    private static boolean hashType(Class<?> type, Hasher hasher) {
+        hasher.putString(type.getName(), Charsets.UTF_8);
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            // Classes from the bootstrap class loader are identified by name only
+            return true;
+        }
+        InputStream bytecode = classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        if (bytecode == null) {
+            return false;
+        }
+        try {
+            try {
+                hasher.putBytes(ByteStreams.toByteArray(bytecode));
+            } finally {
+                bytecode.close();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private <T> byte[] generateBytecode(Class<T> type) {
+        byte[] bytecode;
         try {
             ClassMetaData classMetaData = inspectType(type);
 
@@ -196,18 +368,17 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                 }
             }
 
-            subclass = builder.generate();
-        } catch (Throwable e) {
-            throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
+            bytecode = builder.generate();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
         }
-
-        cache.put(type, subclass);
-        cache.put(subclass, subclass);
-        return subclass;
+        return bytecode;
     }
 
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
 
+    protected abstract <T> Class<? extends T> defineClass(Class<T> type, byte[] bytecode);
+
     private ClassMetaData inspectType(Class<?> type) {
         boolean isConventionAware = type.getAnnotation(NoConventionMapping.class) == null;
         boolean extensible = JavaReflectionUtil.getAnnotation(type, NonExtensible.class) == null;
@@ -427,6 +598,6 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
 
         void addActionMethod(Method method) throws Exception;
 
-        Class<? extends T> generate() throws Exception;
+        byte[] generate() throws Exception;
     }
 }
@@ -17,6 +17,7 @@ package org.gradle.api.internal;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
 import groovy.lang.GroovySystem;
@@ -25,6 +26,7 @@ import groovy.lang.MetaClassRegistry;
 import org.gradle.api.Action;
 import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
+import org.gradle.api.internal.cache.Cache;
 import org.gradle.api.plugins.Convention;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.internal.UncheckedException;
@@ -62,12 +64,26 @@ import static org.objectweb.asm.Type.VOID_TYPE;
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
 
     private static final JavaMethod<ClassLoader, Class> DEFINE_CLASS_METHOD = JavaReflectionUtil.method(ClassLoader.class, Class.class, "defineClass", String.class, byte[].class, Integer.TYPE, Integer.TYPE);
+    private static final String GENERATED_TYPE_SUFFIX = "_Decorated";
+
+    public AsmBackedClassGenerator() {
+    }
+
+    public AsmBackedClassGenerator(Cache<HashCode, byte[]> bytecodeCache) {
+        super(bytecodeCache);
+    }
 
     @Override
     protected <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData) {
         return new ClassBuilderImpl<T>(type, classMetaData);
     }
 
+    @Override
+    protected <T> Class<? extends T> defineClass(Class<T> type, byte[] bytecode) {
+        Class<?> generatedClass = DEFINE_CLASS_METHOD.invoke(type.getClassLoader(), type.getName() + GENERATED_TYPE_SUFFIX, bytecode, 0, bytecode.length);
+        return generatedClass.asSubclass(type);
+    }
+
     private static class ClassBuilderImpl<T> implements ClassBuilder<T> {
         public static final int PV_FINAL_STATIC = Opcodes.ACC_PRIVATE | ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC;
         private static final Set<? extends Class<?>> PRIMITIVE_TYPES = ImmutableSet.of(Byte.TYPE, Boolean.TYPE, Character.TYPE, Short.TYPE, Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE);
@@ -131,7 +147,7 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             this.type = type;
 
             visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-            typeName = type.getName() + "_Decorated";
+            typeName = type.getName() + GENERATED_TYPE_SUFFIX;
             generatedType = Type.getType("L" + typeName.replaceAll("\\.", "/") + ";");
             superclassType = Type.getType(type);
             extensible = classMetaData.isExtensible();
@@ -900,12 +916,11 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             }
         }
 
-        public Class<? extends T> generate() {
+        public byte[] generate() {
             writeGenericReturnTypeFields();
             visitor.visitEnd();
 
-            byte[] bytecode = visitor.toByteArray();
-            return DEFINE_CLASS_METHOD.invoke(type.getClassLoader(), typeName, bytecode, 0, bytecode.length);
+            return visitor.toByteArray();
         }
 
         private void writeGenericReturnTypeFields() {
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.internal.cache.Cache;
+import org.gradle.api.internal.cache.MinimalPersistentCache;
+import org.gradle.cache.CacheRepository;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+/**
+ * Keeps the bytecode of classes generated by a {@link AbstractClassGenerator} in the Gradle user home, so that new processes can define these classes without generating them again.
+ */
+public class PersistentGeneratedClassCache implements Cache<HashCode, byte[]>, Stoppable {
+    private final MinimalPersistentCache<HashCode, byte[]> cache;
+
+    public PersistentGeneratedClassCache(CacheRepository cacheRepository) {
+        cache = new MinimalPersistentCache<HashCode, byte[]>(cacheRepository, "generated classes", new HashCodeSerializer(), BaseSerializerFactory.BYTE_ARRAY_SERIALIZER);
+    }
+
+    @Override
+    public byte[] get(HashCode key, Factory<byte[]> factory) {
+        return cache.get(key, factory);
+    }
+
+    @Override
+    public void stop() {
+        cache.stop();
+    }
+}
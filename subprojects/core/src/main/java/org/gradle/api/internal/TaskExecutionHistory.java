@@ -22,4 +22,9 @@ public interface TaskExecutionHistory {
      * Returns the set of output files which the task produced.
      */
     FileCollection getOutputFiles();
+
+    /**
+     * Returns true when the output locations of the task contained files that it did not produce during its previous execution, for example files produced by another task.
+     */
+    boolean hasOverlappingOutputs();
 }
@@ -16,11 +16,23 @@
 
 package org.gradle.api.internal;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.TaskInputFilePropertySpec;
 import org.gradle.api.tasks.TaskInputs;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.Factory;
 
 import java.util.SortedSet;
 
 public interface TaskInputsInternal extends TaskInputs {
     SortedSet<TaskInputFilePropertySpec> getFileProperties();
+
+    /**
+     * Returns the changes to the input files since the previous execution of the task, or null when the task is not executing.
+     * Each call returns new input changes, which can be processed independently of those passed to the task actions.
+     */
+    @Nullable
+    IncrementalTaskInputs getInputChanges();
+
+    void setInputChanges(@Nullable Factory<? extends IncrementalTaskInputs> inputChanges);
 }
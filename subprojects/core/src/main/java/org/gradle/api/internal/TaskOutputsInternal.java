@@ -34,6 +34,11 @@ public interface TaskOutputsInternal extends TaskOutputs {
      */
     FileCollection getPreviousOutputFiles();
 
+    /**
+     * Returns true when the output locations of the task contain files that it did not produce during its previous execution.
+     */
+    boolean hasOverlappingOutputs();
+
     void setHistory(TaskExecutionHistory history);
 
     /**
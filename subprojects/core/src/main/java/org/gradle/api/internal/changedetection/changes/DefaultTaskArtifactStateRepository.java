@@ -37,7 +37,11 @@ import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepository {
 
@@ -68,7 +72,7 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
         private final TaskHistoryRepository.History history;
         private boolean upToDate;
         private TaskUpToDateState states;
-        private IncrementalTaskInputsInternal taskInputs;
+        private final List<IncrementalTaskInputsInternal> taskInputs = new ArrayList<IncrementalTaskInputsInternal>();
 
         public TaskArtifactStateImpl(TaskInternal task, TaskHistoryRepository.History history) {
             this.task = task;
@@ -99,12 +103,15 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
         public IncrementalTaskInputs getInputChanges() {
             assert !upToDate : "Should not be here if the task is up-to-date";
 
+            IncrementalTaskInputsInternal inputChanges;
             if (canPerformIncrementalBuild()) {
-                taskInputs = instantiator.newInstance(ChangesOnlyIncrementalTaskInputs.class, getStates().getInputFilesChanges());
+                inputChanges = instantiator.newInstance(ChangesOnlyIncrementalTaskInputs.class, getStates().getInputFilesChanges());
             } else {
-                taskInputs = instantiator.newInstance(RebuildIncrementalTaskInputs.class, task);
+                inputChanges = instantiator.newInstance(RebuildIncrementalTaskInputs.class, task);
             }
-            return taskInputs;
+            // The input changes may be requested more than once, so keep the inputs discovered by all of them
+            taskInputs.add(inputChanges);
+            return inputChanges;
         }
 
         private boolean canPerformIncrementalBuild() {
@@ -136,6 +143,11 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
             }
         }
 
+        @Override
+        public boolean hasOverlappingOutputs() {
+            return getStates().hasOverlappingOutputs();
+        }
+
         public TaskExecutionHistory getExecutionHistory() {
             return this;
         }
@@ -148,8 +160,12 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
                 return;
             }
 
-            if (taskInputs != null) {
-                getStates().newInputs(taskInputs.getDiscoveredInputs());
+            if (!taskInputs.isEmpty()) {
+                Set<File> discoveredInputs = new LinkedHashSet<File>();
+                for (IncrementalTaskInputsInternal inputChanges : taskInputs) {
+                    discoveredInputs.addAll(inputChanges.getDiscoveredInputs());
+                }
+                getStates().newInputs(discoveredInputs);
             }
             getStates().getAllTaskChanges().snapshotAfterTask();
             history.update();
@@ -62,4 +62,8 @@ class NoHistoryArtifactState implements TaskArtifactState, TaskExecutionHistory
     public FileCollection getOutputFiles() {
         return null;
     }
+
+    public boolean hasOverlappingOutputs() {
+        return false;
+    }
 }
@@ -39,6 +39,25 @@ public class OutputFilesTaskStateChanges extends AbstractNamedFileSnapshotTaskSt
         return previous.getOutputFilesSnapshot();
     }
 
+    /**
+     * Returns true when the output locations contained files before the execution that were not outputs of the previous execution.
+     */
+    public boolean hasOverlappingOutputs() {
+        Map<String, FileCollectionSnapshot> previousSnapshots = previous == null ? null : getPrevious();
+        if (previousSnapshots == null) {
+            return false;
+        }
+        for (Map.Entry<String, FileCollectionSnapshot> entry : getCurrent().entrySet()) {
+            FileCollectionSnapshot previousSnapshot = previousSnapshots.get(entry.getKey());
+            for (String path : entry.getValue().getSnapshots().keySet()) {
+                if (previousSnapshot == null || !previousSnapshot.getSnapshots().containsKey(path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     @Override
     public void saveCurrent() {
         final Map<String, FileCollectionSnapshot> outputFilesAfter = buildSnapshots(getTaskName(), getSnapshotterRegistry(), getTitle(), getFileProperties());
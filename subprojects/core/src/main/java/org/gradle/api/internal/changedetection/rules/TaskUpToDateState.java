@@ -37,6 +37,7 @@ public class TaskUpToDateState {
     private DiscoveredInputsListener discoveredInputsListener;
     private SummaryTaskStateChanges allTaskChanges;
     private SummaryTaskStateChanges rebuildChanges;
+    private OutputFilesTaskStateChanges outputFilesState;
 
     public TaskUpToDateState(TaskInternal task, TaskHistoryRepository.History history,
                              OutputFilesSnapshotter outputFilesSnapshotter, FileCollectionSnapshotterRegistry fileCollectionSnapshotterRegistry,
@@ -49,7 +50,8 @@ public class TaskUpToDateState {
         TaskStateChanges inputPropertiesState = new InputPropertiesTaskStateChanges(lastExecution, thisExecution, task);
 
         // Capture outputs state
-        TaskStateChanges outputFileChanges = caching(new OutputFilesTaskStateChanges(lastExecution, thisExecution, task, fileCollectionSnapshotterRegistry, outputFilesSnapshotter));
+        outputFilesState = new OutputFilesTaskStateChanges(lastExecution, thisExecution, task, fileCollectionSnapshotterRegistry, outputFilesSnapshotter);
+        TaskStateChanges outputFileChanges = caching(outputFilesState);
 
         // Capture inputs state
         InputFilesTaskStateChanges directInputFileChanges = new InputFilesTaskStateChanges(lastExecution, thisExecution, task, fileCollectionSnapshotterRegistry);
@@ -80,6 +82,10 @@ public class TaskUpToDateState {
         return rebuildChanges;
     }
 
+    public boolean hasOverlappingOutputs() {
+        return outputFilesState.hasOverlappingOutputs();
+    }
+
     public void newInputs(Set<File> discoveredInputs) {
         discoveredInputsListener.newInputs(discoveredInputs);
     }
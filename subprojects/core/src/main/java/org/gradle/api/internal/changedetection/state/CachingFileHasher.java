@@ -19,6 +19,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.hash.HashCode;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.archive.ArchiveEntryDetails;
 import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentStore;
@@ -59,6 +60,10 @@ public class CachingFileHasher implements FileHasher {
 
     @Override
     public HashCode hash(FileTreeElement fileDetails) {
+        if (fileDetails instanceof ArchiveEntryDetails) {
+            // Archive entries have no stable location to cache their hash against
+            return delegate.hash(fileDetails);
+        }
         return snapshot(fileDetails).getHash();
     }
 
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.api.file.FileVisitDetails;
+
+/**
+ * An entry of an archive whose content can be read any number of times while the archive is visited.
+ *
+ * <p>Consumers that only need the content of the entry, for example to hash or analyze it, should use {@link #open()} or {@link #copyTo(java.io.OutputStream)}
+ * rather than {@link #getFile()}, which expands the entry to the file system.</p>
+ */
+public interface ArchiveEntryDetails extends FileVisitDetails {
+}
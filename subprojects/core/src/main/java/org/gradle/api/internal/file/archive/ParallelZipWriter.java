@@ -0,0 +1,561 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.Zip64RequiredException;
+import org.apache.tools.zip.ZipEntry;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a ZIP file whose entries are compressed in parallel by build operations, while keeping the entries in the order in which they were added.
+ *
+ * <p>Files are read and compressed in memory, up to a limit of pending data. Larger files are compressed by the calling thread while being written.
+ * Entries of other ZIP files that are compressed with the same method are written without being uncompressed and compressed again, as are the entries
+ * of a previous version of the ZIP file whose content has not changed.</p>
+ */
+class ParallelZipWriter implements Closeable {
+    private static final long MAX_PENDING_BYTES = 64 * 1024 * 1024;
+    private static final long MAX_BUFFERED_FILE_SIZE = 16 * 1024 * 1024;
+    // Files that are written while being compressed cannot grow their header, so space for the ZIP64 fields is reserved when they may need them
+    private static final long ZIP64_RESERVATION_THRESHOLD = Integer.MAX_VALUE;
+
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_FILE_HEADER_LENGTH = 30;
+    private static final int CENTRAL_FILE_HEADER_LENGTH = 46;
+    private static final int ZIP64_EXTRA_FIELD_ID = 1;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_SHORT = 0xFFFF;
+    private static final int UTF8_FLAG = 1 << 11;
+    private static final int UNIX_PLATFORM = 3;
+    private static final int INITIAL_VERSION = 10;
+    private static final int DEFLATE_MIN_VERSION = 20;
+    private static final int ZIP64_MIN_VERSION = 45;
+
+    private final RandomAccessFile file;
+    private final int method;
+    private final boolean allowZip64;
+    private final Charset charset;
+    private final int flags;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int bufferLength;
+    private long position;
+    private final Deque<Entry> pending = new ArrayDeque<Entry>();
+    private long pendingBytes;
+    private final List<Entry> written = new ArrayList<Entry>();
+    private BuildOperationQueue<DeflateOperation> queue;
+
+    /**
+     * @param method The compression method of the entries, either {@link ZipEntry#DEFLATED} or {@link ZipEntry#STORED}.
+     * @param encoding The encoding of the entry names, or null to use the platform default.
+     */
+    ParallelZipWriter(File zipFile, int method, boolean allowZip64, String encoding) throws IOException {
+        this.file = new RandomAccessFile(zipFile, "rw");
+        this.method = method;
+        this.allowZip64 = allowZip64;
+        this.charset = encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
+        this.flags = charset.name().equals("UTF-8") ? UTF8_FLAG : 0;
+        file.setLength(0);
+    }
+
+    /**
+     * Starts writing entries, compressing them using the given queue.
+     */
+    public void start(BuildOperationQueue<DeflateOperation> queue) {
+        this.queue = queue;
+    }
+
+    public void putDirectory(String name, long time, int unixMode) throws IOException {
+        Entry entry = new Entry(name, time, unixMode, true, ZipEntry.STORED);
+        entry.complete(0, 0, new byte[0]);
+        add(entry, 0);
+    }
+
+    public void putFile(String name, long time, int unixMode, FileCopyDetailsInternal details) throws IOException {
+        FileVisitDetails source = details.getUnfilteredSourceDetails();
+        long sourceSize = source == null ? -1 : source.getSize();
+        if (sourceSize > MAX_BUFFERED_FILE_SIZE) {
+            writeCompressing(new Entry(name, time, unixMode, false, method), details, sourceSize);
+            return;
+        }
+
+        if (source instanceof RawZipEntrySource) {
+            RawZipEntry rawEntry = ((RawZipEntrySource) source).readRawEntry();
+            if (rawEntry != null && rawEntry.getMethod() == method) {
+                putRawFile(name, time, unixMode, rawEntry);
+                return;
+            }
+        }
+
+        putContent(name, time, unixMode, readContent(details, sourceSize));
+    }
+
+    private void putContent(String name, long time, int unixMode, byte[] data) throws IOException {
+        Entry entry = new Entry(name, time, unixMode, false, method);
+        if (method == ZipEntry.DEFLATED) {
+            queue.add(new DeflateOperation(entry, data));
+        } else {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.complete(crc.getValue(), data.length, data);
+        }
+        add(entry, data.length);
+    }
+
+    /**
+     * Writes a file whose content may not have changed since it was written to the given previous archive. The compressed data of the entry
+     * with the same name in the previous archive is copied when the file still has the same size and CRC, and the file is compressed otherwise.
+     * The entry with the same name may have been written for a different file.
+     */
+    public void putUnchangedFile(String name, long time, int unixMode, FileCopyDetailsInternal details, ZipCentralDirectory previousArchive) throws IOException {
+        FileVisitDetails source = details.getUnfilteredSourceDetails();
+        long sourceSize = source == null ? -1 : source.getSize();
+        RawZipEntry rawEntry = sourceSize > MAX_BUFFERED_FILE_SIZE ? null : previousArchive.readRawEntry(name, MAX_BUFFERED_FILE_SIZE);
+        if (rawEntry == null || rawEntry.getMethod() != method || rawEntry.getSize() > MAX_BUFFERED_FILE_SIZE) {
+            putFile(name, time, unixMode, details);
+            return;
+        }
+
+        byte[] data = readContent(details, sourceSize);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        if (data.length == rawEntry.getSize() && crc.getValue() == rawEntry.getCrc()) {
+            putRawFile(name, time, unixMode, rawEntry);
+        } else {
+            putContent(name, time, unixMode, data);
+        }
+    }
+
+    private static byte[] readContent(FileCopyDetailsInternal details, long sizeHint) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(sizeHint > 0 ? (int) sizeHint : 32);
+        details.copyTo(content);
+        return content.toByteArray();
+    }
+
+    private void putRawFile(String name, long time, int unixMode, RawZipEntry rawEntry) throws IOException {
+        Entry entry = new Entry(name, time, unixMode, false, method);
+        entry.complete(rawEntry.getCrc(), rawEntry.getSize(), rawEntry.getCompressedData());
+        add(entry, rawEntry.getCompressedData().length);
+    }
+
+    /**
+     * Writes all remaining entries and the central directory.
+     */
+    public void finish() throws IOException {
+        writeCompletedEntries(-1);
+
+        long centralDirectoryOffset = position;
+        for (Entry entry : written) {
+            writeCentralFileHeader(entry);
+        }
+        long centralDirectorySize = position - centralDirectoryOffset;
+        writeEndOfCentralDirectory(centralDirectoryOffset, centralDirectorySize);
+        flushBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private void add(Entry entry, long size) throws IOException {
+        entry.pendingBytes = size;
+        pending.addLast(entry);
+        pendingBytes += size;
+        writeCompletedEntries(MAX_PENDING_BYTES);
+    }
+
+    /**
+     * Writes the pending entries that are complete, waiting for incomplete entries while more than the given amount of data is pending.
+     */
+    private void writeCompletedEntries(long maxPendingBytes) throws IOException {
+        while (!pending.isEmpty()) {
+            Entry entry = pending.peekFirst();
+            if (pendingBytes <= maxPendingBytes && !entry.isComplete()) {
+                return;
+            }
+            pending.removeFirst();
+            entry.await();
+            pendingBytes -= entry.pendingBytes;
+            writeEntry(entry);
+        }
+    }
+
+    private void writeEntry(Entry entry) throws IOException {
+        boolean zip64 = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC;
+        if (zip64 && !allowZip64) {
+            throw new Zip64RequiredException(getEntryTooBigMessage(entry));
+        }
+        entry.offset = position;
+        writeLocalFileHeader(entry, zip64);
+        write(entry.data, 0, entry.data.length);
+        entry.data = null;
+        written.add(entry);
+    }
+
+    /**
+     * Writes a file while compressing it, once all pending entries have been written.
+     */
+    private void writeCompressing(Entry entry, FileCopyDetailsInternal details, long size) throws IOException {
+        writeCompletedEntries(-1);
+
+        boolean zip64 = allowZip64 && size >= ZIP64_RESERVATION_THRESHOLD;
+        entry.offset = position;
+        writeLocalFileHeader(entry, zip64);
+        long dataOffset = position;
+
+        OutputStream entryOutput = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                ParallelZipWriter.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int off, int len) throws IOException {
+                ParallelZipWriter.this.write(bytes, off, len);
+            }
+        };
+        CRC32 crc = new CRC32();
+        if (method == ZipEntry.DEFLATED) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(entryOutput, deflater, buffer.length);
+                details.copyTo(new CheckedOutputStream(deflaterOutput, crc));
+                deflaterOutput.finish();
+                entry.size = deflater.getBytesRead();
+            } finally {
+                deflater.end();
+            }
+            entry.compressedSize = position - dataOffset;
+        } else {
+            details.copyTo(new CheckedOutputStream(entryOutput, crc));
+            entry.size = position - dataOffset;
+            entry.compressedSize = entry.size;
+        }
+        entry.crc = crc.getValue();
+
+        if (!zip64 && (entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC)) {
+            throw new Zip64RequiredException(getEntryTooBigMessage(entry));
+        }
+        byte[] header = new byte[12];
+        putInt(header, 0, entry.crc);
+        putInt(header, 4, zip64 ? ZIP64_MAGIC : entry.compressedSize);
+        putInt(header, 8, zip64 ? ZIP64_MAGIC : entry.size);
+        writeAt(entry.offset + 14, header);
+        if (zip64) {
+            byte[] extra = new byte[16];
+            putLong(extra, 0, entry.size);
+            putLong(extra, 8, entry.compressedSize);
+            writeAt(entry.offset + LOCAL_FILE_HEADER_LENGTH + entry.name.length + 4, extra);
+        }
+        entry.localZip64 = zip64;
+        written.add(entry);
+    }
+
+    private void writeLocalFileHeader(Entry entry, boolean zip64) throws IOException {
+        int extraLength = zip64 ? 20 : 0;
+        byte[] header = new byte[LOCAL_FILE_HEADER_LENGTH + entry.name.length + extraLength];
+        putInt(header, 0, LOCAL_FILE_HEADER_SIGNATURE);
+        putShort(header, 4, getVersionNeeded(entry, zip64));
+        putShort(header, 6, flags);
+        putShort(header, 8, entry.method);
+        putInt(header, 10, entry.dosTime);
+        putInt(header, 14, entry.crc);
+        putInt(header, 18, zip64 ? ZIP64_MAGIC : entry.compressedSize);
+        putInt(header, 22, zip64 ? ZIP64_MAGIC : entry.size);
+        putShort(header, 26, entry.name.length);
+        putShort(header, 28, extraLength);
+        System.arraycopy(entry.name, 0, header, LOCAL_FILE_HEADER_LENGTH, entry.name.length);
+        if (zip64) {
+            int pos = LOCAL_FILE_HEADER_LENGTH + entry.name.length;
+            putShort(header, pos, ZIP64_EXTRA_FIELD_ID);
+            putShort(header, pos + 2, 16);
+            putLong(header, pos + 4, entry.size);
+            putLong(header, pos + 12, entry.compressedSize);
+        }
+        entry.localZip64 = zip64;
+        write(header, 0, header.length);
+    }
+
+    private void writeCentralFileHeader(Entry entry) throws IOException {
+        boolean zip64Size = entry.size >= ZIP64_MAGIC;
+        boolean zip64CompressedSize = entry.compressedSize >= ZIP64_MAGIC;
+        boolean zip64Offset = entry.offset >= ZIP64_MAGIC;
+        if (!allowZip64 && (zip64Size || zip64CompressedSize)) {
+            throw new Zip64RequiredException(getEntryTooBigMessage(entry));
+        }
+        if (!allowZip64 && zip64Offset) {
+            throw new Zip64RequiredException("archive's size exceeds the limit of 4GByte.");
+        }
+        int zip64Fields = (zip64Size ? 1 : 0) + (zip64CompressedSize ? 1 : 0) + (zip64Offset ? 1 : 0);
+        boolean zip64 = entry.localZip64 || zip64Fields > 0;
+        int extraLength = zip64Fields > 0 ? 4 + 8 * zip64Fields : 0;
+
+        byte[] header = new byte[CENTRAL_FILE_HEADER_LENGTH + entry.name.length + extraLength];
+        putInt(header, 0, CENTRAL_FILE_HEADER_SIGNATURE);
+        putShort(header, 4, (UNIX_PLATFORM << 8) | (zip64 ? ZIP64_MIN_VERSION : DEFLATE_MIN_VERSION));
+        putShort(header, 6, getVersionNeeded(entry, zip64));
+        putShort(header, 8, flags);
+        putShort(header, 10, entry.method);
+        putInt(header, 12, entry.dosTime);
+        putInt(header, 16, entry.crc);
+        putInt(header, 20, zip64CompressedSize ? ZIP64_MAGIC : entry.compressedSize);
+        putInt(header, 24, zip64Size ? ZIP64_MAGIC : entry.size);
+        putShort(header, 28, entry.name.length);
+        putShort(header, 30, extraLength);
+        putInt(header, 38, entry.externalAttributes);
+        putInt(header, 42, zip64Offset ? ZIP64_MAGIC : entry.offset);
+        System.arraycopy(entry.name, 0, header, CENTRAL_FILE_HEADER_LENGTH, entry.name.length);
+        if (zip64Fields > 0) {
+            int pos = CENTRAL_FILE_HEADER_LENGTH + entry.name.length;
+            putShort(header, pos, ZIP64_EXTRA_FIELD_ID);
+            putShort(header, pos + 2, 8 * zip64Fields);
+            pos += 4;
+            if (zip64Size) {
+                putLong(header, pos, entry.size);
+                pos += 8;
+            }
+            if (zip64CompressedSize) {
+                putLong(header, pos, entry.compressedSize);
+                pos += 8;
+            }
+            if (zip64Offset) {
+                putLong(header, pos, entry.offset);
+            }
+        }
+        write(header, 0, header.length);
+    }
+
+    private void writeEndOfCentralDirectory(long centralDirectoryOffset, long centralDirectorySize) throws IOException {
+        int entries = written.size();
+        boolean zip64 = entries >= ZIP64_MAGIC_SHORT || centralDirectoryOffset >= ZIP64_MAGIC || centralDirectorySize >= ZIP64_MAGIC;
+        if (zip64 && !allowZip64) {
+            throw new Zip64RequiredException(entries >= ZIP64_MAGIC_SHORT ? "archive contains more than 65535 entries." : "archive's size exceeds the limit of 4GByte.");
+        }
+        if (zip64) {
+            long zip64EndOfCentralDirectoryOffset = position;
+            byte[] record = new byte[56 + 20];
+            putInt(record, 0, ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            putLong(record, 4, 44);
+            putShort(record, 12, ZIP64_MIN_VERSION);
+            putShort(record, 14, ZIP64_MIN_VERSION);
+            putLong(record, 24, entries);
+            putLong(record, 32, entries);
+            putLong(record, 40, centralDirectorySize);
+            putLong(record, 48, centralDirectoryOffset);
+            putInt(record, 56, ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE);
+            putLong(record, 64, zip64EndOfCentralDirectoryOffset);
+            putInt(record, 72, 1);
+            write(record, 0, record.length);
+        }
+        byte[] record = new byte[22];
+        putInt(record, 0, END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        putShort(record, 8, Math.min(entries, ZIP64_MAGIC_SHORT));
+        putShort(record, 10, Math.min(entries, ZIP64_MAGIC_SHORT));
+        putInt(record, 12, Math.min(centralDirectorySize, ZIP64_MAGIC));
+        putInt(record, 16, Math.min(centralDirectoryOffset, ZIP64_MAGIC));
+        write(record, 0, record.length);
+    }
+
+    private static int getVersionNeeded(Entry entry, boolean zip64) {
+        if (zip64) {
+            return ZIP64_MIN_VERSION;
+        }
+        return entry.method == ZipEntry.DEFLATED ? DEFLATE_MIN_VERSION : INITIAL_VERSION;
+    }
+
+    private static String getEntryTooBigMessage(Entry entry) {
+        return entry.displayName + "'s size exceeds the limit of 4GByte.";
+    }
+
+    private void write(byte[] bytes, int off, int len) throws IOException {
+        if (len > buffer.length - bufferLength) {
+            flushBuffer();
+            if (len > buffer.length) {
+                file.write(bytes, off, len);
+                position += len;
+                return;
+            }
+        }
+        System.arraycopy(bytes, off, buffer, bufferLength, len);
+        bufferLength += len;
+        position += len;
+    }
+
+    private void writeAt(long offset, byte[] bytes) throws IOException {
+        flushBuffer();
+        file.seek(offset);
+        file.write(bytes);
+        file.seek(position);
+    }
+
+    private void flushBuffer() throws IOException {
+        if (bufferLength > 0) {
+            file.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        }
+    }
+
+    private static void putShort(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+    }
+
+    private static void putInt(byte[] buffer, int offset, long value) {
+        putShort(buffer, offset, (int) value);
+        putShort(buffer, offset + 2, (int) (value >>> 16));
+    }
+
+    private static void putLong(byte[] buffer, int offset, long value) {
+        putInt(buffer, offset, value);
+        putInt(buffer, offset + 4, value >>> 32);
+    }
+
+    private static long toDosTime(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            // 1980-01-01 00:00:00, the earliest time that can be represented
+            return (1 << 21) | (1 << 16);
+        }
+        return ((long) (year - 1980) << 25)
+            | (calendar.get(Calendar.MONTH) + 1) << 21
+            | calendar.get(Calendar.DAY_OF_MONTH) << 16
+            | calendar.get(Calendar.HOUR_OF_DAY) << 11
+            | calendar.get(Calendar.MINUTE) << 5
+            | calendar.get(Calendar.SECOND) >> 1;
+    }
+
+    private class Entry {
+        final String displayName;
+        final byte[] name;
+        final long dosTime;
+        final long externalAttributes;
+        final int method;
+        final CountDownLatch completed = new CountDownLatch(1);
+        long crc;
+        long size;
+        long compressedSize;
+        byte[] data;
+        Throwable failure;
+        long pendingBytes;
+        long offset;
+        boolean localZip64;
+
+        Entry(String name, long time, int unixMode, boolean directory, int method) {
+            this.displayName = name;
+            this.name = name.getBytes(charset);
+            this.dosTime = toDosTime(time);
+            this.externalAttributes = ((long) unixMode << 16) | ((unixMode & 0200) == 0 ? 1 : 0) | (directory ? 0x10 : 0);
+            this.method = method;
+        }
+
+        void complete(long crc, long size, byte[] data) {
+            this.crc = crc;
+            this.size = size;
+            this.compressedSize = data.length;
+            this.data = data;
+            completed.countDown();
+        }
+
+        void fail(Throwable failure) {
+            this.failure = failure;
+            completed.countDown();
+        }
+
+        boolean isComplete() {
+            return completed.getCount() == 0;
+        }
+
+        void await() {
+            try {
+                completed.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        }
+    }
+
+    class DeflateOperation implements RunnableBuildOperation {
+        private final Entry entry;
+        private final byte[] content;
+
+        DeflateOperation(Entry entry, byte[] content) {
+            this.entry = entry;
+            this.content = content;
+        }
+
+        @Override
+        public void run() {
+            try {
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                try {
+                    deflater.setInput(content);
+                    deflater.finish();
+                    ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 64);
+                    byte[] chunk = new byte[8192];
+                    while (!deflater.finished()) {
+                        int length = deflater.deflate(chunk);
+                        compressed.write(chunk, 0, length);
+                    }
+                    entry.complete(crc.getValue(), content.length, compressed.toByteArray());
+                } finally {
+                    deflater.end();
+                }
+            } catch (Throwable t) {
+                entry.fail(t);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "compressing ".concat(entry.displayName);
+        }
+    }
+}
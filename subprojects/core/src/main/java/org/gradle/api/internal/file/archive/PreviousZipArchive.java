@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.file.copy.ChangedSourceFiles;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+
+/**
+ * The archive produced by the previous execution of an archive task, moved aside so that the entries of the files that have not changed since can be copied from it.
+ *
+ * <p>The archive itself has not changed since, as the input changes of a task are only incremental when its outputs have not changed.</p>
+ */
+public class PreviousZipArchive {
+    private final File file;
+    private final ChangedSourceFiles changedSourceFiles;
+
+    public PreviousZipArchive(File file, ChangedSourceFiles changedSourceFiles) {
+        this.file = file;
+        this.changedSourceFiles = changedSourceFiles;
+    }
+
+    /**
+     * Moves the archive produced by the previous execution of a task into the given directory.
+     *
+     * @param inputs The input changes of the task, or null when they are not known.
+     * @return the previous archive, or null when the input changes are not incremental or when there is no archive to move.
+     */
+    @Nullable
+    public static PreviousZipArchive moveAside(File archiveFile, File temporaryDir, @Nullable IncrementalTaskInputs inputs) {
+        if (inputs == null || !inputs.isIncremental() || !archiveFile.isFile()) {
+            return null;
+        }
+        ChangedSourceFiles changedSourceFiles = ChangedSourceFiles.of(inputs);
+        File file = new File(temporaryDir, "previous-" + archiveFile.getName());
+        GFileUtils.deleteQuietly(file);
+        if (!archiveFile.renameTo(file)) {
+            return null;
+        }
+        return new PreviousZipArchive(file, changedSourceFiles);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public ChangedSourceFiles getChangedSourceFiles() {
+        return changedSourceFiles;
+    }
+
+    public void delete() {
+        GFileUtils.deleteQuietly(file);
+    }
+}
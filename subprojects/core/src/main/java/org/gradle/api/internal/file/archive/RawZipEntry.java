@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive;
+
+/**
+ * The compressed data of an entry of a ZIP file, which can be written to another ZIP file without being uncompressed and compressed again.
+ */
+class RawZipEntry {
+    private final int method;
+    private final long crc;
+    private final long size;
+    private final byte[] compressedData;
+
+    RawZipEntry(int method, long crc, long size, byte[] compressedData) {
+        this.method = method;
+        this.crc = crc;
+        this.size = size;
+        this.compressedData = compressedData;
+    }
+
+    public int getMethod() {
+        return method;
+    }
+
+    public long getCrc() {
+        return crc;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public byte[] getCompressedData() {
+        return compressedData;
+    }
+}
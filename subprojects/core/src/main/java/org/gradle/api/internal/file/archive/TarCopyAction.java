@@ -18,31 +18,55 @@ package org.gradle.api.internal.file.archive;
 import org.apache.tools.tar.TarEntry;
 import org.apache.tools.tar.TarOutputStream;
 import org.apache.tools.zip.UnixStat;
+import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.FileCopyDetails;
 import org.gradle.internal.ErroringAction;
 import org.gradle.internal.IoActions;
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
 import org.gradle.api.internal.file.archive.compression.ArchiveOutputStreamFactory;
+import org.gradle.api.internal.file.archive.compression.BlockCompressor;
+import org.gradle.api.internal.file.archive.compression.ParallelCompressingOutputStream;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
 import org.gradle.api.internal.file.copy.FileCopyDetailsInternal;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class TarCopyAction implements CopyAction {
     private final File tarFile;
     private final ArchiveOutputStreamFactory compressor;
+    private final BlockCompressor blockCompressor;
+    private final BuildOperationProcessor buildOperationProcessor;
 
     public TarCopyAction(File tarFile, ArchiveOutputStreamFactory compressor) {
         this.tarFile = tarFile;
         this.compressor = compressor;
+        this.blockCompressor = null;
+        this.buildOperationProcessor = null;
+    }
+
+    /**
+     * Creates an action that compresses the TAR file in blocks that are compressed in parallel.
+     */
+    public TarCopyAction(File tarFile, BlockCompressor blockCompressor, BuildOperationProcessor buildOperationProcessor) {
+        this.tarFile = tarFile;
+        this.compressor = null;
+        this.blockCompressor = blockCompressor;
+        this.buildOperationProcessor = buildOperationProcessor;
     }
 
     public WorkResult execute(final CopyActionProcessingStream stream) {
+        if (buildOperationProcessor != null) {
+            return executeInParallel(stream);
+        }
 
         final OutputStream outStr;
         try {
@@ -51,6 +75,36 @@ public class TarCopyAction implements CopyAction {
             throw new GradleException(String.format("Could not create TAR '%s'.", tarFile), e);
         }
 
+        writeTar(stream, outStr);
+        return new SimpleWorkResult(true);
+    }
+
+    private WorkResult executeInParallel(final CopyActionProcessingStream stream) {
+        final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+        buildOperationProcessor.run(new Action<BuildOperationQueue<ParallelCompressingOutputStream.CompressBlockOperation>>() {
+            public void execute(BuildOperationQueue<ParallelCompressingOutputStream.CompressBlockOperation> queue) {
+                // Keep the failure as it is, rather than have it reported as a failure to populate the queue
+                try {
+                    final OutputStream outStr;
+                    try {
+                        outStr = new ParallelCompressingOutputStream(new FileOutputStream(tarFile), blockCompressor, queue);
+                    } catch (Exception e) {
+                        throw new GradleException(String.format("Could not create TAR '%s'.", tarFile), e);
+                    }
+                    writeTar(stream, outStr);
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                    queue.cancel();
+                }
+            }
+        });
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return new SimpleWorkResult(true);
+    }
+
+    private void writeTar(final CopyActionProcessingStream stream, OutputStream outStr) {
         IoActions.withResource(outStr, new ErroringAction<OutputStream>() {
             @Override
             protected void doExecute(final OutputStream outStr) throws Exception {
@@ -65,8 +119,6 @@ public class TarCopyAction implements CopyAction {
                 tarOutStr.close();
             }
         });
-
-        return new SimpleWorkResult(true);
     }
 
     private class StreamAction implements CopyActionProcessingStreamAction {
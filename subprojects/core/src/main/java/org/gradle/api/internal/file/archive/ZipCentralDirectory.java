@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.ZipEntry;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Locates the data of the entries of a ZIP file, so that it can be read without being uncompressed.
+ * The central directory of the ZIP file is read when the data of an entry is first requested.
+ *
+ * <p>ZIP64 archives and encrypted entries are not supported, in which case no data is returned.</p>
+ */
+class ZipCentralDirectory implements Closeable {
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_FILE_HEADER_LENGTH = 30;
+    private static final int CENTRAL_FILE_HEADER_LENGTH = 46;
+    private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final int ENCRYPTED_FLAG = 1;
+    private static final int UTF8_FLAG = 1 << 11;
+
+    private final File zipFile;
+    private RandomAccessFile file;
+    private Map<String, EntryLocation> entries;
+
+    ZipCentralDirectory(File zipFile) {
+        this.zipFile = zipFile;
+    }
+
+    /**
+     * Returns the compressed data of the given entry, or null when it cannot be located.
+     */
+    public RawZipEntry readRawEntry(ZipEntry entry) throws IOException {
+        if (entry.getMethod() != ZipEntry.DEFLATED && entry.getMethod() != ZipEntry.STORED) {
+            return null;
+        }
+        EntryLocation location = getEntries().get(entry.getName());
+        // Only use the entry when it matches the entry read by the ZIP file implementation
+        if (location == null || location.method != entry.getMethod() || location.crc != entry.getCrc()
+            || location.compressedSize != entry.getCompressedSize() || location.size != entry.getSize()) {
+            return null;
+        }
+        return readData(location);
+    }
+
+    /**
+     * Returns the compressed data of the entry with the given name, or null when it cannot be located or when its compressed data is larger than the given size.
+     */
+    public RawZipEntry readRawEntry(String name, long maxCompressedSize) throws IOException {
+        EntryLocation location = getEntries().get(name);
+        if (location == null || (location.method != ZipEntry.DEFLATED && location.method != ZipEntry.STORED) || location.compressedSize > maxCompressedSize) {
+            return null;
+        }
+        return readData(location);
+    }
+
+    private Map<String, EntryLocation> getEntries() throws IOException {
+        if (entries == null) {
+            file = new RandomAccessFile(zipFile, "r");
+            entries = readEntries();
+        }
+        return entries;
+    }
+
+    private RawZipEntry readData(EntryLocation location) throws IOException {
+        if (location.compressedSize > Integer.MAX_VALUE) {
+            return null;
+        }
+        byte[] header = new byte[LOCAL_FILE_HEADER_LENGTH];
+        file.seek(location.localHeaderOffset);
+        file.readFully(header);
+        if (getInt(header, 0) != LOCAL_FILE_HEADER_SIGNATURE) {
+            return null;
+        }
+        long dataOffset = location.localHeaderOffset + LOCAL_FILE_HEADER_LENGTH + getShort(header, 26) + getShort(header, 28);
+        byte[] data = new byte[(int) location.compressedSize];
+        file.seek(dataOffset);
+        file.readFully(data);
+        return new RawZipEntry(location.method, location.crc, location.size, data);
+    }
+
+    private Map<String, EntryLocation> readEntries() throws IOException {
+        Map<String, EntryLocation> entries = new HashMap<String, EntryLocation>();
+        long endOfCentralDirectory = findEndOfCentralDirectory();
+        if (endOfCentralDirectory < 0) {
+            return entries;
+        }
+        byte[] record = new byte[END_OF_CENTRAL_DIRECTORY_LENGTH];
+        file.seek(endOfCentralDirectory);
+        file.readFully(record);
+        long centralDirectorySize = getInt(record, 12) & 0xFFFFFFFFL;
+        long centralDirectoryOffset = getInt(record, 16) & 0xFFFFFFFFL;
+        if (getShort(record, 10) == 0xFFFF || centralDirectorySize == 0xFFFFFFFFL || centralDirectoryOffset == 0xFFFFFFFFL
+            || centralDirectoryOffset + centralDirectorySize > endOfCentralDirectory) {
+            // A ZIP64 archive
+            return entries;
+        }
+
+        byte[] centralDirectory = new byte[(int) centralDirectorySize];
+        file.seek(centralDirectoryOffset);
+        file.readFully(centralDirectory);
+        Charset defaultCharset = Charset.defaultCharset();
+        Charset utf8 = Charset.forName("UTF-8");
+        int pos = 0;
+        while (pos + CENTRAL_FILE_HEADER_LENGTH <= centralDirectory.length && getInt(centralDirectory, pos) == CENTRAL_FILE_HEADER_SIGNATURE) {
+            int flags = getShort(centralDirectory, pos + 8);
+            int nameLength = getShort(centralDirectory, pos + 28);
+            int extraLength = getShort(centralDirectory, pos + 30);
+            int commentLength = getShort(centralDirectory, pos + 32);
+            if (pos + CENTRAL_FILE_HEADER_LENGTH + nameLength > centralDirectory.length) {
+                break;
+            }
+            if ((flags & ENCRYPTED_FLAG) == 0) {
+                String name = new String(centralDirectory, pos + CENTRAL_FILE_HEADER_LENGTH, nameLength, (flags & UTF8_FLAG) != 0 ? utf8 : defaultCharset);
+                EntryLocation location = new EntryLocation(
+                    getShort(centralDirectory, pos + 10),
+                    getInt(centralDirectory, pos + 16) & 0xFFFFFFFFL,
+                    getInt(centralDirectory, pos + 20) & 0xFFFFFFFFL,
+                    getInt(centralDirectory, pos + 24) & 0xFFFFFFFFL,
+                    getInt(centralDirectory, pos + 42) & 0xFFFFFFFFL);
+                // Ignore duplicate names, as the entry cannot be identified by its name
+                if (entries.put(name, location) != null) {
+                    entries.put(name, EntryLocation.DUPLICATE);
+                }
+            }
+            pos += CENTRAL_FILE_HEADER_LENGTH + nameLength + extraLength + commentLength;
+        }
+        return entries;
+    }
+
+    private long findEndOfCentralDirectory() throws IOException {
+        long length = file.length();
+        long last = length - END_OF_CENTRAL_DIRECTORY_LENGTH;
+        long first = Math.max(0, last - MAX_COMMENT_LENGTH);
+        if (last < 0) {
+            return -1;
+        }
+        byte[] tail = new byte[(int) (length - first)];
+        file.seek(first);
+        file.readFully(tail);
+        for (int pos = (int) (last - first); pos >= 0; pos--) {
+            if (getInt(tail, pos) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                return first + pos;
+            }
+        }
+        return -1;
+    }
+
+    private static int getShort(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) | (buffer[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int getInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) | (buffer[offset + 1] & 0xFF) << 8 | (buffer[offset + 2] & 0xFF) << 16 | (buffer[offset + 3] & 0xFF) << 24;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    private static class EntryLocation {
+        static final EntryLocation DUPLICATE = new EntryLocation(-1, -1, -1, -1, -1);
+
+        final int method;
+        final long crc;
+        final long compressedSize;
+        final long size;
+        final long localHeaderOffset;
+
+        EntryLocation(int method, long crc, long compressedSize, long size, long localHeaderOffset) {
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+    }
+}
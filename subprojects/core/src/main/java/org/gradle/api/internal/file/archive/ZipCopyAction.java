@@ -33,23 +33,61 @@ import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.bundling.Zip;
 import org.gradle.internal.IoActions;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ZipCopyAction implements CopyAction {
+    public static final String PARALLEL_COMPRESSION_TOGGLE = "org.gradle.zip.parallelCompression";
+    public static final String INCREMENTAL_ARCHIVING_TOGGLE = "org.gradle.zip.incremental";
+
     private final File zipFile;
     private final ZipCompressor compressor;
     private final DocumentationRegistry documentationRegistry;
     private final String encoding;
+    private final BuildOperationProcessor buildOperationProcessor;
+    private final PreviousZipArchive previousArchive;
 
     public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry, String encoding) {
+        this(zipFile, compressor, documentationRegistry, encoding, null);
+    }
+
+    /**
+     * @param buildOperationProcessor The processor used to compress entries in parallel, or null to compress entries serially.
+     */
+    public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry, String encoding, BuildOperationProcessor buildOperationProcessor) {
+        this(zipFile, compressor, documentationRegistry, encoding, buildOperationProcessor, null);
+    }
+
+    /**
+     * @param buildOperationProcessor The processor used to compress entries in parallel, or null to compress entries serially.
+     * @param previousArchive The archive to copy the entries of unchanged files from, or null to compress all entries. Only used when entries are compressed in parallel.
+     */
+    public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry, String encoding, BuildOperationProcessor buildOperationProcessor, PreviousZipArchive previousArchive) {
         this.zipFile = zipFile;
         this.compressor = compressor;
         this.documentationRegistry = documentationRegistry;
         this.encoding = encoding;
+        this.buildOperationProcessor = buildOperationProcessor;
+        this.previousArchive = previousArchive;
+    }
+
+    public static boolean isParallelCompressionEnabled() {
+        return Boolean.getBoolean(PARALLEL_COMPRESSION_TOGGLE);
+    }
+
+    public static boolean isIncrementalArchivingEnabled() {
+        return Boolean.getBoolean(INCREMENTAL_ARCHIVING_TOGGLE);
     }
 
     public WorkResult execute(final CopyActionProcessingStream stream) {
+        if (buildOperationProcessor != null) {
+            return executeInParallel(stream);
+        }
+
         final ZipOutputStream zipOutStr;
 
         try {
@@ -75,6 +113,84 @@ public class ZipCopyAction implements CopyAction {
         return new SimpleWorkResult(true);
     }
 
+    private WorkResult executeInParallel(final CopyActionProcessingStream stream) {
+        final ParallelZipWriter zipWriter;
+
+        try {
+            zipWriter = new ParallelZipWriter(zipFile, compressor.getCompressionMethod(), compressor.isZip64Allowed(), encoding);
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
+        }
+
+        try {
+            IoActions.withResource(zipWriter, new Action<ParallelZipWriter>() {
+                public void execute(final ParallelZipWriter zipWriter) {
+                    final ZipCentralDirectory previousEntries = previousArchive == null ? null : new ZipCentralDirectory(previousArchive.getFile());
+                    final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+                    try {
+                        buildOperationProcessor.run(new Action<BuildOperationQueue<ParallelZipWriter.DeflateOperation>>() {
+                            public void execute(BuildOperationQueue<ParallelZipWriter.DeflateOperation> queue) {
+                                // Keep the failure as it is, rather than have it reported as a failure to populate the queue
+                                try {
+                                    zipWriter.start(queue);
+                                    stream.process(new ParallelStreamAction(zipWriter, previousEntries));
+                                    zipWriter.finish();
+                                } catch (IOException e) {
+                                    failure.set(new UncheckedIOException(e));
+                                    queue.cancel();
+                                } catch (RuntimeException e) {
+                                    failure.set(e);
+                                    queue.cancel();
+                                }
+                            }
+                        });
+                    } finally {
+                        if (previousEntries != null) {
+                            IoActions.closeQuietly(previousEntries);
+                        }
+                    }
+                    if (failure.get() != null) {
+                        throw failure.get();
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof Zip64RequiredException) {
+                throw new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
+                        String.format("%s\n\nTo build this archive, please enable the zip64 extension.\nSee: %s", e.getCause().getMessage(), documentationRegistry.getDslRefForProperty(Zip.class, "zip64"))
+                );
+            }
+            throw e;
+        }
+
+        return new SimpleWorkResult(true);
+    }
+
+    private class ParallelStreamAction implements CopyActionProcessingStreamAction {
+        private final ParallelZipWriter zipWriter;
+        private final ZipCentralDirectory previousEntries;
+
+        public ParallelStreamAction(ParallelZipWriter zipWriter, ZipCentralDirectory previousEntries) {
+            this.zipWriter = zipWriter;
+            this.previousEntries = previousEntries;
+        }
+
+        public void processFile(FileCopyDetailsInternal details) {
+            try {
+                if (details.isDirectory()) {
+                    // Trailing slash in name indicates that entry is a directory
+                    zipWriter.putDirectory(details.getRelativePath().getPathString() + '/', details.getLastModified(), UnixStat.DIR_FLAG | details.getMode());
+                } else if (previousEntries != null && previousArchive.getChangedSourceFiles().isCopiedFromUnchangedFile(details)) {
+                    zipWriter.putUnchangedFile(details.getRelativePath().getPathString(), details.getLastModified(), UnixStat.FILE_FLAG | details.getMode(), details, previousEntries);
+                } else {
+                    zipWriter.putFile(details.getRelativePath().getPathString(), details.getLastModified(), UnixStat.FILE_FLAG | details.getMode(), details);
+                }
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", details, zipFile), e);
+            }
+        }
+    }
+
     private class StreamAction implements CopyActionProcessingStreamAction {
         private final ZipOutputStream zipOutStr;
 
@@ -26,6 +26,7 @@ import java.net.URI;
 abstract class AbstractArchiver implements CompressedReadableResource {
     protected final ReadableResourceInternal resource;
     protected final URI uri;
+    private boolean readAhead;
 
     public AbstractArchiver(ReadableResourceInternal resource) {
         assert resource != null;
@@ -37,6 +38,18 @@ abstract class AbstractArchiver implements CompressedReadableResource {
 
     abstract public InputStream read();
 
+    public boolean isReadAhead() {
+        return readAhead;
+    }
+
+    public void setReadAhead(boolean readAhead) {
+        this.readAhead = readAhead;
+    }
+
+    protected InputStream maybeReadAhead(InputStream decompressed) {
+        return readAhead ? new ReadAheadInputStream(decompressed) : decompressed;
+    }
+
     public String getDisplayName() {
         return resource.getDisplayName();
     }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive.compression;
+
+import java.io.IOException;
+
+/**
+ * Compresses the content of an archive in blocks that are independent of each other, so that the blocks can be compressed in parallel.
+ * The compressed archive is the concatenation of the compressed blocks.
+ */
+public interface BlockCompressor {
+    /**
+     * Returns the number of bytes of content to compress in each block.
+     */
+    int getBlockSize();
+
+    /**
+     * Compresses the given block of content into a complete compressed stream.
+     */
+    byte[] compress(byte[] content, int length) throws IOException;
+}
@@ -25,6 +25,8 @@ import org.gradle.internal.resource.ResourceExceptions;
 import java.io.*;
 
 public class Bzip2Archiver extends AbstractArchiver {
+    private static final int BLOCK_SIZE = 9 * 100000;
+
     public Bzip2Archiver(ReadableResourceInternal resource) {
         super(resource);
     }
@@ -52,13 +54,35 @@ public class Bzip2Archiver extends AbstractArchiver {
         };
     }
 
+    /**
+     * Returns a compressor that compresses each block into a separate bzip2 stream. The concatenated streams form a valid bzip2 file.
+     */
+    public static BlockCompressor getBlockCompressor() {
+        return new BlockCompressor() {
+            public int getBlockSize() {
+                return BLOCK_SIZE;
+            }
+
+            public byte[] compress(byte[] content, int length) throws IOException {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 64);
+                compressed.write('B');
+                compressed.write('Z');
+                CBZip2OutputStream outStr = new CBZip2OutputStream(compressed);
+                outStr.write(content, 0, length);
+                outStr.close();
+                return compressed.toByteArray();
+            }
+        };
+    }
+
     public InputStream read() {
         InputStream is = resource.read();
         try {
             // CBZip2InputStream expects the opening "BZ" to be skipped
             byte[] skip = new byte[2];
             is.read(skip);
-            return new CBZip2InputStream(is);
+            // Read all concatenated streams, as written by parallel compressors
+            return maybeReadAhead(new CBZip2InputStream(is, true));
         } catch (Exception e) {
             IOUtils.closeQuietly(is);
             throw ResourceExceptions.readFailed(resource.getDisplayName(), e);
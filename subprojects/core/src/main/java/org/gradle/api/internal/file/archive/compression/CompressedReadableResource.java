@@ -19,4 +19,13 @@ package org.gradle.api.internal.file.archive.compression;
 import org.gradle.api.resources.internal.ReadableResourceInternal;
 
 public interface CompressedReadableResource extends ReadableResourceInternal {
+    /**
+     * Returns true when the resource is decompressed on a separate thread, ahead of the reader.
+     */
+    boolean isReadAhead();
+
+    /**
+     * Decompresses the resource on a separate thread while the content read so far is being processed, for example while a TAR tree expands the entries of the resource.
+     */
+    void setReadAhead(boolean readAhead);
 }
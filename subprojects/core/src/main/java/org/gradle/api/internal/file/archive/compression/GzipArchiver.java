@@ -25,6 +25,8 @@ import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 public class GzipArchiver extends AbstractArchiver {
+    private static final int BLOCK_SIZE = 1024 * 1024;
+
     public GzipArchiver(ReadableResourceInternal resource) {
         super(resource);
     }
@@ -50,10 +52,29 @@ public class GzipArchiver extends AbstractArchiver {
         };
     }
 
+    /**
+     * Returns a compressor that compresses each block into a separate gzip member. The concatenated members form a valid gzip file.
+     */
+    public static BlockCompressor getBlockCompressor() {
+        return new BlockCompressor() {
+            public int getBlockSize() {
+                return BLOCK_SIZE;
+            }
+
+            public byte[] compress(byte[] content, int length) throws IOException {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+                GZIPOutputStream outStr = new GZIPOutputStream(compressed);
+                outStr.write(content, 0, length);
+                outStr.close();
+                return compressed.toByteArray();
+            }
+        };
+    }
+
     public InputStream read() {
         InputStream is = resource.read();
         try {
-            return new GZIPInputStream(is);
+            return maybeReadAhead(new GZIPInputStream(is));
         } catch (Exception e) {
             IOUtils.closeQuietly(is);
             throw ResourceExceptions.readFailed(resource.getDisplayName(), e);
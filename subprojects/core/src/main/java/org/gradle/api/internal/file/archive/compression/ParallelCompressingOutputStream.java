@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive.compression;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compresses the content written to it in blocks that are compressed in parallel by build operations, and writes the compressed blocks in order.
+ */
+public class ParallelCompressingOutputStream extends OutputStream {
+    private static final int MAX_PENDING_BLOCKS = 16;
+
+    private final OutputStream output;
+    private final BlockCompressor compressor;
+    private final BuildOperationQueue<CompressBlockOperation> queue;
+    private final Deque<CompressBlockOperation> pending = new ArrayDeque<CompressBlockOperation>();
+    private byte[] block;
+    private int blockLength;
+    private int blockCount;
+    private boolean closed;
+
+    public ParallelCompressingOutputStream(OutputStream output, BlockCompressor compressor, BuildOperationQueue<CompressBlockOperation> queue) {
+        this.output = output;
+        this.compressor = compressor;
+        this.queue = queue;
+        this.block = new byte[compressor.getBlockSize()];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        block[blockLength++] = (byte) b;
+        if (blockLength == block.length) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, block.length - blockLength);
+            System.arraycopy(bytes, off, block, blockLength, count);
+            blockLength += count;
+            off += count;
+            len -= count;
+            if (blockLength == block.length) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Compresses the last block, then writes all remaining compressed blocks and closes the target stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // Empty content is compressed as well, so that the result is a valid compressed stream
+            if (blockLength > 0 || blockCount == 0) {
+                submitBlock();
+            }
+            while (!pending.isEmpty()) {
+                output.write(pending.removeFirst().getResult());
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        CompressBlockOperation operation = new CompressBlockOperation(compressor, block, blockLength, ++blockCount);
+        queue.add(operation);
+        pending.addLast(operation);
+        block = new byte[block.length];
+        blockLength = 0;
+        while (pending.size() > MAX_PENDING_BLOCKS) {
+            output.write(pending.removeFirst().getResult());
+        }
+    }
+
+    public static class CompressBlockOperation implements RunnableBuildOperation {
+        private final BlockCompressor compressor;
+        private final int index;
+        private final int length;
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private byte[] content;
+        private byte[] result;
+        private Throwable failure;
+
+        private CompressBlockOperation(BlockCompressor compressor, byte[] content, int length, int index) {
+            this.compressor = compressor;
+            this.content = content;
+            this.length = length;
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            try {
+                result = compressor.compress(content, length);
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                content = null;
+                completed.countDown();
+            }
+        }
+
+        byte[] getResult() throws IOException {
+            try {
+                completed.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+            return result;
+        }
+
+        @Override
+        public String getDescription() {
+            return "compressing block " + index;
+        }
+    }
+}
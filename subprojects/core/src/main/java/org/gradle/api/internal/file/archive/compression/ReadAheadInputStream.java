@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive.compression;
+
+import org.gradle.api.Action;
+import org.gradle.internal.IoActions;
+import org.gradle.internal.UncheckedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@code InputStream} which reads ahead from the source {@code InputStream} on a separate thread, so that the source can be decompressed
+ * while the content read so far is being processed. Failures to read the source are rethrown to the reader once the content that was read
+ * ahead has been consumed.
+ *
+ * <p>The source is closed by the reading thread. Closing this stream stops the reading thread and waits until the source has been closed.</p>
+ */
+public class ReadAheadInputStream extends InputStream {
+    private static final int CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_PENDING_CHUNKS = 8;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final Deque<Chunk> chunks = new ArrayDeque<Chunk>();
+    private boolean sourceFinished;
+    private boolean sourceClosed;
+    private boolean closed;
+    private Throwable failure;
+    private Chunk current;
+    private int currentPos;
+
+    static class ThreadExecuter implements Action<Runnable> {
+        public void execute(Runnable runnable) {
+            Thread thread = new Thread(runnable);
+            thread.setName("ReadAheadInputStream source reader");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public ReadAheadInputStream(InputStream source) {
+        this(source, new ThreadExecuter());
+    }
+
+    ReadAheadInputStream(final InputStream source, Action<Runnable> executer) {
+        executer.execute(new Runnable() {
+            public void run() {
+                try {
+                    readSource(source);
+                } catch (Throwable t) {
+                    lock.lock();
+                    try {
+                        failure = t;
+                        condition.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                } finally {
+                    IoActions.closeQuietly(source);
+                    lock.lock();
+                    try {
+                        sourceFinished = true;
+                        sourceClosed = true;
+                        condition.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        });
+    }
+
+    private void readSource(InputStream source) throws Exception {
+        while (true) {
+            lock.lock();
+            try {
+                while (!closed && chunks.size() >= MAX_PENDING_CHUNKS) {
+                    // enough content is pending, wait until some of it has been read
+                    condition.await();
+                }
+                if (closed) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            byte[] data = new byte[CHUNK_SIZE];
+            int length = 0;
+            int nread = 0;
+            while (length < data.length && (nread = source.read(data, length, data.length - length)) >= 0) {
+                length += nread;
+            }
+
+            lock.lock();
+            try {
+                if (length > 0) {
+                    chunks.addLast(new Chunk(data, length));
+                }
+                if (nread < 0) {
+                    sourceFinished = true;
+                }
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (nread < 0) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] buffer = new byte[1];
+        int nread = read(buffer, 0, 1);
+        return nread < 0 ? -1 : buffer[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int pos, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        if (current == null || currentPos == current.length) {
+            lock.lock();
+            try {
+                while (chunks.isEmpty() && !sourceFinished && failure == null) {
+                    condition.await();
+                }
+                if (chunks.isEmpty()) {
+                    // Drain the chunks before reporting a failure or end-of-stream
+                    if (failure instanceof IOException) {
+                        throw (IOException) failure;
+                    }
+                    if (failure != null) {
+                        throw UncheckedException.throwAsUncheckedException(failure);
+                    }
+                    return -1;
+                }
+                current = chunks.removeFirst();
+                currentPos = 0;
+                condition.signalAll();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        int nread = Math.min(count, current.length - currentPos);
+        System.arraycopy(current.data, currentPos, bytes, pos, nread);
+        currentPos += nread;
+        return nread;
+    }
+
+    /**
+     * Stops reading ahead and waits until the source has been closed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            chunks.clear();
+            condition.signalAll();
+            while (!sourceClosed) {
+                condition.await();
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Chunk {
+        final byte[] data;
+        final int length;
+
+        Chunk(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+}
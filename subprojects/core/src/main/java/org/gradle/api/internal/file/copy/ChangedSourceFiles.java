@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.api.Action;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The source files of a copy that have changed since the previous execution of a task.
+ */
+public class ChangedSourceFiles {
+    private final Set<File> files;
+    private final boolean hasRemovedFiles;
+
+    public ChangedSourceFiles(Set<File> files, boolean hasRemovedFiles) {
+        this.files = files;
+        this.hasRemovedFiles = hasRemovedFiles;
+    }
+
+    /**
+     * Collects the out of date and removed input files of the given incremental input changes.
+     */
+    public static ChangedSourceFiles of(IncrementalTaskInputs inputs) {
+        final Set<File> files = new HashSet<File>();
+        Action<InputFileDetails> collector = new Action<InputFileDetails>() {
+            public void execute(InputFileDetails details) {
+                files.add(details.getFile());
+            }
+        };
+        inputs.outOfDate(collector);
+        int outOfDateCount = files.size();
+        inputs.removed(collector);
+        return new ChangedSourceFiles(files, files.size() > outOfDateCount);
+    }
+
+    /**
+     * Returns true when some source files have been removed since the previous execution.
+     */
+    public boolean hasRemovedFiles() {
+        return hasRemovedFiles;
+    }
+
+    /**
+     * Returns true when the given file is copied from a source file on disk that has not changed.
+     */
+    public boolean isCopiedFromUnchangedFile(FileCopyDetailsInternal details) {
+        if (details.isDirectory()) {
+            return false;
+        }
+        FileVisitDetails source = details.getSourceDetails();
+        if (!(source instanceof DefaultFileTreeElement)) {
+            // Not a file on disk, so it is unknown which input the file belongs to
+            return false;
+        }
+        return !files.contains(source.getFile());
+    }
+}
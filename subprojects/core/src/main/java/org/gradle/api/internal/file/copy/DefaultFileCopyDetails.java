@@ -53,6 +53,14 @@ public class DefaultFileCopyDetails extends AbstractFileTreeElement implements F
         return fileDetails.toString();
     }
 
+    public FileVisitDetails getUnfilteredSourceDetails() {
+        return filterChain.hasFilters() ? null : fileDetails;
+    }
+
+    public FileVisitDetails getSourceDetails() {
+        return fileDetails;
+    }
+
     public void stopVisiting() {
         fileDetails.stopVisiting();
     }
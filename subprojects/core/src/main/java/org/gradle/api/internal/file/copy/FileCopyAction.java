@@ -15,36 +15,228 @@
  */
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.Action;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
+import org.gradle.api.internal.file.copy.jdk7.HardLinks;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.file.PathToFileResolver;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class FileCopyAction implements CopyAction {
+    public static final String PARALLEL_COPY_TOGGLE = "org.gradle.copy.parallel";
+    /**
+     * When enabled, unfiltered files are hard linked into the destination instead of being copied. Changes made to a linked file in the destination
+     * are also made to the source file, so this is only enabled when requested.
+     */
+    public static final String HARD_LINKS_TOGGLE = "org.gradle.copy.hardLinks";
 
     private final PathToFileResolver fileResolver;
+    private final BuildOperationProcessor buildOperationProcessor;
+    private final boolean hardLinks;
+    private final boolean linkCounts;
 
     public FileCopyAction(PathToFileResolver fileResolver) {
+        this(fileResolver, null);
+    }
+
+    /**
+     * @param buildOperationProcessor The processor used to copy files in parallel, or null to copy files serially.
+     */
+    public FileCopyAction(PathToFileResolver fileResolver, BuildOperationProcessor buildOperationProcessor) {
         this.fileResolver = fileResolver;
+        this.buildOperationProcessor = buildOperationProcessor;
+        this.hardLinks = Boolean.getBoolean(HARD_LINKS_TOGGLE) && JavaVersion.current().isJava7Compatible();
+        this.linkCounts = JavaVersion.current().isJava7Compatible();
+    }
+
+    public static boolean isParallelCopyEnabled() {
+        return Boolean.getBoolean(PARALLEL_COPY_TOGGLE);
     }
 
-    public WorkResult execute(CopyActionProcessingStream stream) {
+    public WorkResult execute(final CopyActionProcessingStream stream) {
+        if (buildOperationProcessor != null) {
+            return executeInParallel(stream);
+        }
+
         FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
         stream.process(action);
         return new SimpleWorkResult(action.didWork);
     }
 
+    private WorkResult executeInParallel(final CopyActionProcessingStream stream) {
+        final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+        final ParallelFileCopyDetailsInternalAction action = new ParallelFileCopyDetailsInternalAction(failure);
+        buildOperationProcessor.run(new Action<BuildOperationQueue<CopyFileOperation>>() {
+            public void execute(BuildOperationQueue<CopyFileOperation> queue) {
+                // Keep the failure as it is, rather than have it reported as a failure to populate the queue.
+                // The queue is not canceled, as copies of the same target wait for each other to finish
+                try {
+                    action.queue = queue;
+                    stream.process(action);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        });
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return new SimpleWorkResult(action.didWork);
+    }
+
+    /**
+     * Returns the file that the given details can be copied from without transforming its content, or null when there is no such file.
+     */
+    private static File getUnfilteredSourceFile(FileCopyDetailsInternal details) {
+        if (details.isDirectory()) {
+            return null;
+        }
+        FileVisitDetails source = details.getUnfilteredSourceDetails();
+        if (source instanceof DefaultFileTreeElement) {
+            return source.getFile();
+        }
+        return null;
+    }
+
+    /**
+     * Hard links the target to the source of the given details, when enabled and when the target can share the permissions of the source.
+     */
+    private boolean tryLink(FileCopyDetailsInternal details, File target) {
+        if (!hardLinks) {
+            return false;
+        }
+        File source = getUnfilteredSourceFile(details);
+        if (source == null || details.getMode() != details.getUnfilteredSourceDetails().getMode()) {
+            return false;
+        }
+        GFileUtils.mkdirs(target.getParentFile());
+        return HardLinks.tryLink(source, target);
+    }
+
+    /**
+     * Copies the given details to the target. An existing target file that may be a hard link to a source file is deleted first rather than
+     * overwritten, as the source file must not be changed. Other target files are overwritten in place.
+     */
+    private boolean copy(FileCopyDetailsInternal details, File target) {
+        if (!details.isDirectory() && mayBeLinked(target)) {
+            GFileUtils.forceDelete(target);
+        }
+        return details.copyTo(target);
+    }
+
+    /**
+     * Returns true when the given target may be a hard link, as hard links are enabled or as it was linked by an earlier copy.
+     */
+    private boolean mayBeLinked(File target) {
+        if (hardLinks) {
+            return target.isFile();
+        }
+        return linkCounts && HardLinks.isLinked(target);
+    }
+
     private class FileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
         private boolean didWork;
 
         public void processFile(FileCopyDetailsInternal details) {
             File target = fileResolver.resolve(details.getRelativePath().getPathString());
-            boolean copied = details.copyTo(target);
+            boolean copied = tryLink(details, target) || copy(details, target);
             if (copied) {
                 didWork = true;
             }
         }
     }
+
+    private class ParallelFileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
+        private final AtomicReference<RuntimeException> failure;
+        // The last copy queued for each target, so that later copies to the same target are applied in order
+        private final Map<File, CopyFileOperation> queuedTargets = new HashMap<File, CopyFileOperation>();
+        private BuildOperationQueue<CopyFileOperation> queue;
+        private boolean didWork;
+
+        ParallelFileCopyDetailsInternalAction(AtomicReference<RuntimeException> failure) {
+            this.failure = failure;
+        }
+
+        public void processFile(FileCopyDetailsInternal details) {
+            if (failure.get() != null) {
+                return;
+            }
+            File target = fileResolver.resolve(details.getRelativePath().getPathString());
+            CopyFileOperation previous = queuedTargets.get(target);
+            if (getUnfilteredSourceFile(details) != null && !hardLinks) {
+                // Files that are copied without transforming their content may be read after the visit, so copy them in parallel.
+                // Everything else is copied while it is being visited
+                CopyFileOperation operation = new CopyFileOperation(details, target, previous, failure);
+                queuedTargets.put(target, operation);
+                queue.add(operation);
+                didWork = true;
+                return;
+            }
+            if (previous != null) {
+                previous.awaitFinished();
+            }
+            boolean copied = tryLink(details, target) || copy(details, target);
+            if (copied) {
+                didWork = true;
+            }
+        }
+    }
+
+    class CopyFileOperation implements RunnableBuildOperation {
+        private final FileCopyDetailsInternal details;
+        private final File target;
+        private final CopyFileOperation previous;
+        private final AtomicReference<RuntimeException> failure;
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        CopyFileOperation(FileCopyDetailsInternal details, File target, CopyFileOperation previous, AtomicReference<RuntimeException> failure) {
+            this.details = details;
+            this.target = target;
+            this.previous = previous;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (previous != null) {
+                    previous.awaitFinished();
+                }
+                if (failure.get() == null) {
+                    copy(details, target);
+                }
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        void awaitFinished() {
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "copying ".concat(details.toString());
+        }
+    }
 }
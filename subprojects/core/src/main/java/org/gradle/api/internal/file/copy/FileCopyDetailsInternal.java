@@ -17,9 +17,20 @@
 package org.gradle.api.internal.file.copy;
 
 import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.file.FileVisitDetails;
 
 public interface FileCopyDetailsInternal extends FileCopyDetails {
 
     boolean isIncludeEmptyDirs();
 
+    /**
+     * Returns the details of the source file when its content is copied unchanged, or null when the content is filtered.
+     */
+    FileVisitDetails getUnfilteredSourceDetails();
+
+    /**
+     * Returns the details of the source file that this file is copied from, or null when there is no such file.
+     */
+    FileVisitDetails getSourceDetails();
+
 }
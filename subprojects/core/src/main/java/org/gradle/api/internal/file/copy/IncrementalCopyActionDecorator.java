@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.copy;
+
+import com.google.common.base.Joiner;
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.TaskInputsInternal;
+import org.gradle.api.internal.TaskOutputsInternal;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.Factory;
+import org.gradle.internal.file.PathToFileResolver;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Skips the files that have not changed since the previous execution of a task.
+ *
+ * <p>A file has not changed when it is copied from a source file that has not changed, and its target was produced by the previous execution.
+ * The target itself has not changed either, as the input changes of a task are only incremental when its outputs have not changed.</p>
+ *
+ * <p>A target that the previous execution copied more than one file to is always copied, as the file that was copied last may have been removed since.
+ * These targets are recorded in the temporary directory of the task at the end of each execution, and nothing is skipped when there is no record.
+ * The targets of removed source files are left in place, as with a full copy, and {@link SyncCopyActionDecorator} finds them in the previous output files.</p>
+ *
+ * <p>Nothing is skipped either when other tasks have written to the destination, as a target of the previous execution may have been overwritten since.</p>
+ */
+public class IncrementalCopyActionDecorator implements CopyAction {
+    public static final String INCREMENTAL_COPY_TOGGLE = "org.gradle.copy.incremental";
+    private static final String SHARED_TARGETS_FILE = "sharedCopyTargets.txt";
+    private static final String ENCODING = "UTF-8";
+
+    private final CopyAction delegate;
+    private final PathToFileResolver fileResolver;
+    private final ChangedSourceFiles changedSourceFiles;
+    private final Set<File> previousOutputFiles;
+    private final Set<File> previousSharedTargets;
+    private final File sharedTargetsFile;
+
+    /**
+     * Creates an action that skips unchanged files when the given changed source files are not null, and otherwise only records the shared targets.
+     */
+    public IncrementalCopyActionDecorator(CopyAction delegate, PathToFileResolver fileResolver, @Nullable ChangedSourceFiles changedSourceFiles, Set<File> previousOutputFiles, Set<File> previousSharedTargets, File sharedTargetsFile) {
+        this.delegate = delegate;
+        this.fileResolver = fileResolver;
+        this.changedSourceFiles = changedSourceFiles;
+        this.previousOutputFiles = previousOutputFiles;
+        this.previousSharedTargets = previousSharedTargets;
+        this.sharedTargetsFile = sharedTargetsFile;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(INCREMENTAL_COPY_TOGGLE);
+    }
+
+    /**
+     * Decorates the given action to skip unchanged files when enabled, or returns the action as it is otherwise.
+     */
+    public static CopyAction decorate(CopyAction delegate, PathToFileResolver fileResolver, TaskInputsInternal inputs, TaskOutputsInternal outputs, Factory<File> temporaryDir) {
+        if (!isEnabled()) {
+            return delegate;
+        }
+        IncrementalTaskInputs inputChanges = inputs.getInputChanges();
+        if (inputChanges == null) {
+            return delegate;
+        }
+        File sharedTargetsFile = new File(temporaryDir.create(), SHARED_TARGETS_FILE);
+        Set<File> previousSharedTargets = readTargets(sharedTargetsFile);
+        // The record no longer matches the destination once the copy has started, and is written again when it has completed
+        GFileUtils.deleteQuietly(sharedTargetsFile);
+        if (!inputChanges.isIncremental() || previousSharedTargets == null || outputs.hasOverlappingOutputs()) {
+            return new IncrementalCopyActionDecorator(delegate, fileResolver, null, Collections.<File>emptySet(), Collections.<File>emptySet(), sharedTargetsFile);
+        }
+        Set<File> previousOutputFiles = new HashSet<File>(outputs.getPreviousOutputFiles().getFiles());
+        return new IncrementalCopyActionDecorator(delegate, fileResolver, ChangedSourceFiles.of(inputChanges), previousOutputFiles, previousSharedTargets, sharedTargetsFile);
+    }
+
+    /**
+     * Returns the output files of the previous execution when unchanged files are skipped, or null when all files are copied.
+     */
+    @Nullable
+    public Set<File> getPreviousOutputFiles() {
+        return changedSourceFiles == null ? null : previousOutputFiles;
+    }
+
+    public WorkResult execute(final CopyActionProcessingStream stream) {
+        final Set<File> visitedTargets = new HashSet<File>();
+        final Set<File> sharedTargets = new HashSet<File>();
+        WorkResult result = delegate.execute(new CopyActionProcessingStream() {
+            public void process(final CopyActionProcessingStreamAction action) {
+                stream.process(new CopyActionProcessingStreamAction() {
+                    public void processFile(FileCopyDetailsInternal details) {
+                        File target = fileResolver.resolve(details.getRelativePath().getPathString());
+                        if (!visitedTargets.add(target)) {
+                            // Later copies to the same target are always made, so that the last one still wins
+                            sharedTargets.add(target);
+                        } else if (isUnchanged(details, target)) {
+                            return;
+                        }
+                        action.processFile(details);
+                    }
+                });
+            }
+        });
+        writeTargets(sharedTargetsFile, sharedTargets);
+        return result;
+    }
+
+    private boolean isUnchanged(FileCopyDetailsInternal details, File target) {
+        return changedSourceFiles != null
+            && changedSourceFiles.isCopiedFromUnchangedFile(details)
+            && previousOutputFiles.contains(target)
+            && !previousSharedTargets.contains(target);
+    }
+
+    @Nullable
+    private static Set<File> readTargets(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        Set<File> targets = new HashSet<File>();
+        for (String path : GFileUtils.readFile(file, ENCODING).split("\n")) {
+            if (path.length() > 0) {
+                targets.add(new File(path));
+            }
+        }
+        return targets;
+    }
+
+    private static void writeTargets(File file, Set<File> targets) {
+        GFileUtils.writeFile(Joiner.on('\n').join(targets), file, ENCODING);
+    }
+}
@@ -19,6 +19,7 @@ import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
 import org.gradle.api.internal.file.collections.DirectoryFileTree;
 import org.gradle.api.internal.file.collections.MinimalFileTree;
@@ -27,10 +28,15 @@ import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.nativeintegration.services.FileSystems;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class SyncCopyActionDecorator implements CopyAction {
@@ -64,13 +70,41 @@ public class SyncCopyActionDecorator implements CopyAction {
 
         SyncCopyActionDecoratorFileVisitor fileVisitor = new SyncCopyActionDecoratorFileVisitor(visited, preserveSpec);
 
-        MinimalFileTree walker = new DirectoryFileTree(baseDestDir).postfix();
-        walker.visit(fileVisitor);
+        Set<File> previousOutputFiles = delegate instanceof IncrementalCopyActionDecorator ? ((IncrementalCopyActionDecorator) delegate).getPreviousOutputFiles() : null;
+        if (previousOutputFiles != null) {
+            // The task owns the destination, so only the output files of the previous execution can be left over
+            visitPreviousOutputFiles(previousOutputFiles, fileVisitor);
+        } else {
+            MinimalFileTree walker = new DirectoryFileTree(baseDestDir).postfix();
+            walker.visit(fileVisitor);
+        }
         visited.clear();
 
         return new SimpleWorkResult(didWork.getDidWork() || fileVisitor.didWork);
     }
 
+    private void visitPreviousOutputFiles(Set<File> previousOutputFiles, SyncCopyActionDecoratorFileVisitor visitor) {
+        FileSystem fileSystem = FileSystems.getDefault();
+        List<String> paths = new ArrayList<String>();
+        String basePath = baseDestDir.getAbsolutePath() + File.separator;
+        for (File file : previousOutputFiles) {
+            if (file.getAbsolutePath().startsWith(basePath)) {
+                paths.add(file.getAbsolutePath().substring(basePath.length()));
+            }
+        }
+        // Visits the files in a directory before the directory itself, like the post-order walk of the destination
+        Collections.sort(paths, Collections.reverseOrder());
+        for (String path : paths) {
+            File file = new File(baseDestDir, path);
+            if (!file.exists()) {
+                continue;
+            }
+            boolean isDir = file.isDirectory();
+            RelativePath relativePath = RelativePath.parse(!isDir, path.replace(File.separatorChar, '/'));
+            visitor.maybeDelete(new DefaultFileTreeElement(file, relativePath, fileSystem, fileSystem), isDir);
+        }
+    }
+
     private static class SyncCopyActionDecoratorFileVisitor implements FileVisitor {
         private final Set<RelativePath> visited;
         private final Spec<FileTreeElement> preserveSpec;
@@ -96,7 +130,7 @@ public class SyncCopyActionDecorator implements CopyAction {
             maybeDelete(fileDetails, false);
         }
 
-        private void maybeDelete(FileVisitDetails fileDetails, boolean isDir) {
+        private void maybeDelete(FileTreeElement fileDetails, boolean isDir) {
             RelativePath path = fileDetails.getRelativePath();
             if (!visited.contains(path)) {
                 if (preserveSet.isEmpty() || !preserveSpec.isSatisfiedBy(fileDetails)) {
@@ -25,4 +25,11 @@ public interface ZipCompressor extends ArchiveOutputStreamFactory {
 
     ZipOutputStream createArchiveOutputStream(File destination) throws IOException;
 
+    /**
+     * Returns the compression method of the entries, either {@link ZipOutputStream#DEFLATED} or {@link ZipOutputStream#STORED}.
+     */
+    int getCompressionMethod();
+
+    boolean isZip64Allowed();
+
 }
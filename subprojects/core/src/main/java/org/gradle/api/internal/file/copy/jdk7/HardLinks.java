@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.copy.jdk7;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class HardLinks {
+    /**
+     * Replaces the given target with a hard link to the given source file.
+     *
+     * @return true when the link was created, false when the file system of the target does not support linking to the source.
+     */
+    public static boolean tryLink(File source, File target) {
+        Path link = target.toPath();
+        try {
+            Files.deleteIfExists(link);
+            Files.createLink(link, source.toPath());
+            return true;
+        } catch (IOException e) {
+            return false;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns true when the given file is known to have more than one link. Returns false when the file system does not report the number of links of the file.
+     */
+    public static boolean isLinked(File file) {
+        try {
+            Object count = Files.getAttribute(file.toPath(), "unix:nlink");
+            return count instanceof Integer && (Integer) count > 1;
+        } catch (IOException e) {
+            return false;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
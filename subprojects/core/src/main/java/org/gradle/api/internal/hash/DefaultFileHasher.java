@@ -23,6 +23,7 @@ import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.internal.file.archive.ArchiveEntryDetails;
 import org.gradle.internal.resource.TextResource;
 
 import java.io.File;
@@ -51,6 +52,12 @@ public class DefaultFileHasher implements FileHasher {
 
     @Override
     public HashCode hash(FileTreeElement fileDetails) {
+        if (fileDetails instanceof ArchiveEntryDetails) {
+            // Hash the content straight from the archive, rather than expanding the entry
+            Hasher hasher = createFileHasher();
+            fileDetails.copyTo(Funnels.asOutputStream(hasher));
+            return hasher.hash();
+        }
         return hash(fileDetails.getFile());
     }
 
@@ -70,6 +70,7 @@ import org.gradle.api.resources.ResourceHandler;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.configuration.project.ProjectConfigurationActionContainer;
+import org.gradle.configuration.project.ProjectEvaluationCoordinator;
 import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Actions;
@@ -315,6 +316,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     public ProjectInternal getRootProject() {
+        getProjectEvaluationCoordinator().accessProject(rootProject);
         return rootProject;
     }
 
@@ -357,6 +359,9 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     public ProjectInternal getParent() {
+        if (parent != null) {
+            getProjectEvaluationCoordinator().accessProject(parent);
+        }
         return parent;
     }
 
@@ -390,7 +395,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         } else if (this == rootProject) {
             return "";
         }
-        group = rootProject.getName() + (getParent() == rootProject ? "" : "." + getParent().getPath().substring(1).replace(':', '.'));
+        group = rootProject.getName() + (parent == rootProject ? "" : "." + parent.getPath().substring(1).replace(':', '.'));
         return group;
     }
 
@@ -503,6 +508,12 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ProjectEvaluationCoordinator getProjectEvaluationCoordinator() {
+        // Decoration takes care of the implementation
+        throw new UnsupportedOperationException();
+    }
+
     public int depthCompare(Project otherProject) {
         return new Integer(getDepth()).compareTo(otherProject.getDepth());
     }
@@ -551,7 +562,11 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         if (!isTrue(path)) {
             throw new InvalidUserDataException("A path must be specified!");
         }
-        return getProjectRegistry().getProject(absoluteProjectPath(path));
+        ProjectInternal project = getProjectRegistry().getProject(absoluteProjectPath(path));
+        if (project != null) {
+            getProjectEvaluationCoordinator().accessProject(project);
+        }
+        return project;
     }
 
     public Set<Project> getAllprojects() {
@@ -563,15 +578,29 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     public void subprojects(Action<? super Project> action) {
-        configure(getSubprojects(), action);
+        configure(assertCanConfigure(getSubprojects()), action);
     }
 
     public void allprojects(Action<? super Project> action) {
-        configure(getAllprojects(), action);
+        configure(assertCanConfigure(getAllprojects()), action);
+    }
+
+    private Set<Project> assertCanConfigure(Set<Project> projects) {
+        for (Project project : projects) {
+            getProjectEvaluationCoordinator().assertCanConfigure((ProjectInternal) project);
+        }
+        return projects;
+    }
+
+    private void assertCanConfigure(Object object) {
+        if (object instanceof ProjectInternal) {
+            getProjectEvaluationCoordinator().assertCanConfigure((ProjectInternal) object);
+        }
     }
 
     public <T> Iterable<T> configure(Iterable<T> objects, Action<? super T> configureAction) {
         for (T object : objects) {
+            assertCanConfigure(object);
             configureAction.execute(object);
         }
         return objects;
@@ -663,7 +692,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
-        if (projectToEvaluate.getState().getExecuting()) {
+        if (projectToEvaluate.getState().getExecuting() && !getProjectEvaluationCoordinator().isEvaluatingInAnotherThread(projectToEvaluate)) {
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                 projectToEvaluate));
         }
@@ -939,24 +968,29 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     public void subprojects(Closure configureClosure) {
-        configure(getSubprojects(), configureClosure);
+        configure(assertCanConfigure(getSubprojects()), configureClosure);
     }
 
     public void allprojects(Closure configureClosure) {
-        configure(getAllprojects(), configureClosure);
+        configure(assertCanConfigure(getAllprojects()), configureClosure);
     }
 
     @Override
     public Project project(String path, Closure configureClosure) {
-        return ConfigureUtil.configure(configureClosure, project(path));
+        ProjectInternal project = project(path);
+        getProjectEvaluationCoordinator().assertCanConfigure(project);
+        return ConfigureUtil.configure(configureClosure, project);
     }
 
     @Override
     public Project project(String path, Action<? super Project> configureAction) {
-        return Actions.with(project(path), configureAction);
+        ProjectInternal project = project(path);
+        getProjectEvaluationCoordinator().assertCanConfigure(project);
+        return Actions.with(project, configureAction);
     }
 
     public Object configure(Object object, Closure configureClosure) {
+        assertCanConfigure(object);
         return ConfigureUtil.configure(configureClosure, object);
     }
 
@@ -1098,7 +1132,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     public void model(Closure<?> modelRules) {
         ModelRegistry modelRegistry = getModelRegistry();
         if (TransformedModelDslBacking.isTransformedBlock(modelRules)) {
-            ClosureBackedAction.execute(new TransformedModelDslBacking(modelRegistry, this.getRootProject().getFileResolver()), modelRules);
+            ClosureBackedAction.execute(new TransformedModelDslBacking(modelRegistry, rootProject.getFileResolver()), modelRules);
         } else {
             new NonTransformedModelDslBacking(modelRegistry).configure(modelRules);
         }
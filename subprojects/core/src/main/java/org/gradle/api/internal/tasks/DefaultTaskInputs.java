@@ -25,6 +25,8 @@ import org.gradle.api.internal.file.CompositeFileCollection;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.collections.FileCollectionResolveContext;
 import org.gradle.api.tasks.TaskInputs;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.Factory;
 import org.gradle.util.DeprecationLogger;
 
 import java.util.HashMap;
@@ -45,6 +47,7 @@ public class DefaultTaskInputs implements TaskInputsInternal {
     private final Map<String, Object> properties = new HashMap<String, Object>();
     private final List<TaskInputPropertySpecAndBuilder> filePropertiesInternal = Lists.newArrayList();
     private SortedSet<TaskInputFilePropertySpec> fileProperties;
+    private Factory<? extends IncrementalTaskInputs> inputChanges;
 
     public DefaultTaskInputs(FileResolver resolver, TaskInternal task, TaskMutator taskMutator) {
         this.resolver = resolver;
@@ -74,6 +77,16 @@ public class DefaultTaskInputs implements TaskInputsInternal {
         return fileProperties;
     }
 
+    @Override
+    public IncrementalTaskInputs getInputChanges() {
+        return inputChanges == null ? null : inputChanges.create();
+    }
+
+    @Override
+    public void setInputChanges(Factory<? extends IncrementalTaskInputs> inputChanges) {
+        this.inputChanges = inputChanges;
+    }
+
     @Override
     public TaskInputFilePropertyBuilderInternal files(final Object... paths) {
         return taskMutator.mutate("TaskInputs.files(Object...)", new Callable<TaskInputFilePropertyBuilderInternal>() {
@@ -206,6 +206,14 @@ public class DefaultTaskOutputs implements TaskOutputsInternal {
         return history.getOutputFiles();
     }
 
+    @Override
+    public boolean hasOverlappingOutputs() {
+        if (history == null) {
+            throw new IllegalStateException("Task history is currently not available for this task.");
+        }
+        return history.hasOverlappingOutputs();
+    }
+
     @Override
     public void setHistory(TaskExecutionHistory history) {
         this.history = history;
@@ -28,6 +28,7 @@ import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.StopActionException;
 import org.gradle.api.tasks.StopExecutionException;
 import org.gradle.api.tasks.TaskExecutionException;
+import org.gradle.internal.operations.AsyncWorkTracker;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,10 +40,12 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
     private static final Logger LOGGER = Logging.getLogger(ExecuteActionsTaskExecuter.class);
     private final TaskOutputsGenerationListener outputsGenerationListener;
     private final TaskActionListener listener;
+    private final AsyncWorkTracker asyncWorkTracker;
 
-    public ExecuteActionsTaskExecuter(TaskOutputsGenerationListener outputsGenerationListener, TaskActionListener taskActionListener) {
+    public ExecuteActionsTaskExecuter(TaskOutputsGenerationListener outputsGenerationListener, TaskActionListener taskActionListener, AsyncWorkTracker asyncWorkTracker) {
         this.outputsGenerationListener = outputsGenerationListener;
         this.listener = taskActionListener;
+        this.asyncWorkTracker = asyncWorkTracker;
     }
 
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
@@ -53,6 +56,11 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
         state.setExecuting(true);
         try {
             GradleException failure = executeActions(task, state, context);
+            // Wait for any work the actions started asynchronously, even when they failed, so that the work does not outlive the task
+            GradleException asyncWorkFailure = waitForAsyncWork(task);
+            if (failure == null) {
+                failure = asyncWorkFailure;
+            }
             if (failure != null) {
                 state.setOutcome(failure);
             } else {
@@ -89,6 +97,15 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
         return null;
     }
 
+    private GradleException waitForAsyncWork(TaskInternal task) {
+        try {
+            asyncWorkTracker.waitForCompletion();
+            return null;
+        } catch (Throwable t) {
+            return new TaskExecutionException(task, t);
+        }
+    }
+
     private void executeAction(TaskInternal task, ContextAwareTaskAction action, TaskExecutionContext context) {
         action.contextualise(context);
         try {
@@ -22,6 +22,8 @@ import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.TaskExecutionOutcome;
 import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.Factory;
 import org.gradle.internal.time.Timer;
 import org.gradle.internal.time.Timers;
 import org.slf4j.Logger;
@@ -45,7 +47,7 @@ public class SkipUpToDateTaskExecuter implements TaskExecuter {
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         LOGGER.debug("Determining if {} is up-to-date", task);
         Timer clock = Timers.startTimer();
-        TaskArtifactState taskArtifactState = context.getTaskArtifactState();
+        final TaskArtifactState taskArtifactState = context.getTaskArtifactState();
         try {
             List<String> messages = LOGGER.isInfoEnabled() ? new ArrayList<String>() : null;
             if (taskArtifactState.isUpToDate(messages)) {
@@ -56,6 +58,12 @@ public class SkipUpToDateTaskExecuter implements TaskExecuter {
             logOutOfDateMessages(messages, task, clock.getElapsed());
 
             task.getOutputs().setHistory(taskArtifactState.getExecutionHistory());
+            task.getInputs().setInputChanges(new Factory<IncrementalTaskInputs>() {
+                @Override
+                public IncrementalTaskInputs create() {
+                    return taskArtifactState.getInputChanges();
+                }
+            });
 
             taskArtifactState.beforeTask();
             try {
@@ -65,6 +73,7 @@ public class SkipUpToDateTaskExecuter implements TaskExecuter {
                 }
             } finally {
                 task.getOutputs().setHistory(null);
+                task.getInputs().setInputChanges(null);
             }
         } finally {
             taskArtifactState.finished();
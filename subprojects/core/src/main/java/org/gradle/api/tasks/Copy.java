@@ -22,6 +22,8 @@ import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
+import org.gradle.api.internal.file.copy.IncrementalCopyActionDecorator;
+import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -76,7 +78,10 @@ public class Copy extends AbstractCopyTask {
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new FileCopyAction(getFileLookup().getFileResolver(destinationDir));
+        FileResolver destinationResolver = getFileLookup().getFileResolver(destinationDir);
+        BuildOperationProcessor buildOperationProcessor = FileCopyAction.isParallelCopyEnabled() ? getServices().get(BuildOperationProcessor.class) : null;
+        CopyAction copyAction = new FileCopyAction(destinationResolver, buildOperationProcessor);
+        return IncrementalCopyActionDecorator.decorate(copyAction, destinationResolver, getInputs(), getOutputs(), getTemporaryDirFactory());
     }
 
     @Override
@@ -24,9 +24,11 @@ import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
+import org.gradle.api.internal.file.copy.IncrementalCopyActionDecorator;
 import org.gradle.api.internal.file.copy.SyncCopyActionDecorator;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -74,7 +76,10 @@ public class Sync extends AbstractCopyTask {
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new SyncCopyActionDecorator(destinationDir, new FileCopyAction(getFileLookup().getFileResolver(destinationDir)), preserveInDestination);
+        FileResolver destinationResolver = getFileLookup().getFileResolver(destinationDir);
+        BuildOperationProcessor buildOperationProcessor = FileCopyAction.isParallelCopyEnabled() ? getServices().get(BuildOperationProcessor.class) : null;
+        CopyAction copyAction = IncrementalCopyActionDecorator.decorate(new FileCopyAction(destinationResolver, buildOperationProcessor), destinationResolver, getInputs(), getOutputs(), getTemporaryDirFactory());
+        return new SyncCopyActionDecorator(destinationDir, copyAction, preserveInDestination);
     }
 
     @Override
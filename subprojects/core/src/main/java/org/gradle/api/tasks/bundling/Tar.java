@@ -16,14 +16,17 @@
 
 package org.gradle.api.tasks.bundling;
 
+import org.gradle.api.Incubating;
 import org.gradle.api.internal.file.archive.TarCopyAction;
 import org.gradle.api.internal.file.archive.compression.ArchiveOutputStreamFactory;
+import org.gradle.api.internal.file.archive.compression.BlockCompressor;
 import org.gradle.api.internal.file.archive.compression.Bzip2Archiver;
 import org.gradle.api.internal.file.archive.compression.GzipArchiver;
 import org.gradle.api.internal.file.archive.compression.SimpleCompressor;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
+import org.gradle.internal.operations.BuildOperationProcessor;
 
 import java.util.concurrent.Callable;
 
@@ -32,6 +35,7 @@ import java.util.concurrent.Callable;
  */
 public class Tar extends AbstractArchiveTask {
     private Compression compression = Compression.NONE;
+    private boolean parallelCompression;
 
     public Tar() {
         getConventionMapping().map("extension", new Callable<Object>(){
@@ -43,6 +47,9 @@ public class Tar extends AbstractArchiveTask {
 
     @Override
     protected CopyAction createCopyAction() {
+        if (compression != Compression.NONE && parallelCompression) {
+            return new TarCopyAction(getArchivePath(), getBlockCompressor(), getServices().get(BuildOperationProcessor.class));
+        }
         return new TarCopyAction(getArchivePath(), getCompressor());
     }
 
@@ -55,6 +62,14 @@ public class Tar extends AbstractArchiveTask {
         }
     }
 
+    private BlockCompressor getBlockCompressor() {
+        switch(compression) {
+            case BZIP2: return Bzip2Archiver.getBlockCompressor();
+            case GZIP:  return GzipArchiver.getBlockCompressor();
+            default:    throw new IllegalArgumentException(String.format("Cannot compress blocks with compression %s", compression));
+        }
+    }
+
     /**
      * Returns the compression that is used for this archive.
      *
@@ -74,4 +89,28 @@ public class Tar extends AbstractArchiveTask {
         this.compression = compression;
     }
 
+    /**
+     * Returns whether the archive is compressed in blocks that are compressed in parallel. Each block is compressed separately, so the archive is slightly larger.
+     * It can still be read by the usual tools. Has no effect when the archive is not compressed.
+     *
+     * @return true when the archive is compressed in parallel. Defaults to false.
+     * @since 3.5
+     */
+    @Incubating
+    @Input
+    public boolean isParallelCompression() {
+        return parallelCompression;
+    }
+
+    /**
+     * Sets whether the archive is compressed in blocks that are compressed in parallel.
+     *
+     * @param parallelCompression Whether to compress the archive in parallel.
+     * @since 3.5
+     */
+    @Incubating
+    public void setParallelCompression(boolean parallelCompression) {
+        this.parallelCompression = parallelCompression;
+    }
+
 }
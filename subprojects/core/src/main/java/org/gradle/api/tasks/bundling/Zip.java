@@ -19,6 +19,7 @@ import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.internal.file.archive.PreviousZipArchive;
 import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.DefaultZipCompressor;
@@ -26,6 +27,7 @@ import org.gradle.api.internal.file.copy.ZipCompressor;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.internal.operations.BuildOperationProcessor;
 
 import java.nio.charset.Charset;
 
@@ -39,6 +41,7 @@ public class Zip extends AbstractArchiveTask {
     private ZipEntryCompression entryCompression = ZipEntryCompression.DEFLATED;
     private boolean allowZip64;
     private String metadataCharset;
+    private PreviousZipArchive previousArchive;
 
     public Zip() {
         setExtension(ZIP_EXTENSION);
@@ -57,10 +60,28 @@ public class Zip extends AbstractArchiveTask {
         }
     }
 
+    @Override
+    protected void copy() {
+        // When enabled, the entries of files that have not changed since the previous execution are copied from the previous archive
+        previousArchive = ZipCopyAction.isIncrementalArchivingEnabled() ? PreviousZipArchive.moveAside(getArchivePath(), getTemporaryDir(), getInputs().getInputChanges()) : null;
+        try {
+            super.copy();
+        } finally {
+            if (previousArchive != null) {
+                previousArchive.delete();
+                previousArchive = null;
+            }
+        }
+    }
+
     @Override
     protected CopyAction createCopyAction() {
         DocumentationRegistry documentationRegistry = getServices().get(DocumentationRegistry.class);
-        return new ZipCopyAction(getArchivePath(), getCompressor(), documentationRegistry, metadataCharset);
+        // Entries can only be copied from the previous archive by the parallel implementation. It also writes full rebuilds when incremental archiving is enabled,
+        // so that the archive does not depend on whether the previous archive could be used
+        boolean parallel = ZipCopyAction.isParallelCompressionEnabled() || ZipCopyAction.isIncrementalArchivingEnabled();
+        BuildOperationProcessor buildOperationProcessor = parallel ? getServices().get(BuildOperationProcessor.class) : null;
+        return new ZipCopyAction(getArchivePath(), getCompressor(), documentationRegistry, metadataCharset, buildOperationProcessor, previousArchive);
     }
 
     /**
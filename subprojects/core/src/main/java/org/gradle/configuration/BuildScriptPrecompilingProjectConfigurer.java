@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.execution.ProjectConfigurer;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorkerRegistry;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the build scripts of all projects of a hierarchy in parallel before configuring the hierarchy, so that the projects find their scripts in the
+ * script caches when they are configured.
+ *
+ * <p>The scripts are compiled against the base classloader of the root project, which is the classloader that the scripts are compiled against when no
+ * project of the build adds to the build script classpath. Otherwise the compiled scripts are not used, and the scripts are compiled again during
+ * configuration. A script that fails to compile is reported when its project is configured.</p>
+ */
+public class BuildScriptPrecompilingProjectConfigurer implements ProjectConfigurer {
+    public static final String PRECOMPILE_BUILD_SCRIPTS_TOGGLE = "org.gradle.precompileBuildScripts";
+
+    private static final Logger LOGGER = Logging.getLogger(BuildScriptPrecompilingProjectConfigurer.class);
+
+    private final ProjectConfigurer delegate;
+    private final DefaultScriptPluginFactory scriptPluginFactory;
+    private final BuildOperationProcessor buildOperationProcessor;
+    private final BuildOperationWorkerRegistry buildOperationWorkerRegistry;
+    private boolean precompiled;
+
+    public BuildScriptPrecompilingProjectConfigurer(ProjectConfigurer delegate, DefaultScriptPluginFactory scriptPluginFactory, BuildOperationProcessor buildOperationProcessor, BuildOperationWorkerRegistry buildOperationWorkerRegistry) {
+        this.delegate = delegate;
+        this.scriptPluginFactory = scriptPluginFactory;
+        this.buildOperationProcessor = buildOperationProcessor;
+        this.buildOperationWorkerRegistry = buildOperationWorkerRegistry;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PRECOMPILE_BUILD_SCRIPTS_TOGGLE);
+    }
+
+    @Override
+    public void configure(ProjectInternal project) {
+        delegate.configure(project);
+    }
+
+    @Override
+    public void configureFully(ProjectInternal project) {
+        delegate.configureFully(project);
+    }
+
+    @Override
+    public void configureHierarchy(ProjectInternal project) {
+        precompile(project);
+        delegate.configureHierarchy(project);
+    }
+
+    @Override
+    public void configureHierarchyFully(ProjectInternal project) {
+        precompile(project);
+        delegate.configureHierarchyFully(project);
+    }
+
+    private void precompile(ProjectInternal project) {
+        if (precompiled) {
+            return;
+        }
+        precompiled = true;
+
+        ClassLoaderScope baseScope = project.getRootProject().getBaseClassLoaderScope();
+        if (!baseScope.isLocked()) {
+            // Building the classloaders of an unlocked scope would change its structure
+            return;
+        }
+        final ClassLoader classLoader = baseScope.getExportClassLoader();
+        final List<PrecompileBuildScript> operations = new ArrayList<PrecompileBuildScript>();
+        addOperation(project, classLoader, operations);
+        for (Project subproject : project.getSubprojects()) {
+            addOperation((ProjectInternal) subproject, classLoader, operations);
+        }
+        if (operations.size() < 2) {
+            return;
+        }
+
+        BuildOperationWorkerRegistry.Completion completion = buildOperationWorkerRegistry.operationStart();
+        try {
+            buildOperationProcessor.run(new Action<BuildOperationQueue<PrecompileBuildScript>>() {
+                @Override
+                public void execute(BuildOperationQueue<PrecompileBuildScript> queue) {
+                    for (PrecompileBuildScript operation : operations) {
+                        queue.add(operation);
+                    }
+                }
+            });
+        } finally {
+            completion.operationFinish();
+        }
+    }
+
+    private void addOperation(ProjectInternal project, ClassLoader classLoader, List<PrecompileBuildScript> operations) {
+        ScriptSource source = project.getBuildScriptSource();
+        // Other script languages are handled by other script plugin factories
+        if (source.getFileName().endsWith(".gradle") && !source.getResource().getHasEmptyContent()) {
+            operations.add(new PrecompileBuildScript(project, source, classLoader));
+        }
+    }
+
+    private class PrecompileBuildScript implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final ScriptSource source;
+        private final ClassLoader classLoader;
+
+        PrecompileBuildScript(ProjectInternal project, ScriptSource source, ClassLoader classLoader) {
+            this.project = project;
+            this.source = source;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public void run() {
+            try {
+                scriptPluginFactory.precompile(source, project, classLoader);
+            } catch (Exception e) {
+                LOGGER.debug("Could not precompile {}.", source.getDisplayName(), e);
+            }
+        }
+
+        @Override
+        public String getDescription() {
+            return "Precompile " + source.getDisplayName();
+        }
+    }
+}
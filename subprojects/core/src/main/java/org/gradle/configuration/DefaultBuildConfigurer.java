@@ -25,13 +25,16 @@ import org.slf4j.LoggerFactory;
 public class DefaultBuildConfigurer implements BuildConfigurer {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBuildConfigurer.class);
     private final ProjectConfigurer projectConfigurer;
+    private final RequiredProjectsCache requiredProjectsCache;
 
-    public DefaultBuildConfigurer(ProjectConfigurer projectConfigurer) {
+    public DefaultBuildConfigurer(ProjectConfigurer projectConfigurer, RequiredProjectsCache requiredProjectsCache) {
         this.projectConfigurer = projectConfigurer;
+        this.requiredProjectsCache = requiredProjectsCache;
     }
 
     public void configure(GradleInternal gradle) {
         maybeInformAboutIncubatingMode(gradle);
+        requiredProjectsCache.load(gradle);
         if (gradle.getStartParameter().isConfigureOnDemand()) {
             projectConfigurer.configure(gradle.getRootProject());
         } else {
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.StartParameter;
+import org.gradle.api.GradleException;
+import org.gradle.TaskExecutionRequest;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.cache.SingleOperationPersistentStore;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+import org.gradle.configuration.project.CrossProjectAccessListener;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.MapSerializer;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SetSerializer;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.FILE_SERIALIZER;
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * Remembers which projects the last build required, so that a later build with the same configuration inputs only configures those projects. Nothing about the
+ * configuration itself is cached. A project is required when it contributed tasks to the task graph, when it was the target of a project dependency before the task
+ * graph was ready, or when it obtained a reference to a project outside of its hierarchy while being evaluated, along with that project, as it can change or read that
+ * project in ways that cannot be observed. Other projects are still evaluated when a project dependency on them is resolved, as with configuration on demand, and the
+ * build fails when a project obtains a reference to a project that has not been configured.
+ *
+ * <p>The cache entry is keyed by a fingerprint of the requested tasks, the command-line properties, the build classpath, the init scripts, the {@code gradle.properties} files and
+ * the build scripts of all projects. The entry also records the hash of every other script that was executed while configuring the build, and is only used while these scripts are
+ * unchanged. Builds that execute scripts which are not backed by a file are not cached.</p>
+ */
+public class RequiredProjectsCache implements ScriptExecutionListener, CrossProjectAccessListener {
+    public static final String TOGGLE = "org.gradle.requiredProjectsCache";
+
+    private static final Logger LOGGER = Logging.getLogger(RequiredProjectsCache.class);
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final boolean enabled;
+    private final CacheRepository cacheRepository;
+    private final FileHasher fileHasher;
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final Map<File, HashCode> executedScripts = new LinkedHashMap<File, HashCode>();
+    private final Set<String> requiredProjectPaths = new TreeSet<String>();
+    private boolean uncacheableScriptExecuted;
+    private Set<String> cachedProjectPaths;
+
+    public RequiredProjectsCache(boolean enabled, CacheRepository cacheRepository, FileHasher fileHasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher, ListenerManager listenerManager) {
+        this.enabled = enabled;
+        this.cacheRepository = cacheRepository;
+        this.fileHasher = fileHasher;
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        if (enabled) {
+            listenerManager.addListener(this);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(TOGGLE);
+    }
+
+    @Override
+    public synchronized void scriptClassLoaded(ScriptSource source, Class<? extends Script> scriptClass) {
+        File scriptFile = source.getResource().getFile();
+        if (scriptFile == null) {
+            uncacheableScriptExecuted = true;
+        } else if (!executedScripts.containsKey(scriptFile)) {
+            executedScripts.put(scriptFile, fileHasher.hash(scriptFile));
+        }
+    }
+
+    /**
+     * Records that a project dependency on the given project is being resolved, so that the project is configured by later builds using the cache entry.
+     */
+    public synchronized void projectDependencyResolved(ProjectInternal project) {
+        requiredProjectPaths.add(project.getPath());
+    }
+
+    @Override
+    public synchronized void projectAccessed(ProjectInternal project, ProjectInternal target) {
+        if (!isConfigurationRequired(target) && !target.getState().getExecuting() && !target.getState().getExecuted()) {
+            throw new GradleException(String.format("%s accesses %s, which is not configured as it was not required by a previous build. Run the build with -D%s=false to configure all projects.",
+                project.getDisplayName(), target.getDisplayName(), TOGGLE));
+        }
+        requiredProjectPaths.add(project.getPath());
+        requiredProjectPaths.add(target.getPath());
+    }
+
+    /**
+     * Looks for a cache entry that matches the current configuration inputs of the given build. When there is none, the projects used by the task graph
+     * of this build are recorded once the task graph is ready. Should be called after the settings have been loaded and before any project is configured.
+     */
+    public void load(final GradleInternal gradle) {
+        if (!enabled) {
+            return;
+        }
+
+        final HashCode fingerprint = fingerprint(gradle);
+        if (fingerprint == null) {
+            LOGGER.info("Not using the required projects cache as the build classpath cannot be hashed.");
+            return;
+        }
+
+        final SingleOperationPersistentStore<Entry> store = new SingleOperationPersistentStore<Entry>(cacheRepository, gradle, "required projects cache", new EntrySerializer());
+        Entry entry = store.getAndClose();
+        if (entry != null && entry.fingerprint.equals(fingerprint) && scriptsUpToDate(entry.scripts)) {
+            cachedProjectPaths = entry.projectPaths;
+            LOGGER.info("Configuring {} of {} projects using the required projects cache.", cachedProjectPaths.size(), gradle.getRootProject().getAllprojects().size());
+            return;
+        }
+
+        gradle.getTaskGraph().whenReady(new Action<TaskExecutionGraph>() {
+            @Override
+            public void execute(TaskExecutionGraph taskGraph) {
+                Map<File, HashCode> scripts;
+                Set<Project> requiredProjects = new LinkedHashSet<Project>();
+                synchronized (RequiredProjectsCache.this) {
+                    if (uncacheableScriptExecuted) {
+                        LOGGER.info("Not storing required projects cache entry as a script that is not backed by a file was executed.");
+                        return;
+                    }
+                    scripts = new TreeMap<File, HashCode>(executedScripts);
+                    for (String path : requiredProjectPaths) {
+                        requiredProjects.add(gradle.getRootProject().project(path));
+                    }
+                }
+                for (Task task : taskGraph.getAllTasks()) {
+                    requiredProjects.add(task.getProject());
+                }
+                Set<String> projectPaths = new TreeSet<String>();
+                for (Project requiredProject : requiredProjects) {
+                    for (Project project = requiredProject; project != null; project = project.getParent()) {
+                        projectPaths.add(project.getPath());
+                    }
+                }
+                store.putAndClose(new Entry(fingerprint, scripts, projectPaths));
+            }
+        });
+    }
+
+    /**
+     * Returns true when the given project needs to be configured. This is always the case unless a matching cache entry has been found
+     * and the project was not required when the entry was recorded.
+     */
+    public boolean isConfigurationRequired(ProjectInternal project) {
+        return cachedProjectPaths == null || cachedProjectPaths.contains(project.getPath());
+    }
+
+    private boolean scriptsUpToDate(Map<File, HashCode> scripts) {
+        for (Map.Entry<File, HashCode> entry : scripts.entrySet()) {
+            File scriptFile = entry.getKey();
+            if (!scriptFile.isFile() || !fileHasher.hash(scriptFile).equals(entry.getValue())) {
+                LOGGER.info("Not using the required projects cache as {} has changed.", scriptFile);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private HashCode fingerprint(GradleInternal gradle) {
+        ProjectInternal rootProject = gradle.getRootProject();
+        HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(rootProject.getBaseClassLoaderScope().getExportClassLoader());
+        if (classLoaderHash == null) {
+            return null;
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putBytes(classLoaderHash.asBytes());
+
+        StartParameter startParameter = gradle.getStartParameter();
+        for (TaskExecutionRequest request : startParameter.getTaskRequests()) {
+            putString(hasher, String.valueOf(request.getProjectPath()));
+            putStrings(hasher, request.getArgs());
+        }
+        putStrings(hasher, startParameter.getExcludedTaskNames());
+        putStrings(hasher, new TreeMap<String, String>(startParameter.getProjectProperties()).entrySet());
+        putStrings(hasher, new TreeMap<String, String>(startParameter.getSystemPropertiesArgs()).entrySet());
+        putString(hasher, gradle.getDefaultProject().getPath());
+
+        for (File initScript : startParameter.getAllInitScripts()) {
+            putFile(hasher, initScript);
+        }
+        putFile(hasher, new File(startParameter.getGradleUserHomeDir(), Project.GRADLE_PROPERTIES));
+        for (Project project : rootProject.getAllprojects()) {
+            putString(hasher, project.getPath());
+            putFile(hasher, new File(project.getProjectDir(), Project.GRADLE_PROPERTIES));
+            putFile(hasher, project.getBuildFile());
+        }
+        return hasher.hash();
+    }
+
+    private void putFile(Hasher hasher, File file) {
+        putString(hasher, file.getAbsolutePath());
+        if (file.isFile()) {
+            hasher.putBytes(fileHasher.hash(file).asBytes());
+        } else {
+            hasher.putInt(0);
+        }
+    }
+
+    private static void putStrings(Hasher hasher, Iterable<?> values) {
+        for (Object value : values) {
+            putString(hasher, String.valueOf(value));
+        }
+        hasher.putInt(0);
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        hasher.putInt(value.length());
+        hasher.putString(value, UTF_8);
+    }
+
+    private static class Entry {
+        private final HashCode fingerprint;
+        private final Map<File, HashCode> scripts;
+        private final Set<String> projectPaths;
+
+        Entry(HashCode fingerprint, Map<File, HashCode> scripts, Set<String> projectPaths) {
+            this.fingerprint = fingerprint;
+            this.scripts = scripts;
+            this.projectPaths = projectPaths;
+        }
+    }
+
+    private static class EntrySerializer implements Serializer<Entry> {
+        private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+        private final MapSerializer<File, HashCode> scriptsSerializer = new MapSerializer<File, HashCode>(FILE_SERIALIZER, hashCodeSerializer);
+        private final SetSerializer<String> projectPathsSerializer = new SetSerializer<String>(STRING_SERIALIZER, false);
+
+        @Override
+        public Entry read(Decoder decoder) throws Exception {
+            HashCode fingerprint = hashCodeSerializer.read(decoder);
+            Map<File, HashCode> scripts = scriptsSerializer.read(decoder);
+            Set<String> projectPaths = projectPathsSerializer.read(decoder);
+            return new Entry(fingerprint, scripts, projectPaths);
+        }
+
+        @Override
+        public void write(Encoder encoder, Entry value) throws Exception {
+            hashCodeSerializer.write(encoder, value.fingerprint);
+            scriptsSerializer.write(encoder, value.scripts);
+            projectPathsSerializer.write(encoder, value.projectPaths);
+        }
+    }
+}
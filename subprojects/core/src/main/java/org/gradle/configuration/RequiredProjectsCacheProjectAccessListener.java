@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration;
+
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.initialization.ProjectAccessListener;
+
+/**
+ * Records the targets of project dependencies with the {@link RequiredProjectsCache}, so that they are configured by later builds.
+ */
+public class RequiredProjectsCacheProjectAccessListener implements ProjectAccessListener {
+    private final ProjectAccessListener delegate;
+    private final RequiredProjectsCache requiredProjectsCache;
+
+    public RequiredProjectsCacheProjectAccessListener(ProjectAccessListener delegate, RequiredProjectsCache requiredProjectsCache) {
+        this.delegate = delegate;
+        this.requiredProjectsCache = requiredProjectsCache;
+    }
+
+    @Override
+    public void beforeRequestingTaskByPath(ProjectInternal targetProject) {
+        delegate.beforeRequestingTaskByPath(targetProject);
+    }
+
+    @Override
+    public void beforeResolvingProjectDependency(ProjectInternal dependencyProject) {
+        requiredProjectsCache.projectDependencyResolved(dependencyProject);
+        delegate.beforeResolvingProjectDependency(dependencyProject);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.execution.ProjectConfigurer;
+
+/**
+ * Skips the configuration of projects that the {@link RequiredProjectsCache} found not to be required by the build.
+ */
+public class RequiredProjectsCacheProjectConfigurer implements ProjectConfigurer {
+    private final ProjectConfigurer delegate;
+    private final RequiredProjectsCache requiredProjectsCache;
+
+    public RequiredProjectsCacheProjectConfigurer(ProjectConfigurer delegate, RequiredProjectsCache requiredProjectsCache) {
+        this.delegate = delegate;
+        this.requiredProjectsCache = requiredProjectsCache;
+    }
+
+    @Override
+    public void configure(ProjectInternal project) {
+        if (requiredProjectsCache.isConfigurationRequired(project)) {
+            delegate.configure(project);
+        }
+    }
+
+    @Override
+    public void configureFully(ProjectInternal project) {
+        if (requiredProjectsCache.isConfigurationRequired(project)) {
+            delegate.configureFully(project);
+        }
+    }
+
+    @Override
+    public void configureHierarchy(ProjectInternal project) {
+        configure(project);
+        for (Project sub : project.getSubprojects()) {
+            configure((ProjectInternal) sub);
+        }
+    }
+
+    @Override
+    public void configureHierarchyFully(ProjectInternal project) {
+        configureFully(project);
+        for (Project sub : project.getSubprojects()) {
+            configureFully((ProjectInternal) sub);
+        }
+    }
+}
@@ -35,25 +35,35 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
     private final BuildOperationExecutor buildOperationExecutor;
     private final ProjectEvaluator delegate;
+    private final ProjectEvaluationCoordinator coordinator;
 
-    public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate) {
+    public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate, ProjectEvaluationCoordinator coordinator) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.delegate = delegate;
+        this.coordinator = coordinator;
     }
 
     public void evaluate(final ProjectInternal project, final ProjectStateInternal state) {
-        if (state.getExecuted() || state.getExecuting()) {
+        if (state.getExecuted()) {
+            return;
+        }
+        if (!coordinator.startEvaluation(project, state)) {
+            // Either evaluated by another thread in the meantime, or already being evaluated by this thread
             return;
         }
 
-        String displayName = "project " + project.getIdentityPath().toString();
-        buildOperationExecutor.run(BuildOperationDetails.displayName("Configure " + displayName).name(StringUtils.capitalize(displayName)).build(), new Action<BuildOperationContext>() {
-            @Override
-            public void execute(BuildOperationContext buildOperationContext) {
-                doConfigure(project, state);
-                state.rethrowFailure();
-            }
-        });
+        try {
+            String displayName = "project " + project.getIdentityPath().toString();
+            buildOperationExecutor.run(BuildOperationDetails.displayName("Configure " + displayName).name(StringUtils.capitalize(displayName)).build(), new Action<BuildOperationContext>() {
+                @Override
+                public void execute(BuildOperationContext buildOperationContext) {
+                    doConfigure(project, state);
+                    state.rethrowFailure();
+                }
+            });
+        } finally {
+            coordinator.finishEvaluation(project);
+        }
     }
 
     private void doConfigure(ProjectInternal project, ProjectStateInternal state) {
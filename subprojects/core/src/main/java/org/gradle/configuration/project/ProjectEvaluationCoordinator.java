@@ -0,0 +1,266 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.CircularReferenceException;
+import org.gradle.api.InvalidUserCodeException;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Coordinates the evaluation of projects by several threads. Each project is evaluated by a single thread, and threads that require a project that is being
+ * evaluated by another thread wait for the evaluation to complete.
+ *
+ * <p>Also coordinates the threads that configure projects in parallel. A project that is configured in parallel can only configure itself and its descendants,
+ * as its descendants are configured after it while other projects may be configured concurrently. Any other attempt to configure another project fails.</p>
+ *
+ * <p>A project that obtains a reference to a project outside of its hierarchy can change or read that project in ways that cannot be observed, for example through
+ * {@code rootProject.ext}. Its thread then waits until it is the only thread that runs, and the other threads wait until it has finished configuring its project, so
+ * that the remaining configuration is serial. A thread that waits for another project that is being evaluated by a waiting thread hands its turn over to that thread.</p>
+ */
+@ThreadSafe
+public class ProjectEvaluationCoordinator {
+    private static final Logger LOGGER = Logging.getLogger(ProjectEvaluationCoordinator.class);
+    private final Object lock = new Object();
+    private final Map<ProjectInternal, Thread> evaluatingThreads = new HashMap<ProjectInternal, Thread>();
+    private final Map<Thread, ProjectInternal> waitingThreads = new HashMap<Thread, ProjectInternal>();
+    private final Set<Thread> runningThreads = new HashSet<Thread>();
+    private final Set<Thread> serialThreads = new HashSet<Thread>();
+    private Thread exclusiveThread;
+    private final ThreadLocal<Deque<ProjectInternal>> evaluating = new ThreadLocal<Deque<ProjectInternal>>() {
+        @Override
+        protected Deque<ProjectInternal> initialValue() {
+            return new ArrayDeque<ProjectInternal>();
+        }
+    };
+    private final ThreadLocal<ProjectInternal> parallelProject = new ThreadLocal<ProjectInternal>();
+    private final CrossProjectAccessListener crossProjectAccessListener;
+
+    public ProjectEvaluationCoordinator(CrossProjectAccessListener crossProjectAccessListener) {
+        this.crossProjectAccessListener = crossProjectAccessListener;
+    }
+
+    /**
+     * Marks the start of the evaluation of the given project by the current thread. Blocks while another thread is evaluating the project.
+     *
+     * @return true when the current thread should evaluate the project, false when the project has already been evaluated or is being evaluated by the current thread.
+     * @throws CircularReferenceException when waiting for the project would never complete, because the thread evaluating it waits for the current thread.
+     */
+    public boolean startEvaluation(ProjectInternal project, ProjectStateInternal state) {
+        Thread currentThread = Thread.currentThread();
+        synchronized (lock) {
+            try {
+                while (true) {
+                    if (state.getExecuted()) {
+                        return false;
+                    }
+                    Thread owner = evaluatingThreads.get(project);
+                    if (owner == null) {
+                        evaluatingThreads.put(project, currentThread);
+                        break;
+                    }
+                    if (owner == currentThread) {
+                        return false;
+                    }
+                    awaitOwner(currentThread, project, owner);
+                }
+            } finally {
+                resume(currentThread);
+            }
+        }
+        evaluating.get().push(project);
+        return true;
+    }
+
+    /**
+     * Marks the end of the evaluation of the given project by the current thread.
+     */
+    public void finishEvaluation(ProjectInternal project) {
+        evaluating.get().remove(project);
+        synchronized (lock) {
+            evaluatingThreads.remove(project);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns true when the given project is being evaluated by a thread other than the current thread.
+     */
+    public boolean isEvaluatingInAnotherThread(ProjectInternal project) {
+        synchronized (lock) {
+            Thread owner = evaluatingThreads.get(project);
+            return owner != null && owner != Thread.currentThread();
+        }
+    }
+
+    /**
+     * Runs the given action, which configures the given project, in parallel with the actions run by other threads.
+     */
+    public void runInParallel(ProjectInternal project, Runnable action) {
+        Thread currentThread = Thread.currentThread();
+        parallelProject.set(project);
+        try {
+            synchronized (lock) {
+                resume(currentThread);
+            }
+            action.run();
+        } finally {
+            parallelProject.remove();
+            synchronized (lock) {
+                runningThreads.remove(currentThread);
+                serialThreads.remove(currentThread);
+                if (exclusiveThread == currentThread) {
+                    exclusiveThread = null;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Called before the current thread hands out a reference to the given project. Notifies the {@link CrossProjectAccessListener} when the given project is outside of
+     * the hierarchy of the project being evaluated by the current thread. When the current thread configures a project in parallel and the given project is
+     * outside of its hierarchy, blocks until the current thread is the only thread that runs and until the given project is not being evaluated by another thread.
+     * The current thread remains the only thread that runs until it has finished configuring its project.
+     *
+     * @throws CircularReferenceException when the given project is being evaluated by a thread that waits for the current thread.
+     */
+    public void accessProject(ProjectInternal target) {
+        ProjectInternal evaluatingProject = evaluating.get().peek();
+        if (evaluatingProject != null && !contains(evaluatingProject, target)) {
+            crossProjectAccessListener.projectAccessed(evaluatingProject, target);
+        }
+        ProjectInternal current = parallelProject.get();
+        if (current == null || contains(current, target)) {
+            return;
+        }
+        Thread currentThread = Thread.currentThread();
+        synchronized (lock) {
+            try {
+                if (serialThreads.add(currentThread)) {
+                    LOGGER.info("Configuring {} serially, as it accesses {}.", current.getDisplayName(), target.getDisplayName());
+                    pause(currentThread);
+                    resume(currentThread);
+                }
+                while (true) {
+                    Thread owner = evaluatingThreads.get(target);
+                    if (owner == null || owner == currentThread) {
+                        break;
+                    }
+                    awaitOwner(currentThread, target, owner);
+                }
+            } finally {
+                resume(currentThread);
+            }
+        }
+    }
+
+    /**
+     * Fails when the project being evaluated by the current thread is configured in parallel and is not allowed to configure the given project.
+     */
+    public void assertCanConfigure(ProjectInternal target) {
+        if (parallelProject.get() == null) {
+            return;
+        }
+        ProjectInternal current = evaluating.get().peek();
+        if (current == null || contains(current, target)) {
+            return;
+        }
+        throw new InvalidUserCodeException(String.format("%s cannot configure %s as projects are configured in parallel. Projects configured in parallel can only configure themselves and their subprojects.", current.getDisplayName(), target.getDisplayName()));
+    }
+
+    /**
+     * Waits for the given thread to finish evaluating the given project, or for any other change. Lets other threads run while waiting, and hands the turn of the
+     * current thread over to the thread that it ultimately waits for when that thread waits for its turn.
+     */
+    private void awaitOwner(Thread currentThread, ProjectInternal project, Thread owner) {
+        Thread last = owner;
+        for (Thread thread = owner; thread != null;) {
+            if (thread == currentThread) {
+                throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.", project));
+            }
+            last = thread;
+            ProjectInternal awaited = waitingThreads.get(thread);
+            thread = awaited == null ? null : evaluatingThreads.get(awaited);
+        }
+        pause(currentThread);
+        if (exclusiveThread == currentThread && !runningThreads.contains(last)) {
+            serialThreads.add(last);
+            exclusiveThread = last;
+        }
+        waitingThreads.put(currentThread, project);
+        try {
+            await();
+        } finally {
+            waitingThreads.remove(currentThread);
+        }
+    }
+
+    private void pause(Thread thread) {
+        if (runningThreads.remove(thread)) {
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks until the given thread can run again after it has paused. A thread that has accessed projects outside of its hierarchy runs only while no other thread runs.
+     */
+    private void resume(Thread thread) {
+        if (parallelProject.get() == null || runningThreads.contains(thread)) {
+            return;
+        }
+        while (exclusiveThread != null && exclusiveThread != thread) {
+            await();
+        }
+        if (serialThreads.contains(thread)) {
+            exclusiveThread = thread;
+            while (!runningThreads.isEmpty()) {
+                await();
+            }
+        }
+        runningThreads.add(thread);
+    }
+
+    private void await() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static boolean contains(ProjectInternal ancestor, ProjectInternal project) {
+        if (project == ancestor) {
+            return true;
+        }
+        String path = ancestor.getPath();
+        return project.getPath().startsWith(path.equals(Project.PATH_SEPARATOR) ? path : path + Project.PATH_SEPARATOR);
+    }
+}
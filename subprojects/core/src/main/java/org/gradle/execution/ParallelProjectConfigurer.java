@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.execution;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.project.ProjectEvaluationCoordinator;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.BuildOperationWorkerRegistry;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDetails;
+import org.gradle.internal.progress.BuildOperationExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configures a project hierarchy one level at a time, configuring the projects of each level in parallel. The root project is configured first, and a project
+ * is configured only once its parent has been configured. Projects configured in parallel may only configure themselves and their subprojects, which is
+ * enforced by the {@link ProjectEvaluationCoordinator}.
+ *
+ * <p>A project can also change another project through any reference to it, for example {@code rootProject.ext.value = 'x'} or {@code project(':other').apply(...)}.
+ * The coordinator runs a project that obtains such a reference on its own, so the remaining projects are configured serially from that point on.</p>
+ */
+public class ParallelProjectConfigurer implements ProjectConfigurer {
+    public static final String PARALLEL_CONFIGURATION_TOGGLE = "org.gradle.parallelConfiguration";
+
+    private final ProjectConfigurer delegate;
+    private final ProjectEvaluationCoordinator coordinator;
+    private final BuildOperationProcessor buildOperationProcessor;
+    private final BuildOperationWorkerRegistry buildOperationWorkerRegistry;
+    private final BuildOperationExecutor buildOperationExecutor;
+
+    public ParallelProjectConfigurer(ProjectConfigurer delegate, ProjectEvaluationCoordinator coordinator, BuildOperationProcessor buildOperationProcessor, BuildOperationWorkerRegistry buildOperationWorkerRegistry, BuildOperationExecutor buildOperationExecutor) {
+        this.delegate = delegate;
+        this.coordinator = coordinator;
+        this.buildOperationProcessor = buildOperationProcessor;
+        this.buildOperationWorkerRegistry = buildOperationWorkerRegistry;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PARALLEL_CONFIGURATION_TOGGLE);
+    }
+
+    @Override
+    public void configure(ProjectInternal project) {
+        delegate.configure(project);
+    }
+
+    @Override
+    public void configureFully(ProjectInternal project) {
+        delegate.configureFully(project);
+    }
+
+    @Override
+    public void configureHierarchy(ProjectInternal project) {
+        configureLevels(project, false);
+    }
+
+    @Override
+    public void configureHierarchyFully(ProjectInternal project) {
+        configureLevels(project, true);
+    }
+
+    private void configureLevels(ProjectInternal project, boolean fully) {
+        configure(project, fully);
+        List<ProjectInternal> level = childrenOf(project);
+        while (!level.isEmpty()) {
+            configureInParallel(level, fully);
+            List<ProjectInternal> nextLevel = new ArrayList<ProjectInternal>();
+            for (ProjectInternal parent : level) {
+                nextLevel.addAll(childrenOf(parent));
+            }
+            level = nextLevel;
+        }
+    }
+
+    private void configureInParallel(final List<ProjectInternal> projects, final boolean fully) {
+        if (projects.size() == 1) {
+            ProjectInternal project = projects.get(0);
+            coordinator.runInParallel(project, new ConfigureProject(project, fully));
+            return;
+        }
+        final BuildOperationExecutor.Operation parentOperation = buildOperationExecutor.getCurrentOperation();
+        BuildOperationWorkerRegistry.Completion completion = buildOperationWorkerRegistry.operationStart();
+        try {
+            buildOperationProcessor.run(new Action<BuildOperationQueue<ConfigureProject>>() {
+                @Override
+                public void execute(BuildOperationQueue<ConfigureProject> queue) {
+                    for (ProjectInternal project : projects) {
+                        queue.add(new ConfigureProject(project, fully, parentOperation));
+                    }
+                }
+            });
+        } finally {
+            completion.operationFinish();
+        }
+    }
+
+    private void configure(ProjectInternal project, boolean fully) {
+        if (fully) {
+            delegate.configureFully(project);
+        } else {
+            delegate.configure(project);
+        }
+    }
+
+    private static List<ProjectInternal> childrenOf(ProjectInternal project) {
+        List<ProjectInternal> children = new ArrayList<ProjectInternal>();
+        for (Project child : project.getChildProjects().values()) {
+            children.add((ProjectInternal) child);
+        }
+        return children;
+    }
+
+    private class ConfigureProject implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final boolean fully;
+        private final BuildOperationExecutor.Operation parentOperation;
+
+        ConfigureProject(ProjectInternal project, boolean fully) {
+            this(project, fully, null);
+        }
+
+        ConfigureProject(ProjectInternal project, boolean fully, BuildOperationExecutor.Operation parentOperation) {
+            this.project = project;
+            this.fully = fully;
+            this.parentOperation = parentOperation;
+        }
+
+        @Override
+        public void run() {
+            if (parentOperation == null) {
+                configure(project, fully);
+                return;
+            }
+            // Attach the configuration of the project to the operation that started it, as it runs in a worker thread
+            buildOperationExecutor.run(BuildOperationDetails.displayName("Configure " + project.getIdentityPath() + " in parallel").parent(parentOperation).build(), new Action<BuildOperationContext>() {
+                @Override
+                public void execute(BuildOperationContext buildOperationContext) {
+                    coordinator.runInParallel(project, new Runnable() {
+                        @Override
+                        public void run() {
+                            configure(project, fully);
+                        }
+                    });
+                }
+            });
+        }
+
+        @Override
+        public String getDescription() {
+            return "Configure " + project.getDisplayName();
+        }
+    }
+}
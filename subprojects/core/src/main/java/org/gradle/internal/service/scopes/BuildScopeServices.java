@@ -70,18 +70,25 @@ import org.gradle.cache.CacheValidator;
 import org.gradle.caching.internal.tasks.TaskExecutionStatisticsEventAdapter;
 import org.gradle.caching.internal.tasks.statistics.TaskExecutionStatisticsListener;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.BuildScriptPrecompilingProjectConfigurer;
 import org.gradle.configuration.DefaultBuildConfigurer;
 import org.gradle.configuration.DefaultInitScriptProcessor;
 import org.gradle.configuration.DefaultScriptPluginFactory;
 import org.gradle.configuration.ImportsReader;
+import org.gradle.configuration.RequiredProjectsCache;
+import org.gradle.configuration.RequiredProjectsCacheProjectAccessListener;
+import org.gradle.configuration.RequiredProjectsCacheProjectConfigurer;
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.configuration.ScriptPluginFactorySelector;
 import org.gradle.configuration.project.BuildScriptProcessor;
 import org.gradle.configuration.project.ConfigureActionsProjectEvaluator;
+import org.gradle.configuration.project.CrossProjectAccessListener;
 import org.gradle.configuration.project.DelayedConfigurationActions;
 import org.gradle.configuration.project.LifecycleProjectEvaluator;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
+import org.gradle.configuration.project.ProjectEvaluationCoordinator;
 import org.gradle.configuration.project.ProjectEvaluator;
+import org.gradle.execution.ParallelProjectConfigurer;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.TaskPathProjectEvaluator;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
@@ -130,6 +137,8 @@ import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationWorkerRegistry;
 import org.gradle.internal.operations.logging.BuildOperationLoggerFactory;
 import org.gradle.internal.operations.logging.DefaultBuildOperationLoggerFactory;
 import org.gradle.internal.progress.BuildOperationExecutor;
@@ -212,13 +221,17 @@ public class BuildScopeServices extends DefaultServiceRegistry {
             new InstantiatingBuildLoader(get(IProjectFactory.class)));
     }
 
-    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory) {
+    protected ProjectEvaluationCoordinator createProjectEvaluationCoordinator(ListenerManager listenerManager) {
+        return new ProjectEvaluationCoordinator(listenerManager.getBroadcaster(CrossProjectAccessListener.class));
+    }
+
+    protected ProjectEvaluator createProjectEvaluator(BuildOperationExecutor buildOperationExecutor, CachingServiceLocator cachingServiceLocator, ScriptPluginFactory scriptPluginFactory, ProjectEvaluationCoordinator projectEvaluationCoordinator) {
         ConfigureActionsProjectEvaluator withActionsEvaluator = new ConfigureActionsProjectEvaluator(
             new PluginsProjectConfigureActions(cachingServiceLocator),
             new BuildScriptProcessor(scriptPluginFactory),
             new DelayedConfigurationActions()
         );
-        return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
+        return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator, projectEvaluationCoordinator);
     }
 
     protected TaskClassValidatorExtractor createTaskClassValidatorExtractor(ServiceRegistry registry) {
@@ -352,16 +365,34 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected RequiredProjectsCache createRequiredProjectsCache(CacheRepository cacheRepository, FileHasher fileHasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher, ListenerManager listenerManager) {
+        return new RequiredProjectsCache(RequiredProjectsCache.isEnabled(), cacheRepository, fileHasher, classLoaderHierarchyHasher, listenerManager);
+    }
+
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, RequiredProjectsCache requiredProjectsCache, ProjectEvaluationCoordinator projectEvaluationCoordinator, BuildOperationProcessor buildOperationProcessor, BuildOperationWorkerRegistry buildOperationWorkerRegistry, BuildOperationExecutor buildOperationExecutor) {
+        ProjectConfigurer projectConfigurer = new TaskPathProjectEvaluator(cancellationToken);
+        if (RequiredProjectsCache.isEnabled()) {
+            projectConfigurer = new RequiredProjectsCacheProjectConfigurer(projectConfigurer, requiredProjectsCache);
+        }
+        if (ParallelProjectConfigurer.isEnabled()) {
+            projectConfigurer = new ParallelProjectConfigurer(projectConfigurer, projectEvaluationCoordinator, buildOperationProcessor, buildOperationWorkerRegistry, buildOperationExecutor);
+        }
+        if (BuildScriptPrecompilingProjectConfigurer.isEnabled()) {
+            projectConfigurer = new BuildScriptPrecompilingProjectConfigurer(projectConfigurer, defaultScriptPluginFactory(), buildOperationProcessor, buildOperationWorkerRegistry);
+        }
+        return projectConfigurer;
     }
 
-    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
-        return new DefaultBuildConfigurer(projectConfigurer);
+    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer, RequiredProjectsCache requiredProjectsCache) {
+        return new DefaultBuildConfigurer(projectConfigurer, requiredProjectsCache);
     }
 
-    protected ProjectAccessListener createProjectAccessListener() {
-        return new DefaultProjectAccessListener();
+    protected ProjectAccessListener createProjectAccessListener(RequiredProjectsCache requiredProjectsCache) {
+        ProjectAccessListener projectAccessListener = new DefaultProjectAccessListener();
+        if (RequiredProjectsCache.isEnabled()) {
+            projectAccessListener = new RequiredProjectsCacheProjectAccessListener(projectAccessListener, requiredProjectsCache);
+        }
+        return projectAccessListener;
     }
 
     protected ProfileEventAdapter createProfileEventAdapter() {
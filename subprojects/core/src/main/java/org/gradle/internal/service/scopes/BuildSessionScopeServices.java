@@ -35,8 +35,10 @@ import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.LongIdGenerator;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
+import org.gradle.internal.operations.AsyncWorkTracker;
 import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.internal.operations.BuildOperationWorkerRegistry;
+import org.gradle.internal.operations.DefaultAsyncWorkTracker;
 import org.gradle.internal.operations.DefaultBuildOperationProcessor;
 import org.gradle.internal.operations.DefaultBuildOperationQueueFactory;
 import org.gradle.internal.operations.DefaultBuildOperationWorkerRegistry;
@@ -84,6 +86,10 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         return new DefaultBuildOperationWorkerRegistry(startParameter.getMaxWorkerCount());
     }
 
+    AsyncWorkTracker createAsyncWorkTracker(BuildOperationWorkerRegistry buildOperationWorkerRegistry) {
+        return new DefaultAsyncWorkTracker(buildOperationWorkerRegistry);
+    }
+
 
     WorkerProcessFactory createWorkerProcessFactory(StartParameter startParameter, MessagingServer messagingServer, ClassPathRegistry classPathRegistry,
                                                     TemporaryFileProvider temporaryFileProvider, JavaExecHandleFactory execHandleFactory, JvmVersionDetector jvmVersionDetector) {
@@ -16,6 +16,9 @@
 
 package org.gradle.internal.service.scopes;
 
+import org.gradle.api.internal.AsmBackedClassGenerator;
+import org.gradle.api.internal.ClassGenerator;
+import org.gradle.api.internal.PersistentGeneratedClassCache;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.internal.CacheRepositoryServices;
 import org.gradle.initialization.GradleUserHomeDirProvider;
@@ -43,6 +46,15 @@ public class GradleUserHomeScopeServices {
         }
     }
 
+    PersistentGeneratedClassCache createPersistentGeneratedClassCache(CacheRepository cacheRepository) {
+        return new PersistentGeneratedClassCache(cacheRepository);
+    }
+
+    ClassGenerator createClassGenerator(PersistentGeneratedClassCache generatedClassCache) {
+        // Shares the generated classes of the global class generator, and reuses the bytecode generated by other processes
+        return new AsmBackedClassGenerator(generatedClassCache);
+    }
+
     CachedClasspathTransformer createCachedClasspathTransformer(CacheRepository cacheRepository, ServiceRegistry serviceRegistry) {
         return new DefaultCachedClasspathTransformer(cacheRepository, new JarCache(), serviceRegistry.getAll(CachedJarFileStore.class));
     }
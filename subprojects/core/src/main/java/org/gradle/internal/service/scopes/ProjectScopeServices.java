@@ -18,6 +18,8 @@ package org.gradle.internal.service.scopes;
 
 import org.gradle.api.Action;
 import org.gradle.api.AntBuilder;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.UnknownProjectException;
 import org.gradle.api.component.SoftwareComponentContainer;
 import org.gradle.api.initialization.dsl.ScriptHandler;
 import org.gradle.api.internal.ClassGenerator;
@@ -75,6 +77,7 @@ import org.gradle.model.internal.registry.ModelRegistry;
 import org.gradle.process.internal.DefaultExecActionFactory;
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.internal.DefaultToolingModelBuilderRegistry;
+import org.gradle.util.GUtil;
 
 import java.io.File;
 
@@ -101,11 +104,13 @@ public class ProjectScopeServices extends DefaultServiceRegistry {
     }
 
     protected PluginRegistry createPluginRegistry(PluginRegistry rootRegistry) {
+        // Uses the parent identifier, as obtaining the parent project while projects are configured in parallel configures the remaining projects serially
+        ProjectInternal parent = (ProjectInternal) project.getParentIdentifier();
         PluginRegistry parentRegistry;
-        if (project.getParent() == null) {
+        if (parent == null) {
             parentRegistry = rootRegistry;
         } else {
-            parentRegistry = project.getParent().getServices().get(PluginRegistry.class);
+            parentRegistry = parent.getServices().get(PluginRegistry.class);
         }
         return parentRegistry.createChild(project.getClassLoaderScope());
     }
@@ -173,14 +178,22 @@ public class ProjectScopeServices extends DefaultServiceRegistry {
     }
 
     protected ProjectFinder createProjectFinder() {
+        // Looks up projects without handing out references through the project, as a project dependency does not access the project it refers to
         return new ProjectFinder() {
             public ProjectInternal getProject(String path) {
-                return project.project(path);
+                ProjectInternal other = findProject(path);
+                if (other == null) {
+                    throw new UnknownProjectException(String.format("Project with path '%s' could not be found in %s.", path, project));
+                }
+                return other;
             }
 
             @Override
             public ProjectInternal findProject(String path) {
-                return project.findProject(path);
+                if (!GUtil.isTrue(path)) {
+                    throw new InvalidUserDataException("A path must be specified!");
+                }
+                return project.getProjectRegistry().getProject(project.absoluteProjectPath(path));
             }
         };
     }
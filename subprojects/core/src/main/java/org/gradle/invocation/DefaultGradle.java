@@ -38,6 +38,7 @@ import org.gradle.api.invocation.Gradle;
 import org.gradle.caching.internal.BuildCacheConfiguration;
 import org.gradle.caching.internal.BuildCacheConfigurationInternal;
 import org.gradle.configuration.ScriptPluginFactory;
+import org.gradle.configuration.project.ProjectEvaluationCoordinator;
 import org.gradle.execution.TaskGraphExecuter;
 import org.gradle.initialization.ClassLoaderScopeRegistry;
 import org.gradle.internal.event.ListenerBroadcast;
@@ -163,6 +164,7 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
             rootProjectActions.add(action);
         } else {
             assert rootProject != null;
+            getProjectEvaluationCoordinator().assertCanConfigure(rootProject);
             action.execute(rootProject);
         }
     }
@@ -330,4 +332,9 @@ public class DefaultGradle extends AbstractPluginAware implements GradleInternal
     public PluginManagerInternal getPluginManager() {
         throw new UnsupportedOperationException();
     }
+
+    @Inject
+    protected ProjectEvaluationCoordinator getProjectEvaluationCoordinator() {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -21,9 +21,11 @@ import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.ClasspathUtil;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.worker.request.Receiver;
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
 import org.gradle.process.internal.worker.request.RequestProtocol;
 import org.gradle.process.internal.worker.request.ResponseProtocol;
 import org.gradle.process.internal.worker.request.WorkerAction;
+import org.gradle.process.internal.worker.request.WorkerRequestSerializer;
 
 import java.io.File;
 import java.lang.reflect.InvocationHandler;
@@ -37,6 +39,7 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
     private final Class<WORKER> workerType;
     private final Class<?> workerImplementation;
     private final DefaultWorkerProcessBuilder workerProcessBuilder;
+    private final RequestArgumentSerializers argumentSerializers = new RequestArgumentSerializers();
 
     static {
         try {
@@ -51,7 +54,7 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
         this.workerType = workerType;
         this.workerImplementation = workerImplementation;
         this.workerProcessBuilder = workerProcessBuilder;
-        workerProcessBuilder.worker(new WorkerAction(workerImplementation));
+        workerProcessBuilder.worker(new WorkerAction(workerImplementation, argumentSerializers));
         workerProcessBuilder.setImplementationClasspath(ClasspathUtil.getClasspath(workerImplementation.getClassLoader()).getAsURLs());
     }
 
@@ -81,6 +84,17 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
         return workerProcessBuilder.getLogLevel();
     }
 
+    @Override
+    public boolean isUseSharedMemory() {
+        return workerProcessBuilder.isUseSharedMemory();
+    }
+
+    @Override
+    public WorkerProcessSettings setUseSharedMemory(boolean useSharedMemory) {
+        workerProcessBuilder.setUseSharedMemory(useSharedMemory);
+        return this;
+    }
+
     @Override
     public Set<String> getSharedPackages() {
         return workerProcessBuilder.getSharedPackages();
@@ -110,6 +124,11 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
         return this;
     }
 
+    @Override
+    public void registerArgumentSerializers(RequestArgumentSerializers serializers) {
+        argumentSerializers.registerAll(serializers);
+    }
+
     @Override
     public WORKER build() {
         final WorkerProcess workerProcess = workerProcessBuilder.build();
@@ -127,6 +146,7 @@ class DefaultMultiRequestWorkerProcessBuilder<WORKER> implements MultiRequestWor
                     }
                     workerProcess.getConnection().addIncoming(ResponseProtocol.class, receiver);
                     workerProcess.getConnection().useJavaSerializationForParameters(workerImplementation.getClassLoader());
+                    workerProcess.getConnection().useParameterSerializers(WorkerRequestSerializer.create(argumentSerializers, workerImplementation.getClassLoader()));
                     requestProtocol = workerProcess.getConnection().addOutgoing(RequestProtocol.class);
                     workerProcess.getConnection().connect();
                     return null;
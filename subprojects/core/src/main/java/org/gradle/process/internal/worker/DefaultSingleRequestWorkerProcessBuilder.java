@@ -21,9 +21,11 @@ import org.gradle.internal.classloader.ClasspathUtil;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.worker.request.Receiver;
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
 import org.gradle.process.internal.worker.request.RequestProtocol;
 import org.gradle.process.internal.worker.request.ResponseProtocol;
 import org.gradle.process.internal.worker.request.WorkerAction;
+import org.gradle.process.internal.worker.request.WorkerRequestSerializer;
 
 import java.io.File;
 import java.lang.reflect.InvocationHandler;
@@ -35,12 +37,13 @@ class DefaultSingleRequestWorkerProcessBuilder<PROTOCOL> implements SingleReques
     private final Class<PROTOCOL> protocolType;
     private final Class<? extends PROTOCOL> workerImplementation;
     private final DefaultWorkerProcessBuilder builder;
+    private final RequestArgumentSerializers argumentSerializers = new RequestArgumentSerializers();
 
     public DefaultSingleRequestWorkerProcessBuilder(Class<PROTOCOL> protocolType, Class<? extends PROTOCOL> workerImplementation, DefaultWorkerProcessBuilder builder) {
         this.protocolType = protocolType;
         this.workerImplementation = workerImplementation;
         this.builder = builder;
-        builder.worker(new WorkerAction(workerImplementation));
+        builder.worker(new WorkerAction(workerImplementation, argumentSerializers));
         builder.setImplementationClasspath(ClasspathUtil.getClasspath(workerImplementation.getClassLoader()).getAsURLs());
     }
 
@@ -93,12 +96,28 @@ class DefaultSingleRequestWorkerProcessBuilder<PROTOCOL> implements SingleReques
         return builder.getLogLevel();
     }
 
+    @Override
+    public boolean isUseSharedMemory() {
+        return builder.isUseSharedMemory();
+    }
+
+    @Override
+    public WorkerProcessSettings setUseSharedMemory(boolean useSharedMemory) {
+        builder.setUseSharedMemory(useSharedMemory);
+        return this;
+    }
+
     @Override
     public WorkerProcessSettings setLogLevel(LogLevel logLevel) {
         builder.setLogLevel(logLevel);
         return this;
     }
 
+    @Override
+    public void registerArgumentSerializers(RequestArgumentSerializers serializers) {
+        argumentSerializers.registerAll(serializers);
+    }
+
     @Override
     public PROTOCOL build() {
         return protocolType.cast(Proxy.newProxyInstance(protocolType.getClassLoader(), new Class[]{protocolType}, new InvocationHandler() {
@@ -112,6 +131,7 @@ class DefaultSingleRequestWorkerProcessBuilder<PROTOCOL> implements SingleReques
                     RequestProtocol requestProtocol = connection.addOutgoing(RequestProtocol.class);
                     connection.addIncoming(ResponseProtocol.class, receiver);
                     connection.useJavaSerializationForParameters(workerImplementation.getClassLoader());
+                    connection.useParameterSerializers(WorkerRequestSerializer.create(argumentSerializers, workerImplementation.getClassLoader()));
                     connection.connect();
                     requestProtocol.runThenStop(method.getName(), method.getParameterTypes(), args);
                     boolean hasResult = receiver.awaitNextResult();
@@ -43,6 +43,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
+    public static final String SHARED_MEMORY_TOGGLE = "org.gradle.workers.sharedMemory";
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultWorkerProcessBuilder.class);
     private final MessagingServer server;
     private final IdGenerator<?> idGenerator;
@@ -57,6 +58,7 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
     private File gradleUserHomeDir;
     private int connectTimeoutSeconds;
     private List<URL> implementationClassPath;
+    private boolean useSharedMemory = Boolean.getBoolean(SHARED_MEMORY_TOGGLE);
 
     DefaultWorkerProcessBuilder(JavaExecHandleFactory execHandleFactory, MessagingServer server, IdGenerator<?> idGenerator, ApplicationClassesInSystemClassLoaderWorkerFactory workerFactory, OutputEventListener outputEventListener) {
         this.javaCommand = execHandleFactory.newJavaExec();
@@ -128,6 +130,17 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
         return this;
     }
 
+    @Override
+    public boolean isUseSharedMemory() {
+        return useSharedMemory;
+    }
+
+    @Override
+    public WorkerProcessBuilder setUseSharedMemory(boolean useSharedMemory) {
+        this.useSharedMemory = useSharedMemory;
+        return this;
+    }
+
     public File getGradleUserHomeDir() {
         return gradleUserHomeDir;
     }
@@ -148,8 +161,12 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
     @Override
     public WorkerProcess build() {
         final DefaultWorkerProcess workerProcess = new DefaultWorkerProcess(connectTimeoutSeconds, TimeUnit.SECONDS);
+        final boolean useSharedMemory = this.useSharedMemory;
         ConnectionAcceptor acceptor = server.accept(new Action<ObjectConnection>() {
             public void execute(ObjectConnection connection) {
+                if (useSharedMemory) {
+                    connection.useSharedMemory();
+                }
                 DefaultWorkerLoggingProtocol defaultWorkerLoggingProtocol = new DefaultWorkerLoggingProtocol(outputEventListener);
                 connection.useParameterSerializers(WorkerLoggingSerializer.create());
                 connection.addIncoming(WorkerLoggingProtocol.class, defaultWorkerLoggingProtocol);
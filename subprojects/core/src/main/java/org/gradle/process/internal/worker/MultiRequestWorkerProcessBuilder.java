@@ -16,6 +16,8 @@
 
 package org.gradle.process.internal.worker;
 
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
+
 /**
  * Configures and builds multi-request workers. A multi-request worker runs zero or more requests in a forked worker process.
  *
@@ -26,6 +28,11 @@ package org.gradle.process.internal.worker;
  * <p>The worker process must be explicitly started and stopped using the methods on {@link WorkerControl}.</p>
  */
 public interface MultiRequestWorkerProcessBuilder<T> extends WorkerProcessSettings {
+    /**
+     * Registers serializers to use for the arguments of requests in place of Java serialization.
+     */
+    void registerArgumentSerializers(RequestArgumentSerializers serializers);
+
     /**
      * Creates a worker.
      *
@@ -16,6 +16,8 @@
 
 package org.gradle.process.internal.worker;
 
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
+
 /**
  * Configures and builds single request workers. A single request worker runs each request in a separate forked worker process.
  *
@@ -24,6 +26,11 @@ package org.gradle.process.internal.worker;
  * <p>The worker process executes the request using an instance of the implementation type specified as a parameter to {@link WorkerProcessFactory#singleRequestWorker(Class, Class)}.</p>
  */
 public interface SingleRequestWorkerProcessBuilder<T> extends WorkerProcessSettings {
+    /**
+     * Registers serializers to use for the arguments of requests in place of Java serialization.
+     */
+    void registerArgumentSerializers(RequestArgumentSerializers serializers);
+
     /**
      * Creates the worker. The returned value can be used to run multiple requests, each will run in a separate worker process.
      */
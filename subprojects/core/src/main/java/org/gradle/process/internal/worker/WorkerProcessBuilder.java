@@ -45,6 +45,9 @@ public interface WorkerProcessBuilder extends WorkerProcessSettings {
     @Override
     WorkerProcessBuilder sharedPackages(Iterable<String> packages);
 
+    @Override
+    WorkerProcessBuilder setUseSharedMemory(boolean useSharedMemory);
+
     @Override
     WorkerProcessBuilder sharedPackages(String... packages);
 
@@ -50,4 +50,11 @@ public interface WorkerProcessSettings {
     LogLevel getLogLevel();
 
     WorkerProcessSettings setLogLevel(LogLevel logLevel);
+
+    boolean isUseSharedMemory();
+
+    /**
+     * Transfers the messages between this process and the worker process through shared memory, rather than through the loopback socket.
+     */
+    WorkerProcessSettings setUseSharedMemory(boolean useSharedMemory);
 }
@@ -131,6 +131,7 @@ public class ApplicationClassesInSystemClassLoaderWorkerFactory implements Worke
             OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(outstr);
             encoder.writeSmallInt(logLevel.ordinal());
             new MultiChoiceAddressSerializer().write(encoder, (MultiChoiceAddress) serverAddress);
+            encoder.writeBoolean(processBuilder.isUseSharedMemory());
 
             // Serialize the worker, this is consumed by SystemApplicationClassLoaderWorker
             ActionExecutionWorker worker = new ActionExecutionWorker(processBuilder.getWorker(), workerId, displayName, processBuilder.getGradleUserHomeDir());
@@ -66,10 +66,14 @@ public class SystemApplicationClassLoaderWorker implements Callable<Void> {
 
         // Read server address and start connecting
         MultiChoiceAddress serverAddress = new MultiChoiceAddressSerializer().read(decoder);
+        boolean useSharedMemory = decoder.readBoolean();
         MessagingServices messagingServices = createClient();
 
         try {
             final ObjectConnection connection = messagingServices.get(MessagingClient.class).getConnection(serverAddress);
+            if (useSharedMemory) {
+                connection.useSharedMemory();
+            }
             configureLogging(loggingManager, connection);
 
             try {
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker.request;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The serializers to use for request arguments of specific types, in place of Java serialization. A serializer is used only for arguments of exactly the registered type.
+ *
+ * <p>The registrations are sent to the worker by name, and the types and serializers are loaded there using the ClassLoader of the worker implementation. Each serializer must
+ * have a public no-args constructor.</p>
+ */
+public class RequestArgumentSerializers implements Serializable {
+    private final Map<String, String> serializerTypes = new TreeMap<String, String>();
+
+    public <T> RequestArgumentSerializers register(Class<? extends T> type, Class<? extends Serializer<T>> serializerType) {
+        serializerTypes.put(type.getName(), serializerType.getName());
+        return this;
+    }
+
+    public RequestArgumentSerializers registerAll(RequestArgumentSerializers other) {
+        serializerTypes.putAll(other.serializerTypes);
+        return this;
+    }
+
+    public boolean containsAll(RequestArgumentSerializers other) {
+        return serializerTypes.entrySet().containsAll(other.serializerTypes.entrySet());
+    }
+
+    public boolean isEmpty() {
+        return serializerTypes.isEmpty();
+    }
+
+    /**
+     * Loads the registered types and serializers using the given ClassLoader.
+     */
+    SerializerRegistry load(ClassLoader classLoader) {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry(false);
+        for (Map.Entry<String, String> entry : serializerTypes.entrySet()) {
+            try {
+                Class<Object> type = (Class<Object>) classLoader.loadClass(entry.getKey());
+                Serializer<Object> serializer = (Serializer<Object>) classLoader.loadClass(entry.getValue()).newInstance();
+                registry.register(type, serializer);
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        return registry;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        return serializerTypes.equals(((RequestArgumentSerializers) obj).serializerTypes);
+    }
+
+    @Override
+    public int hashCode() {
+        return serializerTypes.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return serializerTypes.toString();
+    }
+}
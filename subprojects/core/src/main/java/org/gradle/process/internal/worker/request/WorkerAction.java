@@ -28,14 +28,16 @@ import java.util.concurrent.CountDownLatch;
 
 public class WorkerAction implements Action<WorkerProcessContext>, Serializable, RequestProtocol {
     private final String workerImplementationName;
+    private final RequestArgumentSerializers argumentSerializers;
     private transient CountDownLatch completed;
     private transient ResponseProtocol responder;
     private transient Throwable failure;
     private transient Class<?> workerImplementation;
     private transient Object implementation;
 
-    public WorkerAction(Class<?> workerImplementation) {
+    public WorkerAction(Class<?> workerImplementation, RequestArgumentSerializers argumentSerializers) {
         this.workerImplementationName = workerImplementation.getName();
+        this.argumentSerializers = argumentSerializers;
     }
 
     @Override
@@ -51,6 +53,7 @@ public class WorkerAction implements Action<WorkerProcessContext>, Serializable,
         ObjectConnection connection = workerProcessContext.getServerConnection();
         connection.addIncoming(RequestProtocol.class, this);
         responder = connection.addOutgoing(ResponseProtocol.class);
+        connection.useParameterSerializers(WorkerRequestSerializer.create(argumentSerializers, getClass().getClassLoader()));
         connection.connect();
 
         try {
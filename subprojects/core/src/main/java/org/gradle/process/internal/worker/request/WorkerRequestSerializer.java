@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker.request;
+
+import com.google.common.collect.ImmutableMap;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+
+import java.util.Map;
+
+/**
+ * Serializers for the parameters of {@link RequestProtocol} and {@link ResponseProtocol}. The method name and parameter types are written directly. The request arguments are
+ * written with the given argument serializers where registered for their type, and the remaining arguments and the results use Java serialization. Must be used on both
+ * ends of the connection, with the same argument serializers.
+ */
+public class WorkerRequestSerializer {
+    public static SerializerRegistry create(RequestArgumentSerializers argumentSerializers, ClassLoader classLoader) {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry(false);
+        registry.register(String.class, BaseSerializerFactory.STRING_SERIALIZER);
+        registry.register(Class[].class, new ClassArraySerializer(classLoader));
+        registry.register(Object[].class, new ArgumentsSerializer(argumentSerializers, classLoader));
+        return registry;
+    }
+
+    private static class ClassArraySerializer implements Serializer<Class[]> {
+        private static final Map<String, Class<?>> PRIMITIVE_TYPES;
+
+        static {
+            ImmutableMap.Builder<String, Class<?>> builder = ImmutableMap.builder();
+            for (Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class}) {
+                builder.put(type.getName(), type);
+            }
+            PRIMITIVE_TYPES = builder.build();
+        }
+
+        private final ClassLoader classLoader;
+
+        ClassArraySerializer(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public Class[] read(Decoder decoder) throws Exception {
+            Class[] types = new Class[decoder.readSmallInt()];
+            for (int i = 0; i < types.length; i++) {
+                String name = decoder.readString();
+                Class<?> type = PRIMITIVE_TYPES.get(name);
+                types[i] = type != null ? type : Class.forName(name, false, classLoader);
+            }
+            return types;
+        }
+
+        @Override
+        public void write(Encoder encoder, Class[] value) throws Exception {
+            encoder.writeSmallInt(value.length);
+            for (Class type : value) {
+                encoder.writeString(type.getName());
+            }
+        }
+    }
+
+    /**
+     * Writes each argument of a registered type with its serializer, followed by the other arguments together in a single Java serialization stream.
+     */
+    private static class ArgumentsSerializer implements Serializer<Object[]> {
+        private final SerializerRegistry argumentSerializers;
+        private final Serializer<Object> registeredArgumentSerializer;
+        private final Serializer<Object[]> javaSerializer;
+
+        ArgumentsSerializer(RequestArgumentSerializers argumentSerializers, ClassLoader classLoader) {
+            this.argumentSerializers = argumentSerializers.load(classLoader);
+            this.registeredArgumentSerializer = argumentSerializers.isEmpty() ? null : this.argumentSerializers.build(Object.class);
+            this.javaSerializer = new DefaultSerializer<Object[]>(classLoader);
+        }
+
+        @Override
+        public Object[] read(Decoder decoder) throws Exception {
+            if (!decoder.readBoolean()) {
+                return null;
+            }
+            Object[] args = new Object[decoder.readSmallInt()];
+            boolean[] registered = new boolean[args.length];
+            for (int i = 0; i < args.length; i++) {
+                registered[i] = decoder.readBoolean();
+                if (registered[i]) {
+                    args[i] = registeredArgumentSerializer.read(decoder);
+                }
+            }
+            if (decoder.readBoolean()) {
+                Object[] remaining = javaSerializer.read(decoder);
+                for (int i = 0; i < args.length; i++) {
+                    if (!registered[i]) {
+                        args[i] = remaining[i];
+                    }
+                }
+            }
+            return args;
+        }
+
+        @Override
+        public void write(Encoder encoder, Object[] value) throws Exception {
+            // Methods without parameters are invoked with no arguments
+            encoder.writeBoolean(value != null);
+            if (value == null) {
+                return;
+            }
+            encoder.writeSmallInt(value.length);
+            Object[] remaining = null;
+            for (int i = 0; i < value.length; i++) {
+                Object arg = value[i];
+                boolean registered = registeredArgumentSerializer != null && arg != null && argumentSerializers.canSerialize(arg.getClass());
+                encoder.writeBoolean(registered);
+                if (registered) {
+                    registeredArgumentSerializer.write(encoder, arg);
+                } else if (arg != null) {
+                    if (remaining == null) {
+                        remaining = new Object[value.length];
+                    }
+                    remaining[i] = arg;
+                }
+            }
+            encoder.writeBoolean(remaining != null);
+            if (remaining != null) {
+                javaSerializer.write(encoder, remaining);
+            }
+        }
+    }
+}
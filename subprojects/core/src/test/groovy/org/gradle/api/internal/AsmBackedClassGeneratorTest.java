@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal;
 
+import com.google.common.hash.HashCode;
+import com.google.common.io.ByteStreams;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
 import groovy.lang.MissingMethodException;
@@ -25,15 +27,22 @@ import org.gradle.api.internal.plugins.DslObject;
 import org.gradle.api.plugins.Convention;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.api.plugins.ExtensionContainer;
+import org.gradle.internal.Factory;
 import org.gradle.internal.metaobject.BeanDynamicObject;
 import org.gradle.internal.metaobject.DynamicObject;
 import org.gradle.internal.reflect.ObjectInstantiationException;
 import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.SimpleRemapper;
 import spock.lang.Issue;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
@@ -45,7 +54,9 @@ import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 import static org.gradle.api.internal.AbstractClassGeneratorTestGroovy.BeanWithGroovyBoolean;
@@ -112,6 +123,64 @@ public class AsmBackedClassGeneratorTest {
         assertSame(generator.generate(Bean.class), generator.generate(Bean.class));
     }
 
+    @Test
+    public void reusesCachedBytecodeWhenTypeIsLoadedAgain() throws Exception {
+        RecordingBytecodeCache bytecodeCache = new RecordingBytecodeCache();
+        AbstractClassGenerator generator = new AsmBackedClassGenerator(bytecodeCache);
+
+        Class<?> type = loadIsolated(BeanWithCachedBytecode.class);
+        Class<?> generatedClass = generator.generate(type);
+        assertSame(type, generatedClass.getSuperclass());
+        assertThat(bytecodeCache.generated, equalTo(1));
+
+        Class<?> reloadedType = loadIsolated(BeanWithCachedBytecode.class);
+        Class<?> regeneratedClass = generator.generate(reloadedType);
+        assertSame(reloadedType, regeneratedClass.getSuperclass());
+        assertNotSame(generatedClass, regeneratedClass);
+        assertThat(bytecodeCache.generated, equalTo(1));
+
+        Object bean = regeneratedClass.newInstance();
+        assertTrue(bean instanceof IConventionAware);
+    }
+
+    @Test
+    public void doesNotReuseCachedBytecodeWhenHierarchyOfPropertyTypeChanges() throws Exception {
+        RecordingBytecodeCache bytecodeCache = new RecordingBytecodeCache();
+        AbstractClassGenerator generator = new AsmBackedClassGenerator(bytecodeCache);
+
+        Class<?> type = loadIsolated(BeanWithCachedPropertyType.class, CachedPropertyType.class, CachedPropertyType.class);
+        Class<?> generatedClass = generator.generate(type);
+        assertThat(bytecodeCache.generated, equalTo(1));
+        generatedClass.getMethod("prop", type.getMethod("getProp").getReturnType());
+
+        Class<?> changedType = loadIsolated(BeanWithCachedPropertyType.class, CachedPropertyType.class, IterableCachedPropertyType.class);
+        Class<?> regeneratedClass = generator.generate(changedType);
+        assertThat(bytecodeCache.generated, equalTo(2));
+        try {
+            regeneratedClass.getMethod("prop", changedType.getMethod("getProp").getReturnType());
+            fail();
+        } catch (NoSuchMethodException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void doesNotReuseCachedBytecodeWhenMetaAnnotationsOfAnnotationTypeChange() throws Exception {
+        RecordingBytecodeCache bytecodeCache = new RecordingBytecodeCache();
+        AbstractClassGenerator generator = new AsmBackedClassGenerator(bytecodeCache);
+
+        Class<?> type = loadIsolated(BeanWithCachedAnnotation.class, CachedAnnotation.class, CachedAnnotation.class);
+        Class<?> generatedClass = generator.generate(type);
+        assertThat(bytecodeCache.generated, equalTo(1));
+        assertThat(generatedClass.getDeclaredAnnotations().length, equalTo(1));
+
+        Class<?> changedType = loadIsolated(BeanWithCachedAnnotation.class, CachedAnnotation.class, InheritedCachedAnnotation.class);
+        Class<?> regeneratedClass = generator.generate(changedType);
+        assertThat(bytecodeCache.generated, equalTo(2));
+        assertThat(regeneratedClass.getDeclaredAnnotations().length, equalTo(0));
+        assertThat(regeneratedClass.getAnnotations().length, equalTo(1));
+    }
+
     @Test
     public void doesNotDecorateAlreadyDecoratedClass() {
         Class<? extends Bean> generatedClass = generator.generate(Bean.class);
@@ -804,6 +873,107 @@ public class AsmBackedClassGeneratorTest {
         assertThat(annotation.annotations()[0].value(), equalTo("nested array"));
     }
 
+    private static Class<?> loadIsolated(Class<?> type) throws IOException {
+        return loadIsolated(type, type, type);
+    }
+
+    /**
+     * Loads the given type in a new class loader, along with the given replacement class renamed to the replaced type.
+     */
+    private static Class<?> loadIsolated(final Class<?> type, Class<?> replacedType, Class<?> replacement) throws IOException {
+        final Map<String, byte[]> classes = new HashMap<String, byte[]>();
+        if (replacedType != type) {
+            ClassWriter writer = new ClassWriter(0);
+            new ClassReader(readBytecode(replacement)).accept(new ClassRemapper(writer, new SimpleRemapper(replacement.getName().replace('.', '/'), replacedType.getName().replace('.', '/'))), 0);
+            classes.put(replacedType.getName(), writer.toByteArray());
+        }
+        classes.put(type.getName(), readBytecode(type));
+        ClassLoader classLoader = new ClassLoader(type.getClassLoader()) {
+            @Override
+            protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                byte[] bytecode = classes.get(name);
+                if (bytecode != null) {
+                    Class<?> loaded = findLoadedClass(name);
+                    return loaded != null ? loaded : defineClass(name, bytecode, 0, bytecode.length);
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+        try {
+            return classLoader.loadClass(type.getName());
+        } catch (ClassNotFoundException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static byte[] readBytecode(Class<?> type) throws IOException {
+        InputStream resource = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        try {
+            return ByteStreams.toByteArray(resource);
+        } finally {
+            resource.close();
+        }
+    }
+
+    private static class RecordingBytecodeCache implements org.gradle.api.internal.cache.Cache<HashCode, byte[]> {
+        private final Map<HashCode, byte[]> entries = new HashMap<HashCode, byte[]>();
+        private int generated;
+
+        @Override
+        public byte[] get(HashCode key, Factory<byte[]> factory) {
+            byte[] bytecode = entries.get(key);
+            if (bytecode == null) {
+                generated++;
+                bytecode = factory.create();
+                entries.put(key, bytecode);
+            }
+            return bytecode;
+        }
+    }
+
+    public static class BeanWithCachedBytecode {
+        private String prop;
+
+        public String getProp() {
+            return prop;
+        }
+
+        public void setProp(String prop) {
+            this.prop = prop;
+        }
+    }
+
+    public static class BeanWithCachedPropertyType {
+        private CachedPropertyType prop;
+
+        public CachedPropertyType getProp() {
+            return prop;
+        }
+
+        public void setProp(CachedPropertyType prop) {
+            this.prop = prop;
+        }
+    }
+
+    public static class CachedPropertyType {
+    }
+
+    public static class IterableCachedPropertyType extends ArrayList<String> {
+    }
+
+    @CachedAnnotation
+    public static class BeanWithCachedAnnotation {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface CachedAnnotation {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Inherited
+    public @interface InheritedCachedAnnotation {
+    }
+
     public static class Bean {
         private String prop;
 
@@ -19,6 +19,7 @@ package org.gradle.api.internal.changedetection.state
 import com.google.common.base.Charsets
 import com.google.common.hash.Hashing
 import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.archive.ArchiveEntryDetails
 import org.gradle.api.internal.hash.FileHasher
 import org.gradle.cache.PersistentIndexedCache
 import org.gradle.internal.resource.TextResource
@@ -163,4 +164,18 @@ class CachingFileHasherTest extends Specification {
         1 * target.hash(resource) >> hash
         0 * _._
     }
+
+    def hashesContentWhenElementIsArchiveEntry() {
+        def entry = Mock(ArchiveEntryDetails)
+
+        when:
+        def result = hasher.hash(entry)
+
+        then:
+        result == hash
+
+        and:
+        1 * target.hash(entry) >> hash
+        0 * _._
+    }
 }
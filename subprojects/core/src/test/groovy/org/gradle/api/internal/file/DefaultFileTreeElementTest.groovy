@@ -36,4 +36,26 @@ class DefaultFileTreeElementTest extends Specification {
         expect:
         e.mode == 0644
     }
+
+    def "can copy file to target"() {
+        def chmod = Mock(Chmod)
+        def stat = Stub(Stat)
+        def f = tmpDir.createFile("f")
+        f.text = "some content"
+        def target = tmpDir.file("dir/target")
+        target.parentFile.mkdirs()
+        target.text = "some other much longer content"
+        FileTreeElement e = new DefaultFileTreeElement(f, null, chmod, stat)
+
+        given:
+        stat.getUnixMode(f) >> 0644
+
+        when:
+        def copied = e.copyTo(target)
+
+        then:
+        copied
+        target.text == "some content"
+        1 * chmod.chmod(target, 0644)
+    }
 }
@@ -20,11 +20,16 @@ import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction
 import org.gradle.api.internal.file.FileResource
 import org.gradle.api.internal.file.archive.compression.ArchiveOutputStreamFactory
+import org.gradle.api.internal.file.archive.compression.BlockCompressor
 import org.gradle.api.internal.file.archive.compression.Bzip2Archiver
 import org.gradle.api.internal.file.archive.compression.GzipArchiver
 import org.gradle.api.internal.file.archive.compression.SimpleCompressor
 import org.gradle.api.internal.file.copy.CopyActionProcessingStream
 import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationWorkerRegistry
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
 import org.gradle.test.fixtures.file.CleanupTestDirectory
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -62,6 +67,31 @@ public class TarCopyActionSpec extends Specification {
         tarAndUntarAndCheckFileContents(tarFile);
     }
 
+    def "creates gzip compressed tar file in parallel"() {
+        expect:
+        final TestFile tarFile = initializeParallelTarFile(temporaryFolder.testDirectory.file("test.tgz"), GzipArchiver.getBlockCompressor())
+        tarAndUntarAndCheckFileContents(tarFile)
+    }
+
+    def "creates bzip compressed tar file in parallel"() {
+        expect:
+        final TestFile tarFile = initializeParallelTarFile(temporaryFolder.testDirectory.file("test.tbz2"), Bzip2Archiver.getBlockCompressor())
+        tarAndUntarAndCheckFileContents(tarFile)
+    }
+
+    def "wraps failure to add element when compressing in parallel"() {
+        when:
+        final TestFile tarFile = initializeParallelTarFile(temporaryFolder.getTestDirectory().file("test.tgz"), GzipArchiver.getBlockCompressor())
+
+        Throwable failure = new RuntimeException("broken")
+        visit(action, brokenFile("dir/file1", failure))
+
+        then:
+        def e = thrown(GradleException)
+        e.message == "Could not add [dir/file1] to TAR '${tarFile}'." as String
+        e.cause == failure
+    }
+
     private void tarAndUntarAndCheckFileContents(TestFile tarFile) {
         tar(file("dir/file1"), file("file2"));
 
@@ -115,6 +145,12 @@ public class TarCopyActionSpec extends Specification {
         return tarFile;
     }
 
+    private TestFile initializeParallelTarFile(final TestFile tarFile, final BlockCompressor compressor) {
+        def buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(Stub(BuildOperationWorkerRegistry)), new DefaultExecutorFactory(), 2)
+        action = new TarCopyAction(tarFile, compressor, buildOperationProcessor)
+        return tarFile
+    }
+
     private void tar(final FileCopyDetailsInternal... files) {
         action.execute(new CopyActionProcessingStream() {
             public void process(CopyActionProcessingStreamAction action) {
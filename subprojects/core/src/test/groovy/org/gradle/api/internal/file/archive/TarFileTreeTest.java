@@ -19,6 +19,7 @@ import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.file.FileResource;
 import org.gradle.api.internal.file.MaybeCompressedFileResource;
+import org.gradle.api.internal.file.archive.compression.GzipArchiver;
 import org.gradle.api.resources.MissingResourceException;
 import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
@@ -89,6 +90,22 @@ public class TarFileTreeTest {
         assertSetContainsForAllTypes(tree, toList("subdir/file1.txt", "subdir2/file2.txt"));
     }
 
+    @Test
+    public void readsGzippedTarFileAhead() {
+        TestFile tgz = tmpDir.getTestDirectory().file("test.tgz");
+
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.file("subdir2/file2.txt").write("content");
+        rootDir.tgzTo(tgz);
+
+        GzipArchiver resource = new GzipArchiver(new FileResource(tgz));
+        resource.setReadAhead(true);
+        TarFileTree tree = new TarFileTree(tarFile, new MaybeCompressedFileResource(resource), expandDir, fileSystem(), fileSystem(), directoryFileTreeFactory());
+
+        assertVisits(tree, toList("subdir/file1.txt", "subdir2/file2.txt"), toList("subdir", "subdir2"));
+        assertSetContainsForAllTypes(tree, toList("subdir/file1.txt", "subdir2/file2.txt"));
+    }
+
     @Test
     public void canStopVisitingFiles() {
         rootDir.file("subdir/file1.txt").write("content");
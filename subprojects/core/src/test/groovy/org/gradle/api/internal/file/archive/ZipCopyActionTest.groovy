@@ -17,13 +17,21 @@ package org.gradle.api.internal.file.archive
 
 import org.apache.tools.zip.Zip64RequiredException
 import org.apache.tools.zip.ZipOutputStream
+import org.gradle.api.file.EmptyFileVisitor
+import org.gradle.api.file.FileVisitDetails
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.DefaultFileVisitDetails
+import org.gradle.api.internal.file.copy.ChangedSourceFiles
 import org.gradle.api.internal.file.copy.CopyActionProcessingStream
 import org.gradle.api.internal.file.copy.DefaultZipCompressor
 import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
 import org.gradle.api.tasks.bundling.Zip
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationWorkerRegistry
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -44,6 +52,7 @@ class ZipCopyActionTest extends Specification {
     ZipCopyAction visitor
     TestFile zipFile
     def encoding = 'UTF-8'
+    def readFiles = []
 
     def setup() {
         zipFile = tmpDir.getTestDirectory().file("test.zip")
@@ -134,6 +143,137 @@ class ZipCopyActionTest extends Specification {
         e.message == "xyz\n\nTo build this archive, please enable the zip64 extension.\nSee: doc url"
     }
 
+    void createsZipFileWithEntriesCompressedInParallel() {
+        given:
+        visitor = parallelZipCopyAction(ZipOutputStream.DEFLATED)
+        zip(dir("dir"), file("dir/file1"), file("dir/file2"), file("file3"))
+
+        when:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"))
+        expandDir.file("dir/file2").assertContents(equalTo("contents of dir/file2"))
+        expandDir.file("file3").assertContents(equalTo("contents of file3"))
+    }
+
+    void storedZipFileWithEntriesCompressedInParallelContainsExpectedPermissions() {
+        given:
+        visitor = parallelZipCopyAction(ZipOutputStream.STORED)
+        zip(dir("dir"), file("file"))
+
+        when:
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        expected.put("dir", 2);
+        expected.put("file", 1);
+
+        then:
+        assertVisitsPermissions(new ZipFileTree(zipFile, null, fileSystem(), directoryFileTreeFactory()), expected)
+    }
+
+    void copiesCompressedEntriesOfOtherZipFilesWithoutUncompressingThem() {
+        given:
+        def sourceZipFile = tmpDir.getTestDirectory().file("source.zip")
+        new ZipCopyAction(sourceZipFile, new DefaultZipCompressor(false, ZipOutputStream.DEFLATED), new DocumentationRegistry(), encoding).execute(new CopyActionProcessingStream() {
+            public void process(CopyActionProcessingStreamAction action) {
+                action.processFile(file("dir/file1"))
+                action.processFile(file("file2"))
+            }
+        })
+        visitor = parallelZipCopyAction(ZipOutputStream.DEFLATED)
+
+        when:
+        visitor.execute(new CopyActionProcessingStream() {
+            public void process(CopyActionProcessingStreamAction action) {
+                new ZipFileTree(sourceZipFile, null, fileSystem(), directoryFileTreeFactory()).visit(new EmptyFileVisitor() {
+                    @Override
+                    void visitFile(FileVisitDetails fileDetails) {
+                        action.processFile(unfilteredFile("copied/" + fileDetails.path, fileDetails))
+                    }
+                })
+            }
+        })
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("copied/dir/file1").assertContents(equalTo("contents of dir/file1"))
+        expandDir.file("copied/file2").assertContents(equalTo("contents of file2"))
+    }
+
+    void copiesEntriesOfUnchangedFilesFromPreviousArchive() {
+        given:
+        def unchanged = tmpDir.getTestDirectory().createFile("src/unchanged.txt")
+        unchanged.text = "unchanged"
+        def changed = tmpDir.getTestDirectory().createFile("src/changed.txt")
+        changed.text = "before"
+        def added = tmpDir.getTestDirectory().createFile("src/added.txt")
+        added.text = "added"
+        def previousZipFile = tmpDir.getTestDirectory().file("previous.zip")
+        def fullZipFile = tmpDir.getTestDirectory().file("full.zip")
+        visitor = parallelZipCopyAction(ZipOutputStream.DEFLATED)
+        zip(fileFrom("unchanged.txt", unchanged), fileFrom("changed.txt", changed))
+        zipFile.renameTo(previousZipFile)
+        changed.text = "after"
+        readFiles.clear()
+
+        when:
+        visitor = parallelZipCopyAction(ZipOutputStream.DEFLATED, zipFile, new PreviousZipArchive(previousZipFile, new ChangedSourceFiles([changed] as Set, false)))
+        zip(dir("dir"), fileFrom("unchanged.txt", unchanged), fileFrom("changed.txt", changed), fileFrom("added.txt", added))
+        visitor = parallelZipCopyAction(ZipOutputStream.DEFLATED, fullZipFile)
+        zip(dir("dir"), fileFrom("unchanged.txt", unchanged), fileFrom("changed.txt", changed), fileFrom("added.txt", added))
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        readFiles == ["unchanged.txt", "changed.txt", "added.txt", "unchanged.txt", "changed.txt", "added.txt"]
+        expandDir.file("unchanged.txt").assertContents(equalTo("unchanged"))
+        expandDir.file("changed.txt").assertContents(equalTo("after"))
+        expandDir.file("added.txt").assertContents(equalTo("added"))
+        zipFile.bytes == fullZipFile.bytes
+    }
+
+    void compressesUnchangedFilesThatAreMissingFromPreviousArchive() {
+        given:
+        def unchanged = tmpDir.getTestDirectory().createFile("src/unchanged.txt")
+        unchanged.text = "unchanged"
+        def previousZipFile = tmpDir.getTestDirectory().file("previous.zip")
+        visitor = parallelZipCopyAction(ZipOutputStream.DEFLATED)
+        zip(fileFrom("other.txt", unchanged))
+        zipFile.renameTo(previousZipFile)
+
+        when:
+        visitor = parallelZipCopyAction(ZipOutputStream.DEFLATED, zipFile, new PreviousZipArchive(previousZipFile, new ChangedSourceFiles([] as Set, false)))
+        zip(fileFrom("unchanged.txt", unchanged))
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("unchanged.txt").assertContents(equalTo("unchanged"))
+    }
+
+    void compressesUnchangedFilesWhoseEntryInPreviousArchiveWasWrittenForAnotherFile() {
+        given:
+        def removed = tmpDir.getTestDirectory().createFile("src/a/file.txt")
+        removed.text = "removed"
+        def unchanged = tmpDir.getTestDirectory().createFile("src/b/file.txt")
+        unchanged.text = "unchanged"
+        def previousZipFile = tmpDir.getTestDirectory().file("previous.zip")
+        visitor = parallelZipCopyAction(ZipOutputStream.DEFLATED)
+        zip(fileFrom("file.txt", removed))
+        zipFile.renameTo(previousZipFile)
+
+        when:
+        visitor = parallelZipCopyAction(ZipOutputStream.DEFLATED, zipFile, new PreviousZipArchive(previousZipFile, new ChangedSourceFiles([removed] as Set, true)))
+        zip(fileFrom("file.txt", unchanged))
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("file.txt").assertContents(equalTo("unchanged"))
+    }
+
     @Test
     public void wrapsFailureToAddElement() {
         given:
@@ -149,6 +289,11 @@ class ZipCopyActionTest extends Specification {
         e.cause.is(failure)
     }
 
+    private ZipCopyAction parallelZipCopyAction(int compressionMethod, File zipFile = this.zipFile, PreviousZipArchive previousArchive = null) {
+        def buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(Stub(BuildOperationWorkerRegistry)), new DefaultExecutorFactory(), 2)
+        new ZipCopyAction(zipFile, new DefaultZipCompressor(false, compressionMethod), new DocumentationRegistry(), encoding, buildOperationProcessor, previousArchive)
+    }
+
     private void zip(final FileCopyDetailsInternal... files) {
         visitor.execute(new CopyActionProcessingStream() {
             public void process(CopyActionProcessingStreamAction action) {
@@ -171,6 +316,33 @@ class ZipCopyActionTest extends Specification {
         mock
     }
 
+    private FileCopyDetailsInternal unfilteredFile(final String path, final FileVisitDetails source) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.getUnfilteredSourceDetails() >> source
+        mock.copyTo(_ as OutputStream) >> {
+            throw new AssertionError("content of $path should not be uncompressed")
+        }
+        mock
+    }
+
+    private FileCopyDetailsInternal fileFrom(final String path, final File source) {
+        def mock = Mock(FileCopyDetailsInternal)
+        mock.getRelativePath() >> RelativePath.parse(false, path)
+        mock.getLastModified() >> 1000L
+        mock.isDirectory() >> false
+        mock.getMode() >> 1
+        mock.getSourceDetails() >> new DefaultFileVisitDetails(source, fileSystem(), fileSystem())
+        mock.copyTo(_ as OutputStream) >> { OutputStream out ->
+            readFiles << path
+            out << source.text
+        }
+        mock
+    }
+
     private FileCopyDetailsInternal dir(final String path) {
         def mock = Mock(FileCopyDetailsInternal)
         mock.getRelativePath() >> RelativePath.parse(false, path)
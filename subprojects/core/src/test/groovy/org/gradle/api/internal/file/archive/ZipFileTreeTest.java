@@ -15,8 +15,13 @@
  */
 package org.gradle.api.internal.file.archive;
 
+import com.google.common.hash.HashCode;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.hash.DefaultFileHasher;
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.gradle.util.Resources;
@@ -32,6 +37,8 @@ import static org.gradle.api.internal.file.TestFiles.fileSystem;
 import static org.gradle.api.tasks.AntBuilderAwareUtil.assertSetContainsForAllTypes;
 import static org.gradle.util.WrapUtil.toList;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -122,4 +129,23 @@ public class ZipFileTreeTest {
 
         assertVisitsPermissions(tree, expected);
     }
+
+    @Test
+    public void canReadAndHashEntriesWithoutExpandingThem() {
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.zipTo(zipFile);
+        final FileHasher hasher = new DefaultFileHasher();
+        final HashCode expectedHash = hasher.hash(rootDir.file("subdir/file1.txt"));
+
+        tree.visit(new EmptyFileVisitor() {
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                assertThat(fileDetails, instanceOf(ArchiveEntryDetails.class));
+                assertThat(hasher.hash(fileDetails), equalTo(expectedHash));
+                assertThat(hasher.hash(fileDetails), equalTo(expectedHash));
+            }
+        });
+
+        assertFalse(expandDir.exists());
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive.compression
+
+import org.gradle.api.Action
+import org.gradle.api.internal.file.FileResource
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationQueue
+import org.gradle.internal.operations.BuildOperationWorkerRegistry
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ParallelCompressingOutputStreamTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(Stub(BuildOperationWorkerRegistry)), new DefaultExecutorFactory(), 4)
+
+    @Unroll
+    def "content compressed in several blocks can be read by #archiver.simpleName"() {
+        def content = new byte[blockCompressor.blockSize * 3 + 17]
+        def random = new Random(1)
+        content.length.times { content[it] = (byte) (97 + random.nextInt(4)) }
+        def file = tmpDir.file("archive")
+
+        when:
+        compress(file, blockCompressor) { OutputStream outStr ->
+            outStr.write(content, 0, 100)
+            outStr.write(content[100])
+            outStr.write(content, 101, content.length - 101)
+        }
+
+        then:
+        archiver.newInstance(new FileResource(file)).read().bytes == content
+
+        where:
+        archiver      | blockCompressor
+        GzipArchiver  | GzipArchiver.getBlockCompressor()
+        Bzip2Archiver | Bzip2Archiver.getBlockCompressor()
+    }
+
+    @Unroll
+    def "empty content can be read by #archiver.simpleName"() {
+        def file = tmpDir.file("archive")
+
+        when:
+        compress(file, blockCompressor) {}
+
+        then:
+        archiver.newInstance(new FileResource(file)).read().bytes.length == 0
+
+        where:
+        archiver      | blockCompressor
+        GzipArchiver  | GzipArchiver.getBlockCompressor()
+        Bzip2Archiver | Bzip2Archiver.getBlockCompressor()
+    }
+
+    def "rethrows failure to compress a block"() {
+        def failure = new IOException("broken")
+        def blockCompressor = Stub(BlockCompressor) {
+            getBlockSize() >> 4
+            compress(_, _) >> { throw failure }
+        }
+
+        when:
+        compress(tmpDir.file("archive"), blockCompressor) { OutputStream outStr -> outStr.write("content".bytes) }
+
+        then:
+        def e = thrown(IOException)
+        e.is(failure)
+    }
+
+    private void compress(File file, BlockCompressor blockCompressor, Closure writer) {
+        Throwable failure = null
+        buildOperationProcessor.run(new Action<BuildOperationQueue<ParallelCompressingOutputStream.CompressBlockOperation>>() {
+            void execute(BuildOperationQueue<ParallelCompressingOutputStream.CompressBlockOperation> queue) {
+                def outStr = new ParallelCompressingOutputStream(new FileOutputStream(file), blockCompressor, queue)
+                try {
+                    writer.call(outStr)
+                    outStr.close()
+                } catch (Throwable t) {
+                    failure = t
+                }
+            }
+        })
+        if (failure != null) {
+            throw failure
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive.compression
+
+import spock.lang.Specification
+
+class ReadAheadInputStreamTest extends Specification {
+    def "reads content of source"() {
+        def content = new byte[1024 * 1024 + 17]
+        new Random(1).nextBytes(content)
+        def source = new ByteArrayInputStream(content)
+
+        when:
+        def instr = new ReadAheadInputStream(source)
+
+        then:
+        instr.bytes == content
+        instr.read() == -1
+
+        cleanup:
+        instr?.close()
+    }
+
+    def "can read single bytes"() {
+        when:
+        def instr = new ReadAheadInputStream(new ByteArrayInputStream("abc".bytes))
+
+        then:
+        instr.read() == ('a' as char)
+        instr.read() == ('b' as char)
+        instr.read() == ('c' as char)
+        instr.read() == -1
+
+        cleanup:
+        instr?.close()
+    }
+
+    def "rethrows failure to read source"() {
+        def failure = new IOException("broken")
+        def source = Stub(InputStream) {
+            read(_, _, _) >> { throw failure }
+        }
+
+        when:
+        def instr = new ReadAheadInputStream(source)
+        instr.read(new byte[10])
+
+        then:
+        def e = thrown(IOException)
+        e.is(failure)
+
+        cleanup:
+        instr?.close()
+    }
+
+    def "closes source when closed before source has been read"() {
+        def closed = false
+        def source = new InputStream() {
+            @Override
+            int read() {
+                return 1
+            }
+
+            @Override
+            void close() {
+                closed = true
+            }
+        }
+
+        when:
+        def instr = new ReadAheadInputStream(source)
+        instr.read()
+        instr.close()
+
+        then:
+        closed
+    }
+}
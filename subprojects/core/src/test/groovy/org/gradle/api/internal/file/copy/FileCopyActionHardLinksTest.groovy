@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.Action
+import org.gradle.api.file.CopySpec
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.reflect.DirectInstantiator
+import org.gradle.test.fixtures.file.WorkspaceTest
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+
+import java.nio.file.Files
+import java.nio.file.attribute.BasicFileAttributes
+
+class FileCopyActionHardLinksTest extends WorkspaceTest {
+    def copier = new FileCopier(DirectInstantiator.INSTANCE, TestFiles.resolver(testDirectory), TestFiles.fileLookup())
+
+    def setup() {
+        System.setProperty(FileCopyAction.HARD_LINKS_TOGGLE, "true")
+    }
+
+    def cleanup() {
+        System.clearProperty(FileCopyAction.HARD_LINKS_TOGGLE)
+    }
+
+    def "does not change linked source file when target is later copied with a filter"() {
+        def source = file("src/file.txt").createFile()
+        source.text = "original"
+        copy { it.from("src").into("dest") }
+
+        when:
+        copy { it.from("src").into("dest").filter { String line -> "filtered" } }
+
+        then:
+        source.text == "original"
+        file("dest/file.txt").text.trim() == "filtered"
+    }
+
+    def "does not change linked source file when target is later copied without links"() {
+        def source = file("src/file.txt").createFile()
+        source.text = "original"
+        copy { it.from("src").into("dest") }
+        System.clearProperty(FileCopyAction.HARD_LINKS_TOGGLE)
+        source.text = "changed"
+        def other = file("other/file.txt").createFile()
+        other.text = "other"
+
+        when:
+        copy { it.from("other").into("dest") }
+
+        then:
+        source.text == "changed"
+        file("dest/file.txt").text == "other"
+    }
+
+    @Requires(TestPrecondition.UNIX_DERIVATIVE)
+    def "overwrites target that is not linked in place when links are disabled"() {
+        System.clearProperty(FileCopyAction.HARD_LINKS_TOGGLE)
+        file("src/file.txt").createFile().text = "original"
+        copy { it.from("src").into("dest") }
+        def fileKey = Files.readAttributes(file("dest/file.txt").toPath(), BasicFileAttributes).fileKey()
+        file("src/file.txt").text = "changed"
+
+        when:
+        copy { it.from("src").into("dest") }
+
+        then:
+        file("dest/file.txt").text == "changed"
+        Files.readAttributes(file("dest/file.txt").toPath(), BasicFileAttributes).fileKey() == fileKey
+    }
+
+    private void copy(Closure closure) {
+        copier.copy(new Action<CopySpec>() {
+            void execute(CopySpec spec) {
+                closure.call(spec)
+            }
+        })
+    }
+}
@@ -16,12 +16,22 @@
 
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
 import org.gradle.api.internal.file.TestFiles;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationWorkerRegistry;
+import org.gradle.internal.operations.DefaultBuildOperationProcessor;
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory;
+import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.jmock.Expectations;
+import org.jmock.Sequence;
 import org.jmock.integration.junit4.JMock;
 import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.concurrent.Synchroniser;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -35,7 +45,9 @@ import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit;
 @RunWith(JMock.class)
 public class FileCopyActionTest {
     private File destDir;
-    private final JUnit4Mockery context = new JUnit4Mockery();
+    private final JUnit4Mockery context = new JUnit4Mockery() {{
+        setThreadingPolicy(new Synchroniser());
+    }};
 
     @Rule
     public TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider();
@@ -54,11 +66,68 @@ public class FileCopyActionTest {
         );
     }
 
+    @Test
+    public void parallelCopy() {
+        FileCopyAction visitor = new FileCopyAction(TestFiles.resolver(destDir), buildOperationProcessor());
+        visit(visitor,
+                unfilteredFile(new RelativePath(true, "rootfile.txt"), tmpDir.createFile("src/rootfile.txt"), new File(destDir, "rootfile.txt"), null),
+                unfilteredFile(new RelativePath(true, "subdir", "anotherfile.txt"), tmpDir.createFile("src/subdir/anotherfile.txt"), new File(destDir, "subdir/anotherfile.txt"), null),
+                file(new RelativePath(true, "filtered.txt"), new File(destDir, "filtered.txt"))
+        );
+    }
+
+    @Test
+    public void parallelCopyAppliesCopiesToTheSameTargetInOrder() {
+        Sequence sequence = context.sequence("copies");
+        FileCopyAction visitor = new FileCopyAction(TestFiles.resolver(destDir), buildOperationProcessor());
+        visit(visitor,
+                unfilteredFile(new RelativePath(true, "file.txt"), tmpDir.createFile("src1/file.txt"), new File(destDir, "file.txt"), sequence),
+                unfilteredFile(new RelativePath(true, "file.txt"), tmpDir.createFile("src2/file.txt"), new File(destDir, "file.txt"), sequence),
+                unfilteredFile(new RelativePath(true, "file.txt"), tmpDir.createFile("src3/file.txt"), new File(destDir, "file.txt"), sequence)
+        );
+    }
+
+    private BuildOperationProcessor buildOperationProcessor() {
+        final BuildOperationWorkerRegistry workerRegistry = context.mock(BuildOperationWorkerRegistry.class);
+        final BuildOperationWorkerRegistry.Operation operation = context.mock(BuildOperationWorkerRegistry.Operation.class);
+        final BuildOperationWorkerRegistry.Completion completion = context.mock(BuildOperationWorkerRegistry.Completion.class);
+        context.checking(new Expectations() {{
+            allowing(workerRegistry).getCurrent();
+            will(returnValue(operation));
+            allowing(operation).operationStart();
+            will(returnValue(completion));
+            allowing(completion).operationFinish();
+        }});
+        return new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(workerRegistry), new DefaultExecutorFactory(), 2);
+    }
+
+    private FileCopyDetailsInternal unfilteredFile(final RelativePath relativePath, TestFile sourceFile, final File targetFile, final Sequence sequence) {
+        final FileCopyDetailsInternal details = context.mock(FileCopyDetailsInternal.class, sourceFile.getPath());
+        final FileVisitDetails sourceDetails = new DefaultFileVisitDetails(sourceFile, TestFiles.fileSystem(), TestFiles.fileSystem());
+        context.checking(new Expectations() {{
+            allowing(details).getRelativePath();
+            will(returnValue(relativePath));
+            allowing(details).isDirectory();
+            will(returnValue(false));
+            allowing(details).getUnfilteredSourceDetails();
+            will(returnValue(sourceDetails));
+            one(details).copyTo(targetFile);
+            if (sequence != null) {
+                inSequence(sequence);
+            }
+        }});
+        return details;
+    }
+
     private FileCopyDetailsInternal file(final RelativePath relativePath, final File targetFile) {
         final FileCopyDetailsInternal details = context.mock(FileCopyDetailsInternal.class, relativePath.getPathString());
         context.checking(new Expectations() {{
             allowing(details).getRelativePath();
             will(returnValue(relativePath));
+            allowing(details).isDirectory();
+            will(returnValue(false));
+            allowing(details).getUnfilteredSourceDetails();
+            will(returnValue(null));
             one(details).copyTo(targetFile);
         }});
         return details;
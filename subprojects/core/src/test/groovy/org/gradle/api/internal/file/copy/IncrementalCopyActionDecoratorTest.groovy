@@ -0,0 +1,234 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.Action
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.TaskInputsInternal
+import org.gradle.api.internal.TaskOutputsInternal
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
+import org.gradle.api.internal.file.DefaultFileVisitDetails
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.SimpleWorkResult
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
+import org.gradle.api.tasks.incremental.InputFileDetails
+import org.gradle.internal.Factory
+import org.gradle.test.fixtures.file.WorkspaceTest
+
+class IncrementalCopyActionDecoratorTest extends WorkspaceTest {
+    def delegate = Mock(CopyAction)
+    def processed = []
+    def sharedTargets = file("tmp/sharedCopyTargets.txt")
+
+    def "skips files copied from unchanged sources to targets of the previous execution"() {
+        def unchanged = file("src/unchanged.txt").createFile()
+        def changed = file("src/changed.txt").createFile()
+        def added = file("src/added.txt").createFile()
+        def action = new IncrementalCopyActionDecorator(delegate, TestFiles.resolver(file("dest")), new ChangedSourceFiles([changed] as Set, false), [file("dest/unchanged.txt"), file("dest/changed.txt")] as Set, [] as Set, sharedTargets)
+
+        when:
+        action.execute(stream(details("unchanged.txt", unchanged), details("changed.txt", changed), details("added.txt", added), details("renamed.txt", unchanged)))
+
+        then:
+        1 * delegate.execute(_) >> { CopyActionProcessingStream stream -> process(stream) }
+        processed == ["changed.txt", "added.txt", "renamed.txt"]
+    }
+
+    def "copies later files to the same target and records the target"() {
+        def first = file("src/first/file.txt").createFile()
+        def second = file("src/second/file.txt").createFile()
+        def action = new IncrementalCopyActionDecorator(delegate, TestFiles.resolver(file("dest")), new ChangedSourceFiles([first] as Set, false), [file("dest/file.txt")] as Set, [] as Set, sharedTargets)
+
+        when:
+        action.execute(stream(details("file.txt", first), details("file.txt", second)))
+
+        then:
+        1 * delegate.execute(_) >> { CopyActionProcessingStream stream -> process(stream) }
+        processed == ["file.txt", "file.txt"]
+        sharedTargets.text == file("dest/file.txt").absolutePath
+    }
+
+    def "copies unchanged files to targets that the previous execution copied more than one file to"() {
+        def unchanged = file("src/unchanged/file.txt").createFile()
+        def action = new IncrementalCopyActionDecorator(delegate, TestFiles.resolver(file("dest")), new ChangedSourceFiles([file("src/removed/file.txt")] as Set, true), [file("dest/file.txt")] as Set, [file("dest/file.txt")] as Set, sharedTargets)
+
+        when:
+        action.execute(stream(details("file.txt", unchanged)))
+
+        then:
+        1 * delegate.execute(_) >> { CopyActionProcessingStream stream -> process(stream) }
+        processed == ["file.txt"]
+        sharedTargets.text == ""
+    }
+
+    def "skips unchanged files when other source files have been removed"() {
+        def unchanged = file("src/unchanged.txt").createFile()
+        def action = new IncrementalCopyActionDecorator(delegate, TestFiles.resolver(file("dest")), new ChangedSourceFiles([file("src/removed.txt")] as Set, true), [file("dest/unchanged.txt"), file("dest/removed.txt")] as Set, [] as Set, sharedTargets)
+
+        when:
+        action.execute(stream(details("unchanged.txt", unchanged)))
+
+        then:
+        1 * delegate.execute(_) >> { CopyActionProcessingStream stream -> process(stream) }
+        processed == []
+        action.previousOutputFiles == [file("dest/unchanged.txt"), file("dest/removed.txt")] as Set
+    }
+
+    def "copies files that are not read from a file on disk"() {
+        def action = new IncrementalCopyActionDecorator(delegate, TestFiles.resolver(file("dest")), new ChangedSourceFiles([] as Set, false), [file("dest/entry.txt")] as Set, [] as Set, sharedTargets)
+
+        when:
+        action.execute(stream(details("entry.txt", Stub(FileVisitDetails))))
+
+        then:
+        1 * delegate.execute(_) >> { CopyActionProcessingStream stream -> process(stream) }
+        processed == ["entry.txt"]
+    }
+
+    def "does not decorate action when not enabled"() {
+        def inputs = Mock(TaskInputsInternal)
+
+        when:
+        def action = IncrementalCopyActionDecorator.decorate(delegate, TestFiles.resolver(file("dest")), inputs, null, null)
+
+        then:
+        action.is(delegate)
+        0 * inputs._
+    }
+
+    def "does not decorate action when task is not executing"() {
+        def inputs = Stub(TaskInputsInternal) {
+            getInputChanges() >> null
+        }
+        System.setProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE, "true")
+
+        expect:
+        IncrementalCopyActionDecorator.decorate(delegate, TestFiles.resolver(file("dest")), inputs, null, null).is(delegate)
+
+        cleanup:
+        System.clearProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE)
+    }
+
+    def "copies all files when input changes are not incremental"() {
+        sharedTargets.text = ""
+        System.setProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE, "true")
+
+        when:
+        def action = IncrementalCopyActionDecorator.decorate(delegate, TestFiles.resolver(file("dest")), inputs(false), outputs(false), temporaryDir())
+
+        then:
+        action.previousOutputFiles == null
+        !sharedTargets.exists()
+
+        cleanup:
+        System.clearProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE)
+    }
+
+    def "copies all files when the previous execution did not record its shared targets"() {
+        System.setProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE, "true")
+
+        when:
+        def action = IncrementalCopyActionDecorator.decorate(delegate, TestFiles.resolver(file("dest")), inputs(true), outputs(false), temporaryDir())
+
+        then:
+        action.previousOutputFiles == null
+
+        when:
+        action.execute(stream())
+
+        then:
+        1 * delegate.execute(_) >> { CopyActionProcessingStream stream -> process(stream) }
+        sharedTargets.text == ""
+
+        cleanup:
+        System.clearProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE)
+    }
+
+    def "copies all files when other tasks have written to the destination"() {
+        sharedTargets.text = ""
+        System.setProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE, "true")
+
+        when:
+        def action = IncrementalCopyActionDecorator.decorate(delegate, TestFiles.resolver(file("dest")), inputs(true), outputs(true), temporaryDir())
+
+        then:
+        action.previousOutputFiles == null
+
+        cleanup:
+        System.clearProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE)
+    }
+
+    def "skips unchanged files when input changes are incremental"() {
+        sharedTargets.text = file("dest/shared.txt").absolutePath
+        System.setProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE, "true")
+
+        when:
+        def action = IncrementalCopyActionDecorator.decorate(delegate, TestFiles.resolver(file("dest")), inputs(true), outputs(false), temporaryDir())
+
+        then:
+        action.previousOutputFiles == [file("dest/file.txt")] as Set
+        action.previousSharedTargets == [file("dest/shared.txt")] as Set
+        !sharedTargets.exists()
+
+        cleanup:
+        System.clearProperty(IncrementalCopyActionDecorator.INCREMENTAL_COPY_TOGGLE)
+    }
+
+    private TaskInputsInternal inputs(boolean incremental) {
+        def removedFile = file("src/removed.txt")
+        return Stub(TaskInputsInternal) {
+            getInputChanges() >> Stub(IncrementalTaskInputs) {
+                isIncremental() >> incremental
+                removed(_) >> { Action<InputFileDetails> action -> action.execute(Stub(InputFileDetails) { getFile() >> removedFile }) }
+            }
+        }
+    }
+
+    private TaskOutputsInternal outputs(boolean overlapping) {
+        return Stub(TaskOutputsInternal) {
+            hasOverlappingOutputs() >> overlapping
+            getPreviousOutputFiles() >> new SimpleFileCollection(file("dest/file.txt"))
+        }
+    }
+
+    private Factory<File> temporaryDir() {
+        return { file("tmp") } as Factory
+    }
+
+    private CopyActionProcessingStream stream(FileCopyDetailsInternal... files) {
+        return new CopyActionProcessingStream() {
+            void process(CopyActionProcessingStreamAction action) {
+                files.each { action.processFile(it) }
+            }
+        }
+    }
+
+    private SimpleWorkResult process(CopyActionProcessingStream stream) {
+        stream.process({ FileCopyDetailsInternal details -> processed << details.relativePath.pathString } as CopyActionProcessingStreamAction)
+        return new SimpleWorkResult(true)
+    }
+
+    private FileCopyDetailsInternal details(String path, Object source) {
+        def sourceDetails = source instanceof File ? new DefaultFileVisitDetails(source, TestFiles.fileSystem(), TestFiles.fileSystem()) : source
+        return Stub(FileCopyDetailsInternal) {
+            getRelativePath() >> RelativePath.parse(true, path)
+            isDirectory() >> false
+            getSourceDetails() >> sourceDetails
+        }
+    }
+}
@@ -16,7 +16,11 @@
 package org.gradle.api.internal.file.copy
 
 import org.gradle.api.Action
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction
 import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.SimpleWorkResult
+import org.gradle.api.tasks.util.PatternSet
 import org.gradle.internal.reflect.DirectInstantiator
 import org.gradle.test.fixtures.file.WorkspaceTest
 
@@ -54,4 +58,32 @@ class SyncCopyActionDecoratorTest extends WorkspaceTest {
         file("dest").assertHasDescendants("subdir/included.txt", "included.txt");
     }
 
+    def "deletes only the output files of the previous execution that are not copied again when the copy is incremental"() {
+        given:
+        file("dest").with {
+            createFile("copied.txt")
+            createFile("removed.txt")
+            createFile("removedDir/removed.txt")
+            createFile("preserved.txt")
+            createFile("foreign.txt")
+        }
+        def previousOutputFiles = ["copied.txt", "removed.txt", "removedDir", "removedDir/removed.txt", "preserved.txt"].collect { file("dest/$it") } as Set
+        def copyAction = { CopyActionProcessingStream stream ->
+            stream.process({} as CopyActionProcessingStreamAction)
+            new SimpleWorkResult(false)
+        } as CopyAction
+        def incrementalAction = new IncrementalCopyActionDecorator(copyAction, TestFiles.resolver(file("dest")), new ChangedSourceFiles([file("src/removed.txt")] as Set, true), previousOutputFiles, [] as Set, file("tmp/sharedCopyTargets.txt"))
+        def preserve = new PatternSet().include("preserved.txt")
+
+        when:
+        def result = new SyncCopyActionDecorator(file("dest"), incrementalAction, preserve).execute({ CopyActionProcessingStreamAction action ->
+            action.processFile(Stub(FileCopyDetailsInternal) {
+                getRelativePath() >> RelativePath.parse(true, "copied.txt")
+            })
+        } as CopyActionProcessingStream)
+
+        then:
+        result.didWork
+        file("dest").assertHasDescendants("copied.txt", "preserved.txt", "foreign.txt")
+    }
 }
@@ -26,6 +26,7 @@ import org.gradle.api.tasks.StopActionException
 import org.gradle.api.tasks.StopExecutionException
 import org.gradle.api.tasks.TaskExecutionException
 import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.operations.AsyncWorkTracker
 import org.gradle.logging.StandardOutputCapture
 import spock.lang.Specification
 
@@ -41,7 +42,8 @@ public class ExecuteActionsTaskExecuterTest extends Specification {
     private final StandardOutputCapture standardOutputCapture = Mock(StandardOutputCapture)
     private final TaskActionListener publicListener = Mock(TaskActionListener)
     private final TaskOutputsGenerationListener internalListener = Mock(TaskOutputsGenerationListener)
-    private final ExecuteActionsTaskExecuter executer = new ExecuteActionsTaskExecuter(internalListener, publicListener)
+    private final AsyncWorkTracker asyncWorkTracker = Mock(AsyncWorkTracker)
+    private final ExecuteActionsTaskExecuter executer = new ExecuteActionsTaskExecuter(internalListener, publicListener, asyncWorkTracker)
 
     def setup() {
         ProjectInternal project = Mock(ProjectInternal)
@@ -193,6 +195,49 @@ public class ExecuteActionsTaskExecuterTest extends Specification {
         wrappedFailure.cause.is(failure)
     }
 
+    def failsWhenAsynchronousWorkStartedByActionsFails() {
+        given:
+        task.getTaskActions() >> [action1]
+        def failure = new RuntimeException("failure")
+
+        when:
+        executer.execute(task, state, executionContext)
+
+        then:
+        1 * action1.execute(task)
+        then:
+        1 * standardOutputCapture.stop()
+        then:
+        1 * asyncWorkTracker.waitForCompletion() >> { throw failure }
+        then:
+        1 * publicListener.afterActions(task)
+
+        !state.executing
+        state.didWork
+
+        TaskExecutionException wrappedFailure = (TaskExecutionException) state.failure
+        wrappedFailure.task == task
+        wrappedFailure.cause.is(failure)
+    }
+
+    def waitsForAsynchronousWorkWhenActionFails() {
+        given:
+        task.getTaskActions() >> [action1]
+        def failure = new RuntimeException("failure")
+        action1.execute(task) >> {
+            throw failure
+        }
+
+        when:
+        executer.execute(task, state, executionContext)
+
+        then:
+        1 * asyncWorkTracker.waitForCompletion() >> { throw new RuntimeException("async failure") }
+
+        TaskExecutionException wrappedFailure = (TaskExecutionException) state.failure
+        wrappedFailure.cause.is(failure)
+    }
+
     def stopsAtFirstActionWhichThrowsStopExecutionException() {
         given:
         task.getTaskActions() >> [action1, action2]
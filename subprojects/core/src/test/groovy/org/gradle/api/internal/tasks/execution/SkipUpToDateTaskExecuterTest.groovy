@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.execution
 import org.gradle.api.Action
 import org.gradle.api.Task
 import org.gradle.api.internal.TaskExecutionHistory
+import org.gradle.api.internal.TaskInputsInternal
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.TaskOutputsInternal
 import org.gradle.api.internal.changedetection.TaskArtifactState
@@ -30,6 +31,7 @@ import spock.lang.Specification
 
 public class SkipUpToDateTaskExecuterTest extends Specification {
     def delegate = Mock(TaskExecuter)
+    def inputs = Mock(TaskInputsInternal)
     def outputs = Mock(TaskOutputsInternal)
     def task = Mock(TaskInternal)
     def taskState = Mock(TaskStateInternal)
@@ -65,6 +67,8 @@ public class SkipUpToDateTaskExecuterTest extends Specification {
         1 * taskArtifactState.getExecutionHistory() >> executionHistory
         1 * task.outputs >> outputs
         1 * outputs.setHistory(executionHistory)
+        1 * task.inputs >> inputs
+        1 * inputs.setInputChanges({ it != null })
 
         then:
         1 * delegate.execute(task, taskState, taskContext)
@@ -74,6 +78,8 @@ public class SkipUpToDateTaskExecuterTest extends Specification {
         1 * taskArtifactState.afterTask()
         1 * task.outputs >> outputs
         1 * outputs.setHistory(null)
+        1 * task.inputs >> inputs
+        1 * inputs.setInputChanges(null)
         1 * taskArtifactState.finished()
         0 * _
     }
@@ -91,6 +97,8 @@ public class SkipUpToDateTaskExecuterTest extends Specification {
         1 * taskArtifactState.getExecutionHistory() >> executionHistory
         1 * task.outputs >> outputs
         1 * outputs.setHistory(executionHistory)
+        1 * task.inputs >> inputs
+        1 * inputs.setInputChanges({ it != null })
 
         then:
         1 * delegate.execute(task, taskState, taskContext)
@@ -99,6 +107,8 @@ public class SkipUpToDateTaskExecuterTest extends Specification {
         then:
         1 * task.outputs >> outputs
         1 * outputs.setHistory(null)
+        1 * task.inputs >> inputs
+        1 * inputs.setInputChanges(null)
         1 * taskArtifactState.finished()
         0 * _
     }
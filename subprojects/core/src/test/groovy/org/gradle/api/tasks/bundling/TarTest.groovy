@@ -33,6 +33,7 @@ class TarTest extends AbstractArchiveTaskTest {
         expect:
         tar.compression == Compression.NONE
         tar.extension == 'tar'
+        !tar.parallelCompression
     }
 
     def "compression determines default extension"() {
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.initialization.ClassLoaderScope
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.execution.ProjectConfigurer
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
+import org.gradle.internal.operations.DefaultBuildOperationWorkerRegistry
+import org.gradle.internal.resource.TextResource
+import spock.lang.Specification
+
+class BuildScriptPrecompilingProjectConfigurerTest extends Specification {
+    def delegate = Mock(ProjectConfigurer)
+    def scriptPluginFactory = Mock(DefaultScriptPluginFactory)
+    def workerRegistry = new DefaultBuildOperationWorkerRegistry(4)
+    def executorFactory = new DefaultExecutorFactory()
+    def buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(workerRegistry), executorFactory, 4)
+    def configurer = new BuildScriptPrecompilingProjectConfigurer(delegate, scriptPluginFactory, buildOperationProcessor, workerRegistry)
+    def classLoader = Mock(ClassLoader)
+    def baseScope = Mock(ClassLoaderScope)
+    def root = Mock(ProjectInternal)
+    def child = Mock(ProjectInternal)
+    def rootScript = script("build.gradle")
+    def childScript = script("child.gradle")
+
+    def setup() {
+        root.rootProject >> root
+        root.baseClassLoaderScope >> baseScope
+        root.subprojects >> [child]
+        root.buildScriptSource >> rootScript
+        child.buildScriptSource >> childScript
+        baseScope.exportClassLoader >> classLoader
+    }
+
+    def cleanup() {
+        buildOperationProcessor.stop()
+        executorFactory.stop()
+        workerRegistry.stop()
+    }
+
+    def "precompiles build scripts of hierarchy before configuring it"() {
+        baseScope.locked >> true
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * scriptPluginFactory.precompile(rootScript, root, classLoader)
+        1 * scriptPluginFactory.precompile(childScript, child, classLoader)
+
+        then:
+        1 * delegate.configureHierarchy(root)
+        0 * _._
+    }
+
+    def "precompiles build scripts only once"() {
+        baseScope.locked >> true
+
+        when:
+        configurer.configureHierarchyFully(root)
+        configurer.configureHierarchyFully(root)
+
+        then:
+        2 * scriptPluginFactory.precompile(_, _, _)
+        2 * delegate.configureHierarchyFully(root)
+    }
+
+    def "does not precompile build scripts when base classloader scope is not locked"() {
+        baseScope.locked >> false
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        0 * scriptPluginFactory._
+        1 * delegate.configureHierarchy(root)
+    }
+
+    def "does not precompile build scripts of other languages or empty build scripts"() {
+        baseScope.locked >> true
+        def other = Mock(ProjectInternal)
+        def otherScript = script("other.gradle.kts")
+        def empty = Mock(ProjectInternal)
+        def emptyScript = script("empty.gradle", true)
+        other.buildScriptSource >> otherScript
+        empty.buildScriptSource >> emptyScript
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        _ * root.subprojects >> [child, other, empty]
+        1 * scriptPluginFactory.precompile(rootScript, root, classLoader)
+        1 * scriptPluginFactory.precompile(childScript, child, classLoader)
+        0 * scriptPluginFactory.precompile(otherScript, _, _)
+        0 * scriptPluginFactory.precompile(emptyScript, _, _)
+    }
+
+    def "ignores failure to precompile build script"() {
+        baseScope.locked >> true
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * scriptPluginFactory.precompile(rootScript, root, classLoader) >> { throw new RuntimeException("broken") }
+        1 * scriptPluginFactory.precompile(childScript, child, classLoader)
+
+        then:
+        1 * delegate.configureHierarchy(root)
+    }
+
+    def "does not precompile build scripts when configuring single project"() {
+        when:
+        configurer.configure(root)
+
+        then:
+        1 * delegate.configure(root)
+        0 * scriptPluginFactory._
+    }
+
+    def script(String fileName, boolean empty = false) {
+        def resource = Stub(TextResource) {
+            getHasEmptyContent() >> empty
+        }
+        return Stub(ScriptSource) {
+            getFileName() >> fileName
+            getDisplayName() >> fileName
+            getResource() >> resource
+        }
+    }
+}
@@ -26,7 +26,8 @@ class DefaultBuildConfigurerTest extends Specification {
     private gradle = Mock(GradleInternal)
     private rootProject = Mock(ProjectInternal)
     private projectConfigurer = Mock(ProjectConfigurer)
-    private configurer = new DefaultBuildConfigurer(projectConfigurer)
+    private requiredProjectsCache = Mock(RequiredProjectsCache)
+    private configurer = new DefaultBuildConfigurer(projectConfigurer, requiredProjectsCache)
 
     def setup() {
         gradle.startParameter >> startParameter
@@ -49,4 +50,15 @@ class DefaultBuildConfigurerTest extends Specification {
         startParameter.isConfigureOnDemand() >> true
         1 * projectConfigurer.configure(rootProject)
     }
+
+    def "loads required projects cache before configuring projects"() {
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * requiredProjectsCache.load(gradle)
+
+        then:
+        1 * projectConfigurer.configureHierarchy(rootProject)
+    }
 }
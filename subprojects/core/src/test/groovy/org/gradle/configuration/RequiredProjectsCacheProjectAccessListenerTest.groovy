@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.initialization.ProjectAccessListener
+import spock.lang.Specification
+
+class RequiredProjectsCacheProjectAccessListenerTest extends Specification {
+    def delegate = Mock(ProjectAccessListener)
+    def requiredProjectsCache = Mock(RequiredProjectsCache)
+    def listener = new RequiredProjectsCacheProjectAccessListener(delegate, requiredProjectsCache)
+    def project = Mock(ProjectInternal)
+
+    def "records targets of project dependencies"() {
+        when:
+        listener.beforeResolvingProjectDependency(project)
+
+        then:
+        1 * requiredProjectsCache.projectDependencyResolved(project)
+
+        then:
+        1 * delegate.beforeResolvingProjectDependency(project)
+        0 * _
+    }
+
+    def "does not record projects whose tasks are requested by path"() {
+        when:
+        listener.beforeRequestingTaskByPath(project)
+
+        then:
+        1 * delegate.beforeRequestingTaskByPath(project)
+        0 * _
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration
+
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.execution.ProjectConfigurer
+import spock.lang.Specification
+
+class RequiredProjectsCacheProjectConfigurerTest extends Specification {
+    def delegate = Mock(ProjectConfigurer)
+    def requiredProjectsCache = Mock(RequiredProjectsCache)
+    def configurer = new RequiredProjectsCacheProjectConfigurer(delegate, requiredProjectsCache)
+    def rootProject = Mock(ProjectInternal)
+    def required = Mock(ProjectInternal)
+    def notRequired = Mock(ProjectInternal)
+
+    def setup() {
+        rootProject.subprojects >> ([required, notRequired] as Set)
+        requiredProjectsCache.isConfigurationRequired(rootProject) >> true
+        requiredProjectsCache.isConfigurationRequired(required) >> true
+        requiredProjectsCache.isConfigurationRequired(notRequired) >> false
+    }
+
+    def "configures required projects only"() {
+        when:
+        configurer.configure(required)
+        configurer.configure(notRequired)
+        configurer.configureFully(required)
+        configurer.configureFully(notRequired)
+
+        then:
+        1 * delegate.configure(required)
+        1 * delegate.configureFully(required)
+        0 * delegate._
+    }
+
+    def "configures required projects of hierarchy"() {
+        when:
+        configurer.configureHierarchy(rootProject)
+
+        then:
+        1 * delegate.configure(rootProject)
+        1 * delegate.configure(required)
+        0 * delegate._
+    }
+
+    def "fully configures required projects of hierarchy"() {
+        when:
+        configurer.configureHierarchyFully(rootProject)
+
+        then:
+        1 * delegate.configureFully(rootProject)
+        1 * delegate.configureFully(required)
+        0 * delegate._
+    }
+}
@@ -29,7 +29,8 @@ class LifecycleProjectEvaluatorTest extends Specification {
     private listener = Mock(ProjectEvaluationListener)
     private delegate = Mock(ProjectEvaluator)
     private buildOperationExecutor = new TestBuildOperationExecutor()
-    private evaluator = new LifecycleProjectEvaluator(buildOperationExecutor, delegate)
+    private coordinator = new ProjectEvaluationCoordinator(Stub(CrossProjectAccessListener))
+    private evaluator = new LifecycleProjectEvaluator(buildOperationExecutor, delegate, coordinator)
     private state = Mock(ProjectStateInternal)
 
     void setup() {
@@ -49,12 +50,11 @@ class LifecycleProjectEvaluatorTest extends Specification {
     }
 
     void "nothing happens if project is being configured now"() {
-        state.executing >> true
-
         when:
         evaluator.evaluate(project, state)
 
         then:
+        1 * delegate.evaluate(project, state) >> { evaluator.evaluate(project, state) }
         0 * delegate._
     }
 
@@ -0,0 +1,349 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project
+
+import org.gradle.api.CircularReferenceException
+import org.gradle.api.InvalidUserCodeException
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.project.ProjectStateInternal
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import spock.lang.Unroll
+
+class ProjectEvaluationCoordinatorTest extends ConcurrentSpec {
+    def crossProjectAccessListener = Mock(CrossProjectAccessListener)
+    def coordinator = new ProjectEvaluationCoordinator(crossProjectAccessListener)
+    ProjectInternal root
+    ProjectInternal child1
+    ProjectInternal child2
+    ProjectInternal grandChild
+
+    def setup() {
+        root = project(":", null)
+        child1 = project(":child1", root)
+        child2 = project(":child2", root)
+        grandChild = project(":child1:grandChild", child1)
+    }
+
+    def "evaluates a project once"() {
+        def state = new ProjectStateInternal()
+
+        expect:
+        coordinator.startEvaluation(child1, state)
+        !coordinator.startEvaluation(child1, state)
+        !coordinator.isEvaluatingInAnotherThread(child1)
+
+        when:
+        state.executed()
+        coordinator.finishEvaluation(child1)
+
+        then:
+        !coordinator.startEvaluation(child1, state)
+    }
+
+    def "waits for a project that is being evaluated by another thread"() {
+        def state = new ProjectStateInternal()
+        def evaluated = null
+
+        when:
+        async {
+            start {
+                assert coordinator.startEvaluation(child1, state)
+                instant.started
+                thread.block()
+                state.executed()
+                instant.finished
+                coordinator.finishEvaluation(child1)
+            }
+            start {
+                thread.blockUntil.started
+                assert coordinator.isEvaluatingInAnotherThread(child1)
+                evaluated = coordinator.startEvaluation(child1, state)
+                instant.waited
+            }
+        }
+
+        then:
+        evaluated == false
+        instant.waited > instant.finished
+    }
+
+    def "fails when threads wait for projects that each other are evaluating"() {
+        def state1 = new ProjectStateInternal()
+        def state2 = new ProjectStateInternal()
+        def failure = null
+
+        when:
+        async {
+            start {
+                assert coordinator.startEvaluation(child1, state1)
+                instant.child1Started
+                thread.blockUntil.child2Started
+                assert coordinator.startEvaluation(child2, state2)
+                coordinator.finishEvaluation(child2)
+                coordinator.finishEvaluation(child1)
+            }
+            start {
+                assert coordinator.startEvaluation(child2, state2)
+                instant.child2Started
+                thread.blockUntil.child1Started
+                thread.block()
+                try {
+                    coordinator.startEvaluation(child1, state1)
+                } catch (CircularReferenceException e) {
+                    failure = e
+                } finally {
+                    coordinator.finishEvaluation(child2)
+                }
+            }
+        }
+
+        then:
+        failure instanceof CircularReferenceException
+        failure.message == "Circular referencing during evaluation for project ':child1'."
+    }
+
+    def "project configured in parallel can configure itself and its subprojects"() {
+        when:
+        evaluateInParallel(child1) {
+            coordinator.assertCanConfigure(child1)
+            coordinator.assertCanConfigure(grandChild)
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    @Unroll
+    def "project configured in parallel cannot configure #target"() {
+        def project = this."$target"
+
+        when:
+        evaluateInParallel(child1) {
+            coordinator.assertCanConfigure(project)
+        }
+
+        then:
+        def e = thrown(InvalidUserCodeException)
+        e.message == "project ':child1' cannot configure ${project.displayName} as projects are configured in parallel. Projects configured in parallel can only configure themselves and their subprojects."
+
+        where:
+        target << ["root", "child2"]
+    }
+
+    def "project configured serially can configure other projects"() {
+        def state = new ProjectStateInternal()
+
+        when:
+        coordinator.startEvaluation(child1, state)
+        coordinator.assertCanConfigure(root)
+        coordinator.assertCanConfigure(child2)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "notifies listener when a project that is being evaluated accesses a project outside of its hierarchy"() {
+        given:
+        coordinator.startEvaluation(child1, new ProjectStateInternal())
+
+        when:
+        coordinator.accessProject(child1)
+        coordinator.accessProject(grandChild)
+
+        then:
+        0 * crossProjectAccessListener._
+
+        when:
+        coordinator.accessProject(root)
+        coordinator.accessProject(child2)
+
+        then:
+        1 * crossProjectAccessListener.projectAccessed(child1, root)
+        1 * crossProjectAccessListener.projectAccessed(child1, child2)
+        0 * crossProjectAccessListener._
+    }
+
+    def "does not notify listener when no project is being evaluated"() {
+        when:
+        coordinator.accessProject(child2)
+
+        then:
+        0 * crossProjectAccessListener._
+    }
+
+    def "project configured in parallel can access itself and its subprojects while other projects run"() {
+        when:
+        async {
+            start {
+                evaluateInParallel(child1) {
+                    instant.child1Started
+                    thread.blockUntil.child2Started
+                    coordinator.accessProject(child1)
+                    coordinator.accessProject(grandChild)
+                    instant.child1Accessed
+                    thread.blockUntil.child2Finished
+                }
+            }
+            start {
+                evaluateInParallel(child2) {
+                    instant.child2Started
+                    thread.blockUntil.child1Accessed
+                    instant.child2Finished
+                }
+            }
+        }
+
+        then:
+        instant.child1Accessed < instant.child2Finished
+    }
+
+    def "project configured in parallel that accesses another project waits until it runs alone"() {
+        when:
+        async {
+            start {
+                evaluateInParallel(child1) {
+                    instant.child1Started
+                    thread.blockUntil.child2Started
+                    coordinator.accessProject(root)
+                    instant.child1Accessed
+                }
+            }
+            start {
+                evaluateInParallel(child2) {
+                    instant.child2Started
+                    thread.blockUntil.child1Started
+                    thread.block()
+                    instant.child2Finished
+                }
+            }
+        }
+
+        then:
+        instant.child1Accessed > instant.child2Finished
+    }
+
+    def "other projects wait for a project that has accessed another project to finish"() {
+        when:
+        async {
+            start {
+                evaluateInParallel(child1) {
+                    coordinator.accessProject(root)
+                    instant.child1Accessed
+                    thread.block()
+                    instant.child1Finished
+                }
+            }
+            start {
+                thread.blockUntil.child1Accessed
+                evaluateInParallel(child2) {
+                    instant.child2Started
+                }
+            }
+        }
+
+        then:
+        instant.child2Started > instant.child1Finished
+    }
+
+    def "project that waits for a project being evaluated by a waiting thread lets that thread finish first"() {
+        def state2 = new ProjectStateInternal()
+
+        when:
+        async {
+            start {
+                evaluateInParallel(child1) {
+                    instant.child1Started
+                    thread.blockUntil.child2Started
+                    coordinator.accessProject(child2)
+                    instant.child1Accessed
+                }
+            }
+            start {
+                coordinator.runInParallel(child2) {
+                    coordinator.startEvaluation(child2, state2)
+                    instant.child2Started
+                    thread.blockUntil.child1Started
+                    coordinator.accessProject(root)
+                    state2.executed()
+                    instant.child2Finished
+                    coordinator.finishEvaluation(child2)
+                }
+            }
+        }
+
+        then:
+        instant.child1Accessed > instant.child2Finished
+    }
+
+    def "fails when a project accesses a project being evaluated by a thread that waits for it"() {
+        def state1 = new ProjectStateInternal()
+        def state2 = new ProjectStateInternal()
+        def failure = null
+
+        when:
+        async {
+            start {
+                coordinator.runInParallel(child1) {
+                    assert coordinator.startEvaluation(child1, state1)
+                    instant.child1Started
+                    thread.blockUntil.child2Started
+                    coordinator.accessProject(child2)
+                    coordinator.finishEvaluation(child1)
+                }
+            }
+            start {
+                coordinator.runInParallel(child2) {
+                    assert coordinator.startEvaluation(child2, state2)
+                    instant.child2Started
+                    thread.blockUntil.child1Started
+                    try {
+                        coordinator.accessProject(child1)
+                    } catch (CircularReferenceException e) {
+                        failure = e
+                    } finally {
+                        state2.executed()
+                        coordinator.finishEvaluation(child2)
+                    }
+                }
+            }
+        }
+
+        then:
+        failure instanceof CircularReferenceException
+    }
+
+    def evaluateInParallel(ProjectInternal project, Closure action) {
+        coordinator.runInParallel(project) {
+            coordinator.startEvaluation(project, new ProjectStateInternal())
+            try {
+                action.call()
+            } finally {
+                coordinator.finishEvaluation(project)
+            }
+        }
+    }
+
+    def project(String path, ProjectInternal parent) {
+        def project = Mock(ProjectInternal)
+        _ * project.parent >> parent
+        _ * project.path >> path
+        _ * project.displayName >> "project '$path'"
+        _ * project.toString() >> "project '$path'"
+        project
+    }
+}
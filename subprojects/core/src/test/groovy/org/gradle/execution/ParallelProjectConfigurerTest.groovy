@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.execution
+
+import org.gradle.api.Action
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.configuration.project.CrossProjectAccessListener
+import org.gradle.configuration.project.ProjectEvaluationCoordinator
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationContext
+import org.gradle.internal.operations.DefaultBuildOperationProcessor
+import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
+import org.gradle.internal.operations.DefaultBuildOperationWorkerRegistry
+import org.gradle.internal.progress.BuildOperationDetails
+import org.gradle.internal.progress.BuildOperationExecutor
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class ParallelProjectConfigurerTest extends Specification {
+    def delegate = Mock(ProjectConfigurer)
+    def buildOperationExecutor = Mock(BuildOperationExecutor)
+    def workerRegistry = new DefaultBuildOperationWorkerRegistry(4)
+    def executorFactory = new DefaultExecutorFactory()
+    def buildOperationProcessor = new DefaultBuildOperationProcessor(new DefaultBuildOperationQueueFactory(workerRegistry), executorFactory, 4)
+    def coordinator = new ProjectEvaluationCoordinator(Stub(CrossProjectAccessListener))
+    def configurer = new ParallelProjectConfigurer(delegate, coordinator, buildOperationProcessor, workerRegistry, buildOperationExecutor)
+    def root = Mock(ProjectInternal)
+    def child1 = Mock(ProjectInternal)
+    def child2 = Mock(ProjectInternal)
+    def grandChild = Mock(ProjectInternal)
+
+    def setup() {
+        root.childProjects >> [child1: child1, child2: child2]
+        child1.childProjects >> [grandChild: grandChild]
+        child2.childProjects >> [:]
+        grandChild.childProjects >> [:]
+        child1.parent >> root
+        child2.parent >> root
+        grandChild.parent >> child1
+        root.path >> ":"
+        child1.path >> ":child1"
+        child2.path >> ":child2"
+        grandChild.path >> ":child1:grandChild"
+        buildOperationExecutor.getCurrentOperation() >> Stub(BuildOperationExecutor.Operation)
+        buildOperationExecutor.run(_ as BuildOperationDetails, _ as Action) >> { BuildOperationDetails details, Action action -> action.execute(Stub(BuildOperationContext)) }
+    }
+
+    def cleanup() {
+        buildOperationProcessor.stop()
+        executorFactory.stop()
+        workerRegistry.stop()
+    }
+
+    def "configures each project after its parent"() {
+        def configured = new CopyOnWriteArrayList()
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        4 * delegate.configure(_) >> { ProjectInternal project -> configured << project }
+        0 * delegate._
+
+        and:
+        configured.size() == 4
+        configured[0] == root
+        configured.indexOf(grandChild) > configured.indexOf(child1)
+        configured.indexOf(grandChild) > configured.indexOf(child2)
+    }
+
+    def "configures sibling projects in parallel"() {
+        def latch = new CountDownLatch(2)
+        def concurrent = new CopyOnWriteArrayList()
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+        2 * delegate.configure({ it == child1 || it == child2 }) >> {
+            latch.countDown()
+            concurrent << latch.await(10, TimeUnit.SECONDS)
+        }
+        1 * delegate.configure(grandChild)
+
+        and:
+        concurrent == [true, true]
+    }
+
+    def "configures each project fully when requested"() {
+        when:
+        configurer.configureHierarchyFully(root)
+
+        then:
+        1 * delegate.configureFully(root)
+        1 * delegate.configureFully(child1)
+        1 * delegate.configureFully(child2)
+        1 * delegate.configureFully(grandChild)
+        0 * delegate._
+    }
+
+    def "configures the remaining projects serially once a project accesses another project"() {
+        def latch = new CountDownLatch(2)
+        def events = new CopyOnWriteArrayList()
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+        1 * delegate.configure(child1) >> {
+            latch.countDown()
+            latch.await(10, TimeUnit.SECONDS)
+            coordinator.accessProject(child2)
+            events << "child1 accessed child2"
+        }
+        1 * delegate.configure(child2) >> {
+            latch.countDown()
+            latch.await(10, TimeUnit.SECONDS)
+            events << "child2 configured"
+        }
+        1 * delegate.configure(grandChild)
+
+        and:
+        events == ["child2 configured", "child1 accessed child2"]
+    }
+
+    def "project can access its own subprojects while projects are configured in parallel"() {
+        def latch = new CountDownLatch(2)
+        def concurrent = new CopyOnWriteArrayList()
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+        2 * delegate.configure({ it == child1 || it == child2 }) >> { ProjectInternal project ->
+            coordinator.accessProject(project == child1 ? grandChild : project)
+            latch.countDown()
+            concurrent << latch.await(10, TimeUnit.SECONDS)
+        }
+        1 * delegate.configure(grandChild)
+
+        and:
+        concurrent == [true, true]
+    }
+
+    def "delegates configuration of a single project"() {
+        when:
+        configurer.configure(child1)
+        configurer.configureFully(child2)
+
+        then:
+        1 * delegate.configure(child1)
+        1 * delegate.configureFully(child2)
+        0 * delegate._
+        0 * child1._
+    }
+}
@@ -40,6 +40,7 @@ import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.ProjectRegistry
 import org.gradle.api.internal.project.antbuilder.DefaultIsolatedAntBuilder
 import org.gradle.api.logging.configuration.LoggingConfiguration
+import org.gradle.cache.CacheRepository
 import org.gradle.cache.internal.CacheFactory
 import org.gradle.configuration.BuildConfigurer
 import org.gradle.configuration.DefaultBuildConfigurer
@@ -72,6 +73,8 @@ import org.gradle.internal.installation.CurrentGradleInstallation
 import org.gradle.internal.installation.GradleInstallation
 import org.gradle.internal.logging.LoggingManagerInternal
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
+import org.gradle.internal.operations.BuildOperationProcessor
+import org.gradle.internal.operations.BuildOperationWorkerRegistry
 import org.gradle.internal.operations.logging.BuildOperationLoggerFactory
 import org.gradle.internal.operations.logging.DefaultBuildOperationLoggerFactory
 import org.gradle.internal.progress.BuildOperationExecutor
@@ -120,6 +123,7 @@ public class BuildScopeServicesTest extends Specification {
         sessionServices.get(FileHasher) >> Mock(FileHasher)
         sessionServices.get(ClassPathSnapshotter) >> Mock(ClassPathSnapshotter)
         sessionServices.get(ClassLoaderHierarchyHasher) >> Mock(ClassLoaderHierarchyHasher)
+        sessionServices.get(CacheRepository) >> Mock(CacheRepository)
         sessionServices.get(CrossBuildInMemoryCachingScriptClassCache) >> Mock(CrossBuildInMemoryCachingScriptClassCache)
         sessionServices.get(InjectedPluginClasspath) >> Mock(InjectedPluginClasspath)
         sessionServices.get(PluginRepositoryRegistry) >> Mock(PluginRepositoryRegistry)
@@ -284,6 +288,12 @@ public class BuildScopeServicesTest extends Specification {
     }
 
     def providesABuildConfigurer() {
+        setup:
+        expectListenerManagerCreated()
+        expectParentServiceLocated(BuildOperationProcessor)
+        expectParentServiceLocated(BuildOperationWorkerRegistry)
+        expectParentServiceLocated(BuildOperationExecutor)
+
         expect:
         assertThat(registry.get(BuildConfigurer), instanceOf(DefaultBuildConfigurer))
         assertThat(registry.get(BuildConfigurer), sameInstance(registry.get(BuildConfigurer)))
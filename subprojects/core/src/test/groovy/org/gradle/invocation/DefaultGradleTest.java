@@ -33,6 +33,8 @@ import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.plugins.PluginContainer;
 import org.gradle.api.plugins.PluginManager;
 import org.gradle.configuration.ScriptPluginFactory;
+import org.gradle.configuration.project.CrossProjectAccessListener;
+import org.gradle.configuration.project.ProjectEvaluationCoordinator;
 import org.gradle.execution.TaskGraphExecuter;
 import org.gradle.initialization.ClassLoaderScopeRegistry;
 import org.gradle.internal.classloader.MultiParentClassLoader;
@@ -115,6 +117,8 @@ public class DefaultGradleTest {
             will(returnValue(scriptPluginFactory));
             allowing(gradleServiceRegistryMock).get((Type) ScriptHandlerFactory.class);
             will(returnValue(scriptHandlerFactory));
+            allowing(gradleServiceRegistryMock).get((Type) ProjectEvaluationCoordinator.class);
+            will(returnValue(new ProjectEvaluationCoordinator(context.mock(CrossProjectAccessListener.class))));
             allowing(listenerManager).createAnonymousBroadcaster(BuildListener.class);
             will(returnValue(buildListenerBroadcast));
             allowing(listenerManager).createAnonymousBroadcaster(ProjectEvaluationListener.class);
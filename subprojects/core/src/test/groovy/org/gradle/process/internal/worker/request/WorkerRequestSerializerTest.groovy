@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.worker.request
+
+import com.google.common.hash.HashCode
+import org.gradle.internal.serialize.HashCodeSerializer
+import org.gradle.internal.serialize.NullSafeStringSerializer
+import org.gradle.internal.serialize.SerializerSpec
+
+class WorkerRequestSerializerTest extends SerializerSpec {
+    def argumentSerializers = new RequestArgumentSerializers().register(String, NullSafeStringSerializer).register(HashCode, HashCodeSerializer)
+    def registry = WorkerRequestSerializer.create(argumentSerializers, getClass().classLoader)
+
+    def "serializes parameter types"() {
+        def serializer = registry.build(Class[])
+
+        expect:
+        serialize([String, int, Object[], WorkerRequestSerializerTest] as Class[], serializer) == [String, int, Object[], WorkerRequestSerializerTest] as Class[]
+    }
+
+    def "serializes arguments with registered serializers and Java serialization"() {
+        def serializer = registry.build(Object[])
+        def args = ["some string", HashCode.fromInt(12), null, new File("some-file"), 12] as Object[]
+
+        expect:
+        serialize(args, serializer) == args
+    }
+
+    def "serializes arguments without registered serializers"() {
+        def serializer = WorkerRequestSerializer.create(new RequestArgumentSerializers(), getClass().classLoader).build(Object[])
+        def args = ["some string", new File("some-file")] as Object[]
+
+        expect:
+        serialize(args, serializer) == args
+    }
+
+    def "serializes missing arguments"() {
+        def serializer = registry.build(Object[])
+
+        expect:
+        serialize(null, serializer) == null
+        serialize([] as Object[], serializer) == [] as Object[]
+    }
+
+    def "registered arguments do not use Java serialization"() {
+        def serializer = registry.build(Object[])
+
+        expect:
+        toBytes(["some string"] as Object[], serializer).length < 20
+    }
+}
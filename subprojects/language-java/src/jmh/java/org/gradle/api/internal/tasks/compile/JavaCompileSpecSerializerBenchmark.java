@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.tasks.compile.CompileOptions;
+import org.gradle.internal.serialize.DefaultSerializer;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
+import org.gradle.process.internal.worker.request.WorkerRequestSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the round trip of the arguments of a request to a compiler daemon, carrying the spec of a forked Java compilation, through the worker request serializers.
+ */
+@State(Scope.Thread)
+public class JavaCompileSpecSerializerBenchmark {
+    @Param({"10", "1000"})
+    int sourceFiles;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private Object[] args;
+    private Serializer<Object[]> javaSerialization;
+    private Serializer<Object[]> registeredSerializers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CompileOptions options = new CompileOptions();
+        options.setFork(true);
+        options.setEncoding("UTF-8");
+        options.getForkOptions().setMemoryMaximumSize("1g");
+        options.setCompilerArgs(Arrays.asList("-Xlint:unchecked", "-parameters"));
+
+        DefaultJavaCompileSpec spec = new DefaultJavaCompileSpecFactory(options).create();
+        spec.setCompileOptions(options);
+        File projectDir = new File("/home/user/projects/some-project");
+        spec.setWorkingDir(projectDir);
+        spec.setTempDir(new File(projectDir, "build/tmp/compileJava"));
+        spec.setDestinationDir(new File(projectDir, "build/classes/main"));
+        spec.setSourceCompatibility("1.7");
+        spec.setTargetCompatibility("1.7");
+        List<File> source = new ArrayList<File>(sourceFiles);
+        for (int i = 0; i < sourceFiles; i++) {
+            source.add(new File(projectDir, "src/main/java/org/gradle/sample/package" + i % 20 + "/SomeClass" + i + ".java"));
+        }
+        spec.setSource(new SimpleFileCollection(source));
+        List<File> classpath = new ArrayList<File>();
+        for (int i = 0; i < 30; i++) {
+            classpath.add(new File("/home/user/.gradle/caches/modules-2/files-2.1/org.sample/library" + i + "/1.0/0123456789abcdef/library" + i + "-1.0.jar"));
+        }
+        spec.setClasspath(new SimpleFileCollection(classpath));
+        args = new Object[]{spec};
+
+        ClassLoader classLoader = getClass().getClassLoader();
+        javaSerialization = new DefaultSerializer<Object[]>(classLoader);
+        RequestArgumentSerializers argumentSerializers = new RequestArgumentSerializers()
+            .register(DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec.class, JavaCompileSpecSerializer.class);
+        registeredSerializers = WorkerRequestSerializer.create(argumentSerializers, classLoader).build(Object[].class);
+    }
+
+    @Benchmark
+    public Object[] javaSerialization() throws Exception {
+        return roundTrip(javaSerialization);
+    }
+
+    @Benchmark
+    public Object[] registeredSerializers() throws Exception {
+        return roundTrip(registeredSerializers);
+    }
+
+    private Object[] roundTrip(Serializer<Object[]> serializer) throws Exception {
+        bytes.reset();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        serializer.write(encoder, args);
+        encoder.flush();
+        return serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
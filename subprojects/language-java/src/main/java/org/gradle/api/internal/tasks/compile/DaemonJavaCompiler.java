@@ -20,12 +20,16 @@ import org.gradle.process.internal.daemon.WorkerDaemonFactory;
 import org.gradle.process.internal.daemon.DaemonForkOptions;
 import org.gradle.api.tasks.compile.ForkOptions;
 import org.gradle.language.base.internal.compile.Compiler;
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
 
 import java.io.File;
 import java.util.Collections;
 
 public class DaemonJavaCompiler extends AbstractDaemonCompiler<JavaCompileSpec> {
     private static final Iterable<String> SHARED_PACKAGES = Collections.singleton("com.sun.tools.javac");
+    private static final RequestArgumentSerializers ARGUMENT_SERIALIZERS = new RequestArgumentSerializers()
+            .register(DefaultJavaCompileSpec.class, JavaCompileSpecSerializer.class)
+            .register(DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec.class, JavaCompileSpecSerializer.class);
 
     public DaemonJavaCompiler(File daemonWorkingDir, Compiler<JavaCompileSpec> delegate, WorkerDaemonFactory compilerDaemonFactory) {
         super(daemonWorkingDir, delegate, compilerDaemonFactory);
@@ -36,6 +40,6 @@ public class DaemonJavaCompiler extends AbstractDaemonCompiler<JavaCompileSpec>
         ForkOptions forkOptions = spec.getCompileOptions().getForkOptions();
         return new DaemonForkOptions(
                 forkOptions.getMemoryInitialSize(), forkOptions.getMemoryMaximumSize(), forkOptions.getJvmArgs(),
-                Collections.<File>emptyList(), SHARED_PACKAGES);
+                Collections.<File>emptyList(), SHARED_PACKAGES, ARGUMENT_SERIALIZERS);
     }
 }
@@ -41,6 +41,6 @@ public class DefaultJavaCompileSpecFactory extends AbstractJavaCompileSpecFactor
     private static class DefaultCommandLineJavaSpec extends DefaultJavaCompileSpec implements CommandLineJavaCompileSpec {
     }
 
-    private static class DefaultForkingJavaCompileSpec extends DefaultJavaCompileSpec implements ForkingJavaCompileSpec {
+    static class DefaultForkingJavaCompileSpec extends DefaultJavaCompileSpec implements ForkingJavaCompileSpec {
     }
 }
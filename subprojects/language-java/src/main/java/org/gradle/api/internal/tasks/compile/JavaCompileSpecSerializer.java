@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.Lists;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.tasks.compile.CompileOptions;
+import org.gradle.api.tasks.compile.DebugOptions;
+import org.gradle.api.tasks.compile.DependOptions;
+import org.gradle.api.tasks.compile.ForkOptions;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.ListSerializer;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.util.DeprecationLogger;
+
+import java.io.File;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.FILE_SERIALIZER;
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * Serializes the Java compile specs sent to compiler daemons. The source files, class path and source path are written as lists of files, as they have been resolved
+ * by the time the spec is sent.
+ */
+public class JavaCompileSpecSerializer implements Serializer<DefaultJavaCompileSpec> {
+    private final ListSerializer<File> filesSerializer = new ListSerializer<File>(FILE_SERIALIZER);
+    private final ListSerializer<String> stringsSerializer = new ListSerializer<String>(STRING_SERIALIZER);
+
+    @Override
+    public DefaultJavaCompileSpec read(Decoder decoder) throws Exception {
+        DefaultJavaCompileSpec spec = decoder.readBoolean() ? new DefaultJavaCompileSpecFactory.DefaultForkingJavaCompileSpec() : new DefaultJavaCompileSpec();
+        spec.setWorkingDir(readFile(decoder));
+        spec.setTempDir(readFile(decoder));
+        spec.setDestinationDir(readFile(decoder));
+        spec.setClasspath(readFiles(decoder));
+        spec.setSource(readFiles(decoder));
+        spec.setSourceCompatibility(decoder.readNullableString());
+        spec.setTargetCompatibility(decoder.readNullableString());
+        setDependencyCacheDir(spec, readFile(decoder));
+        if (decoder.readBoolean()) {
+            spec.setCompileOptions(readCompileOptions(decoder));
+        }
+        return spec;
+    }
+
+    @Override
+    public void write(Encoder encoder, DefaultJavaCompileSpec value) throws Exception {
+        encoder.writeBoolean(value instanceof ForkingJavaCompileSpec);
+        writeFile(encoder, value.getWorkingDir());
+        writeFile(encoder, value.getTempDir());
+        writeFile(encoder, value.getDestinationDir());
+        writeFiles(encoder, value.getClasspath());
+        writeFiles(encoder, value.getSource());
+        encoder.writeNullableString(value.getSourceCompatibility());
+        encoder.writeNullableString(value.getTargetCompatibility());
+        writeFile(encoder, getDependencyCacheDir(value));
+        CompileOptions compileOptions = value.getCompileOptions();
+        encoder.writeBoolean(compileOptions != null);
+        if (compileOptions != null) {
+            writeCompileOptions(encoder, compileOptions);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private CompileOptions readCompileOptions(Decoder decoder) throws Exception {
+        final CompileOptions options = new CompileOptions();
+        options.setFailOnError(decoder.readBoolean());
+        options.setVerbose(decoder.readBoolean());
+        options.setListFiles(decoder.readBoolean());
+        options.setDeprecation(decoder.readBoolean());
+        options.setWarnings(decoder.readBoolean());
+        options.setEncoding(decoder.readNullableString());
+        options.setDebug(decoder.readBoolean());
+        options.getDebugOptions().setDebugLevel(decoder.readNullableString());
+        options.setFork(decoder.readBoolean());
+        ForkOptions forkOptions = options.getForkOptions();
+        forkOptions.setMemoryInitialSize(decoder.readNullableString());
+        forkOptions.setMemoryMaximumSize(decoder.readNullableString());
+        forkOptions.setJvmArgs(Lists.newArrayList(stringsSerializer.read(decoder)));
+        forkOptions.setExecutable(decoder.readNullableString());
+        forkOptions.setTempDir(decoder.readNullableString());
+        final boolean useDepend = decoder.readBoolean();
+        DeprecationLogger.whileDisabled(new Runnable() {
+            @Override
+            public void run() {
+                options.setUseDepend(useDepend);
+            }
+        });
+        DependOptions dependOptions = options.getDependOptions();
+        dependOptions.setUseCache(decoder.readBoolean());
+        dependOptions.setClosure(decoder.readBoolean());
+        dependOptions.setDump(decoder.readBoolean());
+        dependOptions.setClasspath(decoder.readNullableString());
+        dependOptions.setWarnOnRmiStubs(decoder.readBoolean());
+        options.setBootClasspath(decoder.readNullableString());
+        options.setExtensionDirs(decoder.readNullableString());
+        options.setCompilerArgs(Lists.newArrayList(stringsSerializer.read(decoder)));
+        options.setIncremental(decoder.readBoolean());
+        options.setSourcepath(readFiles(decoder));
+        return options;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void writeCompileOptions(Encoder encoder, final CompileOptions options) throws Exception {
+        encoder.writeBoolean(options.isFailOnError());
+        encoder.writeBoolean(options.isVerbose());
+        encoder.writeBoolean(options.isListFiles());
+        encoder.writeBoolean(options.isDeprecation());
+        encoder.writeBoolean(options.isWarnings());
+        encoder.writeNullableString(options.getEncoding());
+        encoder.writeBoolean(options.isDebug());
+        DebugOptions debugOptions = options.getDebugOptions();
+        encoder.writeNullableString(debugOptions.getDebugLevel());
+        encoder.writeBoolean(options.isFork());
+        ForkOptions forkOptions = options.getForkOptions();
+        encoder.writeNullableString(forkOptions.getMemoryInitialSize());
+        encoder.writeNullableString(forkOptions.getMemoryMaximumSize());
+        stringsSerializer.write(encoder, forkOptions.getJvmArgs());
+        encoder.writeNullableString(forkOptions.getExecutable());
+        encoder.writeNullableString(forkOptions.getTempDir());
+        encoder.writeBoolean(DeprecationLogger.whileDisabled(new Factory<Boolean>() {
+            @Override
+            public Boolean create() {
+                return options.isUseDepend();
+            }
+        }));
+        DependOptions dependOptions = options.getDependOptions();
+        encoder.writeBoolean(dependOptions.isUseCache());
+        encoder.writeBoolean(dependOptions.isClosure());
+        encoder.writeBoolean(dependOptions.isDump());
+        encoder.writeNullableString(dependOptions.getClasspath());
+        encoder.writeBoolean(dependOptions.isWarnOnRmiStubs());
+        encoder.writeNullableString(options.getBootClasspath());
+        encoder.writeNullableString(options.getExtensionDirs());
+        stringsSerializer.write(encoder, options.getCompilerArgs());
+        encoder.writeBoolean(options.isIncremental());
+        writeFiles(encoder, options.getSourcepath());
+    }
+
+    @SuppressWarnings("deprecation")
+    private static File getDependencyCacheDir(DefaultJavaCompileSpec spec) {
+        return spec.getDependencyCacheDir();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void setDependencyCacheDir(DefaultJavaCompileSpec spec, File dependencyCacheDir) {
+        spec.setDependencyCacheDir(dependencyCacheDir);
+    }
+
+    private File readFile(Decoder decoder) throws Exception {
+        return decoder.readBoolean() ? FILE_SERIALIZER.read(decoder) : null;
+    }
+
+    private void writeFile(Encoder encoder, File file) throws Exception {
+        encoder.writeBoolean(file != null);
+        if (file != null) {
+            FILE_SERIALIZER.write(encoder, file);
+        }
+    }
+
+    private FileCollection readFiles(Decoder decoder) throws Exception {
+        return decoder.readBoolean() ? new SimpleFileCollection(filesSerializer.read(decoder)) : null;
+    }
+
+    private void writeFiles(Encoder encoder, Iterable<File> files) throws Exception {
+        encoder.writeBoolean(files != null);
+        if (files != null) {
+            filesSerializer.write(encoder, Lists.newArrayList(files));
+        }
+    }
+}
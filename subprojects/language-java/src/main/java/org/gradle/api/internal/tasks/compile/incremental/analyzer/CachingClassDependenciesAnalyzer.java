@@ -17,11 +17,11 @@
 package org.gradle.api.internal.tasks.compile.incremental.analyzer;
 
 import com.google.common.hash.HashCode;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.internal.file.archive.ArchiveEntryDetails;
 import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.internal.Factory;
 
-import java.io.File;
-
 public class CachingClassDependenciesAnalyzer implements ClassDependenciesAnalyzer {
     private final ClassDependenciesAnalyzer analyzer;
     private final FileHasher hasher;
@@ -36,16 +36,18 @@ public class CachingClassDependenciesAnalyzer implements ClassDependenciesAnalyz
     }
 
     @Override
-    public ClassAnalysis getClassAnalysis(final String className, final File classFile) {
+    public ClassAnalysis getClassAnalysis(final String className, final FileTreeElement classFile) {
         HashCode hash = hasher.hash(classFile);
         return cache.get(hash, new Factory<ClassAnalysis>() {
             public ClassAnalysis create() {
-                classNamesCache.get(classFile.getAbsolutePath(), new Factory<String>() {
-                    @Override
-                    public String create() {
-                        return className;
-                    }
-                });
+                if (!(classFile instanceof ArchiveEntryDetails)) {
+                    classNamesCache.get(classFile.getFile().getAbsolutePath(), new Factory<String>() {
+                        @Override
+                        public String create() {
+                            return className;
+                        }
+                    });
+                }
                 return analyzer.getClassAnalysis(className, classFile);
             }
         });
@@ -21,10 +21,6 @@ import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 
-import java.io.File;
-
-import static org.gradle.internal.FileUtils.hasExtension;
-
 public class ClassFilesAnalyzer implements FileVisitor {
 
     private final ClassDependenciesAnalyzer analyzer;
@@ -46,8 +42,7 @@ public class ClassFilesAnalyzer implements FileVisitor {
 
     @Override
     public void visitFile(FileVisitDetails fileDetails) {
-        File file = fileDetails.getFile();
-        if (!hasExtension(file, ".class")) {
+        if (!fileDetails.getName().endsWith(".class")) {
             return;
         }
         String className = fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", "");
@@ -55,7 +50,7 @@ public class ClassFilesAnalyzer implements FileVisitor {
             return;
         }
 
-        ClassAnalysis analysis = analyzer.getClassAnalysis(className, file);
+        ClassAnalysis analysis = analyzer.getClassAnalysis(className, fileDetails);
         accumulator.addClass(className, analysis.isDependencyToAll(), analysis.getClassDependencies(), analysis.getConstants(), analysis.getLiterals());
     }
 
@@ -18,14 +18,13 @@ package org.gradle.api.internal.tasks.compile.incremental.analyzer;
 
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteStreams;
+import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.tasks.compile.incremental.asm.ClassDependenciesVisitor;
 import org.gradle.util.GFileUtils;
 import org.gradle.util.internal.Java9ClassReader;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashSet;
@@ -71,12 +70,12 @@ public class DefaultClassDependenciesAnalyzer implements ClassDependenciesAnalyz
     }
 
     @Override
-    public ClassAnalysis getClassAnalysis(String className, File classFile) {
-        FileInputStream input = GFileUtils.openInputStream(classFile);
+    public ClassAnalysis getClassAnalysis(String className, FileTreeElement classFile) {
+        InputStream input = classFile.open();
         try {
             return getClassAnalysis(className, input);
         } catch (IOException e) {
-            throw new RuntimeException("Problems loading class analysis for '" + className + "' from file: " + classFile);
+            throw new RuntimeException("Problems loading class analysis for '" + className + "' from file: " + classFile.getDisplayName());
         } finally {
             GFileUtils.closeInputStream(input);
         }
@@ -49,7 +49,7 @@ class DefaultJarSnapshotter {
             public void visitFile(FileVisitDetails fileDetails) {
                 analyzer.visitFile(fileDetails);
                 String className = fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", "");
-                HashCode classHash = hasher.hash(fileDetails.getFile());
+                HashCode classHash = hasher.hash(fileDetails);
                 hashes.put(className, classHash);
             }
         });
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.internal.serialize.SerializerSpec
+
+class JavaCompileSpecSerializerTest extends SerializerSpec {
+    def serializer = new JavaCompileSpecSerializer()
+
+    def "serializes forking spec"() {
+        def options = new CompileOptions()
+        options.fork = true
+        options.encoding = "UTF-8"
+        options.debugOptions.debugLevel = "source,lines"
+        options.forkOptions.memoryMaximumSize = "1g"
+        options.forkOptions.jvmArgs = ["-XX:+UseG1GC"]
+        options.compilerArgs = ["-Xlint:unchecked", "-parameters"]
+        options.incremental = true
+        options.bootClasspath = "boot.jar"
+        options.sourcepath = new SimpleFileCollection(new File("src/other/java"))
+        options.dependOptions.classpath = null
+
+        def spec = new DefaultJavaCompileSpecFactory(options).create()
+        spec.compileOptions = options
+        spec.workingDir = new File("project")
+        spec.tempDir = new File("project/build/tmp")
+        spec.destinationDir = new File("project/build/classes")
+        spec.source = new SimpleFileCollection(new File("src/main/java/A.java"), new File("src/main/java/B.java"))
+        spec.classpath = new SimpleFileCollection(new File("lib/a.jar"), new File("lib/b.jar"))
+        spec.sourceCompatibility = "1.7"
+
+        when:
+        def result = usesEfficientSerialization(spec, serializer)
+
+        then:
+        result instanceof ForkingJavaCompileSpec
+        result.workingDir == spec.workingDir
+        result.tempDir == spec.tempDir
+        result.destinationDir == spec.destinationDir
+        result.source.files == spec.source.files
+        result.classpath as List == spec.classpath as List
+        result.sourceCompatibility == "1.7"
+        result.targetCompatibility == null
+        result.dependencyCacheDir == null
+
+        def resultOptions = result.compileOptions
+        resultOptions.fork
+        resultOptions.failOnError
+        resultOptions.warnings
+        !resultOptions.verbose
+        resultOptions.encoding == "UTF-8"
+        resultOptions.debugOptions.debugLevel == "source,lines"
+        resultOptions.forkOptions.memoryInitialSize == null
+        resultOptions.forkOptions.memoryMaximumSize == "1g"
+        resultOptions.forkOptions.jvmArgs == ["-XX:+UseG1GC"]
+        resultOptions.compilerArgs == ["-Xlint:unchecked", "-parameters"]
+        resultOptions.incremental
+        resultOptions.bootClasspath == "boot.jar"
+        resultOptions.extensionDirs == null
+        resultOptions.sourcepath.asPath == options.sourcepath.asPath
+        resultOptions.dependOptions.classpath == null
+        resultOptions.dependOptions.useCache
+    }
+
+    def "serializes default spec"() {
+        def spec = new DefaultJavaCompileSpec()
+        spec.compileOptions = new CompileOptions()
+
+        when:
+        def result = serialize(spec, serializer)
+
+        then:
+        result.class == DefaultJavaCompileSpec
+        result.source == null
+        result.classpath == null
+        result.compileOptions.sourcepath == null
+        result.compileOptions.compilerArgs == []
+    }
+}
@@ -43,15 +43,18 @@ class ClassFilesAnalyzerTest extends Specification {
     }
 
     def "is sensitive to package prefix"() {
-        def details = Stub(FileVisitDetails) { getPath() >> "com/foo/Foo.class"}
+        def details = Stub(FileVisitDetails) {
+            getName() >> "Foo.class"
+            getPath() >> "com/foo/Foo.class"
+        }
         when: analyzer.visitFile(details)
         then: 0 * _
     }
 
     def "accumulates dependencies"() {
         def details = Stub(FileVisitDetails) {
+            getName() >> "Foo.class"
             getPath() >> "org/foo/Foo.class"
-            getFile() >> new File("Foo.class")
         }
         def classNames = ["A"] as Set
         def constants = [1] as Set
@@ -61,7 +64,7 @@ class ClassFilesAnalyzerTest extends Specification {
         analyzer.visitFile(details)
 
         then:
-        1 * classAnalyzer.getClassAnalysis("org.foo.Foo", new File("Foo.class")) >> new ClassAnalysis(classNames, true, constants, literals)
+        1 * classAnalyzer.getClassAnalysis("org.foo.Foo", details) >> new ClassAnalysis(classNames, true, constants, literals)
         1 * accumulator.addClass("org.foo.Foo", true, classNames, constants, literals)
         0 * _
     }
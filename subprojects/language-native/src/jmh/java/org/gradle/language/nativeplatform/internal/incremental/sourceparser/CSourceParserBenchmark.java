@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares the parsers used to find the include directives of C and C++ source files, using files shaped like typical headers:
+ * a license comment, a few includes and some declarations.
+ */
+@State(Scope.Benchmark)
+public class CSourceParserBenchmark {
+    private static final int FILE_COUNT = 100;
+
+    private final CSourceParser regexParser = new RegexBackedCSourceParser();
+    private final CSourceParser streamingParser = new StreamingCSourceParser();
+    private File dir;
+    private File[] files;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = File.createTempFile("sources", "");
+        dir.delete();
+        dir.mkdirs();
+        files = new File[FILE_COUNT];
+        for (int i = 0; i < FILE_COUNT; i++) {
+            StringBuilder content = new StringBuilder();
+            content.append("/*\n * Copyright the original author or authors.\n *\n * Licensed under the Apache License, Version 2.0\n */\n\n");
+            content.append("#ifndef HEADER_").append(i).append("_H\n#define HEADER_").append(i).append("_H\n\n");
+            content.append("#include <stdio.h>\n#include <vector>\n#  include \"header").append(i + 1).append(".h\"\n#import \"legacy.h\" // compatibility\n\n");
+            for (int j = 0; j < 100; j++) {
+                content.append("int function").append(j).append("(const char *name, int value); /* declared in source ").append(j).append(" */\n");
+                content.append("static const char *NAME").append(j).append(" = \"a string with a // comment marker\";\n");
+            }
+            content.append("\n#endif\n");
+            files[i] = new File(dir, "header" + i + ".h");
+            FileUtils.writeStringToFile(files[i], content.toString());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Benchmark
+    public void regexBackedParser(Blackhole blackhole) {
+        for (File file : files) {
+            blackhole.consume(regexParser.parseSource(file));
+        }
+    }
+
+    @Benchmark
+    public void streamingParser(Blackhole blackhole) {
+        for (File file : files) {
+            blackhole.consume(streamingParser.parseSource(file));
+        }
+    }
+}
@@ -16,10 +16,12 @@
 
 package org.gradle.language.nativeplatform.internal;
 
+import com.google.common.hash.HashCode;
 import org.gradle.api.internal.changedetection.changes.DiscoveredInputRecorder;
 import org.gradle.internal.operations.logging.BuildOperationLogger;
 import org.gradle.nativeplatform.internal.AbstractBinaryToolSpec;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
+import org.gradle.nativeplatform.toolchain.internal.ObjectFileCache;
 
 import java.io.File;
 import java.util.*;
@@ -39,6 +41,9 @@ public abstract class AbstractNativeCompileSpec extends AbstractBinaryToolSpec i
     private Map<File, IncludeDirectives> sourceFileIncludeDirectives;
     private String preCompiledHeader;
     private DiscoveredInputRecorder discoveredInputRecorder;
+    private Map<File, HashCode> sourceFileIncludeClosureHashes = Collections.emptyMap();
+    private ObjectFileCache objectFileCache;
+    private File objectFileCacheRootDir;
 
     @Override
     public List<File> getIncludeRoots() {
@@ -202,4 +207,34 @@ public abstract class AbstractNativeCompileSpec extends AbstractBinaryToolSpec i
     public DiscoveredInputRecorder getDiscoveredInputRecorder() {
         return discoveredInputRecorder;
     }
+
+    @Override
+    public Map<File, HashCode> getSourceFileIncludeClosureHashes() {
+        return sourceFileIncludeClosureHashes;
+    }
+
+    @Override
+    public void setSourceFileIncludeClosureHashes(Map<File, HashCode> map) {
+        this.sourceFileIncludeClosureHashes = map;
+    }
+
+    @Override
+    public ObjectFileCache getObjectFileCache() {
+        return objectFileCache;
+    }
+
+    @Override
+    public void setObjectFileCache(ObjectFileCache objectFileCache) {
+        this.objectFileCache = objectFileCache;
+    }
+
+    @Override
+    public File getObjectFileCacheRootDir() {
+        return objectFileCacheRootDir;
+    }
+
+    @Override
+    public void setObjectFileCacheRootDir(File rootDir) {
+        this.objectFileCacheRootDir = rootDir;
+    }
 }
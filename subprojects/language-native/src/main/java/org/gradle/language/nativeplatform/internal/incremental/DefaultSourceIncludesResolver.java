@@ -15,28 +15,50 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.gradle.internal.FileUtils;
+import org.gradle.internal.nativeintegration.filesystem.FileType;
 import org.gradle.language.nativeplatform.internal.Include;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * Resolves includes against the include search path. The result of searching for an include is reused for every source file that uses the same search path,
+ * so instances should not outlive the file system state they have seen, such as beyond a single compilation.
+ */
 public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     private final List<File> includePaths;
+    private final DirectoryContentsCache directoryContentsCache;
+    private final Map<String, IncludeResolution> systemIncludeResolutions = Maps.newHashMap();
+    private final Map<File, Map<String, IncludeResolution>> quotedIncludeResolutions = Maps.newHashMap();
 
-    public DefaultSourceIncludesResolver(List<File> includePaths) {
+    public DefaultSourceIncludesResolver(List<File> includePaths, DirectoryContentsCache directoryContentsCache) {
         this.includePaths = includePaths;
+        this.directoryContentsCache = directoryContentsCache;
     }
 
     @Override
     public ResolvedSourceIncludes resolveIncludes(File sourceFile, IncludeDirectives includes) {
         BuildableResolvedSourceIncludes resolvedSourceIncludes = new BuildableResolvedSourceIncludes();
-        searchForDependencies(prependSourceDir(sourceFile, includePaths), includes.getQuotedIncludes(), resolvedSourceIncludes);
-        searchForDependencies(includePaths, includes.getSystemIncludes(), resolvedSourceIncludes);
+        List<Include> quotedIncludes = includes.getQuotedIncludes();
+        if (!quotedIncludes.isEmpty()) {
+            // Quoted includes are searched for in the directory of the source file first, so there is a search path per directory
+            File sourceDir = sourceFile.getParentFile();
+            Map<String, IncludeResolution> resolutions = quotedIncludeResolutions.get(sourceDir);
+            if (resolutions == null) {
+                resolutions = Maps.newHashMap();
+                quotedIncludeResolutions.put(sourceDir, resolutions);
+            }
+            searchForDependencies(prependSourceDir(sourceDir, includePaths), quotedIncludes, resolutions, resolvedSourceIncludes);
+        }
+        searchForDependencies(includePaths, includes.getSystemIncludes(), systemIncludeResolutions, resolvedSourceIncludes);
         if (!includes.getMacroIncludes().isEmpty()) {
             resolvedSourceIncludes.resolved(includes.getMacroIncludes().get(0).getValue(), null);
         }
@@ -44,35 +66,57 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
         return resolvedSourceIncludes;
     }
 
-    private List<File> prependSourceDir(File sourceFile, List<File> includePaths) {
+    private List<File> prependSourceDir(File sourceDir, List<File> includePaths) {
         List<File> quotedSearchPath = new ArrayList<File>(includePaths.size() + 1);
-        quotedSearchPath.add(sourceFile.getParentFile());
+        quotedSearchPath.add(sourceDir);
         quotedSearchPath.addAll(includePaths);
         return quotedSearchPath;
     }
 
-    private void searchForDependencies(List<File> searchPath, List<Include> includes, BuildableResolvedSourceIncludes dependencies) {
+    private void searchForDependencies(List<File> searchPath, List<Include> includes, Map<String, IncludeResolution> resolutions, BuildableResolvedSourceIncludes dependencies) {
         for (Include include : includes) {
-            searchForDependency(searchPath, include.getValue(), dependencies);
+            IncludeResolution resolution = resolutions.get(include.getValue());
+            if (resolution == null) {
+                resolution = searchForDependency(searchPath, include.getValue());
+                resolutions.put(include.getValue(), resolution);
+            }
+            for (File candidate : resolution.searched) {
+                dependencies.searched(candidate);
+            }
+            if (resolution.resolved != null) {
+                dependencies.resolved(include.getValue(), resolution.resolved);
+            }
         }
     }
 
-    private void searchForDependency(List<File> searchPath, String include, BuildableResolvedSourceIncludes dependencies) {
+    private IncludeResolution searchForDependency(List<File> searchPath, String include) {
+        ImmutableList.Builder<File> searched = ImmutableList.builder();
         for (File searchDir : searchPath) {
             File candidate = new File(searchDir, include);
+            FileType type = directoryContentsCache.getType(searchDir, include);
             // TODO: SLG This isn't correct, we need to consider directories too
             // If a source file is #include <type_trait>
             // and includePath = [ A, B ]
             // and /B/type_trait is the header we want.
             // We need /A/type_trait to be recorded as a directory in case it becomes a file later.
-            if (!candidate.isDirectory()) {
-                dependencies.searched(candidate);
+            if (type != FileType.Directory) {
+                searched.add(candidate);
             }
-            if (candidate.isFile()) {
-                dependencies.resolved(include, candidate);
-                return;
+            if (type == FileType.RegularFile) {
+                return new IncludeResolution(searched.build(), FileUtils.canonicalize(candidate));
             }
         }
+        return new IncludeResolution(searched.build(), null);
+    }
+
+    private static class IncludeResolution {
+        private final List<File> searched;
+        private final File resolved;
+
+        IncludeResolution(List<File> searched, File resolved) {
+            this.searched = searched;
+            this.resolved = resolved;
+        }
     }
 
     private static class BuildableResolvedSourceIncludes implements ResolvedSourceIncludes {
@@ -84,8 +128,7 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
         }
 
         void resolved(String rawInclude, File resolved) {
-            File dependencyFile = resolved == null ? null : FileUtils.canonicalize(resolved);
-            dependencies.add(new ResolvedInclude(rawInclude, dependencyFile));
+            dependencies.add(new ResolvedInclude(rawInclude, resolved));
         }
 
         @Override
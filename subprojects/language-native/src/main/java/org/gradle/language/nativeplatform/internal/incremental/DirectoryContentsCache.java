@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.tasks.TaskState;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+import org.gradle.internal.nativeintegration.filesystem.FileType;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the contents of the include directories used by the native compile tasks of a build, so that looking for an include file in a directory
+ * that has already been listed does not touch the file system. Files that are not listed in their directory are known to be missing without any further check.
+ *
+ * <p>The cached contents of a directory are discarded when a task that declares an output in, above or below the directory has executed,
+ * and all contents are discarded when a task without declared outputs has executed.</p>
+ */
+public class DirectoryContentsCache implements TaskExecutionListener {
+    private static final DirectoryContents NOT_A_DIRECTORY = new DirectoryContents(null, true);
+
+    private final boolean caseSensitive;
+    private final ConcurrentMap<File, DirectoryContents> directories = new ConcurrentHashMap<File, DirectoryContents>();
+
+    public DirectoryContentsCache(FileSystem fileSystem) {
+        this.caseSensitive = fileSystem.isCaseSensitive();
+    }
+
+    /**
+     * Returns the type of the file at the given path relative to the given directory.
+     */
+    public FileType getType(File dir, String path) {
+        if (!isSimplePath(path)) {
+            return getTypeFromFileSystem(new File(dir, path));
+        }
+        File current = dir.getAbsoluteFile();
+        int start = 0;
+        while (true) {
+            int end = path.indexOf('/', start);
+            String name = end < 0 ? path.substring(start) : path.substring(start, end);
+            FileType type = getContents(current).getType(current, name);
+            if (end < 0 || type != FileType.Directory) {
+                return end < 0 ? type : FileType.Missing;
+            }
+            current = new File(current, name);
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Returns true for relative paths without empty, '.' or '..' segments, which can be looked up segment by segment.
+     */
+    private static boolean isSimplePath(String path) {
+        return !path.isEmpty()
+            && !path.startsWith("/")
+            && !path.endsWith("/")
+            && !path.endsWith(".")
+            && !path.contains("//")
+            && !path.contains("./")
+            && path.indexOf('\\') < 0
+            && path.indexOf(':') < 0;
+    }
+
+    private DirectoryContents getContents(File dir) {
+        DirectoryContents contents = directories.get(dir);
+        if (contents == null) {
+            String[] names = dir.list();
+            contents = names == null ? NOT_A_DIRECTORY : new DirectoryContents(names, caseSensitive);
+            DirectoryContents existing = directories.putIfAbsent(dir, contents);
+            if (existing != null) {
+                contents = existing;
+            }
+        }
+        return contents;
+    }
+
+    private static FileType getTypeFromFileSystem(File file) {
+        if (file.isFile()) {
+            return FileType.RegularFile;
+        }
+        if (file.isDirectory()) {
+            return FileType.Directory;
+        }
+        return FileType.Missing;
+    }
+
+    @Override
+    public void beforeExecute(Task task) {
+    }
+
+    @Override
+    public void afterExecute(Task task, TaskState state) {
+        if (state.getSkipped() || directories.isEmpty()) {
+            return;
+        }
+        Set<File> outputs = task.getOutputs().getFiles().getFiles();
+        if (outputs.isEmpty()) {
+            directories.clear();
+            return;
+        }
+        for (File output : outputs) {
+            String outputPath = output.getAbsolutePath();
+            for (File dir : directories.keySet()) {
+                String dirPath = dir.getPath();
+                if (isSameOrAncestor(dirPath, outputPath) || isSameOrAncestor(outputPath, dirPath)) {
+                    directories.remove(dir);
+                }
+            }
+        }
+    }
+
+    private static boolean isSameOrAncestor(String ancestor, String path) {
+        return path.startsWith(ancestor) && (path.length() == ancestor.length() || path.charAt(ancestor.length()) == File.separatorChar || ancestor.endsWith(File.separator));
+    }
+
+    private static class DirectoryContents {
+        private final Set<String> names;
+        private final boolean caseSensitive;
+        private final ConcurrentMap<String, FileType> types = new ConcurrentHashMap<String, FileType>();
+
+        DirectoryContents(String[] names, boolean caseSensitive) {
+            this.caseSensitive = caseSensitive;
+            if (names == null) {
+                this.names = null;
+            } else if (caseSensitive) {
+                this.names = ImmutableSet.copyOf(names);
+            } else {
+                ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+                for (String name : names) {
+                    builder.add(name.toLowerCase(Locale.US));
+                }
+                this.names = builder.build();
+            }
+        }
+
+        FileType getType(File dir, String name) {
+            if (names == null || !names.contains(caseSensitive ? name : name.toLowerCase(Locale.US))) {
+                return FileType.Missing;
+            }
+            FileType type = types.get(name);
+            if (type == null) {
+                // Only entries that are looked up are checked, rather than checking the type of every entry when listing the directory
+                type = getTypeFromFileSystem(new File(dir, name));
+                types.put(name, type);
+            }
+            return type;
+        }
+    }
+}
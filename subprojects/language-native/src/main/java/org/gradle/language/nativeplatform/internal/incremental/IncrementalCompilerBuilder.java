@@ -15,25 +15,39 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import org.gradle.StartParameter;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.caching.internal.BuildCacheConfigurationInternal;
 import org.gradle.language.base.internal.compile.Compiler;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CachingCSourceParser;
 import org.gradle.nativeplatform.toolchain.NativeToolChain;
+import org.gradle.nativeplatform.toolchain.internal.BuildCacheObjectFileCache;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
+import org.gradle.nativeplatform.toolchain.internal.ObjectFileCache;
 
 public class IncrementalCompilerBuilder {
+    public static final String OBJECT_FILE_CACHE_TOGGLE = "org.gradle.native.objectFileCache";
+
     private final FileHasher hasher;
     private final CompilationStateCacheFactory compilationStateCacheFactory;
     private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final CachingCSourceParser sourceParser;
+    private final DirectoryContentsCache directoryContentsCache;
+    private final ObjectFileCache objectFileCache;
 
-    public IncrementalCompilerBuilder(FileHasher hasher, CompilationStateCacheFactory compilationStateCacheFactory, DirectoryFileTreeFactory directoryFileTreeFactory) {
+    public IncrementalCompilerBuilder(FileHasher hasher, CompilationStateCacheFactory compilationStateCacheFactory, DirectoryFileTreeFactory directoryFileTreeFactory, CachingCSourceParser sourceParser, DirectoryContentsCache directoryContentsCache, StartParameter startParameter, BuildCacheConfigurationInternal buildCacheConfiguration) {
         this.hasher = hasher;
         this.compilationStateCacheFactory = compilationStateCacheFactory;
         this.directoryFileTreeFactory = directoryFileTreeFactory;
+        this.sourceParser = sourceParser;
+        this.directoryContentsCache = directoryContentsCache;
+        // Object files of individual source files are cached only when the build cache is enabled
+        this.objectFileCache = Boolean.getBoolean(OBJECT_FILE_CACHE_TOGGLE) && startParameter.isTaskOutputCacheEnabled() ? new BuildCacheObjectFileCache(buildCacheConfiguration, hasher) : null;
     }
 
     public <T extends NativeCompileSpec> Compiler<T> createIncrementalCompiler(TaskInternal task, Compiler<T> compiler, NativeToolChain toolchain) {
-        return new IncrementalNativeCompiler<T>(task, hasher, compilationStateCacheFactory, compiler, toolchain, directoryFileTreeFactory);
+        return new IncrementalNativeCompiler<T>(task, hasher, compilationStateCacheFactory, sourceParser, directoryContentsCache, objectFileCache, compiler, toolchain, directoryFileTreeFactory);
     }
 }
@@ -15,6 +15,11 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.gradle.api.Transformer;
 import org.gradle.api.file.EmptyFileVisitor;
 import org.gradle.api.file.FileVisitDetails;
@@ -32,16 +37,21 @@ import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.language.base.internal.tasks.SimpleStaleClassCleaner;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CSourceParser;
-import org.gradle.language.nativeplatform.internal.incremental.sourceparser.RegexBackedCSourceParser;
 import org.gradle.nativeplatform.toolchain.Clang;
 import org.gradle.nativeplatform.toolchain.Gcc;
 import org.gradle.nativeplatform.toolchain.NativeToolChain;
+import org.gradle.nativeplatform.toolchain.internal.CacheKeyPaths;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
+import org.gradle.nativeplatform.toolchain.internal.ObjectFileCache;
 import org.gradle.util.CollectionUtils;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
 
 public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements Compiler<T> {
     private static final Logger LOGGER = Logging.getLogger(IncrementalNativeCompiler.class);
@@ -51,13 +61,17 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
     private final FileHasher hasher;
     private final DirectoryFileTreeFactory directoryFileTreeFactory;
     private final CompilationStateCacheFactory compilationStateCacheFactory;
+    private final CSourceParser sourceParser;
+    private final DirectoryContentsCache directoryContentsCache;
+    private final ObjectFileCache objectFileCache;
 
-    private final CSourceParser sourceParser = new RegexBackedCSourceParser();
-
-    public IncrementalNativeCompiler(TaskInternal task, FileHasher hasher, CompilationStateCacheFactory compilationStateCacheFactory, Compiler<T> delegateCompiler, NativeToolChain toolChain, DirectoryFileTreeFactory directoryFileTreeFactory) {
+    public IncrementalNativeCompiler(TaskInternal task, FileHasher hasher, CompilationStateCacheFactory compilationStateCacheFactory, CSourceParser sourceParser, DirectoryContentsCache directoryContentsCache, ObjectFileCache objectFileCache, Compiler<T> delegateCompiler, NativeToolChain toolChain, DirectoryFileTreeFactory directoryFileTreeFactory) {
         this.task = task;
         this.hasher = hasher;
         this.compilationStateCacheFactory = compilationStateCacheFactory;
+        this.sourceParser = sourceParser;
+        this.directoryContentsCache = directoryContentsCache;
+        this.objectFileCache = objectFileCache;
         this.delegateCompiler = delegateCompiler;
         this.directoryFileTreeFactory = directoryFileTreeFactory;
         this.importsAreIncludes = Clang.class.isAssignableFrom(toolChain.getClass()) || Gcc.class.isAssignableFrom(toolChain.getClass());
@@ -71,6 +85,12 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
         IncrementalCompilation compilation = processor.processSourceFiles(spec.getSourceFiles());
 
         spec.setSourceFileIncludeDirectives(mapIncludes(spec.getSourceFiles(), compilation.getFinalState()));
+        if (objectFileCache != null) {
+            File rootDir = task.getProject().getRootDir();
+            spec.setSourceFileIncludeClosureHashes(hashIncludeClosures(spec.getSourceFiles(), compilation.getFinalState(), rootDir));
+            spec.setObjectFileCache(objectFileCache);
+            spec.setObjectFileCacheRootDir(rootDir);
+        }
 
         handleDiscoveredInputs(spec, compilation, spec.getDiscoveredInputRecorder());
 
@@ -114,6 +134,55 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
         });
     }
 
+    /**
+     * Hashes each source file together with all the files it includes, directly or transitively. Files are identified by their path relative to the given root directory when they are located in it.
+     * Source files with an include that could not be resolved have no hash, as their object file cannot be identified from the files they include.
+     */
+    private Map<File, HashCode> hashIncludeClosures(Collection<File> files, CompilationState compilationState, File rootDir) {
+        Map<File, HashCode> closureHashes = Maps.newHashMap();
+        for (File file : files) {
+            HashCode closureHash = hashIncludeClosure(file, compilationState, rootDir);
+            if (closureHash != null) {
+                closureHashes.put(file, closureHash);
+            }
+        }
+        return closureHashes;
+    }
+
+    private HashCode hashIncludeClosure(File sourceFile, CompilationState compilationState, File rootDir) {
+        Set<File> closure = Sets.newHashSet();
+        Deque<File> queue = new ArrayDeque<File>();
+        queue.add(sourceFile);
+        while (!queue.isEmpty()) {
+            File file = queue.removeFirst();
+            if (!closure.add(file)) {
+                continue;
+            }
+            CompilationFileState state = compilationState.getState(file);
+            if (state == null) {
+                return null;
+            }
+            for (ResolvedInclude resolvedInclude : state.getResolvedIncludes()) {
+                if (resolvedInclude.isUnknown()) {
+                    return null;
+                }
+                queue.add(resolvedInclude.getFile());
+            }
+        }
+
+        // Sort the closure by path so that the hash does not depend on the order in which files are visited
+        SortedMap<String, File> sortedClosure = Maps.newTreeMap();
+        for (File file : closure) {
+            sortedClosure.put(CacheKeyPaths.relativize(file.getAbsolutePath(), rootDir), file);
+        }
+        Hasher hasher = Hashing.md5().newHasher();
+        for (Map.Entry<String, File> entry : sortedClosure.entrySet()) {
+            hasher.putUnencodedChars(entry.getKey());
+            hasher.putBytes(compilationState.getState(entry.getValue()).getHash().asBytes());
+        }
+        return hasher.hash();
+    }
+
     private boolean sourceFilesUseMacroIncludes(Collection<File> files, final CompilationState compilationState) {
         // If we couldn't determine all dependencies of some files due to macros, we have to scan all include directories.
         return CollectionUtils.any(files, new Spec<File>() {
@@ -159,7 +228,7 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
     }
 
     private IncrementalCompileProcessor createProcessor(PersistentStateCache<CompilationState> compileStateCache, SourceIncludesParser sourceIncludesParser, Iterable<File> includes) {
-        DefaultSourceIncludesResolver dependencyParser = new DefaultSourceIncludesResolver(CollectionUtils.toList(includes));
+        DefaultSourceIncludesResolver dependencyParser = new DefaultSourceIncludesResolver(CollectionUtils.toList(includes), directoryContentsCache);
 
         return new IncrementalCompileProcessor(compileStateCache, dependencyParser, sourceIncludesParser, hasher);
     }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.File;
+
+/**
+ * A {@link CSourceParser} that parses files with the same content only once. Shared by all native compile tasks in the process,
+ * so that headers used by several tasks, such as system headers, are parsed once for all of them.
+ */
+public class CachingCSourceParser implements CSourceParser {
+    private static final int MAX_CACHED_FILES = 50000;
+
+    private final CSourceParser delegate = new StreamingCSourceParser();
+    private final FileHasher hasher;
+    private final Cache<HashCode, IncludeDirectives> includeDirectives = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_FILES).build();
+
+    public CachingCSourceParser(FileHasher hasher) {
+        this.hasher = hasher;
+    }
+
+    @Override
+    public IncludeDirectives parseSource(File sourceFile) {
+        HashCode hash = hasher.hash(sourceFile);
+        IncludeDirectives directives = includeDirectives.getIfPresent(hash);
+        if (directives == null) {
+            directives = delegate.parseSource(sourceFile);
+            includeDirectives.put(hash, directives);
+        }
+        return directives;
+    }
+}
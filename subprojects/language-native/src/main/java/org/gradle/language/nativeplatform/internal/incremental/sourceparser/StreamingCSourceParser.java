@@ -0,0 +1,299 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.io.IOUtils;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.language.nativeplatform.internal.Include;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * A {@link CSourceParser} that finds include and import directives in a single pass over the characters of the file, without creating a string per line.
+ *
+ * Produces the same result as {@link RegexBackedCSourceParser}: comments and line continuations are handled as by {@link PreprocessingReader},
+ * and each trimmed line is matched as by the regular expression used by that parser. This implementation is stateless and thread-safe.
+ */
+public class StreamingCSourceParser implements CSourceParser {
+    @Override
+    public IncludeDirectives parseSource(File sourceFile) {
+        return new DefaultIncludeDirectives(new Scanner(readFile(sourceFile)).scan());
+    }
+
+    private static Scanner.Content readFile(File file) {
+        try {
+            Reader reader = new FileReader(file);
+            try {
+                char[] chars = new char[Math.max(16, (int) Math.min(file.length(), Integer.MAX_VALUE - 8))];
+                int length = 0;
+                while (true) {
+                    if (length == chars.length) {
+                        char[] grown = new char[chars.length * 2];
+                        System.arraycopy(chars, 0, grown, 0, length);
+                        chars = grown;
+                    }
+                    int read = reader.read(chars, length, chars.length - length);
+                    if (read < 0) {
+                        return new Scanner.Content(chars, length);
+                    }
+                    length += read;
+                }
+            } finally {
+                IOUtils.closeQuietly(reader);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Scanner {
+        private final char[] chars;
+        private final int length;
+        private int pos;
+        private boolean inString;
+        private boolean quoted;
+        private char[] line = new char[128];
+        private int lineLength;
+        private final List<Include> includes = Lists.newArrayList();
+
+        Scanner(Content content) {
+            this.chars = content.chars;
+            this.length = content.length;
+        }
+
+        List<Include> scan() {
+            boolean skipLineFeed = false;
+            while (true) {
+                int ch = read();
+                if (ch == -1) {
+                    if (lineLength > 0) {
+                        matchLine();
+                    }
+                    return includes;
+                }
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (ch == '\n') {
+                        continue;
+                    }
+                }
+                if (ch == '\n' || ch == '\r') {
+                    matchLine();
+                    lineLength = 0;
+                    skipLineFeed = ch == '\r';
+                    continue;
+                }
+                if (lineLength == line.length) {
+                    char[] grown = new char[line.length * 2];
+                    System.arraycopy(line, 0, grown, 0, lineLength);
+                    line = grown;
+                }
+                line[lineLength++] = (char) ch;
+            }
+        }
+
+        /**
+         * Matches the current line against {@code #\s*(include|import)\s*((<[^>]+>)|("[^"]+")|(\w+))} after trimming, as the regex backed parser does.
+         */
+        private void matchLine() {
+            int start = 0;
+            int end = lineLength;
+            while (start < end && line[start] <= ' ') {
+                start++;
+            }
+            while (end > start && line[end - 1] <= ' ') {
+                end--;
+            }
+            if (start == end || line[start] != '#') {
+                return;
+            }
+            int pos = skipWhitespace(start + 1, end);
+            boolean isImport;
+            if (matchesIgnoreCase("include", pos, end)) {
+                isImport = false;
+                pos += 7;
+            } else if (matchesIgnoreCase("import", pos, end)) {
+                // The regex parser only treats the directive as an import when it is written in lower case
+                isImport = matchesExactly("import", pos);
+                pos += 6;
+            } else {
+                return;
+            }
+            pos = skipWhitespace(pos, end);
+            if (pos == end) {
+                return;
+            }
+            char first = line[pos];
+            if (first == '<' || first == '"') {
+                char last = first == '<' ? '>' : '"';
+                if (end - pos < 3 || line[end - 1] != last) {
+                    return;
+                }
+                for (int i = pos + 1; i < end - 1; i++) {
+                    if (line[i] == last) {
+                        return;
+                    }
+                }
+            } else {
+                for (int i = pos; i < end; i++) {
+                    if (!isWordChar(line[i])) {
+                        return;
+                    }
+                }
+            }
+            includes.add(DefaultInclude.parse(new String(line, pos, end - pos), isImport));
+        }
+
+        private int skipWhitespace(int pos, int end) {
+            while (pos < end && isWhitespace(line[pos])) {
+                pos++;
+            }
+            return pos;
+        }
+
+        private boolean matchesIgnoreCase(String keyword, int pos, int end) {
+            if (end - pos < keyword.length()) {
+                return false;
+            }
+            for (int i = 0; i < keyword.length(); i++) {
+                char ch = line[pos + i];
+                if (ch >= 'A' && ch <= 'Z') {
+                    ch = (char) (ch + ('a' - 'A'));
+                }
+                if (ch != keyword.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matchesExactly(String keyword, int pos) {
+            for (int i = 0; i < keyword.length(); i++) {
+                if (line[pos + i] != keyword.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isWhitespace(char ch) {
+            return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+        }
+
+        private static boolean isWordChar(char ch) {
+            return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_';
+        }
+
+        /**
+         * Returns the next character with comments replaced and line continuations removed. See {@link PreprocessingReader#read()}.
+         */
+        private int read() {
+            while (true) {
+                int ch = next();
+
+                if (ch == '\\' && discardNewLine()) {
+                    continue;
+                }
+
+                if (ch == '"' && !quoted) {
+                    inString = !inString;
+                    quoted = false;
+                } else if (ch == '\\') {
+                    quoted = !quoted;
+                } else {
+                    quoted = false;
+                    if (!inString && ch == '/') {
+                        ch = next();
+                        if (ch == '/') {
+                            while (ch != '\n' && ch != -1 && ch != '\r') {
+                                ch = next();
+                            }
+                        } else if (ch == '*') {
+                            while (ch != -1) {
+                                ch = next();
+                                if (ch == '*') {
+                                    ch = next();
+                                    while (ch == '*') {
+                                        ch = next();
+                                    }
+
+                                    if (ch == '/') {
+                                        ch = ' ';
+                                        break;
+                                    }
+                                }
+                            }
+                        } else {
+                            pushBack(ch);
+                            ch = '/';
+                        }
+                    }
+                }
+
+                return ch;
+            }
+        }
+
+        private boolean discardNewLine() {
+            int nextChar = next();
+            if (nextChar == '\n') {
+                return true;
+            } else if (nextChar == '\r') {
+                int followingChar = next();
+                if (followingChar == '\n') {
+                    return true;
+                }
+                pushBack(followingChar);
+                pushBack(nextChar);
+                return false;
+            } else {
+                pushBack(nextChar);
+                return false;
+            }
+        }
+
+        private int next() {
+            if (pos < length) {
+                return chars[pos++];
+            }
+            return -1;
+        }
+
+        private void pushBack(int ch) {
+            if (ch != -1) {
+                pos--;
+            }
+        }
+
+        private static class Content {
+            private final char[] chars;
+            private final int length;
+
+            Content(char[] chars, int length) {
+                this.chars = chars;
+                this.length = length;
+            }
+        }
+    }
+}
@@ -16,14 +16,19 @@
 
 package org.gradle.language.nativeplatform.internal.registry;
 
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 import org.gradle.language.nativeplatform.internal.incremental.DefaultCompilationStateCacheFactory;
+import org.gradle.language.nativeplatform.internal.incremental.DirectoryContentsCache;
 import org.gradle.language.nativeplatform.internal.incremental.IncrementalCompilerBuilder;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CachingCSourceParser;
 
 public class NativeLanguageServices implements PluginServiceRegistry {
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
+        registration.add(CachingCSourceParser.class);
     }
 
     @Override
@@ -37,10 +42,19 @@ public class NativeLanguageServices implements PluginServiceRegistry {
     @Override
     public void registerGradleServices(ServiceRegistration registration) {
         registration.add(DefaultCompilationStateCacheFactory.class);
+        registration.addProvider(new GradleScopeServices());
     }
 
     @Override
     public void registerProjectServices(ServiceRegistration registration) {
         registration.add(IncrementalCompilerBuilder.class);
     }
+
+    private static class GradleScopeServices {
+        DirectoryContentsCache createDirectoryContentsCache(FileSystem fileSystem, ListenerManager listenerManager) {
+            DirectoryContentsCache directoryContentsCache = new DirectoryContentsCache(fileSystem);
+            listenerManager.addListener(directoryContentsCache);
+            return directoryContentsCache;
+        }
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental
 
+import org.gradle.api.internal.file.TestFiles
 import org.gradle.language.nativeplatform.internal.IncludeDirectives
 import org.gradle.language.nativeplatform.internal.incremental.sourceparser.DefaultInclude
 import org.gradle.test.fixtures.file.TestFile
@@ -47,11 +48,11 @@ class DefaultSourceIncludesResolverTest extends Specification {
     }
 
     def getDependencies() {
-        return new DefaultSourceIncludesResolver(includePaths).resolveIncludes(sourceFile, includes).getResolvedIncludes() as List
+        return new DefaultSourceIncludesResolver(includePaths, new DirectoryContentsCache(TestFiles.fileSystem())).resolveIncludes(sourceFile, includes).getResolvedIncludes() as List
     }
 
     def getCandidates() {
-        return new DefaultSourceIncludesResolver(includePaths).resolveIncludes(sourceFile, includes).getCheckedLocations() as List
+        return new DefaultSourceIncludesResolver(includePaths, new DirectoryContentsCache(TestFiles.fileSystem())).resolveIncludes(sourceFile, includes).getCheckedLocations() as List
     }
 
     def "handles source file with no includes"() {
@@ -166,6 +167,27 @@ class DefaultSourceIncludesResolverTest extends Specification {
         }
     }
 
+    def "reuses the result of searching for an include for source files with the same search path"() {
+        given:
+        def includeDir = testDirectory.createDir("include")
+        def header = includeDir.createFile("test.h")
+        def otherSource = sourceDirectory.file("other.c")
+        includePaths << includeDir
+        quotedIncludes << "test.h"
+        systemIncludes << "test.h"
+        def resolver = new DefaultSourceIncludesResolver(includePaths, new DirectoryContentsCache(TestFiles.fileSystem()))
+
+        when:
+        def first = resolver.resolveIncludes(sourceFile, includes)
+        sourceDirectory.createFile("test.h")
+        def second = resolver.resolveIncludes(otherSource, includes)
+
+        then:
+        first.resolvedIncludes == [dep(header)] as Set
+        second.resolvedIncludes == first.resolvedIncludes
+        second.checkedLocations == first.checkedLocations
+    }
+
     def include(String value) {
         return DefaultInclude.parse(value, false)
     }
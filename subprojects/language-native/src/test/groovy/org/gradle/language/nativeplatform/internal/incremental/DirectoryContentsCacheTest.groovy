@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental
+
+import org.gradle.api.Task
+import org.gradle.api.file.FileCollection
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.tasks.TaskOutputs
+import org.gradle.api.tasks.TaskState
+import org.gradle.internal.nativeintegration.filesystem.FileType
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class DirectoryContentsCacheTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+    def cache = new DirectoryContentsCache(TestFiles.fileSystem())
+    def includeDir = temporaryFolder.createDir("include")
+
+    def "determines type of files in directory"() {
+        given:
+        includeDir.createFile("test.h")
+        includeDir.createFile("sub/other.h")
+
+        expect:
+        cache.getType(includeDir, "test.h") == FileType.RegularFile
+        cache.getType(includeDir, "sub") == FileType.Directory
+        cache.getType(includeDir, "sub/other.h") == FileType.RegularFile
+        cache.getType(includeDir, "missing.h") == FileType.Missing
+        cache.getType(includeDir, "missing/other.h") == FileType.Missing
+        cache.getType(includeDir, "test.h/other.h") == FileType.Missing
+        cache.getType(temporaryFolder.file("missing"), "test.h") == FileType.Missing
+    }
+
+    def "determines type of files using paths that are not simple"() {
+        given:
+        includeDir.createFile("test.h")
+        includeDir.createFile("sub/other.h")
+
+        expect:
+        cache.getType(includeDir, "sub/../test.h") == FileType.RegularFile
+        cache.getType(includeDir, "./test.h") == FileType.RegularFile
+        cache.getType(includeDir, "sub//other.h") == FileType.RegularFile
+        cache.getType(includeDir, ".") == FileType.Directory
+    }
+
+    def "caches directory contents"() {
+        given:
+        includeDir.createFile("test.h")
+
+        when:
+        cache.getType(includeDir, "test.h")
+        includeDir.createFile("other.h")
+        includeDir.file("test.h").delete()
+
+        then:
+        cache.getType(includeDir, "test.h") == FileType.RegularFile
+        cache.getType(includeDir, "other.h") == FileType.Missing
+    }
+
+    def "discards contents of directories related to the outputs of a task that has executed"() {
+        given:
+        def otherDir = temporaryFolder.createDir("other")
+        cache.getType(includeDir, "test.h")
+        cache.getType(otherDir, "test.h")
+        includeDir.createFile("test.h")
+        otherDir.createFile("test.h")
+
+        when:
+        cache.afterExecute(task(includeDir.file("generated")), executed())
+
+        then:
+        cache.getType(includeDir, "test.h") == FileType.RegularFile
+        cache.getType(otherDir, "test.h") == FileType.Missing
+    }
+
+    def "discards all contents when a task without declared outputs has executed"() {
+        given:
+        cache.getType(includeDir, "test.h")
+        includeDir.createFile("test.h")
+
+        when:
+        cache.afterExecute(task(), executed())
+
+        then:
+        cache.getType(includeDir, "test.h") == FileType.RegularFile
+    }
+
+    def "keeps contents when a task is skipped"() {
+        given:
+        cache.getType(includeDir, "test.h")
+        includeDir.createFile("test.h")
+
+        when:
+        cache.afterExecute(task(), Stub(TaskState) { getSkipped() >> true })
+
+        then:
+        cache.getType(includeDir, "test.h") == FileType.Missing
+    }
+
+    private Task task(File... outputs) {
+        def task = Stub(Task)
+        task.outputs >> Stub(TaskOutputs) {
+            getFiles() >> Stub(FileCollection) {
+                getFiles() >> (outputs as Set)
+            }
+        }
+        return task
+    }
+
+    private TaskState executed() {
+        return Stub(TaskState) {
+            getSkipped() >> false
+        }
+    }
+}
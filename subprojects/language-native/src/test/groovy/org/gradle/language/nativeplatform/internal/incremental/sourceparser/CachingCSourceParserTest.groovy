@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import com.google.common.hash.HashCode
+import org.gradle.api.internal.hash.FileHasher
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class CachingCSourceParserTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+    def hasher = Mock(FileHasher)
+    def parser = new CachingCSourceParser(hasher)
+
+    def "parses files with the same content once"() {
+        given:
+        def header1 = temporaryFolder.file("dir1/test.h") << '#include "other.h"'
+        def header2 = temporaryFolder.file("dir2/test.h") << '#include "other.h"'
+        hasher.hash(_) >> HashCode.fromInt(123)
+
+        when:
+        def directives1 = parser.parseSource(header1)
+        def directives2 = parser.parseSource(header2)
+
+        then:
+        directives1.includesOnly*.value == ["other.h"]
+        directives2.is(directives1)
+    }
+
+    def "parses files with different content"() {
+        given:
+        def header1 = temporaryFolder.file("dir1/test.h") << '#include "one.h"'
+        def header2 = temporaryFolder.file("dir2/test.h") << '#include "two.h"'
+        hasher.hash(header1) >> HashCode.fromInt(1)
+        hasher.hash(header2) >> HashCode.fromInt(2)
+
+        expect:
+        parser.parseSource(header1).includesOnly*.value == ["one.h"]
+        parser.parseSource(header2).includesOnly*.value == ["two.h"]
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import spock.lang.Unroll
+
+class StreamingCSourceParserTest extends RegexBackedCSourceParserTest {
+    def setup() {
+        parser = new StreamingCSourceParser()
+    }
+
+    @Unroll
+    def "finds the same directives as the regex backed parser in #text"() {
+        when:
+        sourceFile << text
+
+        then:
+        parser.parseSource(sourceFile) == new RegexBackedCSourceParser().parseSource(sourceFile)
+
+        where:
+        text << [
+            "#IMPORT <test.h>\n#Include \"test.h\"",
+            "#includeMACRO\n#import_thing",
+            "#include <test.h>\r\n#include \"other.h\"\r#include <last.h>",
+            "  \t#  include\t<test.h>  \n\f#include\"test.h\"\u0001",
+            "#include <a>b>\n#include \"a\"b\"\n#include <>\n#include \"\"",
+            "#include <test.h> /* comment\n#include <ignored.h> */ #include <hidden.h>\n",
+            "const char *s = \"\\\"\";\n#include <test.h>\n",
+            "#include <test.h> // comment \\\n#include <next.h>",
+            "#include \"test.h\\\r\nmore.h\"\n#include <test.h>\\\r",
+            "/* unterminated comment\n#include <test.h>",
+            "#include <test.h>"
+        ]
+    }
+}
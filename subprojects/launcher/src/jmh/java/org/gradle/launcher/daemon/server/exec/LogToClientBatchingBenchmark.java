@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.logging.events.OperationIdentifier;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.ProgressEvent;
+import org.gradle.internal.logging.events.StyledTextOutputEvent;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.launcher.daemon.protocol.DaemonMessageSerializer;
+import org.gradle.launcher.daemon.protocol.Message;
+import org.gradle.launcher.daemon.protocol.OutputMessage;
+import org.gradle.launcher.daemon.protocol.OutputMessageBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the number of output events per second that the daemon can send to the client, from the serialization of the daemon messages to the delivery of the events on the client.
+ * Compares sending one message per event with sending batches of events, with consecutive progress events coalesced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+public class LogToClientBatchingBenchmark {
+    private static final int EVENTS = 512;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final Serializer<Message> serializer = DaemonMessageSerializer.create();
+    private List<OutputEvent> events;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        events = new ArrayList<OutputEvent>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            // Typical --info output of a parallel build: log lines interleaved with progress updates of a few operations
+            if (i % 4 == 0) {
+                events.add(new StyledTextOutputEvent(i, "org.gradle.Task", LogLevel.INFO, "Some output of a task " + i + "\n"));
+            } else {
+                events.add(new ProgressEvent(new OperationIdentifier(i % 8 < 4 ? 1 : 2), i, "org.gradle.Task", "> Task :project" + i + ":test"));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void messagePerEvent(Blackhole blackhole) throws Exception {
+        bytes.reset();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        for (OutputEvent event : events) {
+            serializer.write(encoder, new OutputMessage(event));
+            encoder.flush();
+        }
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int i = 0; i < EVENTS; i++) {
+            blackhole.consume(((OutputMessage) serializer.read(decoder)).getEvent());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void batchedMessages(Blackhole blackhole) throws Exception {
+        bytes.reset();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        serializer.write(encoder, new OutputMessageBatch(LogToClient.coalesceProgressEvents(events)));
+        encoder.flush();
+        KryoBackedDecoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        for (OutputEvent event : ((OutputMessageBatch) serializer.read(decoder)).getEvents()) {
+            blackhole.consume(event);
+        }
+    }
+}
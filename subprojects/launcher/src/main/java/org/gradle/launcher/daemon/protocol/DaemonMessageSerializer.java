@@ -40,6 +40,8 @@ import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.ListSerializer;
 import org.gradle.internal.serialize.Serializer;
 
+import java.util.List;
+
 public class DaemonMessageSerializer {
     public static Serializer<Message> create() {
         BaseSerializerFactory factory = new BaseSerializerFactory();
@@ -61,7 +63,9 @@ public class DaemonMessageSerializer {
         registry.register(ProgressCompleteEvent.class, new ProgressCompleteEventSerializer());
         registry.register(ProgressEvent.class, new ProgressEventSerializer());
         registry.register(LogLevelChangeEvent.class, new LogLevelChangeEventSerializer(logLevelSerializer));
-        registry.register(OutputMessage.class, new OutputMessageSerializer(registry.build(OutputEvent.class)));
+        Serializer<OutputEvent> outputEventSerializer = registry.build(OutputEvent.class);
+        registry.register(OutputMessage.class, new OutputMessageSerializer(outputEventSerializer));
+        registry.register(OutputMessageBatch.class, new OutputMessageBatchSerializer(new ListSerializer<OutputEvent>(outputEventSerializer)));
 
         // Default for everything else
         registry.useJavaSerialization(Message.class);
@@ -173,4 +177,22 @@ public class DaemonMessageSerializer {
             return new OutputMessage(eventSerializer.read(decoder));
         }
     }
+
+    private static class OutputMessageBatchSerializer implements Serializer<OutputMessageBatch> {
+        private final Serializer<List<OutputEvent>> eventsSerializer;
+
+        public OutputMessageBatchSerializer(Serializer<List<OutputEvent>> eventsSerializer) {
+            this.eventsSerializer = eventsSerializer;
+        }
+
+        @Override
+        public void write(Encoder encoder, OutputMessageBatch message) throws Exception {
+            eventsSerializer.write(encoder, message.getEvents());
+        }
+
+        @Override
+        public OutputMessageBatch read(Decoder decoder) throws Exception {
+            return new OutputMessageBatch(eventsSerializer.read(decoder));
+        }
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.gradle.launcher.daemon.server.exec;
 
+import com.google.common.base.Objects;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -26,7 +27,10 @@ import org.gradle.launcher.daemon.server.api.DaemonConnection;
 import org.gradle.internal.logging.LoggingOutputInternal;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.logging.events.ProgressEvent;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingDeque;
@@ -36,6 +40,8 @@ public class LogToClient extends BuildCommandOnly {
 
     public static final String DISABLE_OUTPUT = "org.gradle.daemon.disable-output";
     private static final Logger LOGGER = Logging.getLogger(LogToClient.class);
+    // Limits the size of a single message to the client
+    private static final int MAX_BATCH_SIZE = 512;
 
     private final LoggingOutputInternal loggingOutput;
     private final DaemonDiagnostics diagnostics;
@@ -91,37 +97,47 @@ public class LogToClient extends BuildCommandOnly {
 
         @Override
         public void run() {
-            OutputEvent event;
+            List<OutputEvent> events = new ArrayList<OutputEvent>();
             try {
                 while (!shouldStop) {
                     // we must not use interrupt() because it would automatically
                     // close the connection (sending data from an interrupted thread
                     // automatically closes the connection)
-                    event = eventQueue.poll(10, TimeUnit.MILLISECONDS);
+                    OutputEvent event = eventQueue.poll(10, TimeUnit.MILLISECONDS);
                     if (event != null) {
-                        dispatchAsync(event);
+                        events.add(event);
+                        // Send whatever else has been queued in the meantime with this event
+                        eventQueue.drainTo(events, MAX_BATCH_SIZE - 1);
+                        dispatchAsync(events);
+                        events.clear();
                     }
                 }
             } catch (InterruptedException ex) {
                 shouldStop = true;
             }
-            sendRemainingEvents();
+            sendRemainingEvents(events);
             completionLock.countDown();
         }
 
-        private void sendRemainingEvents() {
-            OutputEvent event;
-            while ((event = eventQueue.poll()) != null) {
-                dispatchAsync(event);
+        private void sendRemainingEvents(List<OutputEvent> events) {
+            events.clear();
+            while (eventQueue.drainTo(events, MAX_BATCH_SIZE) > 0) {
+                dispatchAsync(events);
+                events.clear();
             }
         }
 
-        private void dispatchAsync(OutputEvent event) {
+        private void dispatchAsync(List<OutputEvent> events) {
             if (unableToSend) {
                 return;
             }
             try {
-                connection.logEvent(event);
+                List<OutputEvent> batch = coalesceProgressEvents(events);
+                if (batch.size() == 1) {
+                    connection.logEvent(batch.get(0));
+                } else {
+                    connection.logEvents(batch);
+                }
             } catch (Exception ex) {
                 shouldStop = true;
                 unableToSend = true;
@@ -140,4 +156,23 @@ public class LogToClient extends BuildCommandOnly {
             }
         }
     }
+
+    /**
+     * Returns a copy of the given events, where consecutive progress events for the same operation are replaced by the last of them. Only the latest status of an operation is relevant to the client.
+     */
+    static List<OutputEvent> coalesceProgressEvents(List<OutputEvent> events) {
+        List<OutputEvent> result = new ArrayList<OutputEvent>(events.size());
+        for (OutputEvent event : events) {
+            if (event instanceof ProgressEvent && !result.isEmpty()) {
+                int last = result.size() - 1;
+                OutputEvent previous = result.get(last);
+                if (previous instanceof ProgressEvent && Objects.equal(((ProgressEvent) previous).getOperationId(), ((ProgressEvent) event).getOperationId())) {
+                    result.set(last, event);
+                    continue;
+                }
+            }
+            result.add(event);
+        }
+        return result;
+    }
 }
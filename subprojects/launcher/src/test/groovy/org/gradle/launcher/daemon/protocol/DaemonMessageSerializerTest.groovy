@@ -132,6 +132,20 @@ class DaemonMessageSerializerTest extends SerializerSpec {
         result.status == "status"
     }
 
+    def "can serialize OutputMessageBatch messages"() {
+        expect:
+        def first = new StyledTextOutputEvent(1234, "category", LogLevel.LIFECYCLE, "message")
+        def second = new ProgressEvent(new OperationIdentifier(1234L), 321L, "category", "status")
+        def result = serialize(new OutputMessageBatch([first, second]), serializer)
+        result instanceof OutputMessageBatch
+        result.events.size() == 2
+        result.events[0] instanceof StyledTextOutputEvent
+        result.events[0].spans[0].text == "message"
+        result.events[1] instanceof ProgressEvent
+        result.events[1].operationId == new OperationIdentifier(1234L)
+        result.events[1].status == "status"
+    }
+
     def "can serialize Failure messages"() {
         expect:
         def failure = new RuntimeException()
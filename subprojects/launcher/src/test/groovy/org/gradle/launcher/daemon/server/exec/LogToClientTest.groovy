@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.logging.events.LogEvent
+import org.gradle.internal.logging.events.OperationIdentifier
+import org.gradle.internal.logging.events.ProgressEvent
+import spock.lang.Specification
+
+class LogToClientTest extends Specification {
+    def "coalesces consecutive progress events of the same operation"() {
+        def progress1 = progress(1, "one")
+        def progress2 = progress(1, "two")
+        def progress3 = progress(1, "three")
+
+        expect:
+        LogToClient.coalesceProgressEvents([progress1, progress2, progress3]) == [progress3]
+    }
+
+    def "does not coalesce progress events of different operations"() {
+        def progress1 = progress(1, "one")
+        def progress2 = progress(2, "two")
+        def progress3 = progress(1, "three")
+
+        expect:
+        LogToClient.coalesceProgressEvents([progress1, progress2, progress3]) == [progress1, progress2, progress3]
+    }
+
+    def "does not coalesce progress events across other events"() {
+        def progress1 = progress(1, "one")
+        def log = new LogEvent(0, "category", LogLevel.LIFECYCLE, "message", null)
+        def progress2 = progress(1, "two")
+        def progress3 = progress(1, "three")
+
+        expect:
+        LogToClient.coalesceProgressEvents([progress1, log, progress2, progress3]) == [progress1, log, progress3]
+    }
+
+    def progress(long operationId, String status) {
+        return new ProgressEvent(new OperationIdentifier(operationId), 0, "category", status)
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.logging.sink;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.StandardOutputListener;
+import org.gradle.internal.logging.events.StyledTextOutputEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the throughput of build output produced by many threads at once, such as output captured from {@code System.out} by parallel tasks.
+ */
+@State(Scope.Benchmark)
+public class OutputEventRendererBenchmark {
+
+    @Param({"false", "true"})
+    private boolean asynchronous;
+
+    private OutputEventRenderer renderer;
+    private StyledTextOutputEvent event;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        renderer = new OutputEventRenderer(asynchronous);
+        renderer.addStandardOutputListener(new StandardOutputListener() {
+            private long length;
+
+            @Override
+            public void onOutput(CharSequence output) {
+                length += output.length();
+            }
+        });
+        event = new StyledTextOutputEvent(0, "category", LogLevel.LIFECYCLE, "a line of output written by a task\n");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        renderer.flush();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void printFromManyThreads() {
+        renderer.onOutput(event);
+    }
+}
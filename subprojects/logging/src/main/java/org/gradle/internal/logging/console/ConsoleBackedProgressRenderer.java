@@ -16,20 +16,36 @@
 
 package org.gradle.internal.logging.console;
 
-import org.gradle.internal.time.TimeProvider;
 import org.gradle.internal.logging.events.EndOutputEvent;
+import org.gradle.internal.logging.events.OperationIdentifier;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
 import org.gradle.internal.logging.events.ProgressCompleteEvent;
 import org.gradle.internal.logging.events.ProgressEvent;
 import org.gradle.internal.logging.events.ProgressStartEvent;
+import org.gradle.internal.time.TimeProvider;
+import org.gradle.util.GUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Renders output events to the console at most once per frame of {@code throttleMs}, and shows the status of the most recent operation in the status bar.
+ *
+ * <p>Events received during a frame are queued and rendered together. Operations that start and complete within a frame and have no logging header are never
+ * visible in the status bar, so their events are dropped, as are status updates replaced by a later update in the same frame.</p>
+ *
+ * <p>Threads that produce events only hold a lock while queuing them. When a thread finds that a frame is due while another thread is rendering, the events
+ * are left for a scheduled flush rather than waiting for the console.</p>
+ */
 public class ConsoleBackedProgressRenderer implements OutputEventListener {
     private final OutputEventListener listener;
     private final Console console;
@@ -41,7 +57,10 @@ public class ConsoleBackedProgressRenderer implements OutputEventListener {
     // Protected by lock
     private final Object lock = new Object();
     private long lastUpdate;
-    private final List<OutputEvent> queue = new ArrayList<OutputEvent>();
+    private List<OutputEvent> queue = new ArrayList<OutputEvent>();
+    private boolean flushScheduled;
+    // Protected by renderLock
+    private final Lock renderLock = new ReentrantLock();
     private ProgressOperation mostRecentOperation;
     private Label statusBar;
 
@@ -59,48 +78,87 @@ public class ConsoleBackedProgressRenderer implements OutputEventListener {
     }
 
     public void onOutput(OutputEvent newEvent) {
+        if (newEvent instanceof EndOutputEvent) {
+            // Flush and clean up
+            renderLock.lock();
+            try {
+                synchronized (lock) {
+                    queue.add(newEvent);
+                }
+                renderQueued();
+            } finally {
+                renderLock.unlock();
+            }
+            executor.shutdown();
+            return;
+        }
+
         synchronized (lock) {
             queue.add(newEvent);
 
-            if (newEvent instanceof EndOutputEvent) {
-                // Flush and clean up
-                renderNow(timeProvider.getCurrentTime());
-                executor.shutdown();
+            if (flushScheduled) {
+                // Currently queuing events, a thread is scheduled to flush the queue later
                 return;
             }
 
-            if (queue.size() > 1) {
-                // Currently queuing events, a thread is scheduled to flush the queue later
+            if (timeProvider.getCurrentTime() - lastUpdate < throttleMs) {
+                // This is the first queued event - schedule a thread to flush later
+                scheduleFlush();
                 return;
             }
+        }
 
-            long now = timeProvider.getCurrentTime();
-            if (now - lastUpdate >= throttleMs) {
-                // Has been long enough since last update - flush now
-                renderNow(now);
-                return;
+        // Has been long enough since last update - flush now, unless another thread is currently rendering
+        if (renderLock.tryLock()) {
+            try {
+                renderQueued();
+            } finally {
+                renderLock.unlock();
+            }
+        } else {
+            synchronized (lock) {
+                if (!flushScheduled) {
+                    scheduleFlush();
+                }
             }
+        }
+    }
 
-            // This is the first queued event - schedule a thread to flush later
-            executor.schedule(new Runnable() {
-                @Override
-                public void run() {
+    private void scheduleFlush() {
+        flushScheduled = true;
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                renderLock.lock();
+                try {
                     synchronized (lock) {
-                        renderNow(timeProvider.getCurrentTime());
+                        flushScheduled = false;
                     }
+                    renderQueued();
+                } finally {
+                    renderLock.unlock();
                 }
-            }, throttleMs, TimeUnit.MILLISECONDS);
-        }
+            }
+        }, throttleMs, TimeUnit.MILLISECONDS);
     }
 
-    private void renderNow(long now) {
-        if (queue.isEmpty()) {
-            // Already rendered - don't update anything
-            return;
+    private void renderQueued() {
+        List<OutputEvent> events;
+        synchronized (lock) {
+            if (queue.isEmpty()) {
+                // Already rendered - don't update anything
+                return;
+            }
+            events = queue;
+            queue = new ArrayList<OutputEvent>();
+            lastUpdate = timeProvider.getCurrentTime();
         }
+        render(coalesce(events));
+    }
 
+    private void render(List<OutputEvent> events) {
         ProgressOperation lastOp = mostRecentOperation;
-        for (OutputEvent event : queue) {
+        for (OutputEvent event : events) {
             try {
                 if (event instanceof ProgressStartEvent) {
                     ProgressStartEvent startEvent = (ProgressStartEvent) event;
@@ -124,8 +182,59 @@ public class ConsoleBackedProgressRenderer implements OutputEventListener {
         }
         console.flush();
         mostRecentOperation = lastOp;
-        queue.clear();
-        lastUpdate = now;
+    }
+
+    /**
+     * Removes the events that would not be visible once the given events of a frame are rendered: the events of operations that start and complete within the
+     * frame and have no logging header, unless they have child operations that start in the frame, and progress events followed by another progress or
+     * completion event of the same operation.
+     */
+    static List<OutputEvent> coalesce(List<OutputEvent> events) {
+        Set<OperationIdentifier> startedWithoutHeader = new HashSet<OperationIdentifier>();
+        Set<OperationIdentifier> parents = new HashSet<OperationIdentifier>();
+        Set<OperationIdentifier> completed = new HashSet<OperationIdentifier>();
+        for (OutputEvent event : events) {
+            if (event instanceof ProgressStartEvent) {
+                ProgressStartEvent startEvent = (ProgressStartEvent) event;
+                if (!GUtil.isTrue(startEvent.getLoggingHeader())) {
+                    startedWithoutHeader.add(startEvent.getOperationId());
+                }
+                if (startEvent.getParentId() != null) {
+                    parents.add(startEvent.getParentId());
+                }
+            } else if (event instanceof ProgressCompleteEvent) {
+                completed.add(((ProgressCompleteEvent) event).getOperationId());
+            }
+        }
+        Set<OperationIdentifier> hidden = new HashSet<OperationIdentifier>(startedWithoutHeader);
+        hidden.retainAll(completed);
+        hidden.removeAll(parents);
+
+        // Walk backwards, so that it is known whether a later event of the same operation replaces a progress event
+        List<OutputEvent> result = new ArrayList<OutputEvent>(events.size());
+        Set<OperationIdentifier> updatedLater = new HashSet<OperationIdentifier>();
+        for (int i = events.size() - 1; i >= 0; i--) {
+            OutputEvent event = events.get(i);
+            if (event instanceof ProgressStartEvent) {
+                if (hidden.contains(((ProgressStartEvent) event).getOperationId())) {
+                    continue;
+                }
+            } else if (event instanceof ProgressCompleteEvent) {
+                OperationIdentifier operationId = ((ProgressCompleteEvent) event).getOperationId();
+                updatedLater.add(operationId);
+                if (hidden.contains(operationId)) {
+                    continue;
+                }
+            } else if (event instanceof ProgressEvent) {
+                OperationIdentifier operationId = ((ProgressEvent) event).getOperationId();
+                if (!updatedLater.add(operationId) || hidden.contains(operationId)) {
+                    continue;
+                }
+            }
+            result.add(event);
+        }
+        Collections.reverse(result);
+        return result;
     }
 
     private Label getStatusBar() {
@@ -41,13 +41,29 @@ import org.gradle.internal.nativeintegration.console.FallbackConsoleMetaData;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A {@link OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>When asynchronous output is enabled, events are added to a bounded lock-free queue and rendered in batches by a single dispatcher thread,
+ * so that threads producing output do not contend on the renderer lock. Threads producing output block when the queue is full.
+ * Log level changes, end of output and any change to the destinations are applied only after the queued events have been rendered.</p>
  */
 @ThreadSafe
 public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
+    public static final String ASYNC_OUTPUT_TOGGLE = "org.gradle.logging.asyncOutput";
+    private static final int MAX_QUEUED_EVENTS = 8192;
+
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
@@ -60,8 +76,38 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     private StreamBackedStandardOutputListener stdOutListener;
     private StreamBackedStandardOutputListener stdErrListener;
     private OutputEventListener console;
+    private final Queue<OutputEvent> queue;
+    private final Semaphore queueCapacity;
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final Executor dispatcher;
+    private final Runnable dispatchAction = new Runnable() {
+        @Override
+        public void run() {
+            dispatchScheduled.set(false);
+            try {
+                flush();
+            } finally {
+                if (!queue.isEmpty()) {
+                    scheduleDispatch();
+                }
+            }
+        }
+    };
 
     public OutputEventRenderer() {
+        this(Boolean.getBoolean(ASYNC_OUTPUT_TOGGLE));
+    }
+
+    public OutputEventRenderer(boolean asynchronous) {
+        if (asynchronous) {
+            queue = new ConcurrentLinkedQueue<OutputEvent>();
+            queueCapacity = new Semaphore(MAX_QUEUED_EVENTS);
+            dispatcher = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new DispatcherThreadFactory());
+        } else {
+            queue = null;
+            queueCapacity = null;
+            dispatcher = null;
+        }
         OutputEventListener stdOutChain = onNonError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stdoutListeners.getSource())), false));
         formatters.add(stdOutChain);
         OutputEventListener stdErrChain = onError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stderrListeners.getSource())), false));
@@ -72,6 +118,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     @Override
     public Snapshot snapshot() {
         synchronized (lock) {
+            renderQueued();
             // Currently only snapshot the console output listener. Should snapshot all output listeners, and cleanup in restore()
             return new SnapshotImpl(logLevel, console);
         }
@@ -80,6 +127,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     @Override
     public void restore(Snapshot state) {
         synchronized (lock) {
+            renderQueued();
             SnapshotImpl snapshot = (SnapshotImpl) state;
             if (snapshot.logLevel != logLevel) {
                 configure(snapshot.logLevel);
@@ -112,12 +160,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     public void attachProcessConsole(ConsoleOutput consoleOutput) {
         synchronized (lock) {
+            renderQueued();
             consoleConfigureAction.execute(this, consoleOutput);
         }
     }
 
     public void attachAnsiConsole(OutputStream outputStream) {
         synchronized (lock) {
+            renderQueued();
             OutputStreamWriter writer = new OutputStreamWriter(outputStream);
             Console console = new AnsiConsole(writer, writer, colourMap, true);
             addConsole(console, true, true, new FallbackConsoleMetaData());
@@ -131,6 +181,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     private void addStandardOutputListener() {
         synchronized (lock) {
+            renderQueued();
             originalStdOut = System.out;
             if (stdOutListener != null) {
                 stdoutListeners.remove(stdOutListener);
@@ -142,6 +193,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     private void addStandardErrorListener() {
         synchronized (lock) {
+            renderQueued();
             originalStdErr = System.err;
             if(stdErrListener != null) {
                 stderrListeners.remove(stdErrListener);
@@ -153,6 +205,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     private void removeStandardOutputListener() {
         synchronized (lock) {
+            renderQueued();
             if (stdOutListener != null) {
                 stdoutListeners.remove(stdOutListener);
                 stdOutListener = null;
@@ -162,6 +215,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     private void removeStandardErrorListener() {
         synchronized (lock) {
+            renderQueued();
             if(stdErrListener != null) {
                 stderrListeners.remove(stdErrListener);
                 stdErrListener = null;
@@ -171,12 +225,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     public void addOutputEventListener(OutputEventListener listener) {
         synchronized (lock) {
+            renderQueued();
             formatters.add(listener);
         }
     }
 
     public void removeOutputEventListener(OutputEventListener listener) {
         synchronized (lock) {
+            renderQueued();
             formatters.remove(listener);
         }
     }
@@ -189,6 +245,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
             new DefaultStatusBarFormatter(consoleMetaData),
             new TrueTimeProvider());
         synchronized (lock) {
+            renderQueued();
             if (stdout && stderr) {
                 this.console = consoleChain;
                 removeStandardOutputListener();
@@ -228,12 +285,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     public void addStandardErrorListener(StandardOutputListener listener) {
         synchronized (lock) {
+            renderQueued();
             stderrListeners.add(listener);
         }
     }
 
     public void addStandardOutputListener(StandardOutputListener listener) {
         synchronized (lock) {
+            renderQueued();
             stdoutListeners.add(listener);
         }
     }
@@ -249,12 +308,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     public void removeStandardOutputListener(StandardOutputListener listener) {
         synchronized (lock) {
+            renderQueued();
             stdoutListeners.remove(listener);
         }
     }
 
     public void removeStandardErrorListener(StandardOutputListener listener) {
         synchronized (lock) {
+            renderQueued();
             stderrListeners.remove(listener);
         }
     }
@@ -264,20 +325,62 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     }
 
     public void onOutput(OutputEvent event) {
+        if (queue == null || event instanceof LogLevelChangeEvent || event instanceof EndOutputEvent || Thread.holdsLock(lock)) {
+            synchronized (lock) {
+                renderQueued();
+                render(event);
+            }
+            return;
+        }
+        queueCapacity.acquireUninterruptibly();
+        queue.add(event);
+        scheduleDispatch();
+    }
+
+    /**
+     * Renders the events that have been queued by other threads. Does nothing when asynchronous output is not enabled.
+     */
+    public void flush() {
         synchronized (lock) {
-            if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            renderQueued();
+        }
+    }
+
+    private void scheduleDispatch() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(dispatchAction);
+        }
+    }
+
+    private void renderQueued() {
+        if (queue == null) {
+            return;
+        }
+        // Render at most one queue's worth of events, so that producers cannot keep the lock held by this thread indefinitely.
+        // This is enough to render every event queued before the lock was acquired
+        for (int i = 0; i < MAX_QUEUED_EVENTS; i++) {
+            OutputEvent event = queue.poll();
+            if (event == null) {
                 return;
             }
-            if (event instanceof LogLevelChangeEvent) {
-                LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
-                LogLevel newLogLevel = changeEvent.getNewLogLevel();
-                if (newLogLevel == this.logLevel) {
-                    return;
-                }
-                this.logLevel = newLogLevel;
+            queueCapacity.release();
+            render(event);
+        }
+    }
+
+    private void render(OutputEvent event) {
+        if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
+            return;
+        }
+        if (event instanceof LogLevelChangeEvent) {
+            LogLevelChangeEvent changeEvent = (LogLevelChangeEvent) event;
+            LogLevel newLogLevel = changeEvent.getNewLogLevel();
+            if (newLogLevel == this.logLevel) {
+                return;
             }
-            formatters.getSource().onOutput(event);
+            this.logLevel = newLogLevel;
         }
+        formatters.getSource().onOutput(event);
     }
 
     private class SnapshotImpl implements Snapshot {
@@ -289,4 +392,13 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
             this.console = console;
         }
     }
+
+    private static class DispatcherThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "Output event dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
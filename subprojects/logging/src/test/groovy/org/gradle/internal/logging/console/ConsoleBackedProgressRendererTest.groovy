@@ -23,6 +23,8 @@ import org.gradle.util.MockExecutor
 import org.gradle.util.MockTimeProvider
 import spock.lang.Subject
 
+import java.util.concurrent.CountDownLatch
+
 class ConsoleBackedProgressRendererTest extends OutputSpecification {
     def listener = Mock(OutputEventListener)
     def console = Mock(Console)
@@ -371,6 +373,130 @@ class ConsoleBackedProgressRendererTest extends OutputSpecification {
         0 * statusBar._
     }
 
+    def "drops events of operations that start and complete within a frame"() {
+        def something = event('something')
+        def started = start(status: 'status')
+        def progress = progress('progress')
+        def completed = complete('done')
+
+        given:
+        renderer.onOutput(something)
+
+        when:
+        renderer.onOutput(started)
+        renderer.onOutput(progress)
+        renderer.onOutput(completed)
+        flush()
+
+        then:
+        0 * listener.onOutput(_)
+        1 * console.flush()
+    }
+
+    def "keeps events of operations with logging header that start and complete within a frame"() {
+        def something = event('something')
+        def started = start(status: 'status', loggingHeader: 'header')
+        def completed = complete('done')
+
+        given:
+        renderer.onOutput(something)
+
+        when:
+        renderer.onOutput(started)
+        renderer.onOutput(completed)
+        flush()
+
+        then:
+        1 * listener.onOutput(started)
+
+        then:
+        1 * listener.onOutput(completed)
+    }
+
+    def "keeps events of operations whose child operations start within a frame"() {
+        def something = event('something')
+        def parent = start(status: 'parent')
+        def child = start(status: 'child')
+        def childCompleted = complete('child done')
+        def parentCompleted = complete('parent done')
+
+        given:
+        renderer.onOutput(something)
+
+        when:
+        renderer.onOutput(parent)
+        renderer.onOutput(child)
+        renderer.onOutput(childCompleted)
+        renderer.onOutput(parentCompleted)
+        flush()
+
+        then:
+        1 * listener.onOutput(parent)
+
+        then:
+        1 * listener.onOutput(parentCompleted)
+        0 * listener.onOutput(child)
+        0 * listener.onOutput(childCompleted)
+    }
+
+    def "forwards only the last status update of an operation within a frame"() {
+        def started = start(status: 'status')
+        def progress1 = progress('progress1')
+        def progress2 = progress('progress2')
+        def message = event('message')
+        def progress3 = progress('progress3')
+
+        given:
+        renderer.onOutput(started)
+
+        when:
+        renderer.onOutput(progress1)
+        renderer.onOutput(progress2)
+        renderer.onOutput(message)
+        renderer.onOutput(progress3)
+        flush()
+
+        then:
+        1 * listener.onOutput(message)
+
+        then:
+        1 * listener.onOutput(progress3)
+        0 * listener.onOutput(progress1)
+        0 * listener.onOutput(progress2)
+    }
+
+    def "does not wait for another thread that is rendering"() {
+        def event1 = event('1')
+        def event2 = event('2')
+        def rendering = new CountDownLatch(1)
+        def finishRendering = new CountDownLatch(1)
+
+        given:
+        listener.onOutput(event1) >> {
+            rendering.countDown()
+            finishRendering.await()
+        }
+        def renderingThread = Thread.start {
+            renderer.onOutput(event1)
+        }
+        rendering.await()
+
+        when:
+        timeProvider.increment(100)
+        renderer.onOutput(event2)
+        finishRendering.countDown()
+        renderingThread.join()
+
+        then:
+        0 * listener.onOutput(event2)
+
+        when:
+        flush()
+
+        then:
+        1 * listener.onOutput(event2)
+    }
+
     def "failure to process the event contains the context"() {
         when:
         renderer.onOutput(complete('unstarted operation'))
@@ -330,6 +330,50 @@ class OutputEventRendererTest extends OutputSpecification {
         outputs.stdOut.readLines() == ['info']
         outputs.stdErr == ''
     }
+
+    def rendersQueuedEventsInOrderWhenAsynchronous() {
+        def renderer = new OutputEventRenderer(true)
+        def listener = new TestListener()
+
+        when:
+        renderer.addStandardOutputListener(listener)
+        (1..100).each { renderer.onOutput(event("message $it", LogLevel.LIFECYCLE)) }
+        renderer.flush()
+
+        then:
+        listener.value.readLines() == (1..100).collect { "message $it".toString() }
+    }
+
+    def rendersQueuedEventsBeforeLogLevelChangeWhenAsynchronous() {
+        def renderer = new OutputEventRenderer(true)
+        def listener = new TestListener()
+
+        when:
+        renderer.configure(LogLevel.INFO)
+        renderer.addStandardOutputListener(listener)
+        renderer.onOutput(event('info', LogLevel.INFO))
+        renderer.configure(LogLevel.LIFECYCLE)
+        renderer.onOutput(event('ignored', LogLevel.INFO))
+        renderer.flush()
+
+        then:
+        listener.value.readLines() == ['info']
+    }
+
+    def rendersQueuedEventsToListenerBeforeItIsRemovedWhenAsynchronous() {
+        def renderer = new OutputEventRenderer(true)
+        def listener = new TestListener()
+
+        when:
+        renderer.addStandardOutputListener(listener)
+        renderer.onOutput(event('before', LogLevel.LIFECYCLE))
+        renderer.removeStandardOutputListener(listener)
+        renderer.onOutput(event('after', LogLevel.LIFECYCLE))
+        renderer.flush()
+
+        then:
+        listener.value.readLines() == ['before']
+    }
 }
 
 class TestListener implements StandardOutputListener {
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.hub;
+
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.SerializerRegistry;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+
+/**
+ * Measures the round trip of the arguments of a test output event, similar to those sent by test workers, through the method argument serializers.
+ */
+@State(Scope.Thread)
+public class MethodArgsSerializerBenchmark {
+    private static final Class<?>[] TYPES = new Class<?>[]{CompositeIdGenerator.CompositeId.class, OutputEvent.class};
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private Object[] args;
+    private Serializer<Object[]> javaSerialization;
+    private Serializer<Object[]> registeredSerializers;
+    private Serializer<Object[]> partiallyRegisteredSerializers;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        args = new Object[]{new CompositeIdGenerator.CompositeId(12L, 345L), new OutputEvent(new CompositeIdGenerator.CompositeId(12L, 346L), true, "some test output\n")};
+
+        JavaSerializationBackedMethodArgsSerializer defaultArgsSerializer = new JavaSerializationBackedMethodArgsSerializer(getClass().getClassLoader());
+        javaSerialization = defaultArgsSerializer.forTypes(TYPES);
+
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+        registry.register(CompositeIdGenerator.CompositeId.class, new IdSerializer());
+        registry.register(OutputEvent.class, new OutputEventSerializer());
+        registeredSerializers = new DefaultMethodArgsSerializer(Collections.<SerializerRegistry>singletonList(registry), defaultArgsSerializer).forTypes(TYPES);
+
+        DefaultSerializerRegistry idsOnly = new DefaultSerializerRegistry();
+        idsOnly.register(CompositeIdGenerator.CompositeId.class, new IdSerializer());
+        partiallyRegisteredSerializers = new DefaultMethodArgsSerializer(Collections.<SerializerRegistry>singletonList(idsOnly), defaultArgsSerializer).forTypes(TYPES);
+    }
+
+    @Benchmark
+    public Object[] javaSerialization() throws Exception {
+        return roundTrip(javaSerialization);
+    }
+
+    @Benchmark
+    public Object[] registeredSerializers() throws Exception {
+        return roundTrip(registeredSerializers);
+    }
+
+    @Benchmark
+    public Object[] partiallyRegisteredSerializers() throws Exception {
+        return roundTrip(partiallyRegisteredSerializers);
+    }
+
+    private Object[] roundTrip(Serializer<Object[]> serializer) throws Exception {
+        bytes.reset();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bytes);
+        serializer.write(encoder, args);
+        encoder.flush();
+        return serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static class OutputEvent implements Serializable {
+        private final CompositeIdGenerator.CompositeId testId;
+        private final boolean stdout;
+        private final String message;
+
+        OutputEvent(CompositeIdGenerator.CompositeId testId, boolean stdout, String message) {
+            this.testId = testId;
+            this.stdout = stdout;
+            this.message = message;
+        }
+    }
+
+    private static class IdSerializer implements Serializer<CompositeIdGenerator.CompositeId> {
+        @Override
+        public CompositeIdGenerator.CompositeId read(Decoder decoder) throws Exception {
+            return new CompositeIdGenerator.CompositeId(decoder.readLong(), decoder.readLong());
+        }
+
+        @Override
+        public void write(Encoder encoder, CompositeIdGenerator.CompositeId value) throws Exception {
+            encoder.writeLong((Long) value.getScope());
+            encoder.writeLong((Long) value.getId());
+        }
+    }
+
+    private static class OutputEventSerializer implements Serializer<OutputEvent> {
+        private final IdSerializer idSerializer = new IdSerializer();
+
+        @Override
+        public OutputEvent read(Decoder decoder) throws Exception {
+            return new OutputEvent(idSerializer.read(decoder), decoder.readBoolean(), decoder.readString());
+        }
+
+        @Override
+        public void write(Encoder encoder, OutputEvent value) throws Exception {
+            idSerializer.write(encoder, value.testId);
+            encoder.writeBoolean(value.stdout);
+            encoder.writeString(value.message);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.internal.ConnectCompletion;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.gradle.internal.serialize.StatefulSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Measures sending batches of messages, similar to the test events and output sent by test workers, to a peer in another thread over a loopback connection.
+ */
+@State(Scope.Benchmark)
+public class SocketConnectionBenchmark {
+    private static final String END_OF_BATCH = "";
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"false", "true"})
+    boolean sharedMemory;
+
+    @Param({"100", "4000"})
+    int messageSize;
+
+    private final StatefulSerializer<String> serializer = Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER);
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private final Semaphore batchesReceived = new Semaphore(0);
+    private ConnectionAcceptor acceptor;
+    private RemoteConnection<String> sender;
+    private RemoteConnection<String> receiver;
+    private StoppableExecutor receiverExecutor;
+    private String message;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        char[] chars = new char[messageSize];
+        Arrays.fill(chars, 'x');
+        message = new String(chars);
+
+        final BlockingQueue<RemoteConnection<String>> accepted = new ArrayBlockingQueue<RemoteConnection<String>>(1);
+        TcpIncomingConnector incomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator());
+        acceptor = incomingConnector.accept(new Action<ConnectCompletion>() {
+            @Override
+            public void execute(ConnectCompletion completion) {
+                accepted.add(completion.create(serializer, sharedMemory));
+            }
+        }, false);
+        sender = new TcpOutgoingConnector().connect(acceptor.getAddress()).create(serializer, sharedMemory);
+        receiver = accepted.take();
+
+        receiverExecutor = executorFactory.create("benchmark receiver");
+        receiverExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                String received;
+                while ((received = receiver.receive()) != null) {
+                    if (received.equals(END_OF_BATCH)) {
+                        batchesReceived.release();
+                    }
+                }
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sender.stop();
+        receiverExecutor.stop();
+        receiver.stop();
+        acceptor.stop();
+        executorFactory.stop();
+    }
+
+    @Benchmark
+    public void sendBatch() throws Exception {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            sender.dispatch(message);
+        }
+        sender.dispatch(END_OF_BATCH);
+        sender.flush();
+        batchesReceived.acquire();
+    }
+}
@@ -24,6 +24,12 @@ import org.gradle.internal.concurrent.AsyncStoppable;
  * generally some configuration thread. Only the stop methods are thread-safe. The other methods will be made thread-safe (or moved somewhere else) later.
  */
 public interface ObjectConnection extends AsyncStoppable, ObjectConnectionBuilder {
+    /**
+     * Transfers messages through memory shared with the peer, rather than through the socket. The peer must be on the same machine and must also use shared memory.
+     * Must be called before {@link #connect()}.
+     */
+    void useSharedMemory();
+
     /**
      * Completes the connection. No further configuration can be done.
      */
@@ -29,4 +29,11 @@ public interface ConnectCompletion {
      * @return The serializer to use.
      */
     <T> RemoteConnection<T> create(StatefulSerializer<T> serializer);
+
+    /**
+     * Creates the connection. Uses the specified serializer for all messages.
+     *
+     * @param sharedMemory When true, the bytes of the messages are transferred through memory shared with the peer, which must be on the same machine and also use shared memory.
+     */
+    <T> RemoteConnection<T> create(StatefulSerializer<T> serializer, boolean sharedMemory);
 }
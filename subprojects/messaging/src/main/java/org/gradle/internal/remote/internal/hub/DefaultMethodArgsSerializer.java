@@ -21,8 +21,13 @@ import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.serialize.SerializerRegistry;
 
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Serializes each argument using the first serializer registry that can serialize the argument's declared type. The arguments that no registry knows about are
+ * serialized together using the default serializer.
+ */
 class DefaultMethodArgsSerializer implements MethodArgsSerializer {
     private static final Object[] ZERO_ARGS = new Object[0];
     private final List<SerializerRegistry> serializerRegistries;
@@ -38,37 +43,73 @@ class DefaultMethodArgsSerializer implements MethodArgsSerializer {
         if (types.length == 0) {
             return new EmptyArraySerializer();
         }
-        SerializerRegistry selected = null;
-        for (SerializerRegistry serializerRegistry : serializerRegistries) {
-            if (serializerRegistry.canSerialize(types[0])) {
-                selected = serializerRegistry;
-                break;
+
+        final Serializer<Object>[] serializers = new Serializer[types.length];
+        List<Class<?>> unknownTypes = new ArrayList<Class<?>>();
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            SerializerRegistry selected = select(type);
+            if (selected == null) {
+                unknownTypes.add(type);
+            } else {
+                serializers[i] = (Serializer<Object>) selected.build(type);
             }
         }
-        if (selected == null) {
+        if (unknownTypes.size() == types.length) {
             return defaultArgsSerializer.forTypes(types);
         }
+        if (unknownTypes.isEmpty()) {
+            return new ArraySerializer(serializers, null);
+        }
+        return new ArraySerializer(serializers, defaultArgsSerializer.forTypes(unknownTypes.toArray(new Class<?>[0])));
+    }
 
-        final Serializer<Object>[] serializers = new Serializer[types.length];
-        for (int i = 0; i < types.length; i++) {
-            Class<?> type = types[i];
-            serializers[i] = (Serializer<Object>) selected.build(type);
+    private SerializerRegistry select(Class<?> type) {
+        for (SerializerRegistry serializerRegistry : serializerRegistries) {
+            if (serializerRegistry.canSerialize(type)) {
+                return serializerRegistry;
+            }
         }
-        return new ArraySerializer(serializers);
+        return null;
     }
 
     private static class ArraySerializer implements Serializer<Object[]> {
         private final Serializer<Object>[] serializers;
+        private final Serializer<Object[]> unknownArgsSerializer;
+        private final int unknownArgsCount;
 
-        ArraySerializer(Serializer<Object>[] serializers) {
+        /**
+         * @param serializers The serializer for each argument, or null for the arguments that are serialized by the given default serializer.
+         * @param unknownArgsSerializer The serializer for the remaining arguments, or null when all arguments have a serializer.
+         */
+        ArraySerializer(Serializer<Object>[] serializers, Serializer<Object[]> unknownArgsSerializer) {
             this.serializers = serializers;
+            this.unknownArgsSerializer = unknownArgsSerializer;
+            int count = 0;
+            for (Serializer<Object> serializer : serializers) {
+                if (serializer == null) {
+                    count++;
+                }
+            }
+            this.unknownArgsCount = count;
         }
 
         @Override
         public Object[] read(Decoder decoder) throws Exception {
             Object[] result = new Object[serializers.length];
             for (int i = 0; i < serializers.length; i++) {
-                result[i] = serializers[i].read(decoder);
+                if (serializers[i] != null) {
+                    result[i] = serializers[i].read(decoder);
+                }
+            }
+            if (unknownArgsSerializer != null) {
+                Object[] unknownArgs = unknownArgsSerializer.read(decoder);
+                int next = 0;
+                for (int i = 0; i < serializers.length; i++) {
+                    if (serializers[i] == null) {
+                        result[i] = unknownArgs[next++];
+                    }
+                }
             }
             return result;
         }
@@ -76,7 +117,19 @@ class DefaultMethodArgsSerializer implements MethodArgsSerializer {
         @Override
         public void write(Encoder encoder, Object[] value) throws Exception {
             for (int i = 0; i < value.length; i++) {
-                serializers[i].write(encoder, value[i]);
+                if (serializers[i] != null) {
+                    serializers[i].write(encoder, value[i]);
+                }
+            }
+            if (unknownArgsSerializer != null) {
+                Object[] unknownArgs = new Object[unknownArgsCount];
+                int next = 0;
+                for (int i = 0; i < value.length; i++) {
+                    if (serializers[i] == null) {
+                        unknownArgs[next++] = value[i];
+                    }
+                }
+                unknownArgsSerializer.write(encoder, unknownArgs);
             }
         }
     }
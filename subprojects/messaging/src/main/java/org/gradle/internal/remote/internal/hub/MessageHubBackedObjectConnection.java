@@ -53,6 +53,7 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
     //    private ClassLoader methodParamClassLoader;
     private List<SerializerRegistry> paramSerializers = new ArrayList<SerializerRegistry>();
     private Set<ClassLoader> methodParamClassLoaders = new HashSet<ClassLoader>();
+    private boolean sharedMemory;
 
     public MessageHubBackedObjectConnection(ExecutorFactory executorFactory, ConnectCompletion completion) {
         this.hub = new MessageHub(completion.toString(), executorFactory, new Action<Throwable>() {
@@ -96,6 +97,14 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
         this.paramSerializers.add(serializer);
     }
 
+    @Override
+    public void useSharedMemory() {
+        if (connection != null) {
+            throw new GradleException("Cannot use shared memory after connection established.");
+        }
+        sharedMemory = true;
+    }
+
     public void connect() {
         ClassLoader methodParamClassLoader;
         if (methodParamClassLoaders.size() == 0) {
@@ -113,7 +122,7 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
                     methodParamClassLoader,
                     argsSerializer)));
 
-        connection = completion.create(serializer);
+        connection = sharedMemory ? completion.create(serializer, true) : completion.create(serializer);
         hub.addConnection(connection);
         hub.noFurtherConnections();
         completion = null;
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transfers the bytes of a socket connection through memory mapped files shared with a peer on the same machine, using the socket only for small control frames.
+ *
+ * <p>Each side writes into a ring buffer in a file that it creates and maps when it first writes a large enough batch. The socket carries the location of the file, the number of
+ * bytes added to the ring buffer, and acknowledgements of the bytes that the peer has read from it. Batches that are small or that do not fit into the free space of the ring
+ * buffer are written to the socket inline, so that a writer never waits for the peer to read.</p>
+ *
+ * <p>Bytes are announced only after they have been written to the ring buffer, and acknowledged only after they have been read from it. The socket reads and writes that carry
+ * these frames order the accesses of both processes to the shared memory.</p>
+ *
+ * <p>The thread that reads from the connection never blocks on a write to the socket, as the peer may be blocked writing to this side. Acknowledgements that cannot be written
+ * without blocking are written with the next batch, or when the next frame is read.</p>
+ */
+class SharedMemoryStreams {
+    static final int DEFAULT_RING_CAPACITY = 1024 * 1024;
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryStreams.class);
+    private static final int MAP = 1;
+    private static final int RING = 2;
+    private static final int INLINE = 3;
+    private static final int ACK = 4;
+    private static final int ACK_FRAME_LENGTH = 9;
+    // Smaller batches are cheaper to copy to the socket than to announce
+    private static final int MIN_RING_WRITE = 512;
+    private static final int BATCH_SIZE = 64 * 1024;
+
+    private final int ringCapacity;
+    private final SocketConnection.SocketOutputStream socketOutput;
+    private final DataOutputStream controlOutput;
+    private final DataInputStream controlInput;
+    private final Lock controlLock = new ReentrantLock();
+    private final AtomicLong pendingAck = new AtomicLong();
+    private volatile long ackWritten;
+    private volatile boolean controlUnflushed;
+    private final RingOutputStream outputStream = new RingOutputStream();
+    private final RingInputStream inputStream = new RingInputStream();
+
+    SharedMemoryStreams(InputStream socketInput, SocketConnection.SocketOutputStream socketOutput) {
+        this(socketInput, socketOutput, DEFAULT_RING_CAPACITY);
+    }
+
+    SharedMemoryStreams(InputStream socketInput, SocketConnection.SocketOutputStream socketOutput, int ringCapacity) {
+        this.ringCapacity = ringCapacity;
+        this.socketOutput = socketOutput;
+        this.controlOutput = new DataOutputStream(socketOutput);
+        this.controlInput = new DataInputStream(socketInput);
+    }
+
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * Writes the latest acknowledgement and flushes the control frames to the socket, without blocking. Gives up when the socket does not accept all bytes, or when another
+     * thread is writing to the socket. In the latter case, the other thread calls this method once it is done.
+     */
+    private void sendAcknowledgement() throws IOException {
+        while ((pendingAck.get() != ackWritten || controlUnflushed) && controlLock.tryLock()) {
+            try {
+                socketOutput.flushWithoutBlocking();
+                long ack = pendingAck.get();
+                if (ack != ackWritten && socketOutput.available() >= ACK_FRAME_LENGTH) {
+                    writeAck(ack);
+                }
+                controlUnflushed = !socketOutput.flushWithoutBlocking();
+                if (controlUnflushed || pendingAck.get() != ackWritten) {
+                    // The peer is not reading from the socket at the moment
+                    return;
+                }
+            } finally {
+                controlLock.unlock();
+            }
+        }
+    }
+
+    private void writeAck(long ack) throws IOException {
+        controlOutput.writeByte(ACK);
+        controlOutput.writeLong(ack);
+        ackWritten = ack;
+    }
+
+    private class RingOutputStream extends OutputStream {
+        private final byte[] batch = new byte[BATCH_SIZE];
+        private int batchLength;
+        private File ringFile;
+        private MappedByteBuffer ring;
+        private boolean ringUnavailable;
+        private long written;
+        private volatile long acknowledged;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (batchLength == batch.length) {
+                writeBatch();
+            }
+            batch[batchLength++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] src, int offset, int length) throws IOException {
+            if (length > batch.length - batchLength) {
+                writeBatch();
+            }
+            if (length >= batch.length) {
+                writeChunk(src, offset, length);
+                return;
+            }
+            System.arraycopy(src, offset, batch, batchLength, length);
+            batchLength += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeBatch();
+            controlLock.lock();
+            try {
+                long ack = pendingAck.get();
+                if (ack != ackWritten) {
+                    writeAck(ack);
+                }
+                socketOutput.flush();
+                controlUnflushed = false;
+            } finally {
+                controlLock.unlock();
+            }
+            sendAcknowledgement();
+        }
+
+        private void writeBatch() throws IOException {
+            if (batchLength > 0) {
+                writeChunk(batch, 0, batchLength);
+                batchLength = 0;
+            }
+        }
+
+        private void writeChunk(byte[] src, int offset, int length) throws IOException {
+            boolean inRing = length >= MIN_RING_WRITE && length <= ringCapacity - (written - acknowledged) && mapRing();
+            if (inRing) {
+                int position = (int) (written % ringCapacity);
+                int first = Math.min(length, ringCapacity - position);
+                ring.position(position);
+                ring.put(src, offset, first);
+                if (first < length) {
+                    ring.position(0);
+                    ring.put(src, offset + first, length - first);
+                }
+                written += length;
+            }
+            controlLock.lock();
+            try {
+                if (inRing) {
+                    controlOutput.writeByte(RING);
+                    controlOutput.writeInt(length);
+                } else {
+                    controlOutput.writeByte(INLINE);
+                    controlOutput.writeInt(length);
+                    controlOutput.write(src, offset, length);
+                }
+            } finally {
+                controlLock.unlock();
+            }
+            sendAcknowledgement();
+        }
+
+        private boolean mapRing() throws IOException {
+            if (ring != null) {
+                return true;
+            }
+            if (ringUnavailable) {
+                return false;
+            }
+            try {
+                ringFile = File.createTempFile("gradle-connection", ".ring");
+                ringFile.setReadable(false, false);
+                ringFile.setReadable(true, true);
+                RandomAccessFile file = new RandomAccessFile(ringFile, "rw");
+                try {
+                    file.setLength(ringCapacity);
+                    ring = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, ringCapacity);
+                } finally {
+                    file.close();
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not map a file to share with the peer, writing all bytes to the socket instead.", e);
+                ringUnavailable = true;
+                deleteRingFile();
+                return false;
+            }
+            controlLock.lock();
+            try {
+                controlOutput.writeByte(MAP);
+                controlOutput.writeUTF(ringFile.getAbsolutePath());
+                controlOutput.writeInt(ringCapacity);
+            } finally {
+                controlLock.unlock();
+            }
+            return true;
+        }
+
+        private void deleteRingFile() {
+            // The peer deletes the file once it has mapped it. A mapped file cannot be deleted on Windows, so it is deleted when this process exits instead
+            if (ringFile != null && ringFile.exists() && !ringFile.delete()) {
+                ringFile.deleteOnExit();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            ring = null;
+            deleteRingFile();
+            socketOutput.close();
+        }
+    }
+
+    private class RingInputStream extends InputStream {
+        private final byte[] readBuffer = new byte[1];
+        private MappedByteBuffer ring;
+        private int capacity;
+        private long consumed;
+        private long acknowledged;
+        private int chunkRemaining;
+        private boolean chunkInRing;
+
+        @Override
+        public int read() throws IOException {
+            int nread = read(readBuffer, 0, 1);
+            if (nread <= 0) {
+                return nread;
+            }
+            return readBuffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] dest, int offset, int max) throws IOException {
+            if (max == 0) {
+                return 0;
+            }
+            while (chunkRemaining == 0) {
+                if (!readFrame()) {
+                    return -1;
+                }
+            }
+
+            int count = Math.min(max, chunkRemaining);
+            if (!chunkInRing) {
+                int nread = controlInput.read(dest, offset, count);
+                if (nread < 0) {
+                    throw new EOFException();
+                }
+                chunkRemaining -= nread;
+                return nread;
+            }
+
+            int position = (int) (consumed % capacity);
+            int first = Math.min(count, capacity - position);
+            ring.position(position);
+            ring.get(dest, offset, first);
+            if (first < count) {
+                ring.position(0);
+                ring.get(dest, offset + first, count - first);
+            }
+            consumed += count;
+            chunkRemaining -= count;
+            if (consumed - acknowledged >= capacity / 4) {
+                acknowledged = consumed;
+                pendingAck.set(consumed);
+                sendAcknowledgement();
+            }
+            return count;
+        }
+
+        private boolean readFrame() throws IOException {
+            sendAcknowledgement();
+            int type = controlInput.read();
+            switch (type) {
+                case -1:
+                    return false;
+                case MAP:
+                    mapRing(new File(controlInput.readUTF()), controlInput.readInt());
+                    return true;
+                case RING:
+                    if (ring == null) {
+                        throw new IOException("Received bytes in shared memory before the shared memory was mapped.");
+                    }
+                    chunkRemaining = controlInput.readInt();
+                    chunkInRing = true;
+                    return true;
+                case INLINE:
+                    chunkRemaining = controlInput.readInt();
+                    chunkInRing = false;
+                    return true;
+                case ACK:
+                    outputStream.acknowledged = controlInput.readLong();
+                    return true;
+                default:
+                    throw new IOException(String.format("Received unexpected frame type %s.", type));
+            }
+        }
+
+        private void mapRing(File file, int capacity) throws IOException {
+            RandomAccessFile ringFile = new RandomAccessFile(file, "r");
+            try {
+                ring = ringFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+            } finally {
+                ringFile.close();
+            }
+            this.capacity = capacity;
+            // The mapping stays valid after the file has been deleted. Where it cannot be deleted, the peer deletes it instead
+            file.delete();
+        }
+
+        @Override
+        public void close() throws IOException {
+            ring = null;
+            controlInput.close();
+        }
+    }
+}
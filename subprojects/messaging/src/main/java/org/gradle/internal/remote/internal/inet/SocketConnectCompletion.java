@@ -38,4 +38,8 @@ class SocketConnectCompletion implements ConnectCompletion {
     public <T> RemoteConnection<T> create(StatefulSerializer<T> serializer) {
         return new SocketConnection<T>(socket, new KryoBackedMessageSerializer(), serializer);
     }
+
+    public <T> RemoteConnection<T> create(StatefulSerializer<T> serializer, boolean sharedMemory) {
+        return new SocketConnection<T>(socket, new KryoBackedMessageSerializer(), serializer, sharedMemory);
+    }
 }
@@ -49,13 +49,31 @@ public class SocketConnection<T> implements RemoteConnection<T> {
     private final FlushableEncoder encoder;
 
     public SocketConnection(SocketChannel socket, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer) {
+        this(socket, streamSerializer, messageSerializer, false);
+    }
+
+    /**
+     * @param sharedMemory When true, the bytes of the messages are transferred through memory mapped files shared with the peer, which must also use shared memory. See {@link SharedMemoryStreams}.
+     */
+    public SocketConnection(SocketChannel socket, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer, boolean sharedMemory) {
         this.socket = socket;
         try {
             // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
             // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
             socket.configureBlocking(false);
-            outstr = new SocketOutputStream(socket);
-            instr = new SocketInputStream(socket);
+            // Messages are written in batches and each batch is flushed explicitly, so there is nothing to gain from
+            // Nagle's algorithm. It only adds latency to small messages, such as test events sent over the loopback interface.
+            socket.socket().setTcpNoDelay(true);
+            SocketOutputStream socketOutput = new SocketOutputStream(socket);
+            SocketInputStream socketInput = new SocketInputStream(socket);
+            if (sharedMemory) {
+                SharedMemoryStreams streams = new SharedMemoryStreams(socketInput, socketOutput);
+                outstr = streams.getOutputStream();
+                instr = streams.getInputStream();
+            } else {
+                outstr = socketOutput;
+                instr = socketInput;
+            }
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
@@ -141,7 +159,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            buffer = ByteBuffer.allocateDirect(32 * 1024);
             buffer.limit(0);
         }
 
@@ -151,7 +169,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             if (nread <= 0) {
                 return nread;
             }
-            return readBuffer[0];
+            return readBuffer[0] & 0xff;
         }
 
         @Override
@@ -161,26 +179,18 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             }
 
             if (buffer.remaining() == 0) {
-                try {
-                    selector.select();
-                } catch (ClosedSelectorException e) {
-                    return -1;
-                }
-                if (!selector.isOpen()) {
-                    return -1;
-                }
-
                 buffer.clear();
-                int nread;
-                try {
-                    nread = socket.read(buffer);
-                } catch (IOException e) {
-                    if (isEndOfStream(e)) {
-                        buffer.position(0);
-                        buffer.limit(0);
-                        return -1;
+                // Read whatever is already available before blocking, to avoid a select call per buffer when there is a steady stream of messages
+                int nread = readFromChannel();
+                while (nread == 0) {
+                    try {
+                        selector.select();
+                    } catch (ClosedSelectorException e) {
+                        nread = -1;
+                        break;
                     }
-                    throw e;
+                    selector.selectedKeys().clear();
+                    nread = readFromChannel();
                 }
                 buffer.flip();
 
@@ -194,13 +204,27 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             return count;
         }
 
+        private int readFromChannel() throws IOException {
+            if (!selector.isOpen()) {
+                return -1;
+            }
+            try {
+                return socket.read(buffer);
+            } catch (IOException e) {
+                if (isEndOfStream(e)) {
+                    return -1;
+                }
+                throw e;
+            }
+        }
+
         @Override
         public void close() throws IOException {
             selector.close();
         }
     }
 
-    private static class SocketOutputStream extends OutputStream {
+    static class SocketOutputStream extends OutputStream {
         private static final int RETRIES_WHEN_BUFFER_FULL = 2;
         private Selector selector;
         private final SocketChannel socket;
@@ -242,6 +266,31 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             }
         }
 
+        /**
+         * Writes as much of the buffered bytes as the channel accepts without blocking.
+         *
+         * @return true when no bytes remain buffered.
+         */
+        boolean flushWithoutBlocking() throws IOException {
+            if (buffer.position() == 0) {
+                return true;
+            }
+            buffer.flip();
+            int count = socket.write(buffer);
+            buffer.compact();
+            if (count < 0) {
+                throw new EOFException();
+            }
+            return buffer.position() == 0;
+        }
+
+        /**
+         * Returns the number of bytes that can be written without writing to the channel.
+         */
+        int available() {
+            return buffer.remaining();
+        }
+
         private void writeBufferToChannel() throws IOException {
             buffer.flip();
             int count = writeWithNonBlockingRetry();
@@ -52,4 +52,40 @@ class DefaultMethodArgsSerializerTest extends SerializerSpec {
         expect:
         this.serializer.forTypes([String, Long, String] as Class[]) == serializer
     }
+
+    def "serializes each arg using the first serializer registry that can serialize its type"() {
+        given:
+        registry1.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+        registry2.register(Long, BaseSerializerFactory.LONG_SERIALIZER)
+        registry2.register(String, Stub(Serializer))
+
+        expect:
+        def arraySerializer = serializer.forTypes([Long, String, Long] as Class[])
+        serialize([12L, "a", 13L] as Object[], arraySerializer) == [12L, "a", 13L] as Object[]
+    }
+
+    def "uses default to serialize args that no serializer registry knows about"() {
+        given:
+        registry1.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+        def serializer = new DefaultMethodArgsSerializer([registry1, registry2], new JavaSerializationBackedMethodArgsSerializer(getClass().classLoader))
+
+        expect:
+        def arraySerializer = serializer.forTypes([Long, String, List, String] as Class[])
+        serialize([12L, "a", [1, 2], "b"] as Object[], arraySerializer) == [12L, "a", [1, 2], "b"] as Object[]
+    }
+
+    def "uses default to serialize all unknown args at once"() {
+        given:
+        registry1.register(String, BaseSerializerFactory.STRING_SERIALIZER)
+        def defaultSerializer = Mock(Serializer)
+
+        when:
+        def arraySerializer = serializer.forTypes([Long, String, List] as Class[])
+        serialize([12L, "a", [1, 2]] as Object[], arraySerializer)
+
+        then:
+        1 * defaultArgsBuilder.forTypes([Long, List] as Class[]) >> defaultSerializer
+        1 * defaultSerializer.write(_, [12L, [1, 2]] as Object[])
+        1 * defaultSerializer.read(_) >> ([12L, [1, 2]] as Object[])
+    }
 }
@@ -98,6 +98,41 @@ class MessageHubBackedObjectConnectionTest extends ConcurrentSpec {
         connectionBuilder?.stop()
     }
 
+    def "creates shared memory connection when requested"() {
+        def connection = new TestConnection()
+
+        when:
+        connectionBuilder.useSharedMemory()
+        connectionBuilder.connect()
+
+        then:
+        1 * connectCompletion.create(_, true) >> connection
+        0 * connectCompletion._
+
+        cleanup:
+        connection?.stop()
+        connectionBuilder?.stop()
+    }
+
+    def "cannot use shared memory on established connections"() {
+        def connection = new TestConnection()
+
+        given:
+        connectCompletion.create(_) >> connection
+
+        when:
+        connectionBuilder.connect()
+        connectionBuilder.useSharedMemory()
+
+        then:
+        def e = thrown(GradleException)
+        e.message == "Cannot use shared memory after connection established."
+
+        cleanup:
+        connection?.stop()
+        connectionBuilder?.stop()
+    }
+
     def "notifies handler of end of incoming messages when it implements StreamCompletion"() {
         def worker = Mock(CompletableWorker)
         def connection = new TestConnection()
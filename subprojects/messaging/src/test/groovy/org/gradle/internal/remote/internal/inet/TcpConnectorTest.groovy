@@ -223,6 +223,103 @@ class TcpConnectorTest extends ConcurrentSpec {
         acceptor?.stop()
     }
 
+    def "can receive a large number of messages in order"() {
+        def messages = (1..10000).collect { ("message " + it + " ") * (it % 20) }
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            messages.eachWithIndex { message, i ->
+                connection.dispatch(message)
+                if (i % 100 == 0) {
+                    connection.flush()
+                }
+            }
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        def received = []
+        def message
+        while ((message = connection.receive()) != null) {
+            received << message
+        }
+
+        then:
+        received == messages
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "can receive a large number of messages in order through shared memory"() {
+        def messages = (1..10000).collect { ("message " + it + " ") * (it % 100) }
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer, true)
+            messages.eachWithIndex { message, i ->
+                connection.dispatch(message)
+                if (i % 100 == 0) {
+                    connection.flush()
+                }
+            }
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer, true)
+        def received = []
+        def message
+        while ((message = connection.receive()) != null) {
+            received << message
+        }
+
+        then:
+        received == messages
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "can exchange messages in both directions through shared memory"() {
+        def messages = (1..2000).collect { ("message " + it + " ") * 50 }
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer, true)
+            def message
+            while ((message = connection.receive()) != "done") {
+                connection.dispatch(message.reverse())
+                connection.flush()
+            }
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer, true)
+        def received = []
+        start {
+            messages.each {
+                connection.dispatch(it)
+                connection.flush()
+            }
+            connection.dispatch("done")
+            connection.flush()
+        }
+        def message
+        while ((message = connection.receive()) != null) {
+            received << message
+        }
+
+        then:
+        received == messages*.reverse()
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
     def "returns null on failure to receive due to truncated input"() {
         given:
         def incomingSerializer = { Encoder encoder, String value ->
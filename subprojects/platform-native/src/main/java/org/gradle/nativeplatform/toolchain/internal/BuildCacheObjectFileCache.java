@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.nativeplatform.toolchain.internal;
+
+import com.google.common.hash.HashCode;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.caching.BuildCacheEntryReader;
+import org.gradle.caching.BuildCacheEntryWriter;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.internal.BuildCacheConfigurationInternal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * An {@link ObjectFileCache} that stores each object file as an entry of the build cache.
+ */
+public class BuildCacheObjectFileCache implements ObjectFileCache {
+    private final BuildCacheConfigurationInternal buildCacheConfiguration;
+    private final FileHasher fileHasher;
+
+    public BuildCacheObjectFileCache(BuildCacheConfigurationInternal buildCacheConfiguration, FileHasher fileHasher) {
+        this.buildCacheConfiguration = buildCacheConfiguration;
+        this.fileHasher = fileHasher;
+    }
+
+    @Override
+    public HashCode hashExecutable(File executable) {
+        return fileHasher.hash(executable);
+    }
+
+    @Override
+    public boolean load(BuildCacheKey key, final File objectFile) {
+        if (!buildCacheConfiguration.isPullAllowed()) {
+            return false;
+        }
+        final File tempFile = new File(objectFile.getParentFile(), objectFile.getName() + ".tmp");
+        try {
+            boolean found = buildCacheConfiguration.getCache().load(key, new BuildCacheEntryReader() {
+                @Override
+                public void readFrom(InputStream input) throws IOException {
+                    OutputStream output = new FileOutputStream(tempFile);
+                    try {
+                        IOUtils.copyLarge(input, output);
+                    } finally {
+                        output.close();
+                    }
+                }
+            });
+            if (found) {
+                // Replace the object file only once the complete entry has been read
+                FileUtils.deleteQuietly(objectFile);
+                if (!tempFile.renameTo(objectFile)) {
+                    throw new UncheckedIOException("Could not move " + tempFile + " to " + objectFile);
+                }
+            }
+            return found;
+        } finally {
+            FileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    @Override
+    public void store(BuildCacheKey key, final File objectFile) {
+        if (!buildCacheConfiguration.isPushAllowed()) {
+            return;
+        }
+        buildCacheConfiguration.getCache().store(key, new BuildCacheEntryWriter() {
+            @Override
+            public void writeTo(OutputStream output) throws IOException {
+                FileUtils.copyFile(objectFile, output);
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.nativeplatform.toolchain.internal;
+
+import org.gradle.api.Nullable;
+
+import java.io.File;
+
+/**
+ * Removes the location of the build from the paths used in the keys of cached object files.
+ */
+public class CacheKeyPaths {
+    private static final String ROOT_DIR_PLACEHOLDER = "<root>";
+
+    private CacheKeyPaths() {
+    }
+
+    /**
+     * Replaces the paths of the given root directory in the given value, which can be a path or a compiler argument that contains paths, such as {@code -I/path/to/include}.
+     * Returns the value unchanged when no root directory is given.
+     */
+    public static String relativize(String value, @Nullable File rootDir) {
+        if (rootDir == null) {
+            return value;
+        }
+        String rootPath = rootDir.getAbsolutePath();
+        if (value.equals(rootPath)) {
+            return ROOT_DIR_PLACEHOLDER;
+        }
+        String rootPrefix = rootPath.endsWith(File.separator) ? rootPath : rootPath + File.separator;
+        return value.replace(rootPrefix, ROOT_DIR_PLACEHOLDER + File.separator);
+    }
+}
@@ -43,6 +43,11 @@ public class DefaultCommandLineToolInvocationWorker implements CommandLineToolIn
         return "command line tool '" + name + "'";
     }
 
+    @Override
+    public File getExecutable() {
+        return executable;
+    }
+
     @Override
     public String toString() {
         return getDisplayName();
@@ -16,6 +16,7 @@
 
 package org.gradle.nativeplatform.toolchain.internal;
 
+import com.google.common.hash.HashCode;
 import org.gradle.api.internal.changedetection.changes.DiscoveredInputRecorder;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 import org.gradle.nativeplatform.internal.BinaryToolSpec;
@@ -86,4 +87,26 @@ public interface NativeCompileSpec extends BinaryToolSpec {
     DiscoveredInputRecorder getDiscoveredInputRecorder();
 
     void setDiscoveredInputRecorder(DiscoveredInputRecorder inputs);
+
+    /**
+     * Returns the hash of each source file combined with the hashes of all the headers it includes, directly or not.
+     * Source files whose includes cannot all be resolved have no entry.
+     */
+    Map<File, HashCode> getSourceFileIncludeClosureHashes();
+
+    void setSourceFileIncludeClosureHashes(Map<File, HashCode> map);
+
+    /**
+     * Returns the cache to use for the object files of individual source files, or null when object files are not cached.
+     */
+    ObjectFileCache getObjectFileCache();
+
+    void setObjectFileCache(ObjectFileCache objectFileCache);
+
+    /**
+     * Returns the directory that the paths in the keys of cached object files are relative to, so that the keys do not depend on the location of the build.
+     */
+    File getObjectFileCacheRootDir();
+
+    void setObjectFileCacheRootDir(File rootDir);
 }
@@ -16,8 +16,11 @@
 
 package org.gradle.nativeplatform.toolchain.internal;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
 import org.gradle.api.Action;
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
@@ -26,6 +29,9 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.internal.BuildCacheKeyBuilder;
+import org.gradle.caching.internal.DefaultBuildCacheKeyBuilder;
 import org.gradle.internal.FileUtils;
 import org.gradle.internal.operations.BuildOperationProcessor;
 import org.gradle.internal.operations.BuildOperationQueue;
@@ -39,6 +45,7 @@ import org.gradle.util.CollectionUtils;
 import java.io.File;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public abstract class NativeCompiler<T extends NativeCompileSpec> implements Compiler<T> {
 
@@ -67,14 +74,27 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> implements Com
     @Override
     public WorkResult execute(final T spec) {
         final T transformedSpec = specTransformer.transform(spec);
-        final List<String> genericArgs = getArguments(transformedSpec);
+        final List<String> compilerArgs = getCompilerArguments(transformedSpec);
+        final List<String> cacheKeyArgs = ImmutableList.copyOf(compilerArgs);
+        final List<String> genericArgs = addOptionsFileArgsIfRequired(compilerArgs, transformedSpec);
 
         final File objectDir = transformedSpec.getObjectFileDir();
+        final ObjectFileCache objectFileCache = transformedSpec.getObjectFileCache();
+        final Map<File, BuildCacheKey> objectFilesToCache = Maps.newLinkedHashMap();
         buildOperationProcessor.run(commandLineToolInvocationWorker, new Action<BuildOperationQueue<CommandLineToolInvocation>>() {
             @Override
             public void execute(BuildOperationQueue<CommandLineToolInvocation> buildQueue) {
                 buildQueue.setLogLocation(spec.getOperationLogger().getLogLocation());
                 for (File sourceFile : transformedSpec.getSourceFiles()) {
+                    BuildCacheKey cacheKey = objectFileCache == null ? null : getObjectFileCacheKey(cacheKeyArgs, sourceFile, transformedSpec);
+                    if (cacheKey != null) {
+                        File objectFile = getOutputFileDir(sourceFile, objectDir, objectFileExtension);
+                        if (objectFileCache.load(cacheKey, objectFile)) {
+                            logger.info("Loaded object file for {} from cache.", sourceFile.getName());
+                            continue;
+                        }
+                        objectFilesToCache.put(objectFile, cacheKey);
+                    }
                     CommandLineToolInvocation perFileInvocation =
                         createPerFileInvocation(genericArgs, sourceFile, objectDir, spec);
                     buildQueue.add(perFileInvocation);
@@ -82,16 +102,27 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> implements Com
             }
         });
 
+        for (Map.Entry<File, BuildCacheKey> entry : objectFilesToCache.entrySet()) {
+            objectFileCache.store(entry.getValue(), entry.getKey());
+        }
+
         return new SimpleWorkResult(!transformedSpec.getSourceFiles().isEmpty());
     }
 
     protected List<String> getArguments(T spec) {
+        return addOptionsFileArgsIfRequired(getCompilerArguments(spec), spec);
+    }
+
+    private List<String> getCompilerArguments(T spec) {
         List<String> args = argsTransformer.transform(spec);
 
         Action<List<String>> userArgTransformer = invocationContext.getArgAction();
         // modifies in place
         userArgTransformer.execute(args);
+        return args;
+    }
 
+    private List<String> addOptionsFileArgsIfRequired(List<String> args, T spec) {
         if (useCommandFile) {
             // Shorten args and write out an options.txt file
             // This must be called only once per execute()
@@ -100,6 +131,41 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> implements Com
         return args;
     }
 
+    /**
+     * Returns the key of the object file compiled from the given source file, or null when the object file cannot be cached.
+     * The key is made of the contents of the compiler executable, the arguments given to the compiler, the location of the source file and the contents of the source file and of all the headers it includes.
+     * Paths located in the root directory of the spec are made relative to it, so that the key is the same for builds located in different directories.
+     * Source files compiled with a prefix header or a pre-compiled header are not cached, as these headers are not part of the include closure of the source file.
+     */
+    private BuildCacheKey getObjectFileCacheKey(List<String> compilerArgs, File sourceFile, T spec) {
+        HashCode includeClosureHash = spec.getSourceFileIncludeClosureHashes().get(sourceFile);
+        if (includeClosureHash == null || !isObjectFileCacheable() || spec.getPrefixHeaderFile() != null || spec.getPreCompiledHeader() != null) {
+            return null;
+        }
+        File rootDir = spec.getObjectFileCacheRootDir();
+        BuildCacheKeyBuilder builder = new DefaultBuildCacheKeyBuilder();
+        builder.putString(getClass().getName());
+        builder.putString(objectFileExtension);
+        File executable = commandLineToolInvocationWorker.getExecutable();
+        if (executable != null) {
+            builder.putBytes(spec.getObjectFileCache().hashExecutable(executable).asBytes());
+        }
+        builder.putInt(compilerArgs.size());
+        for (String arg : compilerArgs) {
+            builder.putString(CacheKeyPaths.relativize(arg, rootDir));
+        }
+        builder.putString(CacheKeyPaths.relativize(sourceFile.getAbsolutePath(), rootDir));
+        builder.putBytes(includeClosureHash.asBytes());
+        return builder.build();
+    }
+
+    /**
+     * Returns true when each invocation of this compiler writes a single output file, which can then be stored in the object file cache.
+     */
+    protected boolean isObjectFileCacheable() {
+        return true;
+    }
+
     protected List<String> getSourceArgs(File sourceFile) {
         return Collections.singletonList(sourceFile.getAbsolutePath());
     }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.nativeplatform.toolchain.internal;
+
+import com.google.common.hash.HashCode;
+import org.gradle.caching.BuildCacheKey;
+
+import java.io.File;
+
+/**
+ * Stores the object files compiled from individual source files, so that a source file that has been compiled before with the same inputs
+ * does not need to be compiled again, even when other source files of the same task have changed.
+ */
+public interface ObjectFileCache {
+    /**
+     * Copies the cached object file with the given key to the given location.
+     *
+     * @return true if the object file was found in the cache, false otherwise.
+     */
+    boolean load(BuildCacheKey key, File objectFile);
+
+    /**
+     * Stores the given object file with the given key.
+     */
+    void store(BuildCacheKey key, File objectFile);
+
+    /**
+     * Returns a hash of the contents of the given compiler executable, which identifies the compiler in the keys of the object files regardless of its location.
+     */
+    HashCode hashExecutable(File executable);
+}
@@ -36,4 +36,10 @@ public class CPCHCompiler extends VisualCppNativeCompiler<CPCHCompileSpec> {
     protected List<String> getOutputArgs(File outputFile) {
         return Collections.singletonList("/Fp" + outputFile.getAbsolutePath());
     }
+
+    @Override
+    protected boolean isObjectFileCacheable() {
+        // The compiler also writes an object file next to the pre-compiled header
+        return false;
+    }
 }
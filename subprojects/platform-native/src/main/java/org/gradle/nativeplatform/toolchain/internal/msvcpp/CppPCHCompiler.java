@@ -36,4 +36,10 @@ public class CppPCHCompiler extends VisualCppNativeCompiler<CppPCHCompileSpec> {
     protected List<String> getOutputArgs(File outputFile) {
         return Collections.singletonList("/Fp" + outputFile.getAbsolutePath());
     }
+
+    @Override
+    protected boolean isObjectFileCacheable() {
+        // The compiler also writes an object file next to the pre-compiled header
+        return false;
+    }
 }
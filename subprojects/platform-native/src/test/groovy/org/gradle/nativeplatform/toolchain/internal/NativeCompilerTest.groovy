@@ -16,9 +16,11 @@
 
 package org.gradle.nativeplatform.toolchain.internal
 
+import com.google.common.hash.HashCode
 import org.gradle.api.Action
 import org.gradle.api.internal.file.BaseDirFileResolver
 import org.gradle.api.internal.file.TestFiles
+import org.gradle.caching.BuildCacheKey
 import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.operations.BuildOperationProcessor
 import org.gradle.internal.operations.BuildOperationWorkerRegistry
@@ -177,6 +179,99 @@ abstract class NativeCompilerTest extends Specification {
         2 * commandLineTool.execute(_)
     }
 
+    def "does not compile source files loaded from the object file cache"() {
+        given:
+        def compiler = getCompiler()
+        def cacheable = compiler.objectFileCacheable
+        def testDir = tmpDirProvider.testDirectory
+        def objectFileDir = testDir.file("output/objects")
+        def sourceFiles = [ testDir.file("source1.ext"), testDir.file("source2.ext") ]
+        def objectFileCache = Mock(ObjectFileCache)
+        def compileSpec = Stub(getCompileSpecType()) {
+            getTempDir() >> testDir
+            getObjectFileDir() >> objectFileDir
+            getSourceFiles() >> sourceFiles
+            getOperationLogger() >> Mock(BuildOperationLogger)
+            getPreCompiledHeader() >> null
+            getPrefixHeaderFile() >> null
+            getPreCompiledHeaderObjectFile() >> null
+            getSourceFileIncludeClosureHashes() >> [(sourceFiles[0]): HashCode.fromInt(1), (sourceFiles[1]): HashCode.fromInt(2)]
+            getObjectFileCache() >> objectFileCache
+        }
+
+        when:
+        compiler.execute(compileSpec)
+
+        then:
+        (cacheable ? 2 : 0) * objectFileCache.load(_, _) >>> [true, false]
+        (cacheable ? 1 : 2) * commandLineTool.execute(_)
+        (cacheable ? 1 : 0) * objectFileCache.store(_, compiler.getOutputFileDir(sourceFiles[1], objectFileDir, O_EXT))
+    }
+
+    def "does not use the object file cache for source files without include closure hash"() {
+        given:
+        def compiler = getCompiler()
+        def testDir = tmpDirProvider.testDirectory
+        def sourceFiles = [ testDir.file("source1.ext"), testDir.file("source2.ext") ]
+        def objectFileCache = Mock(ObjectFileCache)
+        def compileSpec = Stub(getCompileSpecType()) {
+            getTempDir() >> testDir
+            getObjectFileDir() >> testDir.file("output/objects")
+            getSourceFiles() >> sourceFiles
+            getOperationLogger() >> Mock(BuildOperationLogger)
+            getPreCompiledHeader() >> null
+            getPrefixHeaderFile() >> null
+            getPreCompiledHeaderObjectFile() >> null
+            getSourceFileIncludeClosureHashes() >> [:]
+            getObjectFileCache() >> objectFileCache
+        }
+
+        when:
+        compiler.execute(compileSpec)
+
+        then:
+        2 * commandLineTool.execute(_)
+        0 * objectFileCache._
+    }
+
+    def "object file cache key does not depend on the location of the root directory"() {
+        given:
+        def compiler = getCompiler()
+        def cacheable = compiler.objectFileCacheable
+        def keys = []
+        def objectFileCache = Mock(ObjectFileCache) {
+            load(_, _) >> { BuildCacheKey key, File objectFile ->
+                keys << key.hashCode
+                true
+            }
+        }
+
+        when:
+        ["root1", "root2"].each { name ->
+            def rootDir = tmpDirProvider.testDirectory.file(name)
+            def sourceFile = rootDir.file("src/source.ext")
+            def compileSpec = Stub(getCompileSpecType()) {
+                getMacros() >> [foo: "bar"]
+                getIncludeRoots() >> [ rootDir.file("includes") ]
+                getTempDir() >> rootDir
+                getObjectFileDir() >> rootDir.file("output/objects")
+                getSourceFiles() >> [ sourceFile ]
+                getOperationLogger() >> Mock(BuildOperationLogger)
+                getPreCompiledHeader() >> null
+                getPrefixHeaderFile() >> null
+                getPreCompiledHeaderObjectFile() >> null
+                getSourceFileIncludeClosureHashes() >> [(sourceFile): HashCode.fromInt(1)]
+                getObjectFileCache() >> objectFileCache
+                getObjectFileCacheRootDir() >> rootDir
+            }
+            compiler.execute(compileSpec)
+        }
+
+        then:
+        keys.size() == (cacheable ? 2 : 0)
+        keys.unique().size() == (cacheable ? 1 : 0)
+    }
+
     def "options file is written"() {
         given:
         def invocationContext = new DefaultMutableCommandLineToolContext()
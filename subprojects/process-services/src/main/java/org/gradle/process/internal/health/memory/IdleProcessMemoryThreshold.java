@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.health.memory;
+
+/**
+ * The amount of free system memory below which idle worker processes that are kept for reuse should be stopped.
+ */
+public class IdleProcessMemoryThreshold {
+    // A percentage of the total system memory, bounded between 384M and 1G
+    private static final double MIN_FREE_MEMORY_PERCENTAGE = 0.1;
+    private static final long MIN_THRESHOLD_BYTES = 384 * 1024 * 1024;
+    private static final long MAX_THRESHOLD_BYTES = 1024 * 1024 * 1024;
+
+    private IdleProcessMemoryThreshold() {
+    }
+
+    public static long get(OsMemoryStatus memoryStatus) {
+        return Math.min(MAX_THRESHOLD_BYTES, Math.max(MIN_THRESHOLD_BYTES, (long) (memoryStatus.getTotalPhysicalMemory() * MIN_FREE_MEMORY_PERCENTAGE)));
+    }
+}
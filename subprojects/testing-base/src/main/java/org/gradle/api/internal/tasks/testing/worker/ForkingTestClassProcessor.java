@@ -93,6 +93,10 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     }
 
     List<URL> getTestWorkerImplementationClasspath() {
+        return getTestWorkerImplementationClasspath(moduleRegistry);
+    }
+
+    static List<URL> getTestWorkerImplementationClasspath(ModuleRegistry moduleRegistry) {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-version-info").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getModule("gradle-core").getImplementationClasspath().getAsURLs(),
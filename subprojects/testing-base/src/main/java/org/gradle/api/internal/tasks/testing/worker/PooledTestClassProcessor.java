@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.Action;
+import org.gradle.api.internal.classpath.ModuleRegistry;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.Factory;
+import org.gradle.internal.operations.BuildOperationWorkerRegistry;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.worker.WorkerProcess;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+import org.gradle.process.internal.worker.WorkerProcessFactory;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Executes test classes in a worker process taken from a {@link TestWorkerProcessPool}, and returns the worker to the pool when done.
+ */
+public class PooledTestClassProcessor implements TestClassProcessor {
+    private final TestWorkerProcessPool pool;
+    private final WorkerProcessFactory workerFactory;
+    private final WorkerTestClassProcessorFactory processorFactory;
+    private final JavaForkOptions options;
+    private final Iterable<File> classPath;
+    private final Action<WorkerProcessBuilder> buildConfigAction;
+    private final ModuleRegistry moduleRegistry;
+    private final BuildOperationWorkerRegistry.Operation owner;
+    private final long maxClassesPerWorker;
+    private PooledTestWorker worker;
+    private TestResultProcessor resultProcessor;
+    private BuildOperationWorkerRegistry.Completion workerCompletion;
+
+    public PooledTestClassProcessor(TestWorkerProcessPool pool, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, BuildOperationWorkerRegistry.Operation owner, long maxClassesPerWorker) {
+        this.pool = pool;
+        this.workerFactory = workerFactory;
+        this.processorFactory = processorFactory;
+        this.options = options;
+        this.classPath = classPath;
+        this.buildConfigAction = buildConfigAction;
+        this.moduleRegistry = moduleRegistry;
+        this.owner = owner;
+        this.maxClassesPerWorker = maxClassesPerWorker;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (worker == null) {
+            workerCompletion = owner.operationStart();
+            worker = pool.acquire(getWorkerKey(), new Factory<PooledTestWorker>() {
+                @Override
+                public PooledTestWorker create() {
+                    return forkProcess();
+                }
+            });
+            worker.startProcessing(processorFactory, resultProcessor);
+        }
+
+        worker.processTestClass(testClass);
+    }
+
+    /**
+     * Workers can be shared by test runs that would start identical worker processes.
+     */
+    Object getWorkerKey() {
+        return Arrays.asList(
+            options.getExecutable(),
+            options.getAllJvmArgs(),
+            options.getWorkingDir(),
+            options.getEnvironment(),
+            ImmutableList.copyOf(classPath),
+            processorFactory.getClass().getName());
+    }
+
+    PooledTestWorker forkProcess() {
+        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory, true));
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(ForkingTestClassProcessor.getTestWorkerImplementationClasspath(moduleRegistry));
+        builder.applicationClasspath(classPath);
+        options.copyTo(builder.getJavaCommand());
+        buildConfigAction.execute(builder);
+
+        WorkerProcess workerProcess = builder.build();
+        workerProcess.start();
+        return new PooledTestWorker(getWorkerKey(), workerProcess);
+    }
+
+    @Override
+    public void stop() {
+        if (worker != null) {
+            try {
+                worker.stopProcessing();
+            } finally {
+                try {
+                    pool.release(worker, maxClassesPerWorker);
+                } finally {
+                    workerCompletion.operationFinish();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A test worker process that is kept by a {@link TestWorkerProcessPool} and used for several test runs.
+ *
+ * <p>A test run is complete when the worker reports the completion of its worker test suite. Results are forwarded to the result processor of the current test run.</p>
+ */
+class PooledTestWorker implements Stoppable {
+    private final Object key;
+    private final WorkerProcess workerProcess;
+    private final RemoteTestClassProcessor remoteProcessor;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private TestResultProcessor resultProcessor;
+    private Object workerSuiteId;
+    private boolean running;
+    private boolean stopped;
+    private Throwable processFailure;
+    private long classesProcessed;
+
+    PooledTestWorker(Object key, WorkerProcess workerProcess) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestResultProcessor.class, new RunTrackingResultProcessor());
+        remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
+        connection.connect();
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public long getClassesProcessed() {
+        return classesProcessed;
+    }
+
+    /**
+     * Returns true when this worker is still alive and idle, so that it can be used for another test run.
+     */
+    public boolean isReusable() {
+        lock.lock();
+        try {
+            return !running && !stopped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void startProcessing(WorkerTestClassProcessorFactory processorFactory, TestResultProcessor resultProcessor) {
+        lock.lock();
+        try {
+            this.resultProcessor = resultProcessor;
+            this.workerSuiteId = null;
+            this.running = true;
+        } finally {
+            lock.unlock();
+        }
+        remoteProcessor.startProcessing(processorFactory);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        classesProcessed++;
+        remoteProcessor.processTestClass(testClass);
+    }
+
+    /**
+     * Requests the end of the current test run and blocks until the worker has reported all of its results, or until the worker process has stopped.
+     */
+    public void stopProcessing() {
+        remoteProcessor.stop();
+        lock.lock();
+        try {
+            while (running && !stopped) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            if (processFailure != null) {
+                throw UncheckedException.throwAsUncheckedException(processFailure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the worker process has stopped. Called from the watcher thread of the pool.
+     */
+    void waitForStop() {
+        try {
+            workerProcess.waitForStop();
+        } catch (Throwable t) {
+            processFailure = t;
+        } finally {
+            lock.lock();
+            try {
+                stopped = true;
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            if (stopped) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        remoteProcessor.stopWorker();
+        lock.lock();
+        try {
+            while (!stopped) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return workerProcess.toString();
+    }
+
+    private class RunTrackingResultProcessor implements TestResultProcessor {
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            if (test instanceof WorkerTestClassProcessor.WorkerTestSuiteDescriptor) {
+                workerSuiteId = test.getId();
+            }
+            resultProcessor.started(test, event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            resultProcessor.completed(testId, event);
+            if (testId.equals(workerSuiteId)) {
+                lock.lock();
+                try {
+                    running = false;
+                    condition.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            resultProcessor.output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            resultProcessor.failure(testId, result);
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.tasks.testing.worker;
 
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 
 /**
  * @see org.gradle.api.internal.tasks.testing.TestClassProcessor
@@ -36,4 +37,14 @@ public interface RemoteTestClassProcessor {
      * Does not block.
      */
     void stop();
+
+    /**
+     * Starts another test run in a reusable worker, using the given factory to create the test class processor. Does not block.
+     */
+    void startProcessing(WorkerTestClassProcessorFactory factory);
+
+    /**
+     * Stops a reusable worker once its current test run has completed. Does not block.
+     */
+    void stopWorker();
 }
@@ -46,12 +46,24 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
     public static final String WORKER_ID_SYS_PROPERTY = "org.gradle.test.worker";
     private final WorkerTestClassProcessorFactory factory;
+    private final boolean reusable;
     private CountDownLatch completed;
     private TestClassProcessor processor;
     private TestResultProcessor resultProcessor;
+    private WorkerProcessContext workerProcessContext;
+    private ServiceRegistry testServices;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
+        this(factory, false);
+    }
+
+    /**
+     * @param reusable When true, the worker keeps running after {@link #stop()}, so that further test runs can be started using {@link #startProcessing(WorkerTestClassProcessorFactory)}.
+     * The worker then finishes on {@link #stopWorker()}.
+     */
+    public TestWorker(WorkerTestClassProcessorFactory factory, boolean reusable) {
         this.factory = factory;
+        this.reusable = reusable;
     }
 
     @Override
@@ -63,7 +75,9 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         System.setProperty(WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
 
         DefaultServiceRegistry testServices = new TestFrameworkServiceRegistry(workerProcessContext);
-        startReceivingTests(workerProcessContext, testServices);
+        this.workerProcessContext = workerProcessContext;
+        this.testServices = testServices;
+        startReceivingTests();
 
         try {
             try {
@@ -79,7 +93,17 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         }
     }
 
-    private void startReceivingTests(WorkerProcessContext workerProcessContext, ServiceRegistry testServices) {
+    private void startReceivingTests() {
+        processor = createProcessor(factory);
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
+        serverConnection.connect();
+    }
+
+    private TestClassProcessor createProcessor(WorkerTestClassProcessorFactory factory) {
         TestClassProcessor targetProcessor = factory.create(testServices);
         IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
 
@@ -87,13 +111,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
                 workerProcessContext.getDisplayName(), testServices.get(TimeProvider.class));
         ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
                 TestClassProcessor.class, targetProcessor, workerProcessContext.getApplicationClassLoader());
-        processor = proxy.getSource();
-
-        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
-        serverConnection.useParameterSerializers(TestEventSerializer.create());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
-        serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
-        serverConnection.connect();
+        return proxy.getSource();
     }
 
     @Override
@@ -102,6 +120,12 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         processor.startProcessing(resultProcessor);
     }
 
+    @Override
+    public void startProcessing(WorkerTestClassProcessorFactory factory) {
+        processor = createProcessor(factory);
+        startProcessing();
+    }
+
     @Override
     public void processTestClass(final TestClassRunInfo testClass) {
         Thread.currentThread().setName("Test worker");
@@ -119,10 +143,20 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         try {
             processor.stop();
         } finally {
-            completed.countDown();
+            if (reusable) {
+                // Clean out any security manager the tests might have installed before the next test run
+                System.setSecurityManager(null);
+            } else {
+                completed.countDown();
+            }
         }
     }
 
+    @Override
+    public void stopWorker() {
+        completed.countDown();
+    }
+
     private static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
         private final WorkerProcessContext workerProcessContext;
 
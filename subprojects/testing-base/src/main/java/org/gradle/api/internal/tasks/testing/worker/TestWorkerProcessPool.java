@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.util.NumberUtil;
+import org.gradle.process.internal.health.memory.IdleProcessMemoryThreshold;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.OsMemoryStatus;
+import org.gradle.process.internal.health.memory.OsMemoryStatusListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps test worker processes alive between test runs, so that test tasks with the same worker configuration do not pay for worker startup again.
+ * Workers are matched on a key that describes their process configuration. Idle workers are stopped when free system memory is low.
+ */
+public class TestWorkerProcessPool implements Stoppable, OsMemoryStatusListener {
+    public static final String REUSE_WORKERS_TOGGLE = "org.gradle.testing.reuseWorkers";
+
+    private static final Logger LOGGER = Logging.getLogger(TestWorkerProcessPool.class);
+
+    private final Object lock = new Object();
+    private final Set<PooledTestWorker> allWorkers = new LinkedHashSet<PooledTestWorker>();
+    private final Map<Object, Deque<PooledTestWorker>> idleWorkers = new HashMap<Object, Deque<PooledTestWorker>>();
+    private final MemoryManager memoryManager;
+    private final StoppableExecutor watchers;
+
+    public TestWorkerProcessPool(MemoryManager memoryManager, ExecutorFactory executorFactory) {
+        this.memoryManager = memoryManager;
+        this.watchers = executorFactory.create("Test worker process watcher");
+        memoryManager.addListener(this);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(REUSE_WORKERS_TOGGLE);
+    }
+
+    /**
+     * Returns an idle worker with the given key, or starts a new worker using the given factory when there is none.
+     */
+    PooledTestWorker acquire(Object key, Factory<PooledTestWorker> factory) {
+        synchronized (lock) {
+            Deque<PooledTestWorker> candidates = idleWorkers.get(key);
+            while (candidates != null && !candidates.isEmpty()) {
+                PooledTestWorker candidate = candidates.removeFirst();
+                if (candidate.isReusable()) {
+                    LOGGER.debug("Reusing test worker {}.", candidate);
+                    return candidate;
+                }
+            }
+        }
+
+        // allow workers to be started concurrently
+        final PooledTestWorker worker = factory.create();
+        synchronized (lock) {
+            allWorkers.add(worker);
+        }
+        watchers.execute(new Runnable() {
+            @Override
+            public void run() {
+                worker.waitForStop();
+                synchronized (lock) {
+                    allWorkers.remove(worker);
+                    Deque<PooledTestWorker> candidates = idleWorkers.get(worker.getKey());
+                    if (candidates != null) {
+                        candidates.remove(worker);
+                    }
+                }
+            }
+        });
+        return worker;
+    }
+
+    /**
+     * Returns the given worker to the pool. The worker is stopped instead when it cannot be reused, or when it has processed at least {@code maxClasses} test classes.
+     *
+     * @param maxClasses The maximum number of test classes a worker may process. Use 0 to specify no maximum.
+     */
+    void release(PooledTestWorker worker, long maxClasses) {
+        if (worker.isReusable() && (maxClasses <= 0 || worker.getClassesProcessed() < maxClasses)) {
+            synchronized (lock) {
+                Deque<PooledTestWorker> candidates = idleWorkers.get(worker.getKey());
+                if (candidates == null) {
+                    candidates = new ArrayDeque<PooledTestWorker>();
+                    idleWorkers.put(worker.getKey(), candidates);
+                }
+                candidates.addFirst(worker);
+            }
+            return;
+        }
+        worker.stop();
+    }
+
+    @Override
+    public void onOsMemoryStatus(OsMemoryStatus memoryStatus) {
+        long threshold = IdleProcessMemoryThreshold.get(memoryStatus);
+        if (memoryStatus.getFreePhysicalMemory() >= threshold) {
+            return;
+        }
+        List<PooledTestWorker> evicted = new ArrayList<PooledTestWorker>();
+        synchronized (lock) {
+            for (Deque<PooledTestWorker> candidates : idleWorkers.values()) {
+                evicted.addAll(candidates);
+            }
+            idleWorkers.clear();
+        }
+        if (!evicted.isEmpty()) {
+            LOGGER.info("Stopping {} idle test worker(s) as free system memory ({}) fell below threshold of {}.", evicted.size(), NumberUtil.formatBytes(memoryStatus.getFreePhysicalMemory()), NumberUtil.formatBytes(threshold));
+            CompositeStoppable.stoppable(evicted).stop();
+        }
+    }
+
+    @Override
+    public void stop() {
+        memoryManager.removeListener(this);
+        List<PooledTestWorker> workers;
+        synchronized (lock) {
+            workers = new ArrayList<PooledTestWorker>(allWorkers);
+            idleWorkers.clear();
+        }
+        LOGGER.debug("Stopping {} test worker(s).", workers.size());
+        CompositeStoppable.stoppable(workers).add(watchers).stop();
+    }
+}
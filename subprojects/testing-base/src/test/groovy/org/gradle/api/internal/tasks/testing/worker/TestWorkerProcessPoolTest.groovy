@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.internal.Factory
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.health.memory.OsMemoryStatus
+import spock.lang.Specification
+
+class TestWorkerProcessPoolTest extends Specification {
+    def memoryManager = Mock(MemoryManager)
+    def watchers = Mock(StoppableExecutor)
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> watchers
+    }
+    def factory = Mock(Factory)
+    def pool = new TestWorkerProcessPool(memoryManager, executorFactory)
+
+    def "starts a new worker when there is no idle worker with the same key"() {
+        def worker = worker("key")
+
+        when:
+        def result = pool.acquire("key", factory)
+
+        then:
+        result == worker
+        1 * factory.create() >> worker
+        1 * watchers.execute(_)
+    }
+
+    def "reuses a released worker with the same key"() {
+        def worker = worker("key")
+        factory.create() >> worker
+
+        when:
+        pool.acquire("key", factory)
+        pool.release(worker, 0)
+        def result = pool.acquire("key", factory)
+
+        then:
+        result == worker
+        0 * worker.stop()
+    }
+
+    def "does not reuse a released worker with a different key"() {
+        def worker1 = worker("key1")
+        def worker2 = worker("key2")
+
+        when:
+        pool.acquire("key1", factory)
+        pool.release(worker1, 0)
+        def result = pool.acquire("key2", factory)
+
+        then:
+        result == worker2
+        1 * factory.create() >> worker1
+        1 * factory.create() >> worker2
+    }
+
+    def "stops a released worker that has processed the maximum number of test classes"() {
+        def worker = worker("key", 10)
+
+        when:
+        pool.acquire("key", factory)
+        pool.release(worker, 10)
+
+        then:
+        1 * factory.create() >> worker
+        1 * worker.stop()
+    }
+
+    def "stops a released worker that cannot be reused"() {
+        def worker = worker("key", 0, false)
+
+        when:
+        pool.acquire("key", factory)
+        pool.release(worker, 0)
+
+        then:
+        1 * factory.create() >> worker
+        1 * worker.stop()
+    }
+
+    def "stops idle workers when free system memory is low"() {
+        def worker = worker("key")
+        factory.create() >> worker
+
+        given:
+        pool.acquire("key", factory)
+        pool.release(worker, 0)
+
+        when:
+        pool.onOsMemoryStatus(memoryStatus(4096, 2048))
+
+        then:
+        0 * worker.stop()
+
+        when:
+        pool.onOsMemoryStatus(memoryStatus(4096, 100))
+
+        then:
+        1 * worker.stop()
+    }
+
+    def "stops all workers on stop"() {
+        def worker1 = worker("key")
+        def worker2 = worker("key")
+
+        given:
+        factory.create() >>> [worker1, worker2]
+        pool.acquire("key", factory)
+        pool.acquire("key", factory)
+        pool.release(worker1, 0)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * memoryManager.removeListener(pool)
+        1 * worker1.stop()
+        1 * worker2.stop()
+        1 * watchers.stop()
+    }
+
+    def worker(String key, long classesProcessed = 0, boolean reusable = true) {
+        def worker = Mock(PooledTestWorker)
+        _ * worker.key >> key
+        _ * worker.classesProcessed >> classesProcessed
+        _ * worker.reusable >> reusable
+        return worker
+    }
+
+    def memoryStatus(long totalMb, long freeMb) {
+        return Stub(OsMemoryStatus) {
+            getTotalPhysicalMemory() >> totalMb * 1024 * 1024
+            getFreePhysicalMemory() >> freeMb * 1024 * 1024
+        }
+    }
+}
@@ -71,4 +71,44 @@ public class TestWorkerTest extends ConcurrentSpec {
         1 * processor.processTestClass(test)
         1 * processor.stop()
     }
+
+    def reusableWorkerRunsSeveralTestRunsAndBlocksUntilWorkerStopReceived() {
+        def reusableWorker = new TestWorker(factory, true)
+        def otherFactory = Mock(WorkerTestClassProcessorFactory)
+        def otherProcessor = Mock(TestClassProcessor)
+
+        when:
+        async {
+            reusableWorker.execute(workerContext)
+            instant.completed
+        }
+
+        then:
+        instant.completed > instant.stopped
+
+        and:
+        1 * factory.create(_) >> processor
+        1 * otherFactory.create(_) >> otherProcessor
+        1 * connection.addOutgoing(TestResultProcessor) >> resultProcessor
+        1 * connection.addIncoming(RemoteTestClassProcessor, reusableWorker)
+        1 * connection.connect() >> {
+            start {
+                reusableWorker.startProcessing()
+                reusableWorker.processTestClass(test)
+                reusableWorker.stop()
+                reusableWorker.startProcessing(otherFactory)
+                reusableWorker.processTestClass(test)
+                reusableWorker.stop()
+                thread.block()
+                instant.stopped
+                reusableWorker.stopWorker()
+            }
+        }
+        1 * processor.startProcessing(_)
+        1 * processor.processTestClass(test)
+        1 * processor.stop()
+        1 * otherProcessor.startProcessing(_)
+        1 * otherProcessor.processTestClass(test)
+        1 * otherProcessor.stop()
+    }
 }
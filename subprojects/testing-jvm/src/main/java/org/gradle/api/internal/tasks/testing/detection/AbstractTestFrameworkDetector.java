@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.testing.detection;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.GradleException;
+import org.gradle.api.Transformer;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.util.internal.Java9ClassReader;
@@ -35,6 +36,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
@@ -45,8 +48,11 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final Map<String, Boolean> superClasses;
+    private final ConcurrentMap<File, TestClassDetails> preparedClasses;
+    private final Transformer<TestClassDetails, File> classFileReader;
     private TestClassProcessor testClassProcessor;
+    private TestClassDetectionCache detectionCache;
     private final List<String> knownTestCaseClassNames;
 
     private File testClassesDirectory;
@@ -55,14 +61,24 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new HashMap<String, Boolean>();
+        this.preparedClasses = new ConcurrentHashMap<File, TestClassDetails>();
+        this.classFileReader = new Transformer<TestClassDetails, File>() {
+            @Override
+            public TestClassDetails transform(File testClassFile) {
+                return readClassFile(testClassFile);
+            }
+        };
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
 
     protected abstract T createClassVisitor();
 
-    protected File getSuperTestClassFile(String superClassName) {
+    /**
+     * Returns the details of the given super class, or null when the class file of the super class cannot be found.
+     */
+    protected TestClassDetails getSuperTestClass(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
@@ -80,13 +96,14 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
 
         if (superTestClassFile != null) {
-            return superTestClassFile;
+            return classDetails(superTestClassFile);
         } else if (JAVA_LANG_OBJECT.equals(superClassName)) {
             // java.lang.Object found, which is not a test class
             return null;
         } else {
             // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+            byte[] classFile = classFileExtractionManager.getLibraryClassFile(superClassName);
+            return classFile == null ? null : readClass(classFile, superClassName);
         }
     }
 
@@ -121,39 +138,75 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
-    protected TestClassVisitor classVisitor(final File testClassFile) {
-        final TestClassVisitor classVisitor = createClassVisitor();
+    @Override
+    public void setDetectionCache(TestClassDetectionCache detectionCache) {
+        this.detectionCache = detectionCache;
+    }
+
+    /**
+     * Returns the details of the given class file, reusing the result of {@link #prepareTestClass(File)} or of a previous scan of the same class file when available.
+     */
+    protected TestClassDetails classDetails(File testClassFile) {
+        TestClassDetails classDetails = preparedClasses.get(testClassFile);
+        if (classDetails != null) {
+            return classDetails;
+        }
+        return loadClassDetails(testClassFile);
+    }
+
+    private TestClassDetails loadClassDetails(File testClassFile) {
+        if (detectionCache != null) {
+            return detectionCache.get(testClassFile, getClass(), classFileReader);
+        }
+        return readClassFile(testClassFile);
+    }
 
+    private TestClassDetails readClassFile(File testClassFile) {
         InputStream classStream = null;
         try {
             classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new Java9ClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+            return readClass(IOUtils.toByteArray(classStream), testClassFile.getAbsolutePath());
+        } catch (GradleException e) {
+            throw e;
         } catch (Throwable e) {
             throw new GradleException("failed to read class file " + testClassFile.getAbsolutePath(), e);
         } finally {
             IOUtils.closeQuietly(classStream);
         }
+    }
 
-        return classVisitor;
+    private TestClassDetails readClass(byte[] classFile, String displayName) {
+        final TestClassVisitor classVisitor = createClassVisitor();
+        try {
+            final ClassReader classReader = new Java9ClassReader(classFile);
+            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        } catch (Throwable e) {
+            throw new GradleException("failed to read class file " + displayName, e);
+        }
+        return TestClassDetails.of(classVisitor);
+    }
+
+    @Override
+    public void prepareTestClass(File testClassFile) {
+        preparedClasses.put(testClassFile, loadClassDetails(testClassFile));
     }
 
     @Override
     public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+        return processTestClass(classDetails(testClassFile), false);
     }
 
-    protected abstract boolean processTestClass(File testClassFile, boolean superClass);
+    protected abstract boolean processTestClass(TestClassDetails testClass, boolean superClass);
 
-    protected boolean processSuperClass(File testClassFile) {
+    protected boolean processSuperClass(TestClassDetails testClass) {
         boolean isTest = false;
 
-        Boolean isSuperTest = superClasses.get(testClassFile);
+        Boolean isSuperTest = superClasses.get(testClass.getClassName());
 
         if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
+            isTest = processTestClass(testClass, true);
 
-            superClasses.put(testClassFile, isTest);
+            superClasses.put(testClass.getClassName(), isTest);
         } else {
             isTest = isSuperTest;
         }
@@ -165,9 +218,9 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * In none super class mode a test class is published when the class is a test and it is not abstract. In super class mode it must not publish the class otherwise it will get published multiple
      * times (for each extending class).
      */
-    protected void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
+    protected void publishTestClass(boolean isTest, TestClassDetails testClass, boolean superClass) {
+        if (isTest && !testClass.isAbstract() && !superClass) {
+            String className = Type.getObjectType(testClass.getClassName()).getClassName();
             testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
         }
     }
@@ -175,6 +228,13 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     @Override
     public void startDetection(TestClassProcessor testClassProcessor) {
         this.testClassProcessor = testClassProcessor;
+        superClasses.clear();
+        preparedClasses.clear();
+    }
+
+    @Override
+    public void endDetection() {
+        classFileExtractionManager.close();
     }
 
     public void addKnownTestCaseClassNames(String... knownTestCaseClassNames) {
@@ -15,126 +15,109 @@
  */
 package org.gradle.api.internal.tasks.testing.detection;
 
-import org.apache.commons.lang.text.StrBuilder;
+import org.apache.commons.io.IOUtils;
 import org.gradle.api.GradleException;
-import org.gradle.api.internal.file.DefaultTemporaryFileProvider;
-import org.gradle.api.internal.file.TemporaryFileProvider;
-import org.gradle.internal.Factory;
-import org.gradle.util.JarUtil;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.gradle.internal.concurrent.CompositeStoppable;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.*;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
- * This class manages class file extraction from library jar files.
+ * This class manages class file extraction from library jar files. Class files are read directly from the jar files, using an index of the classes that each jar file contains.
+ * The jar files are kept open until {@link #close()} is called, so that each jar file is opened once for all the class files read from it.
  */
 public class ClassFileExtractionManager {
-    private static final Logger LOGGER = LoggerFactory.getLogger(ClassFileExtractionManager.class);
-    private final Map<String, Set<File>> packageJarFilesMappings;
-    private final Map<String, File> extractedJarClasses;
-    private final Set<String> unextractableClasses;
-    private final TemporaryFileProvider tempDirProvider;
+    private static final String CLASS_FILE_EXTENSION = ".class";
 
-    public ClassFileExtractionManager(final Factory<File> tempDirFactory) {
-        assert tempDirFactory != null;
-        tempDirProvider = new DefaultTemporaryFileProvider(tempDirFactory);
-        packageJarFilesMappings = new HashMap<String, Set<File>>();
-        extractedJarClasses = new HashMap<String, File>();
-        unextractableClasses = new TreeSet<String>();
-    }
+    private final Map<String, File> libraryClasses = new HashMap<String, File>();
+    private final Map<File, ZipFile> openJarFiles = new HashMap<File, ZipFile>();
 
     /**
-     * Add all packages found in the jar file to the package <> jar(s) index.
+     * Add all classes found in the jar file to the class <> jar index. When a class is found in several jar files, the jar file that was added first is used.
      *
      * @param libraryJar Jar file to add to the index.
      */
-    public void addLibraryJar(final File libraryJar) {
-        new JarFilePackageLister().listJarPackages(libraryJar, new JarFilePackageListener() {
-            public void receivePackage(String packageName) {
-                Set<File> jarFiles = packageJarFilesMappings.get(packageName);
-                if (jarFiles == null) {
-                    jarFiles = new TreeSet<File>();
+    public synchronized void addLibraryJar(final File libraryJar) {
+        try {
+            Enumeration<? extends ZipEntry> entries = openJarFile(libraryJar).entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                if (!entry.isDirectory() && entryName.endsWith(CLASS_FILE_EXTENSION) && !entryName.startsWith("META-INF")) {
+                    String className = entryName.substring(0, entryName.length() - CLASS_FILE_EXTENSION.length());
+                    if (!libraryClasses.containsKey(className)) {
+                        libraryClasses.put(className, libraryJar);
+                    }
                 }
-                jarFiles.add(libraryJar);
-
-                packageJarFilesMappings.put(packageName, jarFiles);
             }
-        });
+        } catch (IOException e) {
+            throw new GradleException("failed to scan jar file for classes (" + libraryJar.getAbsolutePath() + ")", e);
+        }
     }
 
     /**
-     * Retrieve the file that contains the extracted class file. <p/> This method will extract the class file if it is
-     * not extracted yet. Extracted class files are deleted on exit of the Gradle process. The same class is only
-     * extracted once.
+     * Reads the class file of the given class from the library jar files.
      *
-     * @param className Name of the class to extract.
-     * @return File that contains the extracted class file.
+     * @param className Internal name of the class to read.
+     * @return The content of the class file, or null when the class is not found in the library jar files.
      */
-    public File getLibraryClassFile(final String className) {
-        if (unextractableClasses.contains(className)) {
-            return null;
-        } else {
-            if (!extractedJarClasses.containsKey(className)) {
-                if (!extractClassFile(className)) {
-                    unextractableClasses.add(className);
-                }
+    public byte[] getLibraryClassFile(final String className) {
+        File jarFile;
+        ZipFile zipFile;
+        synchronized (this) {
+            jarFile = libraryClasses.get(className);
+            if (jarFile == null) {
+                // super class not on the classpath - unable to scan parent class
+                return null;
+            }
+            try {
+                zipFile = openJarFile(jarFile);
+            } catch (IOException e) {
+                throw new GradleException("failed to read class file from jar (" + jarFile + ")", e);
             }
-
-            return extractedJarClasses.get(className);
         }
-    }
-
-    private boolean extractClassFile(final String className) {
-        boolean classFileExtracted = false;
-
-        final File extractedClassFile = tempFile();
-        final String classFileName = new StrBuilder().append(className).append(".class").toString();
-        final String classNamePackage = classNamePackage(className);
-        final Set<File> packageJarFiles = packageJarFilesMappings.get(classNamePackage);
-
-        File classFileSourceJar = null;
-
-        if (packageJarFiles != null && !packageJarFiles.isEmpty()) {
-            final Iterator<File> packageJarFilesIt = packageJarFiles.iterator();
 
-            while (!classFileExtracted && packageJarFilesIt.hasNext()) {
-                final File jarFile = packageJarFilesIt.next();
-
-                try {
-                    classFileExtracted = JarUtil.extractZipEntry(jarFile, classFileName, extractedClassFile);
-
-                    if (classFileExtracted) {
-                        classFileSourceJar = jarFile;
-                    }
-                } catch (IOException e) {
-                    throw new GradleException("failed to extract class file from jar (" + jarFile + ")", e);
-                }
+        try {
+            ZipEntry entry = zipFile.getEntry(className + CLASS_FILE_EXTENSION);
+            if (entry == null) {
+                return null;
             }
-
-            if (classFileExtracted) {
-                LOGGER.debug("extracted class {} from {}", className, classFileSourceJar.getName());
-
-                extractedJarClasses.put(className, extractedClassFile);
+            InputStream inputStream = zipFile.getInputStream(entry);
+            try {
+                return IOUtils.toByteArray(inputStream);
+            } finally {
+                inputStream.close();
             }
-        } // super class not on the classpath - unable to scan parent class
-
-        return classFileExtracted;
+        } catch (IOException e) {
+            throw new GradleException("failed to read class file from jar (" + jarFile + ")", e);
+        }
     }
 
-    private String classNamePackage(final String className) {
-        final int lastSlashIndex = className.lastIndexOf('/');
-
-        if (lastSlashIndex == -1) {
-            return null; // class in root package - should not happen
-        } else {
-            return className.substring(0, lastSlashIndex + 1);
+    /**
+     * Closes the jar files that are open. Jar files are opened again when class files are read from them afterwards.
+     */
+    public void close() {
+        Iterable<ZipFile> jarFiles;
+        synchronized (this) {
+            jarFiles = new ArrayList<ZipFile>(openJarFiles.values());
+            openJarFiles.clear();
         }
+        CompositeStoppable.stoppable(jarFiles).stop();
     }
 
-    private File tempFile() {
-        return tempDirProvider.createTemporaryFile("jar_extract_", "_tmp"); // Could throw UncheckedIOException
+    private ZipFile openJarFile(File jarFile) throws IOException {
+        ZipFile zipFile = openJarFiles.get(jarFile);
+        if (zipFile == null) {
+            zipFile = new ZipFile(jarFile);
+            openJarFiles.put(jarFile, zipFile);
+        }
+        return zipFile;
     }
 }
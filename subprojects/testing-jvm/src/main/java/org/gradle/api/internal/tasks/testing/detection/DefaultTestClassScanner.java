@@ -22,23 +22,42 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * <p>When an executor factory is given, class files are read by the detector in parallel, using at most the given number of threads. Test classes are still
+ * detected and passed on to the processor in the order of the candidate class files.</p>
  */
 public class DefaultTestClassScanner implements Runnable {
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, null, 1);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, ExecutorFactory executorFactory, int maxThreads) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
     }
 
     @Override
@@ -46,17 +65,54 @@ public class DefaultTestClassScanner implements Runnable {
         if (testFrameworkDetector == null) {
             filenameScan();
         } else {
-            detectionScan();
+            testFrameworkDetector.startDetection(testClassProcessor);
+            try {
+                detectionScan();
+            } finally {
+                testFrameworkDetector.endDetection();
+            }
         }
     }
 
     private void detectionScan() {
-        testFrameworkDetector.startDetection(testClassProcessor);
-        candidateClassFiles.visit(new ClassFileVisitor() {
-            public void visitClassFile(FileVisitDetails fileDetails) {
-                testFrameworkDetector.processTestClass(fileDetails.getFile());
+        if (executorFactory == null || maxThreads <= 1) {
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    testFrameworkDetector.processTestClass(fileDetails.getFile());
+                }
+            });
+            return;
+        }
+
+        final List<File> classFiles = new ArrayList<File>();
+        final List<Future<?>> preparedClassFiles = new ArrayList<Future<?>>();
+        final StoppableExecutor executor = executorFactory.create("Test class detection", maxThreads);
+        try {
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    final File classFile = fileDetails.getFile();
+                    classFiles.add(classFile);
+                    preparedClassFiles.add(executor.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            testFrameworkDetector.prepareTestClass(classFile);
+                        }
+                    }));
+                }
+            });
+            for (int i = 0; i < classFiles.size(); i++) {
+                try {
+                    preparedClassFiles.get(i).get();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } catch (ExecutionException e) {
+                    throw UncheckedException.throwAsUncheckedException(e.getCause());
+                }
+                testFrameworkDetector.processTestClass(classFiles.get(i));
             }
-        });
+        } finally {
+            executor.stop();
+        }
     }
 
     private void filenameScan() {
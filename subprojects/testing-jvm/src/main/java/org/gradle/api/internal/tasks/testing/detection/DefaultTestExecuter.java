@@ -26,10 +26,14 @@ import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
+import org.gradle.api.internal.tasks.testing.selection.AffectedTestSelection;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.PooledTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerProcessPool;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.Factory;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationWorkerRegistry;
 import org.gradle.internal.progress.BuildOperationExecutor;
 import org.gradle.internal.time.TrueTimeProvider;
@@ -47,13 +51,35 @@ public class DefaultTestExecuter implements TestExecuter {
     private final ModuleRegistry moduleRegistry;
     private final BuildOperationWorkerRegistry buildOperationWorkerRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
+    private final TestWorkerProcessPool testWorkerProcessPool;
+    private final AffectedTestSelection testSelection;
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkerCount;
+    private final TestClassDetectionCache detectionCache;
 
     public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry, BuildOperationWorkerRegistry buildOperationWorkerRegistry, BuildOperationExecutor buildOperationExecutor) {
+        this(workerFactory, actorFactory, moduleRegistry, buildOperationWorkerRegistry, buildOperationExecutor, null, null, null, 1, null);
+    }
+
+    /**
+     * @param testWorkerProcessPool The pool to take test workers from, or null to start a new worker process for each test run.
+     * @param testSelection The selection of test classes to execute, or null to execute all test classes.
+     * @param executorFactory The factory for the executor that reads candidate class files in parallel, or null to read them one at a time.
+     * @param maxWorkerCount The maximum number of threads that read candidate class files in parallel.
+     * @param detectionCache The cache of scanned class files, or null to scan all candidate class files.
+     */
+    public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry, BuildOperationWorkerRegistry buildOperationWorkerRegistry, BuildOperationExecutor buildOperationExecutor,
+                               TestWorkerProcessPool testWorkerProcessPool, AffectedTestSelection testSelection, ExecutorFactory executorFactory, int maxWorkerCount, TestClassDetectionCache detectionCache) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
         this.buildOperationWorkerRegistry = buildOperationWorkerRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
+        this.testWorkerProcessPool = testWorkerProcessPool;
+        this.testSelection = testSelection;
+        this.executorFactory = executorFactory;
+        this.maxWorkerCount = maxWorkerCount;
+        this.detectionCache = detectionCache;
     }
 
     @Override
@@ -64,6 +90,10 @@ public class DefaultTestExecuter implements TestExecuter {
         final Set<File> classpath = ImmutableSet.copyOf(testTask.getClasspath());
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
+                if (testWorkerProcessPool != null && !testTask.getDebug()) {
+                    return new PooledTestClassProcessor(testWorkerProcessPool, workerFactory, testInstanceFactory, testTask,
+                        classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, currentOperation, testTask.getForkEvery());
+                }
                 return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
                     classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, currentOperation);
             }
@@ -78,15 +108,17 @@ public class DefaultTestExecuter implements TestExecuter {
             reforkingProcessorFactory, actorFactory);
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
+        TestClassProcessor selectedTestsProcessor = testSelection != null ? testSelection.decorate(processor) : processor;
 
         Runnable detector;
         if (testTask.isScanForTestClasses()) {
             TestFrameworkDetector testFrameworkDetector = testTask.getTestFramework().getDetector();
             testFrameworkDetector.setTestClassesDirectory(testTask.getTestClassesDir());
             testFrameworkDetector.setTestClasspath(classpath);
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            testFrameworkDetector.setDetectionCache(detectionCache);
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, selectedTestsProcessor, executorFactory, maxWorkerCount);
         } else {
-            detector = new DefaultTestClassScanner(testClassFiles, null, processor);
+            detector = new DefaultTestClassScanner(testClassFiles, null, selectedTestsProcessor);
         }
 
         final Object testTaskOperationId = buildOperationExecutor.getCurrentOperation().getId();
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.gradle.api.Transformer;
+import org.gradle.api.internal.cache.HeapProportionalCacheSizer;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.internal.UncheckedException;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Keeps the details of scanned class files in memory across builds, keyed by the hash of the class file, so that unchanged class files are not parsed again.
+ */
+public class TestClassDetectionCache {
+    private static final int MAX_SIZE = 200000;
+
+    private final FileHasher fileHasher;
+    private final Cache<Object, TestClassDetails> cache;
+
+    public TestClassDetectionCache(FileHasher fileHasher) {
+        this.fileHasher = fileHasher;
+        this.cache = CacheBuilder.newBuilder().maximumSize(new HeapProportionalCacheSizer().scaleCacheSize(MAX_SIZE)).build();
+    }
+
+    /**
+     * Returns the details of the given class file, using the given reader when the class file has not been scanned by the given detector type before.
+     */
+    public TestClassDetails get(final File classFile, Class<?> detectorType, final Transformer<TestClassDetails, File> reader) {
+        Object key = Arrays.asList(detectorType.getName(), fileHasher.hash(classFile));
+        try {
+            return cache.get(key, new Callable<TestClassDetails>() {
+                @Override
+                public TestClassDetails call() {
+                    return reader.transform(classFile);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+}
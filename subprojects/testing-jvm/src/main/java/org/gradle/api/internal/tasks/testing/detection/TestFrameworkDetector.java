@@ -23,9 +23,21 @@ import java.util.Set;
 public interface TestFrameworkDetector {
     void startDetection(TestClassProcessor testClassProcessor);
 
+    /**
+     * Reads the given class file ahead of {@link #processTestClass(File)}. May be called concurrently for different class files.
+     */
+    void prepareTestClass(File testClassFile);
+
     boolean processTestClass(File testClassFile);
 
+    /**
+     * Releases the resources used by the detection, such as open library jars. Called once all class files have been processed.
+     */
+    void endDetection();
+
     void setTestClassesDirectory(File testClassesDir);
 
     void setTestClasspath(Set<File> classpath);
+
+    void setDetectionCache(TestClassDetectionCache detectionCache);
 }
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.Action;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore;
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Selects the test classes that are affected by the changes to the test runtime classpath since the previous execution of a test task,
+ * and reuses the results of the previous execution for the other test classes.
+ *
+ * <p>A test class is affected when it, or any class it transitively depends on, has changed. Test classes that failed or were not executed in the previous execution
+ * are always executed. A test class that was executed but had no results, for example because the test filter excludes all of its tests, is not executed again
+ * unless it is affected. All test classes are executed when the task configuration, a resource or a jar of the classpath has changed, or when a changed class
+ * declares constants that other classes may have inlined.</p>
+ */
+public class AffectedTestSelection {
+    public static final String SELECT_AFFECTED_TESTS_TOGGLE = "org.gradle.testing.selectAffectedTests";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AffectedTestSelection.class);
+    private static final String STATE_FILE_NAME = "selection.bin";
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private final File binaryResultsDir;
+    private final File previousResultsDir;
+    private final Iterable<File> classpath;
+    private final Map<String, Object> inputProperties;
+    private final FileHasher fileHasher;
+    private final ClassDependenciesAnalyzer analyzer;
+    private final Set<String> executedTestClasses = Collections.synchronizedSet(new HashSet<String>());
+    private final Set<String> skippedTestClasses = Collections.synchronizedSet(new HashSet<String>());
+    private TestSelectionState currentState;
+    private Map<String, TestClassResult> previousResults;
+    private Set<String> previousTestClasses;
+    private Set<String> affectedClasses;
+
+    /**
+     * @param binaryResultsDir The binary results directory of the test task.
+     * @param previousResultsDir A directory to move the previous binary results to.
+     * @param classpath The test runtime classpath.
+     * @param inputProperties The input properties of the test task.
+     */
+    public AffectedTestSelection(File binaryResultsDir, File previousResultsDir, Iterable<File> classpath, Map<String, Object> inputProperties, FileHasher fileHasher, ClassDependenciesAnalyzer analyzer) {
+        this.binaryResultsDir = binaryResultsDir;
+        this.previousResultsDir = previousResultsDir;
+        this.classpath = classpath;
+        this.inputProperties = inputProperties;
+        this.fileHasher = fileHasher;
+        this.analyzer = analyzer;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(SELECT_AFFECTED_TESTS_TOGGLE);
+    }
+
+    /**
+     * Determines the affected test classes and moves the previous results out of the binary results directory. Must be called before the binary results directory is cleaned.
+     */
+    public void prepare() {
+        TestSelectionState previousState = readState();
+        currentState = snapshot(previousState);
+        GFileUtils.deleteDirectory(previousResultsDir);
+
+        if (previousState == null || !previousState.getConfigurationHash().equals(currentState.getConfigurationHash())) {
+            LOGGER.info("Executing all test classes as there is no usable state from a previous execution.");
+            return;
+        }
+        Set<String> affected = findAffectedClasses(previousState, currentState);
+        if (affected == null) {
+            LOGGER.info("Executing all test classes as a changed class may have been inlined into other classes.");
+            return;
+        }
+        GFileUtils.mkdirs(previousResultsDir.getParentFile());
+        if (!binaryResultsDir.renameTo(previousResultsDir)) {
+            LOGGER.info("Executing all test classes as the previous results could not be moved to {}.", previousResultsDir);
+            return;
+        }
+        final Map<String, TestClassResult> results = new HashMap<String, TestClassResult>();
+        new TestResultSerializer(previousResultsDir).read(new Action<TestClassResult>() {
+            @Override
+            public void execute(TestClassResult result) {
+                results.put(result.getClassName(), result);
+            }
+        });
+        affected.addAll(previousState.getFailedTestClasses());
+        previousResults = results;
+        previousTestClasses = previousState.getExecutedTestClasses();
+        affectedClasses = affected;
+        LOGGER.info("{} changed or dependent class(es) found, executing affected test classes only.", affected.size());
+    }
+
+    /**
+     * Returns true when the given test class should be executed.
+     */
+    public boolean isSelected(String testClassName) {
+        return affectedClasses == null || affectedClasses.contains(testClassName) || !previousTestClasses.contains(testClassName);
+    }
+
+    /**
+     * Returns true when the previous results of some test classes that were not executed contain tests. These results are only added after the execution,
+     * so they are not seen by the test listeners.
+     */
+    public boolean hasReusedTests() {
+        if (previousResults == null) {
+            return false;
+        }
+        synchronized (skippedTestClasses) {
+            for (String className : skippedTestClasses) {
+                TestClassResult previous = previousResults.get(className);
+                if (previous != null && !previous.getResults().isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decorates the given processor so that it receives the selected test classes only.
+     */
+    public TestClassProcessor decorate(final TestClassProcessor processor) {
+        return new TestClassProcessor() {
+            @Override
+            public void startProcessing(TestResultProcessor resultProcessor) {
+                processor.startProcessing(resultProcessor);
+            }
+
+            @Override
+            public void processTestClass(TestClassRunInfo testClass) {
+                if (isSelected(testClass.getTestClassName())) {
+                    executedTestClasses.add(testClass.getTestClassName());
+                    processor.processTestClass(testClass);
+                } else {
+                    skippedTestClasses.add(testClass.getTestClassName());
+                }
+            }
+
+            @Override
+            public void stop() {
+                processor.stop();
+            }
+        };
+    }
+
+    /**
+     * Adds the previous results of the test classes that were not executed, along with their output.
+     */
+    public void addReusedResults(Map<String, TestClassResult> results, TestOutputStore.Writer outputWriter) {
+        if (previousResults == null) {
+            return;
+        }
+        long nextId = 1;
+        for (TestClassResult classResult : results.values()) {
+            nextId = Math.max(nextId, classResult.getId() + 1);
+            for (TestMethodResult methodResult : classResult.getResults()) {
+                nextId = Math.max(nextId, methodResult.getId() + 1);
+            }
+        }
+
+        int reusedCount = 0;
+        TestOutputStore.Reader outputReader = new TestOutputStore(previousResultsDir).reader();
+        try {
+            for (String className : skippedTestClasses) {
+                TestClassResult previous = previousResults.get(className);
+                if (previous == null || results.containsKey(className)) {
+                    continue;
+                }
+                TestClassResult reused = new TestClassResult(nextId++, className, previous.getStartTime());
+                for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+                    StringWriter output = new StringWriter();
+                    outputReader.writeNonTestOutput(previous.getId(), destination, output);
+                    if (output.getBuffer().length() > 0) {
+                        outputWriter.onOutput(reused.getId(), new DefaultTestOutputEvent(destination, output.toString()));
+                    }
+                }
+                for (TestMethodResult previousMethod : previous.getResults()) {
+                    TestMethodResult reusedMethod = new TestMethodResult(nextId++, previousMethod.getName(), previousMethod.getResultType(), previousMethod.getDuration(), previousMethod.getEndTime());
+                    for (TestFailure failure : previousMethod.getFailures()) {
+                        reusedMethod.addFailure(failure.getMessage(), failure.getStackTrace(), failure.getExceptionType());
+                    }
+                    for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+                        StringWriter output = new StringWriter();
+                        outputReader.writeTestOutput(previous.getId(), previousMethod.getId(), destination, output);
+                        if (output.getBuffer().length() > 0) {
+                            outputWriter.onOutput(reused.getId(), reusedMethod.getId(), new DefaultTestOutputEvent(destination, output.toString()));
+                        }
+                    }
+                    reused.add(reusedMethod);
+                }
+                results.put(className, reused);
+                reusedCount++;
+            }
+        } finally {
+            CompositeStoppable.stoppable(outputReader).stop();
+        }
+        LOGGER.info("Reused the previous results of {} test class(es).", reusedCount);
+    }
+
+    /**
+     * Stores the state for the next execution, given the final results of this execution.
+     */
+    public void storeState(Collection<TestClassResult> results) {
+        Set<String> failedTestClasses = new HashSet<String>();
+        for (TestClassResult result : results) {
+            if (result.getFailuresCount() > 0) {
+                failedTestClasses.add(result.getClassName());
+            }
+        }
+        Set<String> testClasses = new HashSet<String>(executedTestClasses);
+        testClasses.addAll(skippedTestClasses);
+        File stateFile = new File(binaryResultsDir, STATE_FILE_NAME);
+        try {
+            OutputStream outputStream = new FileOutputStream(stateFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                new TestSelectionState.Serializer().write(encoder, currentState.withTestClasses(testClasses, failedTestClasses));
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        GFileUtils.deleteDirectory(previousResultsDir);
+    }
+
+    private TestSelectionState readState() {
+        File stateFile = new File(binaryResultsDir, STATE_FILE_NAME);
+        if (!stateFile.isFile() || !new TestResultSerializer(binaryResultsDir).isHasResults()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(stateFile);
+            try {
+                return new TestSelectionState.Serializer().read(new KryoBackedDecoder(inputStream));
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not read test selection state from {}.", stateFile, e);
+            return null;
+        }
+    }
+
+    private TestSelectionState snapshot(final TestSelectionState previousState) {
+        final Map<String, HashCode> classHashes = new HashMap<String, HashCode>();
+        final Map<String, Set<String>> classDependencies = new HashMap<String, Set<String>>();
+        final Set<String> dependentToAllClasses = new HashSet<String>();
+        final Map<String, HashCode> otherFiles = new TreeMap<String, HashCode>();
+
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                new DirectoryFileTree(file).visit(new EmptyFileVisitor() {
+                    @Override
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        String path = fileDetails.getRelativePath().getPathString();
+                        HashCode hash = fileHasher.hash(fileDetails);
+                        if (!path.endsWith(CLASS_FILE_EXTENSION)) {
+                            otherFiles.put(path, hash);
+                            return;
+                        }
+                        String className = path.substring(0, path.length() - CLASS_FILE_EXTENSION.length()).replace('/', '.');
+                        if (classHashes.containsKey(className)) {
+                            // Shadowed by an earlier classpath entry
+                            return;
+                        }
+                        classHashes.put(className, hash);
+                        if (previousState != null && hash.equals(previousState.getClassHashes().get(className))) {
+                            Set<String> dependencies = previousState.getClassDependencies().get(className);
+                            classDependencies.put(className, dependencies == null ? Collections.<String>emptySet() : dependencies);
+                            if (previousState.getDependentToAllClasses().contains(className)) {
+                                dependentToAllClasses.add(className);
+                            }
+                        } else {
+                            ClassAnalysis analysis = analyzer.getClassAnalysis(className, fileDetails);
+                            classDependencies.put(className, analysis.getClassDependencies());
+                            if (analysis.isDependencyToAll()) {
+                                dependentToAllClasses.add(className);
+                            }
+                        }
+                    }
+                });
+            } else if (file.isFile()) {
+                otherFiles.put(file.getAbsolutePath(), fileHasher.hash(file));
+            }
+        }
+
+        // Only dependencies between the classes of the classpath directories are of interest, changes to anything else cause all tests to run
+        for (Map.Entry<String, Set<String>> entry : classDependencies.entrySet()) {
+            Set<String> dependencies = new HashSet<String>();
+            for (String dependency : entry.getValue()) {
+                if (classHashes.containsKey(dependency)) {
+                    dependencies.add(dependency);
+                }
+            }
+            entry.setValue(dependencies);
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        hashInputProperties(hasher);
+        for (Map.Entry<String, HashCode> entry : otherFiles.entrySet()) {
+            hasher.putString(entry.getKey(), Charsets.UTF_8);
+            hasher.putBytes(entry.getValue().asBytes());
+        }
+        return new TestSelectionState(hasher.hash(), classHashes, classDependencies, dependentToAllClasses, Collections.<String>emptySet(), Collections.<String>emptySet());
+    }
+
+    private void hashInputProperties(Hasher hasher) {
+        // Input property values are serializable. A different serialized form of an equal value only causes all tests to run.
+        for (Map.Entry<String, Object> entry : new TreeMap<String, Object>(inputProperties).entrySet()) {
+            hasher.putString(entry.getKey(), Charsets.UTF_8);
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes);
+                objectOutputStream.writeObject(entry.getValue());
+                objectOutputStream.close();
+                hasher.putBytes(bytes.toByteArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the changed classes and all classes that transitively depend on them, or null when all classes are affected.
+     */
+    static Set<String> findAffectedClasses(TestSelectionState previousState, TestSelectionState currentState) {
+        Set<String> changed = new HashSet<String>();
+        for (Map.Entry<String, HashCode> entry : currentState.getClassHashes().entrySet()) {
+            if (!entry.getValue().equals(previousState.getClassHashes().get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String className : previousState.getClassHashes().keySet()) {
+            if (!currentState.getClassHashes().containsKey(className)) {
+                changed.add(className);
+            }
+        }
+        for (String className : changed) {
+            if (previousState.getDependentToAllClasses().contains(className) || currentState.getDependentToAllClasses().contains(className)) {
+                return null;
+            }
+        }
+
+        // Use the dependencies of both executions, so that a class that dropped a dependency to a changed class is still considered affected
+        Multimap<String, String> dependents = HashMultimap.create();
+        addDependents(previousState.getClassDependencies(), dependents);
+        addDependents(currentState.getClassDependencies(), dependents);
+
+        Set<String> affected = new HashSet<String>(changed);
+        Deque<String> queue = new ArrayDeque<String>(changed);
+        while (!queue.isEmpty()) {
+            for (String dependent : dependents.get(queue.removeFirst())) {
+                if (affected.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return affected;
+    }
+
+    private static void addDependents(Map<String, Set<String>> classDependencies, Multimap<String, String> dependents) {
+        for (Map.Entry<String, Set<String>> entry : classDependencies.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                dependents.put(dependency, entry.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import com.google.common.hash.HashCode;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.MapSerializer;
+import org.gradle.internal.serialize.SetSerializer;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * The classes of the test runtime classpath directories, with their dependencies on each other, as seen by an execution of a test task.
+ */
+class TestSelectionState {
+    private final HashCode configurationHash;
+    private final Map<String, HashCode> classHashes;
+    private final Map<String, Set<String>> classDependencies;
+    private final Set<String> dependentToAllClasses;
+    private final Set<String> executedTestClasses;
+    private final Set<String> failedTestClasses;
+
+    /**
+     * @param configurationHash Hash of everything other than the classes that may influence the test results, such as the task configuration, resources and jars.
+     * @param classHashes The hash of each class.
+     * @param classDependencies The classes each class depends on.
+     * @param dependentToAllClasses The classes that may be inlined into any other class, for example because they declare constants.
+     * @param executedTestClasses The test classes that were executed, or whose results were reused. Some of them may have no results.
+     * @param failedTestClasses The test classes that had failures.
+     */
+    TestSelectionState(HashCode configurationHash, Map<String, HashCode> classHashes, Map<String, Set<String>> classDependencies, Set<String> dependentToAllClasses,
+                       Set<String> executedTestClasses, Set<String> failedTestClasses) {
+        this.configurationHash = configurationHash;
+        this.classHashes = classHashes;
+        this.classDependencies = classDependencies;
+        this.dependentToAllClasses = dependentToAllClasses;
+        this.executedTestClasses = executedTestClasses;
+        this.failedTestClasses = failedTestClasses;
+    }
+
+    public HashCode getConfigurationHash() {
+        return configurationHash;
+    }
+
+    public Map<String, HashCode> getClassHashes() {
+        return classHashes;
+    }
+
+    public Map<String, Set<String>> getClassDependencies() {
+        return classDependencies;
+    }
+
+    public Set<String> getDependentToAllClasses() {
+        return dependentToAllClasses;
+    }
+
+    public Set<String> getExecutedTestClasses() {
+        return executedTestClasses;
+    }
+
+    public Set<String> getFailedTestClasses() {
+        return failedTestClasses;
+    }
+
+    public TestSelectionState withTestClasses(Set<String> executedTestClasses, Set<String> failedTestClasses) {
+        return new TestSelectionState(configurationHash, classHashes, classDependencies, dependentToAllClasses, executedTestClasses, failedTestClasses);
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<TestSelectionState> {
+        private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+        private final SetSerializer<String> setSerializer = new SetSerializer<String>(STRING_SERIALIZER, false);
+        private final MapSerializer<String, HashCode> hashesSerializer = new MapSerializer<String, HashCode>(STRING_SERIALIZER, hashCodeSerializer);
+        private final MapSerializer<String, Set<String>> dependenciesSerializer = new MapSerializer<String, Set<String>>(STRING_SERIALIZER, setSerializer);
+
+        @Override
+        public TestSelectionState read(Decoder decoder) throws Exception {
+            HashCode configurationHash = hashCodeSerializer.read(decoder);
+            Map<String, HashCode> classHashes = hashesSerializer.read(decoder);
+            Map<String, Set<String>> classDependencies = dependenciesSerializer.read(decoder);
+            Set<String> dependentToAllClasses = setSerializer.read(decoder);
+            Set<String> executedTestClasses = setSerializer.read(decoder);
+            Set<String> failedTestClasses = setSerializer.read(decoder);
+            return new TestSelectionState(configurationHash, classHashes, classDependencies, dependentToAllClasses, executedTestClasses, failedTestClasses);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestSelectionState value) throws Exception {
+            hashCodeSerializer.write(encoder, value.configurationHash);
+            hashesSerializer.write(encoder, value.classHashes);
+            dependenciesSerializer.write(encoder, value.classDependencies);
+            setSerializer.write(encoder, value.dependentToAllClasses);
+            setSerializer.write(encoder, value.executedTestClasses);
+            setSerializer.write(encoder, value.failedTestClasses);
+        }
+    }
+}
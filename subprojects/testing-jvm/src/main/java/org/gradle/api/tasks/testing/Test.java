@@ -28,13 +28,16 @@ import org.gradle.api.internal.ClosureBackedAction;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
+import org.gradle.api.internal.tasks.testing.detection.TestClassDetectionCache;
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
@@ -57,7 +60,9 @@ import org.gradle.api.internal.tasks.testing.logging.TestExceptionFormatter;
 import org.gradle.api.internal.tasks.testing.results.StateTrackingTestResultProcessor;
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
 import org.gradle.api.internal.tasks.testing.results.TestListenerInternal;
+import org.gradle.api.internal.tasks.testing.selection.AffectedTestSelection;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerProcessPool;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.reporting.DirectoryReport;
 import org.gradle.api.reporting.Reporting;
@@ -79,6 +84,7 @@ import org.gradle.api.tasks.testing.logging.TestLoggingContainer;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerBroadcast;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.jvm.UnsupportedJavaRuntimeException;
@@ -585,11 +591,16 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         TestEventLogger eventLogger = new TestEventLogger(getTextOutputFactory(), currentLevel, levelLogging, exceptionFormatter);
         addTestListener(eventLogger);
         addTestOutputListener(eventLogger);
-        if (getFilter().isFailOnNoMatchingTests() && !getFilter().getIncludePatterns().isEmpty()) {
-            addTestListener(new NoMatchingTestsReporter("No tests found for given includes: " + getFilter().getIncludePatterns()));
-        }
 
         File binaryResultsDir = getBinResultsDir();
+        AffectedTestSelection testSelection = null;
+        if (AffectedTestSelection.isEnabled()) {
+            testSelection = new AffectedTestSelection(binaryResultsDir, new File(getTemporaryDir(), "previousResults"), getClasspath(), getInputs().getProperties(), getServices().get(FileHasher.class), new DefaultClassDependenciesAnalyzer());
+            testSelection.prepare();
+        }
+        if (getFilter().isFailOnNoMatchingTests() && !getFilter().getIncludePatterns().isEmpty()) {
+            addTestListener(createNoMatchingTestsReporter("No tests found for given includes: " + getFilter().getIncludePatterns(), testSelection));
+        }
         getProject().delete(binaryResultsDir);
         getProject().mkdir(binaryResultsDir);
 
@@ -610,7 +621,9 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         TestResultProcessor resultProcessor = new StateTrackingTestResultProcessor(testListenerInternalBroadcaster.getSource());
 
         if (testExecuter == null) {
-            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry(), getServices().get(BuildOperationWorkerRegistry.class), getServices().get(BuildOperationExecutor.class));
+            TestWorkerProcessPool testWorkerProcessPool = TestWorkerProcessPool.isEnabled() ? getServices().get(TestWorkerProcessPool.class) : null;
+            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry(), getServices().get(BuildOperationWorkerRegistry.class), getServices().get(BuildOperationExecutor.class), testWorkerProcessPool, testSelection,
+                getServices().get(ExecutorFactory.class), getProject().getGradle().getStartParameter().getMaxWorkerCount(), getServices().get(TestClassDetectionCache.class));
         }
 
         JavaVersion javaVersion = getJavaVersion();
@@ -620,6 +633,9 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
 
         try {
             testExecuter.execute(this, resultProcessor);
+            if (testSelection != null) {
+                testSelection.addReusedResults(results, outputWriter);
+            }
         } finally {
             testExecuter = null;
             testListenerBroadcaster.removeAll();
@@ -629,6 +645,9 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         new TestResultSerializer(binaryResultsDir).write(results.values());
+        if (testSelection != null) {
+            testSelection.storeState(results.values());
+        }
 
         TestResultsProvider testResultsProvider = new InMemoryTestResultsProvider(results.values(), testOutputStore);
 
@@ -1218,6 +1237,21 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         throw new AssertionError("could not determine current log level");
     }
 
+    private static NoMatchingTestsReporter createNoMatchingTestsReporter(String message, final AffectedTestSelection testSelection) {
+        if (testSelection == null) {
+            return new NoMatchingTestsReporter(message);
+        }
+        return new NoMatchingTestsReporter(message) {
+            @Override
+            public void afterSuite(TestDescriptor suite, TestResult result) {
+                // The tests of the test classes that were not executed are not counted, but they match the filter as well
+                if (!testSelection.hasReusedTests()) {
+                    super.afterSuite(suite, result);
+                }
+            }
+        };
+    }
+
     private TestExceptionFormatter getExceptionFormatter(TestLogging testLogging) {
         switch (testLogging.getExceptionFormat()) {
             case SHORT:
@@ -16,19 +16,24 @@
 
 package org.gradle.jvm.test.internal.services;
 
+import org.gradle.api.internal.tasks.testing.detection.TestClassDetectionCache;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerProcessPool;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 import org.gradle.jvm.test.internal.JUnitTestSuiteBinaryRenderer;
+import org.gradle.process.internal.health.memory.MemoryManager;
 
 public class JvmTestingServices implements PluginServiceRegistry {
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.add(JUnitTestSuiteBinaryRenderer.class);
+        registration.add(TestClassDetectionCache.class);
     }
 
     @Override
     public void registerBuildSessionServices(ServiceRegistration registration) {
-
+        registration.addProvider(new BuildSessionScopeServices());
     }
 
     @Override
@@ -45,4 +50,10 @@ public class JvmTestingServices implements PluginServiceRegistry {
     public void registerProjectServices(ServiceRegistration registration) {
 
     }
+
+    private static class BuildSessionScopeServices {
+        TestWorkerProcessPool createTestWorkerProcessPool(MemoryManager memoryManager, ExecutorFactory executorFactory) {
+            return new TestWorkerProcessPool(memoryManager, executorFactory);
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ClassFileExtractionManagerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def manager = new ClassFileExtractionManager()
+
+    def cleanup() {
+        manager.close()
+    }
+
+    def "reads class files from library jars"() {
+        def jar = jar("lib.jar", "org/gradle/A.class": "a", "B.class": "b", "org/gradle/resource.txt": "resource")
+
+        when:
+        manager.addLibraryJar(jar)
+
+        then:
+        new String(manager.getLibraryClassFile("org/gradle/A")) == "a"
+        new String(manager.getLibraryClassFile("B")) == "b"
+        manager.getLibraryClassFile("org/gradle/resource.txt") == null
+        manager.getLibraryClassFile("org/gradle/Missing") == null
+    }
+
+    def "uses the class file of the jar that was added first"() {
+        def first = jar("first.jar", "org/gradle/A.class": "first")
+        def second = jar("second.jar", "org/gradle/A.class": "second", "org/gradle/B.class": "b")
+
+        when:
+        manager.addLibraryJar(second)
+        manager.addLibraryJar(first)
+
+        then:
+        new String(manager.getLibraryClassFile("org/gradle/A")) == "second"
+        new String(manager.getLibraryClassFile("org/gradle/B")) == "b"
+    }
+
+    def "reads class files after the jar files have been closed"() {
+        def jar = jar("lib.jar", "org/gradle/A.class": "a", "org/gradle/B.class": "b")
+
+        when:
+        manager.addLibraryJar(jar)
+        def a = manager.getLibraryClassFile("org/gradle/A")
+        manager.close()
+
+        then:
+        new String(a) == "a"
+        new String(manager.getLibraryClassFile("org/gradle/B")) == "b"
+    }
+
+    def jar(Map<String, String> entries, String name) {
+        def contents = tmp.createDir(name + "-contents")
+        entries.each { path, text -> contents.file(path).text = text }
+        return contents.zipTo(tmp.file(name))
+    }
+}
@@ -21,6 +21,7 @@ import org.gradle.api.file.FileTree
 import org.gradle.api.file.FileVisitDetails
 import org.gradle.api.file.FileVisitor
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.junit.Test
 import spock.lang.Specification
 
@@ -49,7 +50,70 @@ public class DefaultTestClassScannerTest extends Specification {
             visitor.visitFile({new File('class1.class')} as FileVisitDetails)
             visitor.visitFile({new File('class2.class')} as FileVisitDetails)
         }
+        then:
+        1 * detector.endDetection()
 
         0 * _._
     }
+
+    def "prepares class files in parallel and passes them to test class detector in order"() {
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, new DefaultExecutorFactory(), 4)
+        def classFiles = (1..20).collect { new File("class${it}.class") }
+        def processed = []
+
+        when:
+        scanner.run()
+
+        then:
+        1 * detector.startDetection(processor)
+        1 * files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            classFiles.each { file -> visitor.visitFile({ file } as FileVisitDetails) }
+        }
+        20 * detector.prepareTestClass(_)
+        20 * detector.processTestClass(_) >> { File file -> processed << file; true }
+        1 * detector.endDetection()
+        0 * _._
+
+        and:
+        processed == classFiles
+    }
+
+    def "reads class files one at a time when a single thread is allowed"() {
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, new DefaultExecutorFactory(), 1)
+
+        when:
+        scanner.run()
+
+        then:
+        1 * detector.startDetection(processor)
+        1 * files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            visitor.visitFile({ new File('class1.class') } as FileVisitDetails)
+        }
+        1 * detector.processTestClass(new File('class1.class'))
+        1 * detector.endDetection()
+        0 * _._
+    }
+
+    def "rethrows failure to prepare class file"() {
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, new DefaultExecutorFactory(), 4)
+        def failure = new RuntimeException("broken")
+
+        when:
+        scanner.run()
+
+        then:
+        1 * files.visit(_) >> { args ->
+            FileVisitor visitor = args[0]
+            visitor.visitFile({ new File('class1.class') } as FileVisitDetails)
+        }
+        1 * detector.prepareTestClass(new File('class1.class')) >> { throw failure }
+        0 * detector.processTestClass(_)
+        1 * detector.endDetection()
+
+        and:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+    }
 }
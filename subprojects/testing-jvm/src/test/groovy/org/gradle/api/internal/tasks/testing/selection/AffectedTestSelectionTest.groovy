@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection
+
+import com.google.common.hash.Hashing
+import org.gradle.api.file.FileTreeElement
+import org.gradle.api.internal.hash.FileHasher
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AffectedTestSelectionTest extends Specification {
+    @Rule
+    private TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def classesDir = tmp.createDir("classes")
+    def binaryResultsDir = tmp.file("results")
+    def previousResultsDir = tmp.file("previousResults")
+    def dependencies = [:]
+    def dependentToAll = [] as Set
+    def inputProperties = [maxHeapSize: "256m"]
+    def fileHasher = Stub(FileHasher) {
+        hash(_ as File) >> { File file -> Hashing.md5().hashBytes(file.bytes) }
+        hash(_ as FileTreeElement) >> { FileTreeElement details -> Hashing.md5().hashBytes(details.file.bytes) }
+    }
+    def analyzer = Stub(ClassDependenciesAnalyzer) {
+        getClassAnalysis(_, _) >> { String className, FileTreeElement file -> new ClassAnalysis((dependencies[className] ?: []) as Set, dependentToAll.contains(className), [] as Set, [] as Set) }
+    }
+
+    def setup() {
+        classFile("org.A") << "a"
+        classFile("org.B") << "b"
+        classFile("org.ATest") << "a-test"
+        classFile("org.BTest") << "b-test"
+        dependencies["org.ATest"] = ["org.A", "java.lang.Object"]
+        dependencies["org.BTest"] = ["org.B", "org.Missing"]
+    }
+
+    def "selects all test classes when there is no previous execution"() {
+        when:
+        def selection = execute(["org.ATest", "org.BTest"])
+
+        then:
+        selection.executed == ["org.ATest", "org.BTest"]
+    }
+
+    def "selects test classes that depend on changed classes"() {
+        given:
+        execute(["org.ATest", "org.BTest"])
+
+        when:
+        classFile("org.A").text = "a changed"
+        def selection = execute(["org.ATest", "org.BTest"])
+
+        then:
+        selection.executed == ["org.ATest"]
+    }
+
+    def "selects test classes that transitively depend on changed classes"() {
+        given:
+        dependencies["org.A"] = ["org.B"]
+        execute(["org.ATest", "org.BTest"])
+
+        when:
+        classFile("org.B").text = "b changed"
+        def selection = execute(["org.ATest", "org.BTest"])
+
+        then:
+        selection.executed == ["org.ATest", "org.BTest"]
+    }
+
+    def "selects changed, new and previously failed test classes"() {
+        given:
+        execute(["org.ATest", "org.BTest"], ["org.BTest"])
+
+        when:
+        classFile("org.CTest") << "c-test"
+        def selection = execute(["org.ATest", "org.BTest", "org.CTest"])
+
+        then:
+        selection.executed == ["org.BTest", "org.CTest"]
+
+        when:
+        classFile("org.ATest").text = "a-test changed"
+        selection = execute(["org.ATest", "org.BTest", "org.CTest"])
+
+        then:
+        selection.executed == ["org.ATest"]
+    }
+
+    def "selects all test classes when a changed class may have been inlined"() {
+        given:
+        dependentToAll << "org.A"
+        execute(["org.ATest", "org.BTest"])
+
+        when:
+        classFile("org.A").text = "a changed"
+        def selection = execute(["org.ATest", "org.BTest"])
+
+        then:
+        selection.executed == ["org.ATest", "org.BTest"]
+    }
+
+    def "selects all test classes when the task configuration or a resource changes"() {
+        given:
+        execute(["org.ATest", "org.BTest"])
+
+        when:
+        inputProperties.maxHeapSize = "512m"
+        def selection = execute(["org.ATest", "org.BTest"])
+
+        then:
+        selection.executed == ["org.ATest", "org.BTest"]
+
+        when:
+        classesDir.file("org/resource.properties") << "changed"
+        selection = execute(["org.ATest", "org.BTest"])
+
+        then:
+        selection.executed == ["org.ATest", "org.BTest"]
+    }
+
+    def "reuses the previous results and output of test classes that are not selected"() {
+        given:
+        execute(["org.ATest", "org.BTest"])
+
+        when:
+        classFile("org.A").text = "a changed"
+        def selection = execute(["org.ATest", "org.BTest"])
+
+        then:
+        selection.results.keySet() == ["org.ATest", "org.BTest"] as Set
+        def reused = selection.results["org.BTest"]
+        reused.results*.name == ["test"]
+        reused.results[0].resultType == TestResult.ResultType.SUCCESS
+        reused.id != selection.results["org.ATest"].id
+
+        and:
+        def reader = new TestOutputStore(binaryResultsDir).reader()
+        def output = new StringWriter()
+        reader.writeTestOutput(reused.id, reused.results[0].id, TestOutputEvent.Destination.StdOut, output)
+        reader.close()
+        output.toString() == "output of org.BTest"
+    }
+
+    def "does not select unaffected test classes that had no results"() {
+        given:
+        classFile("org.BaseTest") << "base-test"
+        execute(["org.ATest", "org.BTest", "org.BaseTest"], [], ["org.BaseTest"])
+
+        when:
+        classFile("org.A").text = "a changed"
+        def selection = execute(["org.ATest", "org.BTest", "org.BaseTest"])
+
+        then:
+        selection.executed == ["org.ATest"]
+        selection.results.keySet() == ["org.ATest", "org.BTest"] as Set
+    }
+
+    def "reports whether the reused results contain tests"() {
+        given:
+        execute(["org.ATest", "org.BTest"], [], ["org.BTest"])
+
+        when:
+        classFile("org.A").text = "a changed"
+        def selection = execute(["org.ATest", "org.BTest"])
+
+        then:
+        selection.executed == ["org.ATest"]
+        !selection.reusedTests
+
+        when:
+        classFile("org.B").text = "b changed"
+        execute(["org.ATest", "org.BTest"])
+        classFile("org.A").text = "a changed again"
+        selection = execute(["org.ATest", "org.BTest"])
+
+        then:
+        selection.executed == ["org.ATest"]
+        selection.reusedTests
+    }
+
+    def classFile(String className) {
+        TestFile file = classesDir.file(className.replace('.', '/') + ".class")
+        file.parentFile.mkdirs()
+        return file
+    }
+
+    /**
+     * Runs the given candidate test classes through a selection, the same way the test task does.
+     */
+    def execute(List<String> candidates, List<String> failing = [], List<String> withoutResults = []) {
+        def selection = new AffectedTestSelection(binaryResultsDir, previousResultsDir, [classesDir], inputProperties, fileHasher, analyzer)
+        selection.prepare()
+        binaryResultsDir.deleteDir()
+        binaryResultsDir.mkdirs()
+
+        def executed = []
+        def processor = selection.decorate(Stub(TestClassProcessor) {
+            processTestClass(_) >> { args -> executed << args[0].testClassName }
+        })
+        candidates.each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+
+        def results = [:]
+        def outputStore = new TestOutputStore(binaryResultsDir)
+        def outputWriter = outputStore.writer()
+        long id = 1
+        executed.findAll { !withoutResults.contains(it) }.each { String className ->
+            def classResult = new TestClassResult(id++, className, 0)
+            def methodResult = new TestMethodResult(id++, "test", failing.contains(className) ? TestResult.ResultType.FAILURE : TestResult.ResultType.SUCCESS, 1, 1)
+            if (failing.contains(className)) {
+                methodResult.addFailure("failed", "stack-trace", "Exception")
+            }
+            classResult.add(methodResult)
+            outputWriter.onOutput(classResult.id, methodResult.id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output of " + className))
+            results[className] = classResult
+        }
+        selection.addReusedResults(results, outputWriter)
+        outputWriter.close()
+        new TestResultSerializer(binaryResultsDir).write(results.values())
+        selection.storeState(results.values())
+
+        return [executed: executed, results: results, reusedTests: selection.hasReusedTests()]
+    }
+}
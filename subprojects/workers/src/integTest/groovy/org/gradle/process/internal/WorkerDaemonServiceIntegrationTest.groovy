@@ -210,6 +210,40 @@ class WorkerDaemonServiceIntegrationTest extends AbstractWorkerDaemonServiceInte
         assertSameDaemonWasUsed("runInDaemon", "reuseDaemon")
     }
 
+    def "can submit work that executes in parallel in several daemons and wait for it"() {
+        blockingServer.start()
+        blockingServer.expectConcurrentExecution("first", "second")
+
+        withRunnableClassInBuildSrc()
+        withBlockingRunnableClassInBuildSrc("http://localhost:${blockingServer.port}")
+
+        buildFile << """
+            class DaemonTaskSubmittingWork extends DaemonTask {
+                @TaskAction
+                void executeTask() {
+                    ["first", "second"].each { dir ->
+                        workerDaemons.daemonRunnable(runnableClass)
+                            .forkOptions(additionalForkOptions)
+                            .params(list.collect { it as String }, new File(outputFileDirPath, dir), new Foo())
+                            .submit()
+                    }
+                    workerDaemons.await()
+                }
+            }
+
+            task runInDaemons(type: DaemonTaskSubmittingWork) {
+                runnableClass = BlockingRunnable.class
+            }
+        """
+
+        when:
+        args("--max-workers=4")
+        succeeds("runInDaemons")
+
+        then:
+        assertDifferentDaemonsWereUsed("runInDaemons/first", "runInDaemons/second")
+    }
+
     def "throws if used from a thread with no current build operation"() {
         given:
         withRunnableClassInBuildSrc()
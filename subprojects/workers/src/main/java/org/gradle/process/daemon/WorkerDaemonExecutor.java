@@ -68,4 +68,15 @@ public interface WorkerDaemonExecutor {
      * @throws WorkerDaemonExecutionException when a failure occurs while executing the work.
      */
     void execute() throws WorkerDaemonExecutionException;
+
+    /**
+     * Asynchronously executes the work in a daemon process.  The work is executed in an idle daemon that meets the requirements set on this builder, or in a new
+     * daemon when there is none, so that several work items can execute in parallel in different daemons.  The builder can be reconfigured and used to submit more
+     * work as soon as this method returns.
+     *
+     * @return a handle that can be used to wait for the completion of the work.
+     * @see WorkerDaemonService#await()
+     * @since 3.4
+     */
+    WorkerDaemonHandle submit();
 }
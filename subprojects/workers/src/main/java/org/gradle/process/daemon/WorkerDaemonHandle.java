@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.daemon;
+
+import org.gradle.api.Incubating;
+
+/**
+ * A handle to work submitted for execution in a daemon process.
+ *
+ * @since 3.4
+ */
+@Incubating
+public interface WorkerDaemonHandle {
+    /**
+     * Returns true when the work has completed, either successfully or with a failure.
+     *
+     * @return true when the work has completed.
+     */
+    boolean isDone();
+
+    /**
+     * Blocks until the work has completed.
+     *
+     * @throws WorkerDaemonExecutionException when a failure occurs while executing the work.
+     */
+    void await() throws WorkerDaemonExecutionException;
+}
@@ -31,4 +31,14 @@ public interface WorkerDaemonService {
      * @return A {@link WorkerDaemonExecutor} that builds a daemon Runnable.
      */
     WorkerDaemonExecutor daemonRunnable(Class<? extends Runnable> runnableClass);
+
+    /**
+     * Blocks until all work submitted by the current task using {@link WorkerDaemonExecutor#submit()} has completed. Work that has not been waited for
+     * is waited for when the task action completes, in which case its failures fail the task.
+     *
+     * @throws WorkerDaemonExecutionException when a failure occurs while executing the work.  When several work items fail, all of the failures are reported.
+     *
+     * @since 3.4
+     */
+    void await() throws WorkerDaemonExecutionException;
 }
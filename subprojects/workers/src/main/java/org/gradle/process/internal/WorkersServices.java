@@ -18,6 +18,9 @@ package org.gradle.process.internal;
 
 import org.gradle.StartParameter;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.operations.AsyncWorkTracker;
 import org.gradle.internal.operations.BuildOperationWorkerRegistry;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
@@ -25,12 +28,17 @@ import org.gradle.process.daemon.WorkerDaemonService;
 import org.gradle.process.internal.daemon.DefaultWorkerDaemonService;
 import org.gradle.process.internal.daemon.WorkerDaemonClientsManager;
 import org.gradle.process.internal.daemon.WorkerDaemonManager;
+import org.gradle.process.internal.daemon.WorkerDaemonPrewarmer;
 import org.gradle.process.internal.daemon.WorkerDaemonStarter;
+import org.gradle.process.internal.daemon.WorkerDaemonUsageHistory;
+import org.gradle.process.internal.daemon.WorkerDaemonWorkQueue;
+import org.gradle.process.internal.health.memory.MemoryManager;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 
 public class WorkersServices implements PluginServiceRegistry {
     @Override
     public void registerGlobalServices(ServiceRegistration registration) {
+        registration.add(WorkerDaemonUsageHistory.class);
     }
 
     @Override
@@ -40,6 +48,9 @@ public class WorkersServices implements PluginServiceRegistry {
 
     @Override
     public void registerBuildServices(ServiceRegistration registration) {
+        if (WorkerDaemonClientsManager.isPrewarmEnabled()) {
+            registration.addProvider(new WorkerDaemonPrewarmServices());
+        }
     }
 
     @Override
@@ -51,12 +62,25 @@ public class WorkersServices implements PluginServiceRegistry {
     }
 
     private static class BuildSessionScopeServices {
-        WorkerDaemonManager createWorkerDaemonManager(BuildOperationWorkerRegistry buildOperationWorkerRegistry, WorkerProcessFactory workerFactory, StartParameter startParameter) {
-            return new WorkerDaemonManager(new WorkerDaemonClientsManager(new WorkerDaemonStarter(buildOperationWorkerRegistry, workerFactory, startParameter)));
+        WorkerDaemonManager createWorkerDaemonManager(BuildOperationWorkerRegistry buildOperationWorkerRegistry, WorkerProcessFactory workerFactory, StartParameter startParameter,
+                                                      MemoryManager memoryManager, WorkerDaemonUsageHistory usageHistory) {
+            WorkerDaemonStarter workerDaemonStarter = new WorkerDaemonStarter(buildOperationWorkerRegistry, workerFactory, startParameter);
+            WorkerDaemonClientsManager clientsManager = new WorkerDaemonClientsManager(workerDaemonStarter, memoryManager, usageHistory, WorkerDaemonClientsManager.getMaxIdleClients(startParameter.getMaxWorkerCount()));
+            return new WorkerDaemonManager(clientsManager);
+        }
+
+        WorkerDaemonWorkQueue createWorkerDaemonWorkQueue(BuildOperationWorkerRegistry buildOperationWorkerRegistry, AsyncWorkTracker asyncWorkTracker, ExecutorFactory executorFactory, StartParameter startParameter) {
+            return new WorkerDaemonWorkQueue(buildOperationWorkerRegistry, asyncWorkTracker, executorFactory, startParameter.getMaxWorkerCount());
         }
 
-        WorkerDaemonService createWorkerDaemonService(WorkerDaemonManager workerDaemonManager, FileResolver fileResolver) {
-            return new DefaultWorkerDaemonService(workerDaemonManager, fileResolver);
+        WorkerDaemonService createWorkerDaemonService(WorkerDaemonManager workerDaemonManager, WorkerDaemonWorkQueue workerDaemonWorkQueue, FileResolver fileResolver) {
+            return new DefaultWorkerDaemonService(workerDaemonManager, workerDaemonWorkQueue, fileResolver);
+        }
+    }
+
+    private static class WorkerDaemonPrewarmServices {
+        void configure(ServiceRegistration registration, ListenerManager listenerManager, WorkerDaemonManager workerDaemonManager, ExecutorFactory executorFactory) {
+            listenerManager.addListener(new WorkerDaemonPrewarmer(workerDaemonManager, executorFactory));
         }
     }
 }
@@ -26,6 +26,7 @@ import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.process.daemon.WorkerDaemonExecutionException;
 import org.gradle.process.daemon.WorkerDaemonExecutor;
+import org.gradle.process.daemon.WorkerDaemonHandle;
 import org.gradle.process.internal.DefaultJavaForkOptions;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.GUtil;
@@ -36,14 +37,16 @@ import java.util.Set;
 
 public abstract class AbstractWorkerDaemonExecutor<T> implements WorkerDaemonExecutor {
     private final WorkerDaemonFactory workerDaemonFactory;
+    private final WorkerDaemonWorkQueue workQueue;
     private final JavaForkOptions javaForkOptions;
     private final Set<File> classpath = Sets.newLinkedHashSet();
     private final Class<? extends T> implementationClass;
     private final Class<? extends WorkerDaemonProtocol> serverImplementationClass;
     private Serializable[] params = new Serializable[]{};
 
-    public AbstractWorkerDaemonExecutor(WorkerDaemonFactory workerDaemonFactory, FileResolver fileResolver, Class<? extends T> implementationClass, Class<? extends WorkerDaemonProtocol> serverImplementationClass) {
+    public AbstractWorkerDaemonExecutor(WorkerDaemonFactory workerDaemonFactory, WorkerDaemonWorkQueue workQueue, FileResolver fileResolver, Class<? extends T> implementationClass, Class<? extends WorkerDaemonProtocol> serverImplementationClass) {
         this.workerDaemonFactory = workerDaemonFactory;
+        this.workQueue = workQueue;
         this.javaForkOptions = new DefaultJavaForkOptions(fileResolver);
         this.implementationClass = implementationClass;
         this.serverImplementationClass = serverImplementationClass;
@@ -87,17 +90,36 @@ public abstract class AbstractWorkerDaemonExecutor<T> implements WorkerDaemonExe
 
     @Override
     public void execute() {
+        prepareExecution().run();
+    }
+
+    @Override
+    public WorkerDaemonHandle submit() {
+        return workQueue.submit(prepareExecution());
+    }
+
+    /**
+     * Captures the current configuration of this executor, so that the work is not affected by changes made to the executor after submission.
+     */
+    private Runnable prepareExecution() {
         final WorkSpec spec = getSpec();
         final WorkerDaemonAction action = getAction();
-        try {
-            WorkerDaemon daemon = workerDaemonFactory.getDaemon(serverImplementationClass, getForkOptions().getWorkingDir(), getDaemonForkOptions());
-            WorkerDaemonResult result = daemon.execute(action, spec);
-            if (!result.isSuccess()) {
-                throw result.getException();
+        final File workingDir = getForkOptions().getWorkingDir();
+        final DaemonForkOptions daemonForkOptions = getDaemonForkOptions();
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    WorkerDaemon daemon = workerDaemonFactory.getDaemon(serverImplementationClass, workingDir, daemonForkOptions);
+                    WorkerDaemonResult result = daemon.execute(action, spec);
+                    if (!result.isSuccess()) {
+                        throw result.getException();
+                    }
+                } catch (Throwable t) {
+                    throw new WorkerDaemonExecutionException("A failure occurred while executing " + action.getDescription(), t);
+                }
             }
-        } catch (Throwable t) {
-            throw new WorkerDaemonExecutionException("A failure occurred while executing " + action.getDescription(), t);
-        }
+        };
     }
 
     DaemonForkOptions getDaemonForkOptions() {
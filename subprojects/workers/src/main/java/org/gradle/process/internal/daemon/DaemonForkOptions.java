@@ -21,8 +21,10 @@ import com.google.common.collect.Sets;
 
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.Nullable;
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
 
@@ -32,6 +34,7 @@ public class DaemonForkOptions {
     private final Iterable<String> jvmArgs;
     private final Iterable<File> classpath;
     private final Iterable<String> sharedPackages;
+    private final RequestArgumentSerializers argumentSerializers;
 
     public DaemonForkOptions(@Nullable String minHeapSize, @Nullable String maxHeapSize, Iterable<String> jvmArgs) {
         this(minHeapSize, maxHeapSize, jvmArgs, Collections.<File>emptyList(), Collections.<String>emptyList());
@@ -39,11 +42,17 @@ public class DaemonForkOptions {
 
     public DaemonForkOptions(@Nullable String minHeapSize, @Nullable String maxHeapSize, Iterable<String> jvmArgs, Iterable<File> classpath,
                              Iterable<String> sharedPackages) {
+        this(minHeapSize, maxHeapSize, jvmArgs, classpath, sharedPackages, new RequestArgumentSerializers());
+    }
+
+    public DaemonForkOptions(@Nullable String minHeapSize, @Nullable String maxHeapSize, Iterable<String> jvmArgs, Iterable<File> classpath,
+                             Iterable<String> sharedPackages, RequestArgumentSerializers argumentSerializers) {
         this.minHeapSize = minHeapSize;
         this.maxHeapSize = maxHeapSize;
         this.jvmArgs = jvmArgs;
         this.classpath = classpath;
         this.sharedPackages = sharedPackages;
+        this.argumentSerializers = argumentSerializers;
     }
 
     public String getMinHeapSize() {
@@ -66,12 +75,34 @@ public class DaemonForkOptions {
         return sharedPackages;
     }
 
+    /**
+     * Returns the serializers to use for the work specs sent to the daemon.
+     */
+    public RequestArgumentSerializers getArgumentSerializers() {
+        return argumentSerializers;
+    }
+
+    /**
+     * Returns the max heap size in megabytes, or -1 when unspecified.
+     */
+    public int getMaxHeapSizeMb() {
+        return getHeapSizeMb(maxHeapSize);
+    }
+
+    /**
+     * Returns a key that is equal for all fork options that start equivalent daemons. Fork options with equal keys are always compatible with each other.
+     */
+    public Object getKey() {
+        return Arrays.asList(getHeapSizeMb(minHeapSize), getHeapSizeMb(maxHeapSize), getNormalizedJvmArgs(jvmArgs), getNormalizedClasspath(classpath), getNormalizedSharedPackages(sharedPackages), argumentSerializers);
+    }
+
     public boolean isCompatibleWith(DaemonForkOptions other) {
         return getHeapSizeMb(minHeapSize) >= getHeapSizeMb(other.getMinHeapSize())
                 && getHeapSizeMb(maxHeapSize) >= getHeapSizeMb(other.getMaxHeapSize())
                 && getNormalizedJvmArgs(jvmArgs).containsAll(getNormalizedJvmArgs(other.getJvmArgs()))
                 && getNormalizedClasspath(classpath).containsAll(getNormalizedClasspath(other.getClasspath()))
-                && getNormalizedSharedPackages(sharedPackages).containsAll(getNormalizedSharedPackages(other.sharedPackages));
+                && getNormalizedSharedPackages(sharedPackages).containsAll(getNormalizedSharedPackages(other.sharedPackages))
+                && argumentSerializers.containsAll(other.argumentSerializers);
     }
 
     // one way to merge fork options, good for current use case
@@ -84,7 +115,8 @@ public class DaemonForkOptions {
         mergedClasspath.addAll(getNormalizedClasspath(other.classpath));
         Set<String> mergedAllowedPackages = getNormalizedSharedPackages(sharedPackages);
         mergedAllowedPackages.addAll(getNormalizedSharedPackages(other.sharedPackages));
-        return new DaemonForkOptions(mergedMinHeapSize, mergedMaxHeapSize, mergedJvmArgs, mergedClasspath, mergedAllowedPackages);
+        RequestArgumentSerializers mergedArgumentSerializers = new RequestArgumentSerializers().registerAll(argumentSerializers).registerAll(other.argumentSerializers);
+        return new DaemonForkOptions(mergedMinHeapSize, mergedMaxHeapSize, mergedJvmArgs, mergedClasspath, mergedAllowedPackages, mergedArgumentSerializers);
     }
 
     private int getHeapSizeMb(String heapSize) {
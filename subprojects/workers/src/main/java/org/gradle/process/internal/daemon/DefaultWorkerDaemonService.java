@@ -22,15 +22,22 @@ import org.gradle.process.daemon.WorkerDaemonService;
 
 public class DefaultWorkerDaemonService implements WorkerDaemonService {
     private final WorkerDaemonFactory workerDaemonFactory;
+    private final WorkerDaemonWorkQueue workQueue;
     private final FileResolver fileResolver;
 
-    public DefaultWorkerDaemonService(WorkerDaemonFactory workerDaemonFactory, FileResolver fileResolver) {
+    public DefaultWorkerDaemonService(WorkerDaemonFactory workerDaemonFactory, WorkerDaemonWorkQueue workQueue, FileResolver fileResolver) {
         this.workerDaemonFactory = workerDaemonFactory;
+        this.workQueue = workQueue;
         this.fileResolver = fileResolver;
     }
 
     @Override
     public WorkerDaemonExecutor daemonRunnable(Class<? extends Runnable> runnableClass) {
-        return new WorkerDaemonRunnableExecutor(workerDaemonFactory, fileResolver, runnableClass, WorkerDaemonServer.class);
+        return new WorkerDaemonRunnableExecutor(workerDaemonFactory, workQueue, fileResolver, runnableClass, WorkerDaemonServer.class);
+    }
+
+    @Override
+    public void await() {
+        workQueue.await();
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import org.gradle.internal.exceptions.MultiCauseException;
+import org.gradle.process.daemon.WorkerDaemonExecutionException;
+
+import java.util.List;
+
+/**
+ * Reports the failures of several work items that were executed asynchronously in worker daemons.
+ */
+public class MultipleWorkerDaemonFailures extends WorkerDaemonExecutionException implements MultiCauseException {
+    private final List<WorkerDaemonExecutionException> causes;
+
+    public MultipleWorkerDaemonFailures(List<WorkerDaemonExecutionException> causes) {
+        super(format(causes), causes.get(0));
+        this.causes = causes;
+    }
+
+    private static String format(List<WorkerDaemonExecutionException> causes) {
+        StringBuilder sb = new StringBuilder("Multiple failures occurred while executing work in worker daemons:");
+        for (WorkerDaemonExecutionException cause : causes) {
+            sb.append(String.format("%n    %s", cause.getMessage()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public List<? extends Throwable> getCauses() {
+        return causes;
+    }
+}
@@ -22,11 +22,13 @@ class WorkerDaemonClient implements WorkerDaemon, Stoppable {
     private final BuildOperationWorkerRegistry buildOperationWorkerRegistry;
     private final DaemonForkOptions forkOptions;
     private final WorkerDaemonWorker workerProcess;
+    private final Object key;
 
     public WorkerDaemonClient(BuildOperationWorkerRegistry buildOperationWorkerRegistry, DaemonForkOptions forkOptions, WorkerDaemonWorker workerProcess) {
         this.buildOperationWorkerRegistry = buildOperationWorkerRegistry;
         this.forkOptions = forkOptions;
         this.workerProcess = workerProcess;
+        this.key = forkOptions.getKey();
     }
 
     @Override
@@ -41,6 +43,17 @@ class WorkerDaemonClient implements WorkerDaemon, Stoppable {
         }
     }
 
+    public DaemonForkOptions getForkOptions() {
+        return forkOptions;
+    }
+
+    /**
+     * Returns the key of the fork options this daemon was started with.
+     */
+    public Object getKey() {
+        return key;
+    }
+
     public boolean isCompatibleWith(DaemonForkOptions required) {
         return forkOptions.isCompatibleWith(required);
     }
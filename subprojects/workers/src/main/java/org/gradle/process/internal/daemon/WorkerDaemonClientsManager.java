@@ -18,37 +18,84 @@ package org.gradle.process.internal.daemon;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.util.NumberUtil;
+import org.gradle.process.internal.health.memory.IdleProcessMemoryThreshold;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.OsMemoryStatus;
+import org.gradle.process.internal.health.memory.OsMemoryStatusListener;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-public class WorkerDaemonClientsManager {
+/**
+ * Keeps track of the worker daemons of a build session.
+ *
+ * <p>Idle daemons are indexed by the key of their fork options, so that a daemon started with the requested fork options is found without scanning all idle daemons.
+ * The least recently used idle daemons are stopped when there are more than a maximum number of idle daemons, and when free system memory is low.</p>
+ */
+public class WorkerDaemonClientsManager implements OsMemoryStatusListener {
+    public static final String MAX_IDLE_DAEMONS_PROPERTY = "org.gradle.workers.maxIdleDaemons";
+    public static final String PREWARM_DAEMONS_TOGGLE = "org.gradle.workers.prewarmDaemons";
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonManager.class);
 
+    // Memory assumed to be used by a daemon that does not specify a max heap size
+    private static final long DEFAULT_DAEMON_MEMORY_BYTES = 512 * 1024 * 1024;
+
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
-    private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    // least recently used first
+    private final Set<WorkerDaemonClient> idleClients = new LinkedHashSet<WorkerDaemonClient>();
+    // most recently used first
+    private final Map<Object, Deque<WorkerDaemonClient>> idleClientsByKey = new HashMap<Object, Deque<WorkerDaemonClient>>();
 
-    private WorkerDaemonStarter workerDaemonStarter;
+    private final WorkerDaemonStarter workerDaemonStarter;
+    private final MemoryManager memoryManager;
+    private final WorkerDaemonUsageHistory usageHistory;
+    private final int maxIdleClients;
+    private StoppableExecutor prewarmExecutor;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter) {
+    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, MemoryManager memoryManager, WorkerDaemonUsageHistory usageHistory, int maxIdleClients) {
         this.workerDaemonStarter = workerDaemonStarter;
+        this.memoryManager = memoryManager;
+        this.usageHistory = usageHistory;
+        this.maxIdleClients = maxIdleClients;
+        memoryManager.addListener(this);
     }
 
-    public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
-        return reserveIdleClient(forkOptions, idleClients);
+    /**
+     * Returns the max number of idle daemons to keep, which defaults to the max worker count.
+     */
+    public static int getMaxIdleClients(int maxWorkerCount) {
+        return Math.max(1, Integer.getInteger(MAX_IDLE_DAEMONS_PROPERTY, maxWorkerCount));
+    }
+
+    public static boolean isPrewarmEnabled() {
+        return Boolean.getBoolean(PREWARM_DAEMONS_TOGGLE);
     }
 
-    WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
+    public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
         synchronized (lock) {
-            Iterator<WorkerDaemonClient> it = clients.iterator();
-            while(it.hasNext()) {
-                WorkerDaemonClient candidate = it.next();
-                if(candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
+            Deque<WorkerDaemonClient> candidates = idleClientsByKey.get(forkOptions.getKey());
+            if (candidates != null && !candidates.isEmpty()) {
+                WorkerDaemonClient candidate = candidates.getFirst();
+                removeIdleClient(candidate);
+                return candidate;
+            }
+            for (WorkerDaemonClient candidate : idleClients) {
+                if (candidate.isCompatibleWith(forkOptions)) {
+                    removeIdleClient(candidate);
                     return candidate;
                 }
             }
@@ -62,21 +109,130 @@ public class WorkerDaemonClientsManager {
         synchronized (lock) {
             allClients.add(client);
         }
+        usageHistory.record(serverImplementationClass, workingDir, forkOptions);
         return client;
     }
 
     public void release(WorkerDaemonClient client) {
+        List<WorkerDaemonClient> evicted = new ArrayList<WorkerDaemonClient>();
         synchronized (lock) {
+            Deque<WorkerDaemonClient> candidates = idleClientsByKey.get(client.getKey());
+            if (candidates == null) {
+                candidates = new ArrayDeque<WorkerDaemonClient>();
+                idleClientsByKey.put(client.getKey(), candidates);
+            }
+            candidates.addFirst(client);
             idleClients.add(client);
+
+            Iterator<WorkerDaemonClient> leastRecentlyUsed = idleClients.iterator();
+            while (idleClients.size() - evicted.size() > maxIdleClients) {
+                evicted.add(leastRecentlyUsed.next());
+            }
+            for (WorkerDaemonClient idleClient : evicted) {
+                removeIdleClient(idleClient);
+                allClients.remove(idleClient);
+            }
+        }
+        if (!evicted.isEmpty()) {
+            LOGGER.debug("Stopping {} least recently used worker daemon(s) as there are more than {} idle worker daemon(s).", evicted.size(), maxIdleClients);
+            CompositeStoppable.stoppable(evicted).stop();
+        }
+    }
+
+    /**
+     * Starts daemons for the configurations most recently used by earlier build sessions, in the background. Does nothing when daemons have already been started ahead of time.
+     */
+    public void prewarm(ExecutorFactory executorFactory) {
+        List<WorkerDaemonUsageHistory.Usage> usages = usageHistory.getMostRecentlyUsed(maxIdleClients);
+        if (usages.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            if (prewarmExecutor != null) {
+                return;
+            }
+            prewarmExecutor = executorFactory.create("Worker Daemon Prewarm");
+        }
+        LOGGER.debug("Starting {} worker daemon(s) ahead of time.", usages.size());
+        for (final WorkerDaemonUsageHistory.Usage usage : usages) {
+            prewarmExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release(reserveNewClient(usage.getServerImplementationClass(), usage.getWorkingDir(), usage.getForkOptions()));
+                    } catch (Exception e) {
+                        LOGGER.debug("Could not start worker daemon ahead of time.", e);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onOsMemoryStatus(OsMemoryStatus memoryStatus) {
+        long threshold = IdleProcessMemoryThreshold.get(memoryStatus);
+        long toRelease = threshold - memoryStatus.getFreePhysicalMemory();
+        if (toRelease <= 0) {
+            return;
+        }
+        List<WorkerDaemonClient> evicted = new ArrayList<WorkerDaemonClient>();
+        synchronized (lock) {
+            Iterator<WorkerDaemonClient> leastRecentlyUsed = idleClients.iterator();
+            while (toRelease > 0 && leastRecentlyUsed.hasNext()) {
+                WorkerDaemonClient idleClient = leastRecentlyUsed.next();
+                evicted.add(idleClient);
+                toRelease -= getEstimatedMemory(idleClient);
+            }
+            for (WorkerDaemonClient idleClient : evicted) {
+                removeIdleClient(idleClient);
+                allClients.remove(idleClient);
+            }
+        }
+        if (!evicted.isEmpty()) {
+            LOGGER.info("Stopping {} idle worker daemon(s) as free system memory ({}) fell below threshold of {}.", evicted.size(), NumberUtil.formatBytes(memoryStatus.getFreePhysicalMemory()), NumberUtil.formatBytes(threshold));
+            CompositeStoppable.stoppable(evicted).stop();
         }
     }
 
     public void stop() {
+        memoryManager.removeListener(this);
+        StoppableExecutor prewarmExecutor;
+        synchronized (lock) {
+            prewarmExecutor = this.prewarmExecutor;
+        }
+        if (prewarmExecutor != null) {
+            prewarmExecutor.stop();
+        }
         synchronized (lock) {
             LOGGER.debug("Stopping {} worker daemon(s).", allClients.size());
             CompositeStoppable.stoppable(allClients).stop();
             LOGGER.info("Stopped {} worker daemon(s).", allClients.size());
             allClients.clear();
+            idleClients.clear();
+            idleClientsByKey.clear();
+        }
+    }
+
+    /**
+     * Returns the idle daemons, least recently used first.
+     */
+    List<WorkerDaemonClient> getIdleClients() {
+        synchronized (lock) {
+            return Collections.unmodifiableList(new ArrayList<WorkerDaemonClient>(idleClients));
         }
     }
+
+    private void removeIdleClient(WorkerDaemonClient client) {
+        idleClients.remove(client);
+        Deque<WorkerDaemonClient> candidates = idleClientsByKey.get(client.getKey());
+        candidates.remove(client);
+        if (candidates.isEmpty()) {
+            idleClientsByKey.remove(client.getKey());
+        }
+    }
+
+    private static long getEstimatedMemory(WorkerDaemonClient client) {
+        int maxHeapSizeMb = client.getForkOptions().getMaxHeapSizeMb();
+        return maxHeapSizeMb > 0 ? maxHeapSizeMb * 1024L * 1024L : DEFAULT_DAEMON_MEMORY_BYTES;
+    }
 }
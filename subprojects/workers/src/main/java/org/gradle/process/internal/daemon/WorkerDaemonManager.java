@@ -16,6 +16,7 @@
 package org.gradle.process.internal.daemon;
 
 import net.jcip.annotations.ThreadSafe;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
 
 import java.io.File;
@@ -49,6 +50,13 @@ public class WorkerDaemonManager implements WorkerDaemonFactory, Stoppable {
         };
     }
 
+    /**
+     * Starts daemons for the configurations most recently used by earlier build sessions, in the background.
+     */
+    public void prewarm(ExecutorFactory executorFactory) {
+        clientsManager.prewarm(executorFactory);
+    }
+
     @Override
     public void stop() {
         clientsManager.stop();
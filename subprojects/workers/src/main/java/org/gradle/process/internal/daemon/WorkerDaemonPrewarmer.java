@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.daemon;
+
+import org.gradle.BuildAdapter;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.internal.concurrent.ExecutorFactory;
+
+/**
+ * Starts the most recently used worker daemons of the build session when a build starts, so that they are ready by the time tasks use them.
+ */
+public class WorkerDaemonPrewarmer extends BuildAdapter {
+    private final WorkerDaemonManager workerDaemonManager;
+    private final ExecutorFactory executorFactory;
+
+    public WorkerDaemonPrewarmer(WorkerDaemonManager workerDaemonManager, ExecutorFactory executorFactory) {
+        this.workerDaemonManager = workerDaemonManager;
+        this.executorFactory = executorFactory;
+    }
+
+    @Override
+    public void buildStarted(Gradle gradle) {
+        if (gradle.getParent() == null) {
+            workerDaemonManager.prewarm(executorFactory);
+        }
+    }
+}
@@ -23,8 +23,8 @@ import java.io.Serializable;
 
 public class WorkerDaemonRunnableExecutor extends AbstractWorkerDaemonExecutor<Runnable> {
 
-    WorkerDaemonRunnableExecutor(WorkerDaemonFactory workerDaemonFactory, FileResolver fileResolver, Class<? extends Runnable> implementationClass, Class<? extends WorkerDaemonProtocol> serverImplementationClass) {
-        super(workerDaemonFactory, fileResolver, implementationClass, serverImplementationClass);
+    WorkerDaemonRunnableExecutor(WorkerDaemonFactory workerDaemonFactory, WorkerDaemonWorkQueue workQueue, FileResolver fileResolver, Class<? extends Runnable> implementationClass, Class<? extends WorkerDaemonProtocol> serverImplementationClass) {
+        super(workerDaemonFactory, workQueue, fileResolver, implementationClass, serverImplementationClass);
     }
 
     @Override
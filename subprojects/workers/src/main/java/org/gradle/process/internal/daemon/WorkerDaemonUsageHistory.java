@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the configurations of the worker daemons most recently started by this process, so that they can be started ahead of time by later build sessions.
+ */
+@ThreadSafe
+public class WorkerDaemonUsageHistory {
+    private static final int MAX_ENTRIES = 8;
+
+    private final Map<Object, Usage> usages = new LinkedHashMap<Object, Usage>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Usage> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public synchronized void record(Class<? extends WorkerDaemonProtocol> serverImplementationClass, File workingDir, DaemonForkOptions forkOptions) {
+        usages.put(forkOptions.getKey(), new Usage(serverImplementationClass, workingDir, forkOptions));
+    }
+
+    /**
+     * Returns at most {@code max} daemon configurations, most recently used first.
+     */
+    public synchronized List<Usage> getMostRecentlyUsed(int max) {
+        List<Usage> result = new ArrayList<Usage>(usages.values());
+        Collections.reverse(result);
+        return result.subList(0, Math.min(max, result.size()));
+    }
+
+    public static class Usage {
+        private final Class<? extends WorkerDaemonProtocol> serverImplementationClass;
+        private final File workingDir;
+        private final DaemonForkOptions forkOptions;
+
+        Usage(Class<? extends WorkerDaemonProtocol> serverImplementationClass, File workingDir, DaemonForkOptions forkOptions) {
+            this.serverImplementationClass = serverImplementationClass;
+            this.workingDir = workingDir;
+            this.forkOptions = forkOptions;
+        }
+
+        public Class<? extends WorkerDaemonProtocol> getServerImplementationClass() {
+            return serverImplementationClass;
+        }
+
+        public File getWorkingDir() {
+            return workingDir;
+        }
+
+        public DaemonForkOptions getForkOptions() {
+            return forkOptions;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.operations.AsyncWorkCompletion;
+import org.gradle.internal.operations.AsyncWorkTracker;
+import org.gradle.internal.operations.BuildOperationWorkerRegistry;
+import org.gradle.process.daemon.WorkerDaemonExecutionException;
+import org.gradle.process.daemon.WorkerDaemonHandle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Executes worker daemon work asynchronously on behalf of the build operation that submitted it, and keeps track of the submitted work so that the
+ * build operation can wait for its completion.
+ *
+ * <p>Each work item runs with a worker lease taken from the submitting build operation, so the number of work items executing at the same time is bounded
+ * by the max worker count. The work is registered with the {@link AsyncWorkTracker}, so that it is waited for when the task action that submitted it completes,
+ * when it has not been waited for already.</p>
+ */
+@ThreadSafe
+public class WorkerDaemonWorkQueue implements Stoppable {
+    private final BuildOperationWorkerRegistry buildOperationWorkerRegistry;
+    private final AsyncWorkTracker asyncWorkTracker;
+    private final StoppableExecutor fixedSizePool;
+    private final ListeningExecutorService executor;
+    private final Object lock = new Object();
+    private final ListMultimap<BuildOperationWorkerRegistry.Operation, DefaultWorkerDaemonHandle> pendingWork = ArrayListMultimap.create();
+
+    public WorkerDaemonWorkQueue(BuildOperationWorkerRegistry buildOperationWorkerRegistry, AsyncWorkTracker asyncWorkTracker, ExecutorFactory executorFactory, int maxWorkerCount) {
+        this.buildOperationWorkerRegistry = buildOperationWorkerRegistry;
+        this.asyncWorkTracker = asyncWorkTracker;
+        this.fixedSizePool = executorFactory.create("Worker Daemon Execution", maxWorkerCount);
+        this.executor = MoreExecutors.listeningDecorator(fixedSizePool);
+    }
+
+    /**
+     * Submits the given work for execution on behalf of the current build operation.
+     */
+    public WorkerDaemonHandle submit(final Runnable work) {
+        final BuildOperationWorkerRegistry.Operation owner = buildOperationWorkerRegistry.getCurrent();
+        ListenableFuture<?> future = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                BuildOperationWorkerRegistry.Completion workerLease = owner.operationStart();
+                try {
+                    work.run();
+                } finally {
+                    workerLease.operationFinish();
+                }
+            }
+        });
+        DefaultWorkerDaemonHandle handle = new DefaultWorkerDaemonHandle(future);
+        synchronized (lock) {
+            if (!pendingWork.containsKey(owner)) {
+                asyncWorkTracker.registerWork(owner, new AsyncWorkCompletion() {
+                    @Override
+                    public void waitForCompletion() {
+                        await(owner);
+                    }
+                });
+            }
+            pendingWork.put(owner, handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Blocks until all work submitted on behalf of the current build operation has completed.
+     */
+    public void await() throws WorkerDaemonExecutionException {
+        await(buildOperationWorkerRegistry.getCurrent());
+    }
+
+    private void await(BuildOperationWorkerRegistry.Operation owner) throws WorkerDaemonExecutionException {
+        List<DefaultWorkerDaemonHandle> handles;
+        synchronized (lock) {
+            handles = pendingWork.removeAll(owner);
+        }
+
+        List<WorkerDaemonExecutionException> failures = new ArrayList<WorkerDaemonExecutionException>();
+        for (DefaultWorkerDaemonHandle handle : handles) {
+            try {
+                handle.await();
+            } catch (WorkerDaemonExecutionException e) {
+                failures.add(e);
+            }
+        }
+
+        if (failures.size() == 1) {
+            throw failures.get(0);
+        }
+        if (failures.size() > 1) {
+            throw new MultipleWorkerDaemonFailures(failures);
+        }
+    }
+
+    @Override
+    public void stop() {
+        fixedSizePool.stop();
+    }
+
+    private static class DefaultWorkerDaemonHandle implements WorkerDaemonHandle {
+        private final ListenableFuture<?> future;
+
+        DefaultWorkerDaemonHandle(ListenableFuture<?> future) {
+            this.future = future;
+        }
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public void await() throws WorkerDaemonExecutionException {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof WorkerDaemonExecutionException) {
+                    throw (WorkerDaemonExecutionException) cause;
+                }
+                throw new WorkerDaemonExecutionException("A failure occurred while executing work in a worker daemon", cause);
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import spock.lang.Specification
 @UsesNativeServices
 class AbstractWorkerDaemonExecutorTest extends Specification {
     def workerDaemonFactory = Mock(WorkerDaemonFactory)
+    def workQueue = Mock(WorkerDaemonWorkQueue)
     def fileResolver = Mock(FileResolver)
     def factory = Mock(Factory)
     def actionImpl = Mock(Serializable)
@@ -33,7 +34,7 @@ class AbstractWorkerDaemonExecutorTest extends Specification {
     def setup() {
         _ * fileResolver.resolveLater(_) >> factory
         _ * fileResolver.resolve(_) >> { files -> files[0] }
-        testExecutor = new TestExecutor(workerDaemonFactory, fileResolver, actionImpl.class, serverImpl.class)
+        testExecutor = new TestExecutor(workerDaemonFactory, workQueue, fileResolver, actionImpl.class, serverImpl.class)
     }
 
     def "can convert javaForkOptions to daemonForkOptions"() {
@@ -72,8 +73,8 @@ class AbstractWorkerDaemonExecutorTest extends Specification {
     }
 
     private static class TestExecutor extends AbstractWorkerDaemonExecutor<Serializable> {
-        TestExecutor(WorkerDaemonFactory workerDaemonFactory, FileResolver fileResolver, Class<? extends Serializable> implementationClass, Class<? extends WorkerDaemonProtocol> serverImplementationClass) {
-            super(workerDaemonFactory, fileResolver, implementationClass, serverImplementationClass)
+        TestExecutor(WorkerDaemonFactory workerDaemonFactory, WorkerDaemonWorkQueue workQueue, FileResolver fileResolver, Class<? extends Serializable> implementationClass, Class<? extends WorkerDaemonProtocol> serverImplementationClass) {
+            super(workerDaemonFactory, workQueue, fileResolver, implementationClass, serverImplementationClass)
         }
 
         @Override
@@ -16,13 +16,19 @@
 
 package org.gradle.process.internal.daemon
 
+import com.google.common.hash.HashCode
+import org.gradle.internal.serialize.HashCodeSerializer
+import org.gradle.internal.serialize.NullSafeStringSerializer
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers
 import spock.lang.Specification
 
 class DaemonForkOptionsMergeTest extends Specification {
     DaemonForkOptions options1 = new DaemonForkOptions("200m", "1g", [" -Dfork=true ", "-Xdebug=false"],
-            [new File("lib/lib1.jar"), new File("lib/lib2.jar")], ["foo.bar", "baz.bar"])
+            [new File("lib/lib1.jar"), new File("lib/lib2.jar")], ["foo.bar", "baz.bar"],
+            new RequestArgumentSerializers().register(String, NullSafeStringSerializer))
     DaemonForkOptions options2 = new DaemonForkOptions("1g", "2000m", ["-XX:MaxHeapSize=300m", "-Dfork=true"],
-            [new File("lib/lib2.jar"), new File("lib/lib3.jar")], ["baz.bar", "other"])
+            [new File("lib/lib2.jar"), new File("lib/lib3.jar")], ["baz.bar", "other"],
+            new RequestArgumentSerializers().register(HashCode, HashCodeSerializer))
     DaemonForkOptions merged = options1.mergeWith(options2)
 
     def "takes highest minHeapSize"() {
@@ -49,4 +55,9 @@ class DaemonForkOptionsMergeTest extends Specification {
         expect:
         merged.sharedPackages as List == ["foo.bar", "baz.bar", "other"]
     }
+
+    def "combines argument serializers"() {
+        expect:
+        merged.argumentSerializers == new RequestArgumentSerializers().register(String, NullSafeStringSerializer).register(HashCode, HashCodeSerializer)
+    }
 }
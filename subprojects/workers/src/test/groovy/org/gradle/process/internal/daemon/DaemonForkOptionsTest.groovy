@@ -16,6 +16,10 @@
 
 package org.gradle.process.internal.daemon
 
+import com.google.common.hash.HashCode
+import org.gradle.internal.serialize.HashCodeSerializer
+import org.gradle.internal.serialize.NullSafeStringSerializer
+import org.gradle.process.internal.worker.request.RequestArgumentSerializers
 import spock.lang.Specification
 
 class DaemonForkOptionsTest extends Specification {
@@ -131,6 +135,15 @@ class DaemonForkOptionsTest extends Specification {
         !settings1.isCompatibleWith(settings2)
     }
 
+    def "is compatible with subset of argument serializers"() {
+        def settings1 = new DaemonForkOptions(null, null, [], [], [], new RequestArgumentSerializers().register(String, NullSafeStringSerializer).register(HashCode, HashCodeSerializer))
+        def settings2 = new DaemonForkOptions(null, null, [], [], [], new RequestArgumentSerializers().register(String, NullSafeStringSerializer))
+
+        expect:
+        settings1.isCompatibleWith(settings2)
+        !settings2.isCompatibleWith(settings1)
+    }
+
     def "string values are trimmed"() {
         def settings1 = new DaemonForkOptions("128m ", "1g", [" -server", "-esa"])
         def settings2 = new DaemonForkOptions("128m", " 1g", ["-server", "-esa "])
@@ -173,4 +186,28 @@ class DaemonForkOptionsTest extends Specification {
         settings1.isCompatibleWith(settings2)
         !settings1.isCompatibleWith(settings3)
     }
+
+    def "equivalent fork options have the same key"() {
+        def settings1 = new DaemonForkOptions("1024m", "1g", [" -server", "-esa"], [new File("lib/lib1.jar")], ["foo.bar"])
+        def settings2 = new DaemonForkOptions("1g", "1024M", ["-server", "-esa", "-server"], [new File("lib/lib1.jar")], ["foo.bar"])
+
+        expect:
+        settings1.key == settings2.key
+    }
+
+    def "different fork options have different keys"() {
+        def settings1 = new DaemonForkOptions("128m", "1g", ["-server"], [new File("lib/lib1.jar")], ["foo.bar"])
+
+        expect:
+        settings1.key != settings2.key
+
+        where:
+        settings2 << [
+            new DaemonForkOptions("256m", "1g", ["-server"], [new File("lib/lib1.jar")], ["foo.bar"]),
+            new DaemonForkOptions("128m", "2g", ["-server"], [new File("lib/lib1.jar")], ["foo.bar"]),
+            new DaemonForkOptions("128m", "1g", ["-client"], [new File("lib/lib1.jar")], ["foo.bar"]),
+            new DaemonForkOptions("128m", "1g", ["-server"], [new File("lib/lib2.jar")], ["foo.bar"]),
+            new DaemonForkOptions("128m", "1g", ["-server"], [new File("lib/lib1.jar")], ["foo.baz"])
+        ]
+    }
 }
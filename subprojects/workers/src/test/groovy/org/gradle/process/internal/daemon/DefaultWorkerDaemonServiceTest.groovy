@@ -22,9 +22,10 @@ import spock.lang.Specification
 
 class DefaultWorkerDaemonServiceTest extends Specification {
     def workerDaemonFactory = Mock(WorkerDaemonFactory)
+    def workQueue = Mock(WorkerDaemonWorkQueue)
     def fileResolver = Mock(FileResolver)
     def runnable = Mock(Runnable)
-    def workerDaemonService = new DefaultWorkerDaemonService(workerDaemonFactory, fileResolver)
+    def workerDaemonService = new DefaultWorkerDaemonService(workerDaemonFactory, workQueue, fileResolver)
 
     def "returns a daemon runnable executor"() {
         when:
@@ -33,4 +34,12 @@ class DefaultWorkerDaemonServiceTest extends Specification {
         then:
         executor instanceof WorkerDaemonRunnableExecutor
     }
+
+    def "waits for submitted work using the work queue"() {
+        when:
+        workerDaemonService.await()
+
+        then:
+        1 * workQueue.await()
+    }
 }
@@ -16,6 +16,10 @@
 
 package org.gradle.process.internal.daemon
 
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.health.memory.OsMemoryStatus
 import org.gradle.util.ConcurrentSpecification
 import spock.lang.Subject
 
@@ -23,11 +27,14 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def workingDir = new File("some-dir")
 
-    def options = Stub(DaemonForkOptions)
+    def options = new DaemonForkOptions("128m", "256m", ["-foo"])
+    def otherOptions = new DaemonForkOptions("128m", "256m", ["-bar"])
     def starter = Stub(WorkerDaemonStarter)
     def serverImpl = Stub(WorkerDaemonProtocol)
+    def memoryManager = Mock(MemoryManager)
+    def usageHistory = new WorkerDaemonUsageHistory()
 
-    @Subject manager = new WorkerDaemonClientsManager(starter)
+    @Subject manager = new WorkerDaemonClientsManager(starter, memoryManager, usageHistory, 2)
 
     def "does not reserve idle client when no clients"() {
         expect:
@@ -35,22 +42,40 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     }
 
     def "does not reserve idle client when no matching client found"() {
-        def noMatch = Stub(WorkerDaemonClient) {
-            isCompatibleWith(_) >> false
-        }
+        def noMatch = client(otherOptions, false)
 
-        expect:
-        manager.reserveIdleClient(options, [noMatch]) == null
+        when:
+        manager.release(noMatch)
+
+        then:
+        manager.reserveIdleClient(options) == null
+        manager.idleClients == [noMatch]
     }
 
-    def "reserves idle client when match found"() {
-        def noMatch = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> false }
-        def match = Stub(WorkerDaemonClient) { isCompatibleWith(_) >> true }
-        def input = [noMatch, match]
+    def "reserves idle client with the same fork options without checking compatibility"() {
+        def noMatch = client(otherOptions, false)
+        def match = client(options, false)
 
-        expect:
-        manager.reserveIdleClient(options, input) == match
-        input == [noMatch] //match removed from input
+        when:
+        manager.release(noMatch)
+        manager.release(match)
+
+        then:
+        manager.reserveIdleClient(options) == match
+        manager.idleClients == [noMatch]
+    }
+
+    def "reserves compatible idle client"() {
+        def noMatch = client(otherOptions, false)
+        def match = client(new DaemonForkOptions("512m", "512m", ["-foo"]), true)
+
+        when:
+        manager.release(noMatch)
+        manager.release(match)
+
+        then:
+        manager.reserveIdleClient(options) == match
+        manager.idleClients == [noMatch]
     }
 
     def "reserves new client"() {
@@ -62,6 +87,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
         then:
         newClient == client
+        usageHistory.getMostRecentlyUsed(1)*.forkOptions == [options]
     }
 
     def "can stop all created clients"() {
@@ -77,10 +103,11 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         then:
         1 * client1.stop()
         1 * client2.stop()
+        1 * memoryManager.removeListener(manager)
     }
 
     def "clients can be released for further use"() {
-        def client = Mock(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def client = client(options, true)
         starter.startDaemon(serverImpl.class, workingDir, options) >> client
 
         when:
@@ -95,4 +122,108 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         then:
         manager.reserveIdleClient(options) == client
     }
+
+    def "stops least recently used idle clients when there are too many idle clients"() {
+        def client1 = client(options, true)
+        def client2 = client(otherOptions, true)
+        def client3 = client(options, true)
+
+        when:
+        manager.release(client1)
+        manager.release(client2)
+        manager.release(client3)
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+        0 * client3.stop()
+        manager.idleClients == [client2, client3]
+    }
+
+    def "stops least recently used idle clients until enough memory is released when free memory is low"() {
+        def gb = 1024L * 1024 * 1024
+        def client1 = client(new DaemonForkOptions(null, "256m", []), true)
+        def client2 = client(new DaemonForkOptions(null, "256m", []), true)
+        def memoryStatus = Stub(OsMemoryStatus) {
+            getTotalPhysicalMemory() >> 8 * gb
+            getFreePhysicalMemory() >> 700L * 1024 * 1024
+        }
+
+        when:
+        manager.release(client1)
+        manager.release(client2)
+        manager.onOsMemoryStatus(memoryStatus)
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+        manager.idleClients == [client2]
+    }
+
+    def "does not stop idle clients when there is enough free memory"() {
+        def gb = 1024L * 1024 * 1024
+        def client1 = client(options, true)
+        def memoryStatus = Stub(OsMemoryStatus) {
+            getTotalPhysicalMemory() >> 8 * gb
+            getFreePhysicalMemory() >> 2 * gb
+        }
+
+        when:
+        manager.release(client1)
+        manager.onOsMemoryStatus(memoryStatus)
+
+        then:
+        0 * client1.stop()
+        manager.idleClients == [client1]
+    }
+
+    def "prewarms daemons for the most recently used configurations"() {
+        def executorFactory = Mock(ExecutorFactory)
+        def executor = Mock(StoppableExecutor)
+        def prewarmed = client(options, true)
+        usageHistory.record(serverImpl.class, workingDir, options)
+        starter.startDaemon(serverImpl.class, workingDir, options) >> prewarmed
+
+        when:
+        manager.prewarm(executorFactory)
+
+        then:
+        1 * executorFactory.create(_) >> executor
+        1 * executor.execute(_) >> { Runnable action -> action.run() }
+
+        and:
+        manager.reserveIdleClient(options) == prewarmed
+    }
+
+    def "prewarms daemons only once"() {
+        def executorFactory = Mock(ExecutorFactory)
+        def executor = Mock(StoppableExecutor)
+        usageHistory.record(serverImpl.class, workingDir, options)
+
+        when:
+        manager.prewarm(executorFactory)
+        manager.prewarm(executorFactory)
+
+        then:
+        1 * executorFactory.create(_) >> executor
+        1 * executor.execute(_)
+    }
+
+    def "does not prewarm daemons when no daemons were used before"() {
+        def executorFactory = Mock(ExecutorFactory)
+
+        when:
+        manager.prewarm(executorFactory)
+
+        then:
+        0 * executorFactory._
+    }
+
+    def client(DaemonForkOptions forkOptions, boolean compatible) {
+        return Mock(WorkerDaemonClient) {
+            _ * getKey() >> forkOptions.key
+            _ * getForkOptions() >> forkOptions
+            _ * isCompatibleWith(_) >> compatible
+        }
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.daemon
+
+import org.gradle.api.internal.GradleInternal
+import org.gradle.internal.concurrent.ExecutorFactory
+import spock.lang.Specification
+
+class WorkerDaemonPrewarmerTest extends Specification {
+    def workerDaemonManager = Mock(WorkerDaemonManager)
+    def executorFactory = Stub(ExecutorFactory)
+    def prewarmer = new WorkerDaemonPrewarmer(workerDaemonManager, executorFactory)
+
+    def "prewarms worker daemons when the root build starts"() {
+        def root = Stub(GradleInternal) {
+            getParent() >> null
+        }
+
+        when:
+        prewarmer.buildStarted(root)
+
+        then:
+        1 * workerDaemonManager.prewarm(executorFactory)
+    }
+
+    def "does not prewarm worker daemons when a nested build starts"() {
+        def nested = Stub(GradleInternal) {
+            getParent() >> Stub(GradleInternal)
+        }
+
+        when:
+        prewarmer.buildStarted(nested)
+
+        then:
+        0 * workerDaemonManager._
+    }
+}
@@ -27,6 +27,7 @@ import java.util.concurrent.atomic.AtomicBoolean
 class WorkerDaemonRunnableExecutorTest extends Specification {
     def workerDaemonFactory = Mock(WorkerDaemonFactory)
     def workerDaemon = Mock(WorkerDaemon)
+    def workQueue = Mock(WorkerDaemonWorkQueue)
     def fileResolver = Mock(FileResolver)
     def factory = Mock(Factory)
     def serverImpl = Mock(WorkerDaemonProtocol)
@@ -35,7 +36,7 @@ class WorkerDaemonRunnableExecutorTest extends Specification {
     def setup() {
         _ * fileResolver.resolveLater(_) >> factory
         1 * factory.create()
-        workerDaemonRunnableExecutor = new WorkerDaemonRunnableExecutor(workerDaemonFactory, fileResolver, TestRunnable.class, serverImpl.class)
+        workerDaemonRunnableExecutor = new WorkerDaemonRunnableExecutor(workerDaemonFactory, workQueue, fileResolver, TestRunnable.class, serverImpl.class)
     }
 
     def "executor executes the given runnable in a daemon"() {
@@ -56,6 +57,33 @@ class WorkerDaemonRunnableExecutorTest extends Specification {
         executed.get()
     }
 
+    def "submitted runnable is executed by the work queue with the configuration at submission time"() {
+        given:
+        AtomicBoolean executed = new AtomicBoolean(false)
+        Runnable work = null
+
+        when:
+        workerDaemonRunnableExecutor.params(executed).submit()
+
+        then:
+        1 * workQueue.submit(_) >> { args -> work = args[0]; return null }
+        0 * workerDaemonFactory._
+
+        when:
+        workerDaemonRunnableExecutor.params(new AtomicBoolean(false))
+        work.run()
+
+        then:
+        1 * workerDaemonFactory.getDaemon(_, _, _) >> workerDaemon
+        1 * workerDaemon.execute(_, _) >> { action, spec ->
+            action.execute(spec)
+            return new WorkerDaemonResult(true, null)
+        }
+
+        and:
+        executed.get()
+    }
+
     public static class TestRunnable implements Runnable {
         private final AtomicBoolean executed
 
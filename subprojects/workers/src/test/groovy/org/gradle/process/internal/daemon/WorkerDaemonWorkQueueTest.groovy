@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.operations.BuildOperationWorkerRegistry
+import org.gradle.internal.operations.DefaultAsyncWorkTracker
+import org.gradle.internal.operations.DefaultBuildOperationWorkerRegistry
+import org.gradle.process.daemon.WorkerDaemonExecutionException
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class WorkerDaemonWorkQueueTest extends Specification {
+    def workerRegistry = new DefaultBuildOperationWorkerRegistry(4)
+    def executorFactory = new DefaultExecutorFactory()
+    def asyncWorkTracker = new DefaultAsyncWorkTracker(workerRegistry)
+    def workQueue = new WorkerDaemonWorkQueue(workerRegistry, asyncWorkTracker, executorFactory, 4)
+    BuildOperationWorkerRegistry.Completion completion
+
+    def setup() {
+        completion = workerRegistry.operationStart()
+    }
+
+    def cleanup() {
+        completion.operationFinish()
+        workQueue.stop()
+        executorFactory.stop()
+        workerRegistry.stop()
+    }
+
+    def "executes submitted work in parallel"() {
+        def started = new CountDownLatch(3)
+
+        when:
+        def handles = (1..3).collect {
+            workQueue.submit {
+                started.countDown()
+                assert started.await(10, TimeUnit.SECONDS)
+            }
+        }
+        workQueue.await()
+
+        then:
+        handles.every { it.done }
+    }
+
+    def "await waits for all submitted work"() {
+        def executed = new AtomicInteger()
+
+        when:
+        10.times {
+            workQueue.submit {
+                Thread.sleep(10)
+                executed.incrementAndGet()
+            }
+        }
+        workQueue.await()
+
+        then:
+        executed.get() == 10
+    }
+
+    def "handle rethrows failure of the work"() {
+        def failure = new WorkerDaemonExecutionException("broken")
+
+        when:
+        def handle = workQueue.submit { throw failure }
+        handle.await()
+
+        then:
+        def e = thrown(WorkerDaemonExecutionException)
+        e == failure
+    }
+
+    def "await reports all failures"() {
+        def failure1 = new WorkerDaemonExecutionException("broken 1")
+        def failure2 = new WorkerDaemonExecutionException("broken 2")
+
+        when:
+        workQueue.submit { throw failure1 }
+        workQueue.submit {}
+        workQueue.submit { throw failure2 }
+        workQueue.await()
+
+        then:
+        def e = thrown(MultipleWorkerDaemonFailures)
+        e.causes == [failure1, failure2]
+    }
+
+    def "work that has not been waited for is waited for by the async work tracker"() {
+        def executed = new AtomicInteger()
+        def failure = new WorkerDaemonExecutionException("broken")
+
+        when:
+        3.times {
+            workQueue.submit {
+                Thread.sleep(10)
+                executed.incrementAndGet()
+            }
+        }
+        workQueue.submit { throw failure }
+        asyncWorkTracker.waitForCompletion()
+
+        then:
+        def e = thrown(WorkerDaemonExecutionException)
+        e == failure
+        executed.get() == 3
+
+        when:
+        workQueue.await()
+        asyncWorkTracker.waitForCompletion()
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "await does not report failures twice"() {
+        when:
+        workQueue.submit { throw new WorkerDaemonExecutionException("broken") }
+        workQueue.await()
+
+        then:
+        thrown(WorkerDaemonExecutionException)
+
+        when:
+        workQueue.await()
+
+        then:
+        noExceptionThrown()
+    }
+}